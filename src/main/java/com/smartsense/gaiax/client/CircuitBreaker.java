@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+/**
+ * The type Circuit breaker. Opens after a number of consecutive failures, while open calls are rejected without
+ * calling the downstream. After the open duration one trial call is let through, it closes the circuit on success and
+ * opens it again on failure.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The enum State.
+     */
+    public enum State {
+        /**
+         * Calls are let through.
+         */
+        CLOSED,
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+        /**
+         * One trial call is let through.
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+
+    private int failures;
+
+    private long openUntil;
+
+    private boolean trialRunning;
+
+    /**
+     * Instantiates a new Circuit breaker.
+     *
+     * @param failureThreshold   the consecutive failures which open the circuit
+     * @param openDurationMillis the open duration in milliseconds
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Try to acquire permission for a call, every permitted call must be followed by on success or on failure.
+     *
+     * @return true if the call is permitted
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialRunning = true;
+                return true;
+            default:
+                if (trialRunning) {
+                    return false;
+                }
+                trialRunning = true;
+                return true;
+        }
+    }
+
+    /**
+     * On success.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialRunning = false;
+    }
+
+    /**
+     * On failure.
+     */
+    public synchronized void onFailure() {
+        trialRunning = false;
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openUntil = System.currentTimeMillis() + openDurationMillis;
+            failures = 0;
+        }
+    }
+
+    /**
+     * Gets state.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
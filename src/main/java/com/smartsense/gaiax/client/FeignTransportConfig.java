@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+import com.smartsense.gaiax.config.HttpClientSettings;
+import feign.Client;
+import feign.Request;
+import feign.Retryer;
+import feign.codec.ErrorDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Feign transport config. Used as configuration of every Feign client, each client gets its own context and
+ * so its own transport, bulkhead, circuit breaker and retryer configured by http-client.clients.{client name}. Not
+ * annotated with Configuration on purpose, it must not be picked up by the component scan.
+ */
+public class FeignTransportConfig {
+
+    private final HttpClientSettings.Downstream downstream;
+
+    private final String name;
+
+    /**
+     * Instantiates a new Feign transport config.
+     *
+     * @param httpClientSettings the http client settings
+     * @param name               the Feign client name
+     */
+    public FeignTransportConfig(HttpClientSettings httpClientSettings, @Value("${spring.cloud.openfeign.client.name}") String name) {
+        this.name = name;
+        this.downstream = httpClientSettings.getDownstream(name);
+    }
+
+    /**
+     * Feign client.
+     *
+     * @param meterRegistry the meter registry
+     * @return the client
+     */
+    @Bean
+    public Client feignClient(MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(downstream.getFailureThreshold(), TimeUnit.SECONDS.toMillis(downstream.getOpenDuration()));
+        return new ResilientFeignClient(name, new JdkHttpFeignClient(downstream.getConnectTimeout(), downstream.isHttp2()),
+                downstream.getMaxConcurrentCalls(), downstream.getBulkheadWait(), circuitBreaker, meterRegistry);
+    }
+
+    /**
+     * Feign options.
+     *
+     * @return the options
+     */
+    @Bean
+    public Request.Options feignOptions() {
+        return new Request.Options(downstream.getConnectTimeout(), TimeUnit.MILLISECONDS, downstream.getReadTimeout(), TimeUnit.MILLISECONDS, true);
+    }
+
+    /**
+     * Feign retryer.
+     *
+     * @return the retryer
+     */
+    @Bean
+    public Retryer feignRetryer() {
+        return new JitteredRetryer(downstream.getMaxAttempts(), downstream.getRetryBackoff(), downstream.getMaxRetryBackoff());
+    }
+
+    /**
+     * Feign error decoder, server errors of idempotent calls are retried.
+     *
+     * @return the error decoder
+     */
+    @Bean
+    public ErrorDecoder feignErrorDecoder() {
+        return new IdempotentRetryErrorDecoder();
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+
+/**
+ * The type Idempotent retry error decoder. Decodes error responses like the default decoder, a server error of an
+ * idempotent call is made retryable so the retryer tries it again. 501 is not retried, the answer will not change.
+ */
+public class IdempotentRetryErrorDecoder implements ErrorDecoder {
+
+    private final ErrorDecoder delegate = new ErrorDecoder.Default();
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        Exception exception = delegate.decode(methodKey, response);
+        Request request = response.request();
+        int status = response.status();
+        if (exception instanceof RetryableException || status < 500 || status == 501 || request == null || !JitteredRetryer.isIdempotent(request.httpMethod())) {
+            return exception;
+        }
+        return new RetryableException(status, exception.getMessage(), request.httpMethod(), exception, null, request);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The type Jdk http feign client. Feign transport on the JDK http client, which keeps a connection pool per client
+ * and negotiates HTTP/2, instead of Feign's default transport which opens an HttpURLConnection without timeouts.
+ */
+public class JdkHttpFeignClient implements Client {
+
+    //set by the JDK client itself, it rejects them in requests
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+
+    /**
+     * Instantiates a new Jdk http feign client.
+     *
+     * @param connectTimeout the connect timeout in milliseconds
+     * @param http2          true to negotiate HTTP/2
+     */
+    public JdkHttpFeignClient(long connectTimeout, boolean http2) {
+        httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+                .timeout(Duration.ofMillis(options.readTimeoutMillis()));
+        request.headers().forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        byte[] body = request.body();
+        builder.method(request.httpMethod().name(), body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + request.url());
+        }
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(response.headers().map());
+        return Response.builder()
+                .status(response.statusCode())
+                .headers(headers)
+                .body(response.body())
+                .request(request)
+                .build();
+    }
+}
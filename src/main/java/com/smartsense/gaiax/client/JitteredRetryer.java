@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The type Jittered retryer. Retries idempotent calls only, with exponential backoff and full jitter so clients which
+ * failed together do not retry together. Non idempotent calls (POST, PATCH) are never retried, the request could
+ * already have been processed. Io errors are retryable, server errors are made retryable by
+ * {@link IdempotentRetryErrorDecoder}. Once the attempts are used up the error response is thrown as it was decoded.
+ */
+public class JitteredRetryer implements Retryer {
+
+    private static final Set<Request.HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(Request.HttpMethod.GET, Request.HttpMethod.HEAD, Request.HttpMethod.OPTIONS, Request.HttpMethod.PUT, Request.HttpMethod.DELETE);
+
+    private final int maxAttempts;
+
+    private final long backoff;
+
+    private final long maxBackoff;
+
+    private int attempt = 1;
+
+    /**
+     * Instantiates a new Jittered retryer.
+     *
+     * @param maxAttempts the max attempts
+     * @param backoff     the base delay in milliseconds
+     * @param maxBackoff  the max delay in milliseconds
+     */
+    public JitteredRetryer(int maxAttempts, long backoff, long maxBackoff) {
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (attempt >= maxAttempts || !isIdempotent(e.method())) {
+            throw unwrap(e);
+        }
+        long cap = Math.min(maxBackoff, backoff << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (e.retryAfter() != null) {
+            //the server asked to wait, never wait longer than the max delay
+            delay = Math.max(delay, Math.min(maxBackoff, e.retryAfter().getTime() - System.currentTimeMillis()));
+        }
+        attempt++;
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Is idempotent boolean.
+     *
+     * @param method the http method
+     * @return true if the call can be sent again without changing the result
+     */
+    static boolean isIdempotent(Request.HttpMethod method) {
+        return method != null && IDEMPOTENT_METHODS.contains(method);
+    }
+
+    //callers see the same exception as without retries, e.g. FeignException.ServiceUnavailable
+    private static FeignException unwrap(RetryableException e) {
+        if (e.getCause() instanceof FeignException cause && !(cause instanceof RetryableException)) {
+            return cause;
+        }
+        return e;
+    }
+
+    @Override
+    public Retryer clone() {
+        return new JitteredRetryer(maxAttempts, backoff, maxBackoff);
+    }
+}
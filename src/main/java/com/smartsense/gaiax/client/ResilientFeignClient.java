@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+import com.smartsense.gaiax.exception.DownstreamUnavailableException;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Resilient feign client. Wraps the transport of one downstream with a bulkhead (bounded concurrent calls),
+ * a circuit breaker and metrics: a latency histogram per method and status, and an error counter per error type.
+ */
+public class ResilientFeignClient implements Client {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResilientFeignClient.class);
+
+    private static final String REQUESTS_METRIC = "gaiax.http.client.requests";
+
+    private static final String ERRORS_METRIC = "gaiax.http.client.errors";
+
+    private final String name;
+
+    private final Client delegate;
+
+    private final Semaphore bulkhead;
+
+    private final long bulkheadWait;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Instantiates a new Resilient feign client.
+     *
+     * @param name               the downstream name, used as metric tag
+     * @param delegate           the transport
+     * @param maxConcurrentCalls the max concurrent calls
+     * @param bulkheadWait       the time in milliseconds to wait for a free call slot
+     * @param circuitBreaker     the circuit breaker
+     * @param meterRegistry      the meter registry
+     */
+    public ResilientFeignClient(String name, Client delegate, int maxConcurrentCalls, long bulkheadWait, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.delegate = delegate;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWait = bulkheadWait;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gaiax.http.client.circuit.open", circuitBreaker, breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("gaiax.http.client.calls.available", bulkhead, Semaphore::availablePermits)
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!acquireBulkhead()) {
+            countError("bulkhead_full");
+            throw new DownstreamUnavailableException("Too many concurrent calls to " + name);
+        }
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                countError("circuit_open");
+                throw new DownstreamUnavailableException(name + " is not available, circuit is open");
+            }
+            return call(request, options);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private Response call(Request request, Request.Options options) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "UNKNOWN";
+        try {
+            Response response = delegate.execute(request, options);
+            status = String.valueOf(response.status());
+            if (response.status() >= 500) {
+                countError("server_error");
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return response;
+        } catch (HttpTimeoutException e) {
+            status = "TIMEOUT";
+            countError("timeout");
+            circuitBreaker.onFailure();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            status = "IO_ERROR";
+            countError("io_error");
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(REQUESTS_METRIC)
+                    .tag("client", name)
+                    .tag("method", request.httpMethod().name())
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void countError(String type) {
+        LOGGER.debug("Call to {} failed -> {}", name, type);
+        Counter.builder(ERRORS_METRIC)
+                .tag("client", name)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment();
+    }
+}
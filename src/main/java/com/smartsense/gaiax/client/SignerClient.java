@@ -18,7 +18,7 @@ import java.util.Map;
 /**
  * The interface Signer client.
  */
-@FeignClient(value = "Signerapi", url = "${signer.host}")
+@FeignClient(value = "signer", url = "${signer.host}", configuration = FeignTransportConfig.class)
 public interface SignerClient {
 
     /**
@@ -13,7 +13,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.Map;
 
-@FeignClient(value = "tinyurlapi", url = "${tinyurl.host}")
+@FeignClient(value = "tinyurl", url = "${tinyurl.host}", configuration = FeignTransportConfig.class)
 public interface TinyUrlClient {
 
     @PostMapping(path = "create", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -32,4 +32,6 @@ public class AWSSettings {
     private String baseDomain;
 
     private String bucketName;
+
+    private String region = "us-east-1";
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Async settings.
+ */
+@ConfigurationProperties(prefix = "async")
+@Configuration
+@Getter
+@Setter
+public class AsyncSettings {
+
+    /**
+     * Threads used for signer calls and uploads of API requests
+     */
+    private int threads = 16;
+
+    /**
+     * Calls waiting for a thread, new requests are refused with 503 while the queue is full
+     */
+    private int queueCapacity = 500;
+
+    /**
+     * A running operation without update for this many seconds is marked as failed
+     */
+    private long operationTimeout = 900;
+
+    /**
+     * Finished operations are deleted after this many hours
+     */
+    private long operationRetention = 24;
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Certificate settings.
+ */
+@ConfigurationProperties(prefix = "certificate")
+@Configuration
+@Getter
+@Setter
+public class CertificateSettings {
+
+    /**
+     * ACME server URI, use acme://letsencrypt.org/staging for tests
+     */
+    private String acmeServer = "acme://letsencrypt.org";
+
+    /**
+     * Use one wildcard certificate of the base domain for all enterprises instead of a certificate per enterprise
+     */
+    private boolean wildcard;
+
+    /**
+     * The wildcard certificate is renewed if it expires within this many days
+     */
+    private int wildcardRenewBefore = 30;
+
+    /**
+     * Interval of the wildcard certificate expiry check in milliseconds
+     */
+    private long wildcardCheckInterval = 21600000;
+
+    /**
+     * Threads used to talk to the ACME server, polls are scheduled so a thread is only used while a request runs
+     */
+    private int acmeThreads = 4;
+
+    /**
+     * Interval between two challenge status checks in seconds, used if the server sends no Retry-After
+     */
+    private long challengePollInterval = 10;
+
+    /**
+     * Maximum number of challenge status checks
+     */
+    private int challengeMaxAttempts = 18;
+
+    /**
+     * Interval between two order status checks in seconds, used if the server sends no Retry-After
+     */
+    private long orderPollInterval = 3;
+
+    /**
+     * Maximum number of order status checks
+     */
+    private int orderMaxAttempts = 40;
+}
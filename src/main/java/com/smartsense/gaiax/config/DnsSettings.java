@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Dns settings.
+ */
+@ConfigurationProperties(prefix = "dns")
+@Configuration
+@Getter
+@Setter
+public class DnsSettings {
+
+    /**
+     * Time in milliseconds record changes are collected before they are submitted as one change batch
+     */
+    private long batchWindow = 500;
+
+    /**
+     * Maximum number of changes in one change batch, Route53 allows 1000 records per batch
+     */
+    private int maxBatchSize = 200;
+
+    /**
+     * Interval between two change status checks in seconds
+     */
+    private long syncPollInterval = 10;
+
+    /**
+     * Maximum number of change status checks before waiters are released
+     */
+    private int syncMaxAttempts = 12;
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The type Http client settings.
+ */
+@ConfigurationProperties(prefix = "http-client")
+@Configuration
+@Getter
+@Setter
+public class HttpClientSettings {
+
+    /**
+     * Transport settings per Feign client name, clients without entry use the defaults
+     */
+    private Map<String, Downstream> clients = new HashMap<>();
+
+    /**
+     * Gets settings of a downstream.
+     *
+     * @param name the Feign client name
+     * @return the settings
+     */
+    public Downstream getDownstream(String name) {
+        return clients.getOrDefault(name, new Downstream());
+    }
+
+    /**
+     * The type Downstream, transport settings of one Feign client.
+     */
+    @Getter
+    @Setter
+    public static class Downstream {
+
+        /**
+         * Connect timeout in milliseconds
+         */
+        private long connectTimeout = 5000;
+
+        /**
+         * Timeout in milliseconds until the response headers are received
+         */
+        private long readTimeout = 30000;
+
+        /**
+         * Negotiate HTTP/2, falls back to HTTP/1.1 if the server does not support it
+         */
+        private boolean http2 = true;
+
+        /**
+         * Maximum number of calls running at the same time
+         */
+        private int maxConcurrentCalls = 20;
+
+        /**
+         * Time in milliseconds a call waits for a free slot before it is rejected
+         */
+        private long bulkheadWait = 500;
+
+        /**
+         * Maximum attempts of idempotent calls failing with an io error or a server error other than 501, 1 disables retries
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Base delay in milliseconds between two attempts, doubled per attempt and randomized
+         */
+        private long retryBackoff = 200;
+
+        /**
+         * Maximum delay in milliseconds between two attempts
+         */
+        private long maxRetryBackoff = 2000;
+
+        /**
+         * Consecutive failures (io errors and 5xx responses) which open the circuit
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * Seconds the circuit stays open before a trial call is let through
+         */
+        private long openDuration = 30;
+    }
+}
@@ -20,4 +20,18 @@ public class JWTSetting {
 
     private String tokenSigningKey;
 
+    /**
+     * Lifetime of issued tokens in seconds
+     */
+    private long tokenExpiry = 86400;
+
+    /**
+     * Maximum number of verified tokens kept in memory
+     */
+    private int cacheSize = 10000;
+
+    /**
+     * Interval in milliseconds to read tokens revoked on other pods
+     */
+    private long revocationPollInterval = 5000;
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import com.smartsense.gaiax.service.jsonld.JsonLdContexts;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Json ld settings.
+ */
+@ConfigurationProperties(prefix = "jsonld")
+@Configuration
+@Getter
+@Setter
+public class JsonLdSettings {
+
+    /**
+     * Directory where fetched context documents are stored, they are loaded from here on startup
+     */
+    private String cacheDir = "/var/lib/gaiax/jsonld";
+
+    /**
+     * Hours after which a context is fetched again in the background, the cached copy is served meanwhile
+     */
+    private long ttl = 168;
+
+    /**
+     * Never fetch contexts which are not bundled or cached on disk, loading them fails instead
+     */
+    private boolean offline;
+
+    /**
+     * Timeout in milliseconds of a context fetch
+     */
+    private long fetchTimeout = 10000;
+
+    /**
+     * Contexts loaded at startup
+     */
+    private List<String> preload = new ArrayList<>(List.of(JsonLdContexts.CREDENTIALS_V1, JsonLdContexts.JWS_2020_V1, JsonLdContexts.GAIA_X_TRUST_FRAMEWORK));
+
+    /**
+     * Contexts bundled with the deployment, context url to classpath resource
+     */
+    private Map<String, String> bundled = new HashMap<>();
+}
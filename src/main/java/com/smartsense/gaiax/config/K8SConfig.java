@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.apis.NetworkingV1Api;
+import io.kubernetes.client.util.Config;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type K 8 s config. One api client is shared by all Kubernetes calls, so the connection pool and TLS context
+ * are created once.
+ */
+@Configuration
+public class K8SConfig {
+
+    /**
+     * Api client.
+     *
+     * @param k8SSettings the k 8 s settings
+     * @return the api client
+     */
+    @Bean
+    public ApiClient k8sApiClient(K8SSettings k8SSettings) {
+        return Config.fromToken(k8SSettings.getBasePath(), k8SSettings.getToken(), false);
+    }
+
+    /**
+     * Core v 1 api.
+     *
+     * @param k8sApiClient the k 8 s api client
+     * @return the core v 1 api
+     */
+    @Bean
+    public CoreV1Api coreV1Api(ApiClient k8sApiClient) {
+        return new CoreV1Api(k8sApiClient);
+    }
+
+    /**
+     * Networking v 1 api.
+     *
+     * @param k8sApiClient the k 8 s api client
+     * @return the networking v 1 api
+     */
+    @Bean
+    public NetworkingV1Api networkingV1Api(ApiClient k8sApiClient) {
+        return new NetworkingV1Api(k8sApiClient);
+    }
+}
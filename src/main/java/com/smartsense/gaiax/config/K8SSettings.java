@@ -23,4 +23,34 @@ public class K8SSettings {
     private String token;
 
     private String serviceName;
+
+    /**
+     * Name of the TLS secret of the wildcard certificate, used by all ingresses in wildcard mode
+     */
+    private String wildcardSecretName = "wildcard-tls";
+
+    /**
+     * Pack enterprise hosts into shared ingress objects instead of one ingress per enterprise
+     */
+    private boolean ingressSharding;
+
+    /**
+     * Maximum number of enterprise hosts in one shared ingress
+     */
+    private int hostsPerIngress = 100;
+
+    /**
+     * Prefix of the shared ingress names, the shard number is appended
+     */
+    private String ingressShardPrefix = "gaiax-tenants-";
+
+    /**
+     * Interval in milliseconds of the reconcile cycle applying requested shard changes
+     */
+    private long reconcileInterval = 5000;
+
+    /**
+     * Interval in milliseconds of the full reconcile comparing all shards with the cluster
+     */
+    private long fullReconcileInterval = 300000;
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import com.smartsense.gaiax.dto.KeyType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The type Key pool settings.
+ */
+@ConfigurationProperties(prefix = "key-pool")
+@Configuration
+@Getter
+@Setter
+public class KeyPoolSettings {
+
+    /**
+     * Number of pre-generated key pairs per key type, a type with size 0 is generated on demand
+     */
+    private Map<KeyType, Integer> size = new EnumMap<>(Map.of(KeyType.RSA, 10));
+
+    /**
+     * Number of low priority threads refilling the pool
+     */
+    private int refillThreads = 1;
+}
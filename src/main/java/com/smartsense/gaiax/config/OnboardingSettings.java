@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Onboarding settings.
+ */
+@ConfigurationProperties(prefix = "onboarding")
+@Configuration
+@Getter
+@Setter
+public class OnboardingSettings {
+
+    /**
+     * Number of times a step is tried before it is marked as failed
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Delay before a failed step is retried in seconds, multiplied by the attempt number
+     */
+    private long retryDelay = 30;
+
+    /**
+     * A queued or running step without update for this many seconds is considered lost and started again
+     */
+    private long stuckTimeout = 1800;
+
+    /**
+     * Interval in milliseconds to refresh running steps of this node, must be well below the stuck timeout
+     */
+    private long heartbeatInterval = 60000;
+
+    /**
+     * Interval of the watchdog which dispatches ready steps and recovers lost steps in milliseconds
+     */
+    private long watchdogInterval = 60000;
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Pagination settings.
+ */
+@ConfigurationProperties(prefix = "pagination")
+@Configuration
+@Getter
+@Setter
+public class PaginationSettings {
+
+    /**
+     * Page size used if the request has no limit
+     */
+    private int defaultLimit = 50;
+
+    /**
+     * Maximum page size a request can ask for
+     */
+    private int maxLimit = 500;
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * The type Presentation settings.
+ */
+@ConfigurationProperties(prefix = "presentation")
+@Configuration
+@Getter
+@Setter
+public class PresentationSettings {
+
+    /**
+     * Delay in milliseconds before the second poll of a presentation in OCM, the first poll is done immediately
+     */
+    private long pollInterval = 1000;
+
+    /**
+     * Upper bound of the poll delay in milliseconds
+     */
+    private long maxPollInterval = 10000;
+
+    /**
+     * Factor the poll delay is multiplied with after every poll
+     */
+    private double backoffMultiplier = 1.5;
+
+    /**
+     * A presentation is no longer polled after this many seconds, waiters get the last known state
+     */
+    private long timeout = 300;
+
+    /**
+     * Seconds a finished verification is kept to answer later requests without calling OCM
+     */
+    private long resultRetention = 60;
+
+    /**
+     * Maximum number of presentations polled at the same time
+     */
+    private int maxSessions = 1000;
+
+    /**
+     * Maximum number of presentations one client (remote address) can start watching per client window
+     */
+    private int clientMaxWatches = 30;
+
+    /**
+     * Length of the client window in seconds
+     */
+    private long clientWindow = 60;
+
+    /**
+     * Maximum time in seconds a long poll request waits for the final state
+     */
+    private long longPollTimeout = 30;
+
+    /**
+     * Number of threads polling OCM
+     */
+    private int pollThreads = 2;
+
+    /**
+     * Proof states after which the presentation is no longer polled
+     */
+    private Set<String> terminalStates = Set.of("done", "abandoned", "declined");
+}
@@ -134,6 +134,36 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(CommonResponse.builder(map).message(msg).status(HttpStatus.BAD_REQUEST.value()).build());
     }
 
+    /**
+     * Handle downstream unavailable response entity.
+     *
+     * @param exception the exception
+     * @return ResponseEntity with error details
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler({DownstreamUnavailableException.class})
+    public ResponseEntity<CommonResponse<Map<String, Object>>> handleDownstreamUnavailable(Exception exception) {
+        log.warn("Downstream unavailable -> {}", exception.getMessage());
+        Map<String, Object> map = new HashMap<>();
+        map.put(ERROR, new ErrorResponse(exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(CommonResponse.builder(map).message(exception.getMessage()).status(HttpStatus.SERVICE_UNAVAILABLE.value()).build());
+    }
+
+    /**
+     * Handle too many requests response entity.
+     *
+     * @param exception the exception
+     * @return ResponseEntity with error details
+     */
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler({TooManyRequestsException.class})
+    public ResponseEntity<CommonResponse<Map<String, Object>>> handleTooManyRequests(Exception exception) {
+        log.warn("Too many requests -> {}", exception.getMessage());
+        Map<String, Object> map = new HashMap<>();
+        map.put(ERROR, new ErrorResponse(exception.getMessage(), HttpStatus.TOO_MANY_REQUESTS.value()));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(CommonResponse.builder(map).message(exception.getMessage()).status(HttpStatus.TOO_MANY_REQUESTS.value()).build());
+    }
+
     /**
      * Handle not found response entity.
      *
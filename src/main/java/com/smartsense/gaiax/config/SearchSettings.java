@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import com.smartsense.gaiax.dto.SearchEngine;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Search settings.
+ */
+@ConfigurationProperties(prefix = "search")
+@Configuration
+@Getter
+@Setter
+public class SearchSettings {
+
+    /**
+     * Engine of the catalogue search
+     */
+    private SearchEngine engine = SearchEngine.POSTGRES;
+
+    /**
+     * Interval in milliseconds to read the catalogue change feed, memory engine only
+     */
+    private long changePollInterval = 1000;
+
+    /**
+     * Changes are read again for this many seconds, covers late commits and clock differences between pods
+     */
+    private long changeOverlap = 10;
+
+    /**
+     * Catalogue changes are deleted after this many hours
+     */
+    private long changeRetention = 24;
+
+    /**
+     * Maximum edit distance of fuzzy matches, 0 disables fuzzy matching
+     */
+    private int fuzzyMaxEdits = 1;
+
+    /**
+     * Words shorter than this are only matched exactly or as prefix
+     */
+    private int fuzzyMinLength = 4;
+
+    /**
+     * The index is rebuilt once this share of its documents is replaced
+     */
+    private double maxDeletedRatio = 0.25;
+}
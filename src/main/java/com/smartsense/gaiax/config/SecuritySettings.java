@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import com.smartsense.gaiax.dto.AuthPolicy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The type Security settings.
+ */
+@ConfigurationProperties(prefix = "security")
+@Configuration
+@Getter
+@Setter
+public class SecuritySettings {
+
+    /**
+     * Auth policy per path pattern, added to the built-in public routes and overriding them for the same pattern.
+     * Patterns support literal segments, * or a path variable like {id} for one segment and a trailing ** for any number
+     * of segments
+     */
+    private Map<String, AuthPolicy> routes = new LinkedHashMap<>();
+
+    /**
+     * Policy of paths not matched by any route
+     */
+    private AuthPolicy defaultPolicy = AuthPolicy.AUTHENTICATED;
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Service offer import settings.
+ */
+@ConfigurationProperties(prefix = "service-offer-import")
+@Configuration
+@Getter
+@Setter
+public class ServiceOfferImportSettings {
+
+    /**
+     * Maximum number of service offerings in one import request
+     */
+    private int maxItems = 1000;
+
+    /**
+     * Number of service offerings signed at the same time for one import request
+     */
+    private int signConcurrency = 4;
+
+    /**
+     * Number of signed service offerings inserted in one JDBC batch
+     */
+    private int batchSize = 50;
+
+    /**
+     * Signed service offerings are inserted after this many milliseconds even if the batch is not full
+     */
+    private long flushInterval = 1000;
+
+    /**
+     * Milliseconds the result stream of an import stays open, an import which takes longer is still completed
+     */
+    private long timeout = 1800000;
+
+    /**
+     * Number of imports running at the same time, further imports are rejected with 503
+     */
+    private int maxRunning = 4;
+}
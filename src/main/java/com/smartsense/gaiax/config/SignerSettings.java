@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import com.smartsense.gaiax.dto.SignerEngine;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Signer settings.
+ */
+@ConfigurationProperties(prefix = "signer")
+@Configuration
+@Getter
+@Setter
+public class SignerSettings {
+
+    /**
+     * Host of the remote signer API
+     */
+    private String host;
+
+    /**
+     * Engine signing participant, service offering and label level VCs and VPs. The local engine does not request
+     * the Gaia-X compliance credential and is required if the object store is local or memory
+     */
+    private SignerEngine engine = SignerEngine.REMOTE;
+
+    /**
+     * Fragment of the verification method in the did document of the enterprise, used by the local engine
+     */
+    private String verificationMethodFragment = "JWK2020-RSA";
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Signing key cache settings.
+ */
+@ConfigurationProperties(prefix = "signing-key-cache")
+@Configuration
+@Getter
+@Setter
+public class SigningKeyCacheSettings {
+
+    /**
+     * Maximum number of enterprise signing keys kept in memory, 0 disables the cache
+     */
+    private int maxEntries = 1000;
+
+    /**
+     * Seconds a key stays cached after it is read from the object store
+     */
+    private long ttl = 3600;
+
+    /**
+     * Encrypt cached keys with a random key which only exists in this process
+     */
+    private boolean encrypt = true;
+
+    /**
+     * Interval in milliseconds to remove expired keys from memory
+     */
+    private long sweepInterval = 60000;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Storage settings.
+ */
+@ConfigurationProperties(prefix = "storage")
+@Configuration
+@Getter
+@Setter
+public class StorageSettings {
+
+    /**
+     * Object store backend, one of s3, local or memory
+     */
+    private String type = "s3";
+
+    /**
+     * Root directory of the local object store
+     */
+    private String localPath = "/var/lib/gaiax/objects";
+
+    /**
+     * Public base url of this application, used to build pre-signed urls of local and memory object store
+     */
+    private String publicUrl;
+
+    /**
+     * Key used to sign pre-signed urls of local and memory object store, required for these backends
+     */
+    private String signingKey;
+
+    /**
+     * Validity of pre-signed urls in seconds
+     */
+    private long preSignedUrlExpiry = 60;
+
+    /**
+     * Is served by application boolean.
+     *
+     * @return true if objects are downloaded through this application (local and memory object store)
+     */
+    public boolean isServedByApplication() {
+        return "local".equals(type) || "memory".equals(type);
+    }
+}
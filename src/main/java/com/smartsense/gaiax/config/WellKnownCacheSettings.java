@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Well known cache settings.
+ */
+@ConfigurationProperties(prefix = "well-known.cache")
+@Configuration
+@Getter
+@Setter
+public class WellKnownCacheSettings {
+
+    /**
+     * Total size of cached file content in bytes
+     */
+    private long maxSize = 64L * 1024 * 1024;
+
+    /**
+     * Files bigger than this are served from storage and never cached
+     */
+    private long maxEntrySize = 1024L * 1024;
+
+    /**
+     * Time to live of a cached file in seconds
+     */
+    private long ttl = 600;
+
+    /**
+     * Maximum number of host/legal name to enterprise id mappings kept in memory
+     */
+    private int maxEnterprises = 10000;
+}
@@ -5,36 +5,54 @@
 package com.smartsense.gaiax.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.smartsense.gaiax.config.PresentationSettings;
+import com.smartsense.gaiax.dao.entity.AsyncOperation;
 import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
+import com.smartsense.gaiax.dao.entity.OnboardingStep;
 import com.smartsense.gaiax.dao.entity.ServiceOffer;
 import com.smartsense.gaiax.dao.entity.ServiceOfferView;
 import com.smartsense.gaiax.dto.*;
 import com.smartsense.gaiax.exception.BadDataException;
 import com.smartsense.gaiax.exception.SecurityException;
+import com.smartsense.gaiax.security.TokenVerifier;
 import com.smartsense.gaiax.service.TinyUrlService;
 import com.smartsense.gaiax.service.credential.CredentialService;
-import com.smartsense.gaiax.service.domain.DomainService;
 import com.smartsense.gaiax.service.enterprise.EnterpriseService;
 import com.smartsense.gaiax.service.enterprise.RegistrationService;
-import com.smartsense.gaiax.service.k8s.K8SService;
-import com.smartsense.gaiax.service.signer.SignerService;
-import com.smartsense.gaiax.service.ssl.CertificateService;
+import com.smartsense.gaiax.service.enterprise.ServiceOfferImport;
+import com.smartsense.gaiax.service.enterprise.ServiceOfferImportService;
+import com.smartsense.gaiax.service.onboarding.OnboardingService;
+import com.smartsense.gaiax.service.operation.AsyncOperationService;
+import com.smartsense.gaiax.service.wellknown.WellKnownFile;
 import com.smartsense.gaiax.utils.Validate;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.apache.commons.lang3.StringUtils;
 import org.quartz.SchedulerException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The type Gaia x controller.
@@ -50,42 +68,45 @@ public class GaiaXController {
      */
     private final RegistrationService registrationService;
 
-    private final DomainService domainService;
-
-    private final CertificateService certificateService;
-
-    private final K8SService k8SService;
-
     private final EnterpriseService enterpriseService;
 
-    private final SignerService signerService;
+    private final OnboardingService onboardingService;
 
     private final CredentialService credentialService;
 
     private final TinyUrlService tinyUrlService;
 
+    private final AsyncOperationService asyncOperationService;
+
+    private final ServiceOfferImportService serviceOfferImportService;
+
+    private final TokenVerifier tokenVerifier;
+
+    private final PresentationSettings presentationSettings;
 
     /**
      * Instantiates a new Gaia x controller.
      *
-     * @param registrationService the registration service
-     * @param domainService       the domain service
-     * @param certificateService  the certificate service
-     * @param k8SService          the k 8 s service
-     * @param enterpriseService   the enterprise service
-     * @param signerService       the signer service
-     * @param credentialService   the credential service
+     * @param registrationService       the registration service
+     * @param enterpriseService         the enterprise service
+     * @param onboardingService         the onboarding service
+     * @param credentialService         the credential service
      * @param tinyUrlService
+     * @param asyncOperationService     the async operation service
+     * @param serviceOfferImportService the service offer import service
+     * @param tokenVerifier             the token verifier
+     * @param presentationSettings      the presentation settings
      */
-    public GaiaXController(RegistrationService registrationService, DomainService domainService, CertificateService certificateService, K8SService k8SService, EnterpriseService enterpriseService, SignerService signerService, CredentialService credentialService, TinyUrlService tinyUrlService) {
+    public GaiaXController(RegistrationService registrationService, EnterpriseService enterpriseService, OnboardingService onboardingService, CredentialService credentialService, TinyUrlService tinyUrlService, AsyncOperationService asyncOperationService, ServiceOfferImportService serviceOfferImportService, TokenVerifier tokenVerifier, PresentationSettings presentationSettings) {
         this.registrationService = registrationService;
-        this.domainService = domainService;
-        this.certificateService = certificateService;
-        this.k8SService = k8SService;
         this.enterpriseService = enterpriseService;
-        this.signerService = signerService;
+        this.onboardingService = onboardingService;
         this.credentialService = credentialService;
         this.tinyUrlService = tinyUrlService;
+        this.asyncOperationService = asyncOperationService;
+        this.serviceOfferImportService = serviceOfferImportService;
+        this.tokenVerifier = tokenVerifier;
+        this.presentationSettings = presentationSettings;
     }
 
     private void validateAccess(Set<Integer> requiredRoles, int userRole) {
@@ -107,41 +128,170 @@ public class GaiaXController {
         return CommonResponse.of(enterpriseService.login(registerRequest.getEmail(), registerRequest.getPassword()));
     }
 
+    /**
+     * Logout, the token of the request is revoked.
+     *
+     * @param authorization the authorization header
+     * @return the common response
+     */
+    @Tag(name = "Login")
+    @Operation(summary = "Logout, revokes the access token")
+    @PostMapping(path = "logout", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CommonResponse<Object> logout(@Parameter(hidden = true) @RequestHeader(name = HttpHeaders.AUTHORIZATION) String authorization) {
+        tokenVerifier.revoke(authorization);
+        return CommonResponse.of("Logged out");
+    }
+
 
     /**
      * Verify presentation common response.
      *
      * @param presentationId the presentation id
+     * @param request        the request
      * @return the common response
-     * @throws JsonProcessingException the json processing exception
      */
     @Tag(name = "Login")
     @Operation(summary = "Verify membership VP")
     @GetMapping(path = "verify/presentation", produces = MediaType.APPLICATION_JSON_VALUE)
-    public CommonResponse<LoginResponse> verifyPresentation(@RequestParam(name = "presentationId") String presentationId) throws JsonProcessingException {
-        return CommonResponse.of(enterpriseService.verifyPresentation(presentationId));
+    public CommonResponse<LoginResponse> verifyPresentation(@RequestParam(name = "presentationId") String presentationId, HttpServletRequest request) {
+        return CommonResponse.of(enterpriseService.verifyPresentation(presentationId, request.getRemoteAddr()));
+    }
+
+    /**
+     * Wait for the presentation, long poll variant of verify presentation.
+     *
+     * @param presentationId the presentation id
+     * @param timeout        the max wait time in seconds
+     * @param request        the request
+     * @return the deferred common response, with the current state if the presentation is not finished in time
+     */
+    @Tag(name = "Login")
+    @Operation(summary = "Verify membership VP, waits until the VP is shared or the timeout is reached")
+    @GetMapping(path = "verify/presentation/wait", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<CommonResponse<LoginResponse>> waitPresentation(@RequestParam(name = "presentationId") String presentationId,
+                                                                          @RequestParam(name = "timeout", required = false) Long timeout,
+                                                                          HttpServletRequest request) {
+        long maxWait = presentationSettings.getLongPollTimeout();
+        long wait = timeout == null ? maxWait : Math.max(1, Math.min(timeout, maxWait));
+        DeferredResult<CommonResponse<LoginResponse>> deferredResult = new DeferredResult<>(TimeUnit.SECONDS.toMillis(wait));
+        deferredResult.onTimeout(() -> deferredResult.setResult(CommonResponse.of(enterpriseService.currentPresentation(presentationId))));
+        enterpriseService.awaitPresentation(presentationId, request.getRemoteAddr()).whenComplete((loginResponse, e) -> {
+            if (e != null) {
+                deferredResult.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                deferredResult.setResult(CommonResponse.of(loginResponse));
+            }
+        });
+        return deferredResult;
+    }
+
+    /**
+     * Presentation events, server sent events variant of verify presentation. A state event is sent for every state
+     * change, the stream ends with a result or an error event.
+     *
+     * @param presentationId the presentation id
+     * @param request        the request
+     * @return the sse emitter
+     */
+    @Tag(name = "Login")
+    @Operation(summary = "Verify membership VP, streams state changes as server sent events")
+    @GetMapping(path = "verify/presentation/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter presentationEvents(@RequestParam(name = "presentationId") String presentationId, HttpServletRequest request) {
+        String client = request.getRemoteAddr();
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(presentationSettings.getTimeout()));
+        Runnable unsubscribe = enterpriseService.subscribePresentation(presentationId, client, loginResponse -> sendEvent(emitter, "state", loginResponse));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        enterpriseService.awaitPresentation(presentationId, client).whenComplete((loginResponse, e) -> {
+            unsubscribe.run();
+            try {
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    emitter.send(SseEmitter.event().name("error").data(Map.of("message", String.valueOf(cause.getMessage()))));
+                } else {
+                    emitter.send(SseEmitter.event().name("result").data(CommonResponse.of(loginResponse)));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException ioException) {
+                //client is gone
+                emitter.completeWithError(ioException);
+            }
+        });
+        return emitter;
+    }
+
+    private static void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            //the watcher removes the listener
+            throw new IllegalStateException("Can not send event", e);
+        }
     }
 
     /**
      * Gets enterprise files.
      *
-     * @param fileName the file name
-     * @param host     the host
-     * @return the enterprise files
+     * @param fileName   the file name
+     * @param host       the host
+     * @param webRequest the web request
+     * @return the enterprise files, or empty body with 304 if the client copy is still valid
      * @throws IOException the io exception
      */
     @Operation(summary = "Get .well-known files, this is public API")
     @GetMapping(path = ".well-known/{fileName}")
     @Tag(name = "Well-known")
-    public String getEnterpriseFiles(@PathVariable(name = "fileName") String fileName, @RequestHeader(name = HttpHeaders.HOST) String host) throws IOException {
-        return enterpriseService.getEnterpriseFiles(host, fileName);
+    public ResponseEntity<StreamingResponseBody> getEnterpriseFiles(@PathVariable(name = "fileName") String fileName, @RequestHeader(name = HttpHeaders.HOST) String host, WebRequest webRequest) throws IOException {
+        return toResponse(enterpriseService.getEnterpriseFiles(host, fileName), fileName, webRequest);
     }
 
+    /**
+     * Gets enterprise files.
+     *
+     * @param enterpriseName the enterprise name
+     * @param fileName       the file name
+     * @param host           the host
+     * @param webRequest     the web request
+     * @return the enterprise files, or empty body with 304 if the client copy is still valid
+     * @throws IOException the io exception
+     */
     @Operation(summary = "Get files with enterprise name, this is public API")
     @GetMapping(path = "{enterpriseName}/{fileName}")
     @Tag(name = "Well-known")
-    public String getEnterpriseFiles(@PathVariable(name = "enterpriseName") String enterpriseName, @PathVariable(name = "fileName") String fileName, @RequestHeader(name = HttpHeaders.HOST) String host) throws IOException {
-        return enterpriseService.getEnterpriseFiles(host, enterpriseName, fileName);
+    public ResponseEntity<StreamingResponseBody> getEnterpriseFiles(@PathVariable(name = "enterpriseName") String enterpriseName, @PathVariable(name = "fileName") String fileName, @RequestHeader(name = HttpHeaders.HOST) String host, WebRequest webRequest) throws IOException {
+        return toResponse(enterpriseService.getEnterpriseFiles(host, enterpriseName, fileName), fileName, webRequest);
+    }
+
+    /**
+     * To response entity, streams the file and answers conditional requests with 304.
+     *
+     * @param file       the file
+     * @param fileName   the file name, used to guess the content type
+     * @param webRequest the web request
+     * @return the response entity
+     * @throws IOException the io exception
+     */
+    static ResponseEntity<StreamingResponseBody> toResponse(WellKnownFile file, String fileName, WebRequest webRequest) throws IOException {
+        if (webRequest.checkNotModified(file.getETag(), file.getLastModified())) {
+            //304, headers are already set
+            file.close();
+            return null;
+        }
+        MediaType contentType = StringUtils.isBlank(file.getContentType()) || MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(file.getContentType())
+                ? MediaTypeFactory.getMediaType(fileName).orElse(MediaType.TEXT_PLAIN)
+                : MediaType.parseMediaType(file.getContentType());
+        //body is copied straight from the storage stream to the servlet output stream
+        return ResponseEntity.ok()
+                .eTag(file.getETag())
+                .lastModified(file.getLastModified())
+                .contentType(contentType)
+                .contentLength(file.getContentLength())
+                .body(outputStream -> {
+                    try (file) {
+                        file.writeTo(outputStream);
+                    }
+                });
     }
 
     /**
@@ -168,14 +318,20 @@ public class GaiaXController {
      * List enterprise common response.
      *
      * @param sessionDTO the session dto
+     * @param afterId    the id of the last enterprise of the previous page
+     * @param limit      the page size
+     * @param count      whether to return the total count
      * @return the common response
      */
     @Tag(name = "Enterprise")
-    @Operation(summary = "get all enterprises, pagination, search and sort will be added, role: Admin")
+    @Operation(summary = "get all enterprises newest first, keyset pagination with afterId and limit, role: Admin")
     @GetMapping(path = "enterprises/list", produces = MediaType.APPLICATION_JSON_VALUE)
-    public CommonResponse<List<Enterprise>> listEnterprise(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
+    public CommonResponse<KeysetPage<Enterprise>> listEnterprise(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO,
+                                                                 @RequestParam(name = "afterId", required = false) Long afterId,
+                                                                 @RequestParam(name = "limit", required = false) Integer limit,
+                                                                 @RequestParam(name = "count", required = false, defaultValue = "false") boolean count) {
         validateAccess(Set.of(StringPool.ADMIN_ROLE), sessionDTO.getRole());
-        return CommonResponse.of(enterpriseService.listEnterprise());
+        return CommonResponse.of(enterpriseService.listEnterprise(afterId, limit, count));
     }
 
     /**
@@ -222,7 +378,7 @@ public class GaiaXController {
     @GetMapping(path = "subdomain/{enterpriseId}")
     public CommonResponse<Map<String, String>> createSubDomain(@PathVariable(name = "enterpriseId") long enterpriseId, @Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
         validateAccess(Set.of(StringPool.ADMIN_ROLE), sessionDTO.getRole());
-        domainService.createSubDomain(enterpriseId);
+        onboardingService.restartFrom(enterpriseId, OnboardingStepType.SUB_DOMAIN);
         Map<String, String> map = new HashMap<>();
         map.put("message", "Subdomain creation started");
         return CommonResponse.of(map);
@@ -245,7 +401,7 @@ public class GaiaXController {
             throw new BadDataException("Status is not certification creation failed");
         }
         Enterprise enterprise = enterpriseService.changeStatus(enterpriseId, RegistrationStatus.CERTIFICATE_CREATION_IN_PROCESS.getStatus());
-        certificateService.createSSLCertificate(enterpriseId);
+        onboardingService.restartFrom(enterpriseId, OnboardingStepType.CERTIFICATE);
         return CommonResponse.of(enterprise);
     }
 
@@ -262,7 +418,7 @@ public class GaiaXController {
     @GetMapping(path = "ingress/{enterpriseId}")
     public CommonResponse<Map<String, String>> createIngress(@PathVariable(name = "enterpriseId") long enterpriseId, @Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
         validateAccess(Set.of(StringPool.ADMIN_ROLE), sessionDTO.getRole());
-        k8SService.createIngress(enterpriseId);
+        onboardingService.restartFrom(enterpriseId, OnboardingStepType.INGRESS);
         Map<String, String> map = new HashMap<>();
         map.put("message", "Ingress creation started");
         return CommonResponse.of(map);
@@ -280,7 +436,7 @@ public class GaiaXController {
     @GetMapping(path = "did/{enterpriseId}")
     public CommonResponse<Map<String, String>> createDid(@PathVariable(name = "enterpriseId") long enterpriseId, @Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
         validateAccess(Set.of(StringPool.ADMIN_ROLE), sessionDTO.getRole());
-        signerService.createDid(enterpriseId);
+        onboardingService.restartFrom(enterpriseId, OnboardingStepType.DID);
         Map<String, String> map = new HashMap<>();
         map.put("message", "did creation started");
         return CommonResponse.of(map);
@@ -298,12 +454,27 @@ public class GaiaXController {
     @GetMapping(path = "participant/{enterpriseId}")
     public CommonResponse<Map<String, String>> createParticipantJson(@PathVariable(name = "enterpriseId") long enterpriseId, @Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
         validateAccess(Set.of(StringPool.ADMIN_ROLE), sessionDTO.getRole());
-        signerService.createParticipantJson(enterpriseId);
+        onboardingService.restartFrom(enterpriseId, OnboardingStepType.PARTICIPANT);
         Map<String, String> map = new HashMap<>();
         map.put("message", "participant json creation started");
         return CommonResponse.of(map);
     }
 
+    /**
+     * Gets onboarding steps.
+     *
+     * @param enterpriseId the enterprise id
+     * @param sessionDTO   the session dto
+     * @return the onboarding steps
+     */
+    @Tag(name = "Onboarding")
+    @Operation(summary = "Get state and duration of every onboarding step of an enterprise, role Admin")
+    @GetMapping(path = "enterprises/{enterpriseId}/onboarding", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CommonResponse<List<OnboardingStep>> getOnboardingSteps(@PathVariable(name = "enterpriseId") long enterpriseId, @Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
+        validateAccess(Set.of(StringPool.ADMIN_ROLE), sessionDTO.getRole());
+        return CommonResponse.of(onboardingService.getSteps(enterpriseId));
+    }
+
     /**
      * Gets enterprise credentials.
      *
@@ -336,18 +507,86 @@ public class GaiaXController {
         return CommonResponse.of(enterpriseService.createServiceOffering(sessionDTO.getEnterpriseId(), request));
     }
 
+    /**
+     * Create service offering in the background, the operation can be polled with the returned id.
+     *
+     * @param sessionDTO the session dto
+     * @param request    the request
+     * @return 202 with the running operation
+     * @throws IOException the io exception
+     */
+    @Tag(name = "Catalogue")
+    @Operation(summary = "Create Service offering for enterprise in the background, role = enterprise")
+    @PostMapping(path = "enterprises/service-offers/async", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CommonResponse<AsyncOperation>> createServiceOfferingAsync(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO,
+                                                                                     @Valid @RequestBody CreateServiceOfferingRequest request
+    ) throws IOException {
+        validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
+        long enterpriseId = sessionDTO.getEnterpriseId();
+        //validation errors are returned directly, signing runs in the background
+        CompletableFuture<Long> serviceOfferId = enterpriseService.createServiceOfferingAsync(enterpriseId, request).thenApply(ServiceOffer::getId);
+        AsyncOperation operation = asyncOperationService.track(enterpriseId, StringPool.OPERATION_CREATE_SERVICE_OFFER, serviceOfferId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/enterprises/operations/" + operation.getId()))
+                .body(CommonResponse.of(operation));
+    }
+
+    /**
+     * Import service offerings, the body is a JSON array or NDJSON of service offerings. The result of every
+     * offering is streamed back as one NDJSON line as soon as it is known.
+     *
+     * @param sessionDTO the session dto
+     * @param request    the request
+     * @return the NDJSON stream of item results
+     * @throws IOException the io exception
+     */
+    @Tag(name = "Catalogue")
+    @Operation(summary = "Import many Service offerings for enterprise, role = enterprise")
+    @PostMapping(path = "enterprises/service-offers/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> importServiceOfferings(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO,
+                                                                        HttpServletRequest request) throws IOException {
+        validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
+        //whole request is validated before the response starts, so a bad request is still a 400
+        ServiceOfferImport serviceOfferImport = serviceOfferImportService.prepare(sessionDTO.getEnterpriseId(), request.getInputStream());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(serviceOfferImportService.start(serviceOfferImport));
+    }
+
+    /**
+     * Gets operation.
+     *
+     * @param sessionDTO  the session dto
+     * @param operationId the operation id
+     * @return the operation
+     */
+    @Tag(name = "Catalogue")
+    @Operation(summary = "Get status of a background operation, role = enterprise")
+    @GetMapping(path = "enterprises/operations/{operationId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CommonResponse<AsyncOperation> getOperation(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO,
+                                                       @PathVariable(name = "operationId") String operationId) {
+        validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
+        return CommonResponse.of(asyncOperationService.getOperation(sessionDTO.getEnterpriseId(), operationId));
+    }
+
     /**
      * Create service offering common response.
      *
      * @param sessionDTO the session dto
+     * @param afterId    the id of the last service offer of the previous page
+     * @param limit      the page size
+     * @param count      whether to return the total count
      * @return the common response
      */
     @Tag(name = "Catalogue")
-    @Operation(summary = "Get service offering of enterprise, role enterprise")
+    @Operation(summary = "Get service offering of enterprise, keyset pagination with afterId and limit, role enterprise")
     @GetMapping(path = "enterprises/service-offers", produces = MediaType.APPLICATION_JSON_VALUE)
-    public CommonResponse<List<ServiceOfferView>> serviceOfferList(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO) {
+    public CommonResponse<KeysetPage<ServiceOfferView>> serviceOfferList(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO,
+                                                                         @RequestParam(name = "afterId", required = false) Long afterId,
+                                                                         @RequestParam(name = "limit", required = false) Integer limit,
+                                                                         @RequestParam(name = "count", required = false, defaultValue = "false") boolean count) {
         validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
-        return CommonResponse.of(enterpriseService.serviceOfferList(sessionDTO.getEnterpriseId()));
+        return CommonResponse.of(enterpriseService.serviceOfferList(sessionDTO.getEnterpriseId(), afterId, limit, count));
     }
 
     /**
@@ -371,15 +610,56 @@ public class GaiaXController {
      *
      * @param sessionDTO the session dto
      * @param query      the query
+     * @param afterId    the id of the last service offer of the previous page
+     * @param limit      the page size
+     * @param count      whether to return the total count
      * @return the all service offers
      */
     @Tag(name = "Catalogue")
-    @Operation(summary = "List all service offering: Pagination, search and sort wil be added, role = enterprise")
+    @Operation(summary = "List all service offering, keyset pagination with afterId and limit, role = enterprise")
     @GetMapping(path = "catalogue", produces = MediaType.APPLICATION_JSON_VALUE)
-    public CommonResponse<List<ServiceOfferView>> getAllServiceOffers(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO
-            , @RequestParam(name = "query", required = false) String query) {
+    public CommonResponse<KeysetPage<ServiceOfferView>> getAllServiceOffers(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO
+            , @RequestParam(name = "query", required = false) String query
+            , @RequestParam(name = "afterId", required = false) Long afterId
+            , @RequestParam(name = "limit", required = false) Integer limit
+            , @RequestParam(name = "count", required = false, defaultValue = "false") boolean count) {
         validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
-        return CommonResponse.of(enterpriseService.allServiceOfferList(sessionDTO.getEnterpriseId(), query));
+        return CommonResponse.of(enterpriseService.allServiceOfferList(sessionDTO.getEnterpriseId(), query, afterId, limit, count));
+    }
+
+    /**
+     * Search service offers.
+     *
+     * @param sessionDTO  the session dto
+     * @param query       the query
+     * @param accessType  the access type
+     * @param requestType the request type
+     * @param formatType  the format type
+     * @param labelLevel  only offers with or without label level
+     * @param offset      the offset
+     * @param limit       the page size
+     * @return the search result
+     */
+    @Tag(name = "Catalogue")
+    @Operation(summary = "Full text search of service offering, ranked with highlights and facet counts, role = enterprise")
+    @GetMapping(path = "catalogue/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CommonResponse<ServiceOfferSearchResult> searchServiceOffers(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO
+            , @RequestParam(name = "query") String query
+            , @RequestParam(name = "accessType", required = false) String accessType
+            , @RequestParam(name = "requestType", required = false) String requestType
+            , @RequestParam(name = "formatType", required = false) String formatType
+            , @RequestParam(name = "labelLevel", required = false) Boolean labelLevel
+            , @RequestParam(name = "offset", required = false, defaultValue = "0") int offset
+            , @RequestParam(name = "limit", required = false) Integer limit) {
+        validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
+        ServiceOfferSearchFilter filter = ServiceOfferSearchFilter.builder()
+                .query(query)
+                .accessType(accessType)
+                .requestType(requestType)
+                .formatType(formatType)
+                .labelLevel(labelLevel)
+                .build();
+        return CommonResponse.of(enterpriseService.searchServiceOffers(sessionDTO.getEnterpriseId(), filter, offset, limit));
     }
 
 
@@ -405,17 +685,18 @@ public class GaiaXController {
      * @param sessionDTO     the session dto
      * @param offerId        the offer id
      * @param presentationId the presentation id
+     * @param request        the request
      * @return the common response
-     * @throws JsonProcessingException the json processing exception
      */
     @Tag(name = "Catalogue")
     @Operation(summary = "Get Service offer details. This API will consume credential presentation id of PCM and check with OCM API if credentials is shared , role = enterprise")
     @GetMapping(path = "enterprises/service-offers/{offerId}/details", produces = MediaType.APPLICATION_JSON_VALUE)
     public CommonResponse<ServiceOfferDetailsResponse> serviceOfferDetails(@Parameter(hidden = true) @RequestAttribute(value = StringPool.SESSION_DTO) SessionDTO sessionDTO,
                                                                            @PathVariable(name = "offerId") long offerId,
-                                                                           @RequestParam(name = "presentationId") String presentationId) throws JsonProcessingException {
+                                                                           @RequestParam(name = "presentationId") String presentationId,
+                                                                           HttpServletRequest request) {
         validateAccess(Set.of(StringPool.ENTERPRISE_ROLE), sessionDTO.getRole());
-        return CommonResponse.of(enterpriseService.serviceOfferDetails(sessionDTO.getEnterpriseId(), offerId, presentationId));
+        return CommonResponse.of(enterpriseService.serviceOfferDetails(sessionDTO.getEnterpriseId(), offerId, presentationId, request.getRemoteAddr()));
     }
 
     /**
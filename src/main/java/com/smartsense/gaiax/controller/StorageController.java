@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.controller;
+
+import com.smartsense.gaiax.exception.SecurityException;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import com.smartsense.gaiax.service.storage.ObjectUrlSigner;
+import com.smartsense.gaiax.service.wellknown.StreamedFile;
+import com.smartsense.gaiax.utils.Validate;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * The type Storage controller. Serves pre-signed urls of the local and memory object store, S3 serves its own urls so
+ * this controller is not registered for S3.
+ */
+@RestController
+@ConditionalOnExpression(ObjectUrlSigner.SERVED_BY_APPLICATION)
+public class StorageController {
+
+    private final ObjectStore objectStore;
+
+    private final ObjectUrlSigner objectUrlSigner;
+
+    /**
+     * Instantiates a new Storage controller.
+     *
+     * @param objectStore     the object store
+     * @param objectUrlSigner the object url signer
+     */
+    public StorageController(ObjectStore objectStore, ObjectUrlSigner objectUrlSigner) {
+        this.objectStore = objectStore;
+        this.objectUrlSigner = objectUrlSigner;
+    }
+
+    /**
+     * Gets object with a pre-signed url of the local or memory object store.
+     *
+     * @param key        the object key
+     * @param expires    the expiry time in epoch seconds
+     * @param signature  the signature
+     * @param webRequest the web request
+     * @return the object
+     * @throws IOException the io exception
+     */
+    @Operation(summary = "Download object with pre-signed url, this is public API")
+    @GetMapping(path = "storage/object")
+    @Tag(name = "Storage")
+    public ResponseEntity<StreamingResponseBody> getObject(@RequestParam(name = "key") String key, @RequestParam(name = "expires") long expires, @RequestParam(name = "signature") String signature, WebRequest webRequest) throws IOException {
+        Validate.isTrue(ObjectStore.isPrivateKey(key)).launch(new SecurityException("Private keys can not be downloaded"));
+        Validate.isFalse(objectUrlSigner.verify(key, expires, signature)).launch(new SecurityException("Invalid or expired url"));
+        return GaiaXController.toResponse(new StreamedFile(objectStore.get(key)), key, webRequest);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.entity;
+
+import com.smartsense.gaiax.dto.OperationStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The type Async operation. State of an API request which is processed in the background.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AsyncOperation extends SuperEntity {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long enterpriseId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationStatus status;
+
+    private Long resultId;
+
+    private String error;
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The type Catalogue change. Entry of the change feed which keeps the in-memory catalogue index of every pod up to
+ * date. Without service offer id all service offers of the enterprise are reindexed.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CatalogueChange extends SuperEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "serial")
+    private Long id;
+
+    @Column(nullable = false)
+    private Long enterpriseId;
+
+    private Long serviceOfferId;
+}
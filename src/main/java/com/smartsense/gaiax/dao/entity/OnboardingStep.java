@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.entity;
+
+import com.smartsense.gaiax.dto.OnboardingStepStatus;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * The type Onboarding step. State of one step of the onboarding workflow of an enterprise.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OnboardingStep extends SuperEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "serial")
+    private Long id;
+
+    @Column(nullable = false)
+    private Long enterpriseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OnboardingStepType step;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OnboardingStepStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date startedAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date completedAt;
+
+    private Long durationMs;
+
+    private String error;
+}
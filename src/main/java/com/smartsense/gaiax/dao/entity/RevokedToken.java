@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * The type Revoked token. A token which is not accepted anymore, kept until the token expires.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevokedToken extends SuperEntity {
+
+    /**
+     * The jti claim of the token
+     */
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Date expiresAt;
+}
@@ -5,22 +5,22 @@
 package com.smartsense.gaiax.dao.entity;
 
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
-import jakarta.persistence.Transient;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.Immutable;
-import org.hibernate.annotations.Subselect;
 
 import java.util.Map;
 
 /**
- * The type Service offer view.
+ * The type Service offer view. Row of the catalogue read table, the table is maintained by database triggers on
+ * service_offer and enterprise.
  */
 @Entity
-@Subselect(value = "select so.id,so.label_level , so.credential_id , so.subject_did , so .\"name\" ,so.label, so.produced_by , so.copyright_owned_by , so.description , so.terms, so.terms_hash , so.access_type , so.request_type , so.format_type  , e.id as enterprise_id, e.legal_name as enterprise_name, e.sub_domain_name  from service_offer so inner join enterprise e  on e.id = so.enterprise_id")
+@Table(name = "catalogue_service_offer")
 @Immutable
 @Getter
 @Setter
@@ -61,31 +61,10 @@ public class ServiceOfferView {
 
     private String labelLevel;
 
-    @Transient
     private String offerLink;
 
-    @Getter
-    @Transient
     private String labelLevelUrl;
 
-    @Transient
+    @Convert(converter = StringToMapConvertor.class)
     private Map<String, Object> meta;
-
-    /**
-     * Gets offer link.
-     *
-     * @return the offer link
-     */
-    public String getOfferLink() {
-        return "https://" + this.subDomainName + "/.well-known/" + name + ".json";
-    }
-
-    public String getLabelLevelUrl() {
-        if (StringUtils.isNoneBlank(labelLevel)) {
-            return "https://" + this.subDomainName + "/.well-known/" + labelLevel;
-        } else {
-            return null;
-        }
-    }
-
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.AsyncOperation;
+import com.smartsense.gaiax.dto.OperationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+/**
+ * The interface Async operation repository.
+ */
+@Repository
+public interface AsyncOperationRepository extends JpaRepository<AsyncOperation, String> {
+
+    /**
+     * Gets by id and enterprise id.
+     *
+     * @param id           the id
+     * @param enterpriseId the enterprise id
+     * @return the operation
+     */
+    AsyncOperation getByIdAndEnterpriseId(String id, long enterpriseId);
+
+    /**
+     * Complete an operation if it is still running, an operation which was already failed by the cleanup is kept.
+     *
+     * @param id        the id
+     * @param resultId  the id of the created entity
+     * @param now       the now
+     * @param running   the running status
+     * @param completed the completed status
+     * @return the number of updated operations
+     */
+    @Modifying
+    @Transactional
+    @Query("update AsyncOperation set status = :completed, resultId = :resultId, updatedAt = :now where id = :id and status = :running")
+    int complete(@Param("id") String id, @Param("resultId") Long resultId, @Param("now") Date now, @Param("running") OperationStatus running, @Param("completed") OperationStatus completed);
+
+    /**
+     * Fail an operation if it is still running.
+     *
+     * @param id      the id
+     * @param error   the error
+     * @param now     the now
+     * @param running the running status
+     * @param failed  the failed status
+     * @return the number of updated operations
+     */
+    @Modifying
+    @Transactional
+    @Query("update AsyncOperation set status = :failed, error = :error, updatedAt = :now where id = :id and status = :running")
+    int fail(@Param("id") String id, @Param("error") String error, @Param("now") Date now, @Param("running") OperationStatus running, @Param("failed") OperationStatus failed);
+
+    /**
+     * Fail operations which are running since before the given time, their node was stopped.
+     *
+     * @param before the time
+     * @param error  the error
+     * @param now    the now
+     * @return the number of failed operations
+     */
+    @Modifying
+    @Transactional
+    @Query("update AsyncOperation set status = :failed, error = :error, updatedAt = :now where status = :running and updatedAt < :before")
+    int failStale(@Param("before") Date before, @Param("error") String error, @Param("now") Date now, @Param("running") OperationStatus running, @Param("failed") OperationStatus failed);
+
+    /**
+     * Delete finished operations older than the given time.
+     *
+     * @param before  the time
+     * @param running the running status
+     * @return the number of deleted operations
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from AsyncOperation where status <> :running and updatedAt < :before")
+    int deleteFinished(@Param("before") Date before, @Param("running") OperationStatus running);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.CatalogueChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The interface Catalogue change repository.
+ */
+@Repository
+public interface CatalogueChangeRepository extends JpaRepository<CatalogueChange, Long> {
+
+    /**
+     * Gets changes created after the given time.
+     *
+     * @param since the since
+     * @return the changes
+     */
+    List<CatalogueChange> getByCreatedAtAfterOrderById(Date since);
+
+    /**
+     * Delete changes created before the given time.
+     *
+     * @param before the before
+     * @return the number of deleted changes
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from CatalogueChange where createdAt < :before")
+    int deleteOld(@Param("before") Date before);
+}
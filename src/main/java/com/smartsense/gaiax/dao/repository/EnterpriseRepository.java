@@ -5,9 +5,17 @@
 package com.smartsense.gaiax.dao.repository;
 
 import com.smartsense.gaiax.dao.entity.Enterprise;
+import com.smartsense.gaiax.dto.OnboardingStepStatus;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * The interface Enterprise repository.
  */
@@ -62,5 +70,37 @@ public interface EnterpriseRepository extends JpaRepository<Enterprise, Long> {
     Enterprise getByEmail(String email);
 
     Enterprise getByLegalName(String legalName);
-    
+
+    /**
+     * Gets enterprises in an id range which need an ingress. Enterprises onboarded by the workflow need an ingress
+     * once the ingress step is started, older enterprises are selected by status.
+     *
+     * @param fromId       the from id, inclusive
+     * @param toId         the to id, exclusive
+     * @param step         the ingress step
+     * @param stepStatuses the step statuses
+     * @param statuses     the enterprise statuses of enterprises without onboarding steps
+     * @return the enterprises
+     */
+    @Query("SELECT e FROM Enterprise e WHERE e.id >= :fromId AND e.id < :toId AND ("
+            + "EXISTS (SELECT s.id FROM OnboardingStep s WHERE s.enterpriseId = e.id AND s.step = :step AND s.status IN :stepStatuses) "
+            + "OR (e.status IN :statuses AND NOT EXISTS (SELECT s.id FROM OnboardingStep s WHERE s.enterpriseId = e.id AND s.step = :step)))")
+    List<Enterprise> getIngressEnterprises(@Param("fromId") long fromId, @Param("toId") long toId, @Param("step") OnboardingStepType step, @Param("stepStatuses") Collection<OnboardingStepStatus> stepStatuses, @Param("statuses") Collection<Integer> statuses);
+
+    /**
+     * Gets max id.
+     *
+     * @return the max id, null if there is no enterprise
+     */
+    @Query("SELECT MAX(e.id) FROM Enterprise e")
+    Long getMaxId();
+
+    /**
+     * Gets page of enterprises ordered by id descending, newest first.
+     *
+     * @param afterId  id of the last enterprise of the previous page
+     * @param pageable the pageable, only the size is used
+     * @return the enterprises
+     */
+    List<Enterprise> findByIdLessThanOrderByIdDesc(long afterId, Pageable pageable);
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.OnboardingStep;
+import com.smartsense.gaiax.dto.OnboardingStepStatus;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The interface Onboarding step repository.
+ */
+@Repository
+public interface OnboardingStepRepository extends JpaRepository<OnboardingStep, Long> {
+
+    /**
+     * Gets by enterprise id.
+     *
+     * @param enterpriseId the enterprise id
+     * @return the steps
+     */
+    List<OnboardingStep> getByEnterpriseIdOrderById(long enterpriseId);
+
+    /**
+     * Gets by enterprise id and step.
+     *
+     * @param enterpriseId the enterprise id
+     * @param step         the step
+     * @return the step
+     */
+    OnboardingStep getByEnterpriseIdAndStep(long enterpriseId, OnboardingStepType step);
+
+    /**
+     * Gets by status.
+     *
+     * @param status the status
+     * @return the steps
+     */
+    List<OnboardingStep> getByStatus(OnboardingStepStatus status);
+
+    /**
+     * Gets by status in and updated at before.
+     *
+     * @param statuses the statuses
+     * @param before   the before
+     * @return the steps
+     */
+    List<OnboardingStep> getByStatusInAndUpdatedAtBefore(Collection<OnboardingStepStatus> statuses, Date before);
+
+    /**
+     * Change status only if the step is still in the expected status, only one node of the cluster can win the update.
+     *
+     * @param id   the id
+     * @param from the expected status
+     * @param to   the new status
+     * @param now  the now
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update OnboardingStep set status = :to, updatedAt = :now where id = :id and status = :from")
+    int changeStatus(@Param("id") long id, @Param("from") OnboardingStepStatus from, @Param("to") OnboardingStepStatus to, @Param("now") Date now);
+
+    /**
+     * Start a run of a step, only if the step is still in the expected status. The start time identifies the run.
+     *
+     * @param id        the id
+     * @param from      the expected status
+     * @param attempts  the attempt number of the run
+     * @param startedAt the start time of the run
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update OnboardingStep set status = com.smartsense.gaiax.dto.OnboardingStepStatus.RUNNING, attempts = :attempts, startedAt = :startedAt, completedAt = null, durationMs = null, error = null, updatedAt = :startedAt where id = :id and status = :from")
+    int startRun(@Param("id") long id, @Param("from") OnboardingStepStatus from, @Param("attempts") int attempts, @Param("startedAt") Date startedAt);
+
+    /**
+     * Finish a run of a step, only if the step is still running the same run. A run which was recovered by the
+     * watchdog or restarted in the meantime can not overwrite the state of the newer run.
+     *
+     * @param id          the id
+     * @param startedAt   the start time of the run
+     * @param to          the new status
+     * @param completedAt the completed at, null if the step did not complete
+     * @param durationMs  the duration in milliseconds
+     * @param error       the error, null on success
+     * @param now         the now
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update OnboardingStep set status = :to, completedAt = :completedAt, durationMs = :durationMs, error = :error, updatedAt = :now where id = :id and status = com.smartsense.gaiax.dto.OnboardingStepStatus.RUNNING and startedAt = :startedAt")
+    int finishRun(@Param("id") long id, @Param("startedAt") Date startedAt, @Param("to") OnboardingStepStatus to, @Param("completedAt") Date completedAt, @Param("durationMs") Long durationMs, @Param("error") String error, @Param("now") Date now);
+
+    /**
+     * Heartbeat of a running step, keeps the watchdog from considering a slow but alive run as lost.
+     *
+     * @param id        the id
+     * @param startedAt the start time of the run
+     * @param now       the now
+     * @return number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("update OnboardingStep set updatedAt = :now where id = :id and status = com.smartsense.gaiax.dto.OnboardingStepStatus.RUNNING and startedAt = :startedAt")
+    int heartbeat(@Param("id") long id, @Param("startedAt") Date startedAt, @Param("now") Date now);
+}
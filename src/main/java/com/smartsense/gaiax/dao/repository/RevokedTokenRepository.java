@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The interface Revoked token repository.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Gets tokens revoked after the given time.
+     *
+     * @param since the since
+     * @return the revoked tokens
+     */
+    List<RevokedToken> getByCreatedAtAfter(Date since);
+
+    /**
+     * Gets tokens which are not expired yet.
+     *
+     * @param now the now
+     * @return the revoked tokens
+     */
+    List<RevokedToken> getByExpiresAtAfter(Date now);
+
+    /**
+     * Delete expired tokens, an expired token is rejected anyway.
+     *
+     * @param now the now
+     * @return the number of deleted tokens
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken where expiresAt < :now")
+    int deleteExpired(@Param("now") Date now);
+}
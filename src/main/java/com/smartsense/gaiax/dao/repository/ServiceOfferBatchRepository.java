@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
+import com.smartsense.gaiax.dao.entity.ServiceOffer;
+import com.smartsense.gaiax.dao.entity.StringToMapConvertor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The type Service offer batch repository. Inserts credentials and service offers with JDBC batches, Hibernate can not
+ * batch inserts of entities with identity ids. Ids are taken from the sequences of the tables in one query.
+ */
+@Repository
+public class ServiceOfferBatchRepository {
+
+    private static final String INSERT_CREDENTIAL = "INSERT INTO enterprise_credential (id, created_at, updated_at, enterprise_id, label, credentials) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SERVICE_OFFER = "INSERT INTO service_offer (id, created_at, updated_at, enterprise_id, credential_id, subject_did, name, label, produced_by, copyright_owned_by, description, policy, access_type, request_type, format_type, terms, terms_hash, label_level, meta) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final StringToMapConvertor mapConvertor = new StringToMapConvertor();
+
+    /**
+     * Instantiates a new Service offer batch repository.
+     *
+     * @param jdbcTemplate the jdbc template
+     */
+    public ServiceOfferBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Save credentials and their service offers in one transaction. The lists must have the same size, the service
+     * offer at an index references the credential at the same index. Ids and the credential id are set on the given
+     * entities.
+     *
+     * @param credentials   the credentials
+     * @param serviceOffers the service offers
+     */
+    @Transactional
+    public void saveAll(List<EnterpriseCredential> credentials, List<ServiceOffer> serviceOffers) {
+        if (credentials.size() != serviceOffers.size()) {
+            throw new IllegalArgumentException("Every service offer needs one credential");
+        }
+        if (credentials.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        Timestamp timestamp = new Timestamp(now.getTime());
+        List<Long> credentialIds = nextIds("enterprise_credential_id_seq", credentials.size());
+        List<Long> serviceOfferIds = nextIds("service_offer_id_seq", serviceOffers.size());
+
+        List<Object[]> credentialRows = new ArrayList<>(credentials.size());
+        List<Object[]> serviceOfferRows = new ArrayList<>(serviceOffers.size());
+        for (int i = 0; i < credentials.size(); i++) {
+            EnterpriseCredential credential = credentials.get(i);
+            credential.setId(credentialIds.get(i));
+            credential.setCreatedAt(now);
+            credential.setUpdatedAt(now);
+            credentialRows.add(new Object[]{credential.getId(), timestamp, timestamp, credential.getEnterpriseId(), credential.getLabel(), credential.getCredentials()});
+
+            ServiceOffer serviceOffer = serviceOffers.get(i);
+            serviceOffer.setId(serviceOfferIds.get(i));
+            serviceOffer.setCredentialId(credential.getId());
+            serviceOffer.setCreatedAt(now);
+            serviceOffer.setUpdatedAt(now);
+            serviceOfferRows.add(new Object[]{serviceOffer.getId(), timestamp, timestamp, serviceOffer.getEnterpriseId(), serviceOffer.getCredentialId(),
+                    serviceOffer.getSubjectDid(), serviceOffer.getName(), serviceOffer.getLabel(), serviceOffer.getProducedBy(), serviceOffer.getCopyrightOwnedBy(),
+                    serviceOffer.getDescription(), serviceOffer.getPolicy(), serviceOffer.getAccessType(), serviceOffer.getRequestType(), serviceOffer.getFormatType(),
+                    serviceOffer.getTerms(), serviceOffer.getTermsHash(), serviceOffer.getLabelLevel(), mapConvertor.convertToDatabaseColumn(serviceOffer.getMeta())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CREDENTIAL, credentialRows);
+        jdbcTemplate.batchUpdate(INSERT_SERVICE_OFFER, serviceOfferRows);
+    }
+
+    private List<Long> nextIds(String sequence, int count) {
+        return jdbcTemplate.queryForList("SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, count);
+    }
+}
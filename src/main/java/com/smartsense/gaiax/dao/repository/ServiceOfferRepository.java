@@ -6,8 +6,11 @@ package com.smartsense.gaiax.dao.repository;
 
 import com.smartsense.gaiax.dao.entity.ServiceOffer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -41,4 +44,14 @@ public interface ServiceOfferRepository extends JpaRepository<ServiceOffer, Long
      * @return the by enterprise id and name
      */
     ServiceOffer getByEnterpriseIdAndName(long enterpriseId, String name);
+
+    /**
+     * Gets names of service offers of an enterprise which are in the given names.
+     *
+     * @param enterpriseId the enterprise id
+     * @param names        the names
+     * @return the existing names
+     */
+    @Query("SELECT s.name FROM ServiceOffer s WHERE s.enterpriseId = :enterpriseId AND s.name IN :names")
+    List<String> getExistingNames(@Param("enterpriseId") long enterpriseId, @Param("names") Collection<String> names);
 }
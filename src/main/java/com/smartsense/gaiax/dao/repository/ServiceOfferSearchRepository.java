@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.ServiceOfferView;
+import com.smartsense.gaiax.dao.entity.StringToMapConvertor;
+import com.smartsense.gaiax.dto.ServiceOfferSearchFilter;
+import com.smartsense.gaiax.dto.ServiceOfferSearchHit;
+import com.smartsense.gaiax.dto.ServiceOfferSearchResult;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * The type Service offer search repository. Full text search over the search_vector column of the catalogue read
+ * table, a generated column of label, description and enterprise name with a GIN index.
+ */
+@Repository
+public class ServiceOfferSearchRepository {
+
+    private static final String VIEW_COLUMNS = "so.id, so.enterprise_id, so.enterprise_name, so.sub_domain_name, so.credential_id, so.subject_did, so.\"name\", so.label, so.produced_by, so.copyright_owned_by, so.description, so.access_type, so.request_type, so.format_type, so.terms, so.terms_hash, so.label_level, so.meta, so.offer_link, so.label_level_url";
+
+    private static final String TS_QUERY = "to_tsquery('simple', :tsQuery)";
+
+    private static final String MATCHES = "so.search_vector @@ " + TS_QUERY;
+
+    private static final String HIGHLIGHT_OPTIONS = "'StartSel=<mark>, StopSel=</mark>, HighlightAll=true'";
+
+    private static final String DESCRIPTION_HIGHLIGHT_OPTIONS = "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=30, MinWords=10'";
+
+    private static final StringToMapConvertor MAP_CONVERTOR = new StringToMapConvertor();
+
+    private static final RowMapper<ServiceOfferView> VIEW_ROW_MAPPER = (rs, rowNum) -> toServiceOfferView(rs);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Instantiates a new Service offer search repository.
+     *
+     * @param jdbcTemplate the jdbc template
+     */
+    public ServiceOfferSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Search service offers of all other enterprises, best match first. Highlights are only computed for the
+     * returned page.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @param offset       the offset
+     * @param limit        the limit
+     * @return the search hits
+     */
+    public List<ServiceOfferSearchHit> search(long enterpriseId, ServiceOfferSearchFilter filter, int offset, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("tsQuery", toTsQuery(filter.getQuery()))
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        String page = "SELECT so.id, ts_rank(so.search_vector, " + TS_QUERY + ") AS rank"
+                + " FROM catalogue_service_offer so"
+                + " WHERE " + where(enterpriseId, filter, parameters)
+                + " ORDER BY rank DESC, so.id DESC LIMIT :limit OFFSET :offset";
+        String sql = "SELECT " + VIEW_COLUMNS + ", page.rank"
+                + ", ts_headline('simple', coalesce(so.label, ''), " + TS_QUERY + ", " + HIGHLIGHT_OPTIONS + ") AS label_highlight"
+                + ", ts_headline('simple', coalesce(so.description, ''), " + TS_QUERY + ", " + DESCRIPTION_HIGHLIGHT_OPTIONS + ") AS description_highlight"
+                + " FROM (" + page + ") page INNER JOIN catalogue_service_offer so ON so.id = page.id"
+                + " ORDER BY page.rank DESC, so.id DESC";
+        return jdbcTemplate.query(sql, parameters, (rs, rowNum) -> new ServiceOfferSearchHit(toServiceOfferView(rs), rs.getDouble("rank"),
+                rs.getString("label_highlight"), rs.getString("description_highlight")));
+    }
+
+    /**
+     * Service offers of all other enterprises matching the filter, ordered by id for keyset pagination.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @param afterId      id of the last service offer of the previous page
+     * @param limit        the limit
+     * @return the service offers
+     */
+    public List<ServiceOfferView> match(long enterpriseId, ServiceOfferSearchFilter filter, long afterId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("tsQuery", toTsQuery(filter.getQuery()))
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        String sql = "SELECT " + VIEW_COLUMNS + " FROM catalogue_service_offer so"
+                + " WHERE so.id > :afterId AND " + where(enterpriseId, filter, parameters)
+                + " ORDER BY so.id LIMIT :limit";
+        return jdbcTemplate.query(sql, parameters, VIEW_ROW_MAPPER);
+    }
+
+    /**
+     * Count service offers of all other enterprises matching the filter.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @return the count
+     */
+    public long count(long enterpriseId, ServiceOfferSearchFilter filter) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("tsQuery", toTsQuery(filter.getQuery()));
+        String sql = "SELECT count(*) FROM catalogue_service_offer so WHERE " + where(enterpriseId, filter, parameters);
+        Long count = jdbcTemplate.queryForObject(sql, parameters, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Count service offers matching the filter per value of the access type, request type and format type.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @return the facets
+     */
+    public Map<String, Map<String, Long>> facets(long enterpriseId, ServiceOfferSearchFilter filter) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put(ServiceOfferSearchResult.FACET_ACCESS_TYPE, facet(enterpriseId, filter, "access_type"));
+        facets.put(ServiceOfferSearchResult.FACET_REQUEST_TYPE, facet(enterpriseId, filter, "request_type"));
+        facets.put(ServiceOfferSearchResult.FACET_FORMAT_TYPE, facet(enterpriseId, filter, "format_type"));
+        return facets;
+    }
+
+    private Map<String, Long> facet(long enterpriseId, ServiceOfferSearchFilter filter, String column) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("tsQuery", toTsQuery(filter.getQuery()));
+        String sql = "SELECT so." + column + " AS value, count(*) AS total FROM catalogue_service_offer so WHERE " + where(enterpriseId, filter, parameters)
+                + " AND so." + column + " IS NOT NULL GROUP BY so." + column;
+        Map<String, Long> facet = new TreeMap<>();
+        jdbcTemplate.query(sql, parameters, rs -> {
+            facet.put(rs.getString("value"), rs.getLong("total"));
+        });
+        return facet;
+    }
+
+    /**
+     * Convert user input to a tsquery where every word is matched as prefix, words are reduced to letters and digits
+     * so the input can never be tsquery syntax.
+     *
+     * @param query the query
+     * @return the tsquery, null if the query has no word
+     */
+    public static String toTsQuery(String query) {
+        if (StringUtils.isBlank(query)) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word + ":*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+
+    private static String where(long enterpriseId, ServiceOfferSearchFilter filter, MapSqlParameterSource parameters) {
+        parameters.addValue("enterpriseId", enterpriseId);
+        StringBuilder where = new StringBuilder("so.enterprise_id <> :enterpriseId AND ").append(MATCHES);
+        //only set filters are added, untyped null parameters are not accepted by postgres
+        if (filter.getAccessType() != null) {
+            where.append(" AND so.access_type = :accessType");
+            parameters.addValue("accessType", filter.getAccessType());
+        }
+        if (filter.getRequestType() != null) {
+            where.append(" AND so.request_type = :requestType");
+            parameters.addValue("requestType", filter.getRequestType());
+        }
+        if (filter.getFormatType() != null) {
+            where.append(" AND so.format_type = :formatType");
+            parameters.addValue("formatType", filter.getFormatType());
+        }
+        if (filter.getLabelLevel() != null) {
+            where.append(filter.getLabelLevel() ? " AND so.label_level IS NOT NULL" : " AND so.label_level IS NULL");
+        }
+        return where.toString();
+    }
+
+    private static ServiceOfferView toServiceOfferView(ResultSet rs) throws SQLException {
+        ServiceOfferView serviceOfferView = new ServiceOfferView();
+        serviceOfferView.setId(rs.getLong("id"));
+        serviceOfferView.setEnterpriseId(rs.getLong("enterprise_id"));
+        serviceOfferView.setEnterpriseName(rs.getString("enterprise_name"));
+        serviceOfferView.setSubDomainName(rs.getString("sub_domain_name"));
+        serviceOfferView.setCredentialId(rs.getLong("credential_id"));
+        serviceOfferView.setSubjectDid(rs.getString("subject_did"));
+        serviceOfferView.setName(rs.getString("name"));
+        serviceOfferView.setLabel(rs.getString("label"));
+        serviceOfferView.setProducedBy(rs.getString("produced_by"));
+        serviceOfferView.setCopyrightOwnedBy(rs.getString("copyright_owned_by"));
+        serviceOfferView.setDescription(rs.getString("description"));
+        serviceOfferView.setAccessType(rs.getString("access_type"));
+        serviceOfferView.setRequestType(rs.getString("request_type"));
+        serviceOfferView.setFormatType(rs.getString("format_type"));
+        serviceOfferView.setTerms(rs.getString("terms"));
+        serviceOfferView.setTermsHash(rs.getString("terms_hash"));
+        serviceOfferView.setLabelLevel(rs.getString("label_level"));
+        serviceOfferView.setMeta(MAP_CONVERTOR.convertToEntityAttribute(rs.getString("meta")));
+        serviceOfferView.setOfferLink(rs.getString("offer_link"));
+        serviceOfferView.setLabelLevelUrl(rs.getString("label_level_url"));
+        return serviceOfferView;
+    }
+}
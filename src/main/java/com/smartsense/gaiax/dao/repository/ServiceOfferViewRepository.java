@@ -5,6 +5,7 @@
 package com.smartsense.gaiax.dao.repository;
 
 import com.smartsense.gaiax.dao.entity.ServiceOfferView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,15 +18,45 @@ import java.util.List;
  */
 @Repository
 public interface ServiceOfferViewRepository extends JpaRepository<ServiceOfferView, Long> {
-    List<ServiceOfferView> getByEnterpriseId(long enterpriseId);
 
-    @Query("from ServiceOfferView where enterpriseId <> :enterpriseId")
-    List<ServiceOfferView> getAllServiceOffers(@Param("enterpriseId") long enterpriseId);
-
-
-    ///@Query("select u from User u where lower(u.name) like lower(concat('%', :nameToFind,'%'))")
-    @Query("from ServiceOfferView where enterpriseId <> :enterpriseId and (lower(label) like lower(concat('%', :query, '%')) or lower(description) like lower(concat('%', :query, '%')) or lower(enterpriseName) like lower(concat('%', :query, '%')))")
-    List<ServiceOfferView> getAllServiceOffers(@Param("enterpriseId") long enterpriseId, @Param("query") String query);
+    /**
+     * Gets page of service offers of an enterprise ordered by id.
+     *
+     * @param enterpriseId the enterprise id
+     * @param afterId      id of the last service offer of the previous page
+     * @param pageable     the pageable, only the size is used
+     * @return the service offers
+     */
+    @Query("from ServiceOfferView where enterpriseId = :enterpriseId and id > :afterId order by id")
+    List<ServiceOfferView> getByEnterpriseId(@Param("enterpriseId") long enterpriseId, @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Count service offers of an enterprise.
+     *
+     * @param enterpriseId the enterprise id
+     * @return the count
+     */
+    long countByEnterpriseId(long enterpriseId);
+
+    /**
+     * Gets page of service offers of all other enterprises ordered by id.
+     *
+     * @param enterpriseId the enterprise id
+     * @param afterId      id of the last service offer of the previous page
+     * @param pageable     the pageable, only the size is used
+     * @return the service offers
+     */
+    @Query("from ServiceOfferView where enterpriseId <> :enterpriseId and id > :afterId order by id")
+    List<ServiceOfferView> getAllServiceOffers(@Param("enterpriseId") long enterpriseId, @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Count service offers of all other enterprises.
+     *
+     * @param enterpriseId the enterprise id
+     * @return the count
+     */
+    @Query("select count(s) from ServiceOfferView s where s.enterpriseId <> :enterpriseId")
+    long countAllServiceOffers(@Param("enterpriseId") long enterpriseId);
 
     ServiceOfferView getByEnterpriseIdAndId(long enterpriseId, long id);
 }
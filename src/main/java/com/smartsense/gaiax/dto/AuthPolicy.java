@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+/**
+ * The enum Auth policy of a route in the security filter.
+ */
+public enum AuthPolicy {
+
+    /**
+     * No token is read, the route is served to everybody.
+     */
+    PUBLIC,
+
+    /**
+     * A token is verified if present, requests without token are served without session.
+     */
+    OPTIONAL,
+
+    /**
+     * A valid token is required.
+     */
+    AUTHENTICATED
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+/**
+ * The enum Key type. Key pair types kept ready in the key pair pool.
+ */
+public enum KeyType {
+
+    /**
+     * RSA 2048 key type, used for TLS certificates and signing keys.
+     */
+    RSA,
+
+    /**
+     * EC P-256 key type.
+     */
+    EC_P256,
+
+    /**
+     * Ed25519 key type.
+     */
+    ED25519
+}
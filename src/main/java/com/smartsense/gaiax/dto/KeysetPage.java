@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The type Keyset page. One page of a list ordered by id, the next page is requested with {@code afterId} set to
+ * {@link #getNextAfterId()}.
+ *
+ * @param <T> the type parameter
+ */
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+
+    /**
+     * Id of the last item of this page, null if this is the last page
+     */
+    private final Long nextAfterId;
+
+    /**
+     * Total number of items of all pages, only set if requested
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Long total;
+
+    private KeysetPage(List<T> content, Long nextAfterId, Long total) {
+        this.content = content;
+        this.nextAfterId = nextAfterId;
+        this.total = total;
+    }
+
+    /**
+     * Create page from items fetched with limit + 1, the extra item only tells that there is a next page.
+     *
+     * @param <T>     the type parameter
+     * @param fetched the fetched items, at most limit + 1
+     * @param limit   the limit
+     * @param id      the id getter
+     * @param total   the total or null
+     * @return the keyset page
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, int limit, Function<T, Long> id, Long total) {
+        if (fetched.size() <= limit) {
+            return new KeysetPage<>(fetched, null, total);
+        }
+        List<T> content = fetched.subList(0, limit);
+        return new KeysetPage<>(content, id.apply(content.get(limit - 1)), total);
+    }
+}
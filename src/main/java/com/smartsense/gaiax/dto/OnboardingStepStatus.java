@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+/**
+ * The enum Onboarding step status.
+ */
+public enum OnboardingStepStatus {
+
+    /**
+     * Waiting for dependencies or for a retry.
+     */
+    PENDING,
+
+    /**
+     * Job is created and waits for a worker.
+     */
+    QUEUED,
+
+    /**
+     * Running.
+     */
+    RUNNING,
+
+    /**
+     * Completed.
+     */
+    COMPLETED,
+
+    /**
+     * Failed, all attempts are used.
+     */
+    FAILED
+}
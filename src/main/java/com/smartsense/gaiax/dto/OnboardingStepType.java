@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+import java.util.List;
+
+/**
+ * The enum Onboarding step type. Steps of the onboarding workflow with the steps they depend on, a step is started as
+ * soon as all of its dependencies are completed.
+ */
+public enum OnboardingStepType {
+
+    /**
+     * Sub domain onboarding step type.
+     */
+    SUB_DOMAIN(StringPool.JOB_TYPE_CREATE_SUB_DOMAIN),
+
+    /**
+     * Certificate onboarding step type.
+     */
+    CERTIFICATE(StringPool.JOB_TYPE_CREATE_CERTIFICATE, SUB_DOMAIN),
+
+    /**
+     * Ingress onboarding step type.
+     */
+    INGRESS(StringPool.JOB_TYPE_CREATE_INGRESS, CERTIFICATE),
+
+    /**
+     * Did onboarding step type.
+     */
+    DID(StringPool.JOB_TYPE_CREATE_DID, CERTIFICATE),
+
+    /**
+     * Participant onboarding step type, did.json must be reachable over https so ingress is needed as well.
+     */
+    PARTICIPANT(StringPool.JOB_TYPE_CREATE_PARTICIPANT, DID, INGRESS);
+
+    private final String jobType;
+
+    private final List<OnboardingStepType> dependencies;
+
+    OnboardingStepType(String jobType, OnboardingStepType... dependencies) {
+        this.jobType = jobType;
+        this.dependencies = List.of(dependencies);
+    }
+
+    /**
+     * Gets job type.
+     *
+     * @return the job type
+     */
+    public String getJobType() {
+        return jobType;
+    }
+
+    /**
+     * Gets dependencies.
+     *
+     * @return the dependencies
+     */
+    public List<OnboardingStepType> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Is downstream of boolean.
+     *
+     * @param step the step
+     * @return true if this step depends on the given step, directly or transitively
+     */
+    public boolean isDownstreamOf(OnboardingStepType step) {
+        for (OnboardingStepType dependency : dependencies) {
+            if (dependency == step || dependency.isDownstreamOf(step)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find by job type.
+     *
+     * @param jobType the job type
+     * @return the onboarding step type, null if job type is not an onboarding step
+     */
+    public static OnboardingStepType fromJobType(String jobType) {
+        for (OnboardingStepType type : values()) {
+            if (type.jobType.equals(jobType)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
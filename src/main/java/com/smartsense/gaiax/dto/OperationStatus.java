@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+/**
+ * The enum Operation status, status of an asynchronous API operation.
+ */
+public enum OperationStatus {
+
+    /**
+     * Running.
+     */
+    RUNNING,
+
+    /**
+     * Completed, the result id is set.
+     */
+    COMPLETED,
+
+    /**
+     * Failed, the error is set.
+     */
+    FAILED
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+/**
+ * The enum Search engine used for the catalogue search.
+ */
+public enum SearchEngine {
+
+    /**
+     * Full text search in postgres with the tsvector columns.
+     */
+    POSTGRES,
+
+    /**
+     * In-process inverted index, kept up to date through the catalogue change feed.
+     */
+    MEMORY
+}
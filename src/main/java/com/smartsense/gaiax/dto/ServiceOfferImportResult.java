@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The type Service offer import result, result of one item of a service offering import. Written as one NDJSON line.
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ServiceOfferImportResult {
+
+    /**
+     * Position of the item in the request, starting with 0
+     */
+    private int index;
+
+    private String name;
+
+    private OperationStatus status;
+
+    private Long serviceOfferId;
+
+    private String error;
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The type Service offer search filter, null values are not filtered.
+ */
+@Getter
+@Builder
+public class ServiceOfferSearchFilter {
+
+    /**
+     * Words to search in label, description and enterprise name, every word is matched as prefix
+     */
+    private String query;
+
+    private String accessType;
+
+    private String requestType;
+
+    private String formatType;
+
+    /**
+     * Only offers with (true) or without (false) a label level credential
+     */
+    private Boolean labelLevel;
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+import com.smartsense.gaiax.dao.entity.ServiceOfferView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The type Service offer search hit. Matched words in the highlights are wrapped in {@code <mark>} tags, the rest of
+ * the text is not escaped.
+ */
+@Getter
+@AllArgsConstructor
+public class ServiceOfferSearchHit {
+
+    private ServiceOfferView serviceOffer;
+
+    private double rank;
+
+    private String labelHighlight;
+
+    private String descriptionHighlight;
+}
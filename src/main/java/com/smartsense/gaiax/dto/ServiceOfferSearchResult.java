@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Service offer search result, one page of hits with the facet counts of all matches.
+ */
+@Getter
+@AllArgsConstructor
+public class ServiceOfferSearchResult {
+
+    /**
+     * Facet of the access type.
+     */
+    public static final String FACET_ACCESS_TYPE = "accessType";
+
+    /**
+     * Facet of the request type.
+     */
+    public static final String FACET_REQUEST_TYPE = "requestType";
+
+    /**
+     * Facet of the format type.
+     */
+    public static final String FACET_FORMAT_TYPE = "formatType";
+
+    private List<ServiceOfferSearchHit> hits;
+
+    /**
+     * Facet name to value to number of matching service offers
+     */
+    private Map<String, Map<String, Long>> facets;
+}
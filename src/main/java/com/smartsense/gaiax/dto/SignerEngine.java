@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dto;
+
+/**
+ * The enum Signer engine used to sign label level VCs and VPs.
+ */
+public enum SignerEngine {
+
+    /**
+     * Remote signer API, it downloads the private key of the enterprise with a pre-signed URL.
+     */
+    REMOTE,
+
+    /**
+     * In-process JsonWebSignature2020 proofs with the key of the enterprise read from the object store.
+     */
+    LOCAL
+}
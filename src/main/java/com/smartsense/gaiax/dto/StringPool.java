@@ -33,6 +33,16 @@ public interface StringPool {
      */
     String JOB_TYPE_CREATE_PARTICIPANT = "JOB_TYPE_CREATE_PARTICIPANT";
 
+    /**
+     * The constant JOB_TYPE_RENEW_WILDCARD_CERTIFICATE.
+     */
+    String JOB_TYPE_RENEW_WILDCARD_CERTIFICATE = "JOB_TYPE_RENEW_WILDCARD_CERTIFICATE";
+
+    /**
+     * The constant OPERATION_CREATE_SERVICE_OFFER.
+     */
+    String OPERATION_CREATE_SERVICE_OFFER = "CREATE_SERVICE_OFFER";
+
     /**
      * The constant ENTERPRISE_ID.
      */
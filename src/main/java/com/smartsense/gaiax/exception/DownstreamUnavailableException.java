@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.exception;
+
+/**
+ * The type Downstream unavailable exception. Thrown without calling a downstream service if its circuit is open or
+ * all its call slots are in use.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 3920572351960480113L;
+
+    /**
+     * Instantiates a new Downstream unavailable exception.
+     *
+     * @param message the message
+     */
+    public DownstreamUnavailableException(String message) {
+        super(message);
+    }
+}
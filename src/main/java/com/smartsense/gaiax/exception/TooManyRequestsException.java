@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.exception;
+
+/**
+ * The type Too many requests exception. The client sent more requests than it is allowed to, answered with 429.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = -2187263906215938473L;
+
+    /**
+     * Instantiates a new Too many requests exception.
+     *
+     * @param message the message
+     */
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
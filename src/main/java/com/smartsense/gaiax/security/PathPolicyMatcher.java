@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.security;
+
+import com.smartsense.gaiax.dto.AuthPolicy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The type Path policy matcher.
+ * <p>
+ * Route patterns are compiled once into a segment trie, a lookup walks the request path once instead of matching
+ * every pattern. Supported patterns are the subset of Ant patterns used for routes: literal segments, {@code *} or a
+ * path variable like {@code {id}} for exactly one segment and a trailing {@code **} for zero or more segments. A path
+ * matches a pattern exactly when AntPathMatcher would match it, including its handling of empty segments and trailing
+ * slashes. When several patterns match, the longest one wins and a literal segment wins over {@code *}.
+ */
+public class PathPolicyMatcher {
+
+    private static final String ANY_SEGMENT = "*";
+
+    private static final String ANY_PATH = "**";
+
+    private final Node root = new Node();
+
+    private final AuthPolicy defaultPolicy;
+
+    /**
+     * Instantiates a new Path policy matcher.
+     *
+     * @param routes        the auth policy per path pattern
+     * @param defaultPolicy the policy of paths not matched by any route
+     */
+    public PathPolicyMatcher(Map<String, AuthPolicy> routes, AuthPolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+        routes.forEach(this::add);
+    }
+
+    /**
+     * Match auth policy.
+     *
+     * @param path the request path
+     * @return the auth policy of the most specific matching route, or the default policy
+     */
+    public AuthPolicy match(String path) {
+        //same as AntPathMatcher, a path without leading slash does not match a pattern with one
+        if (!path.startsWith("/")) {
+            return defaultPolicy;
+        }
+        AuthPolicy policy = match(root, path, 0, path.endsWith("/"));
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    private AuthPolicy match(Node node, String path, int from, boolean trailingSlash) {
+        //empty segments are ignored, same as AntPathMatcher
+        int start = from;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start >= path.length()) {
+            //like AntPathMatcher, /a matches /a but not /a/, /a/ matches only /a/, /a/* matches /a/ and /a/** matches both
+            AuthPolicy policy = trailingSlash ? node.slashPolicy : node.policy;
+            if (policy == null && trailingSlash && node.anySegment != null) {
+                policy = node.anySegment.policy != null ? node.anySegment.policy : node.anySegment.slashPolicy;
+            }
+            return policy != null ? policy : node.tailPolicy;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        AuthPolicy policy = null;
+        if (node.children != null) {
+            Node child = node.children.get(path.substring(start, end));
+            if (child != null) {
+                policy = match(child, path, end, trailingSlash);
+            }
+        }
+        if (policy == null && node.anySegment != null) {
+            policy = match(node.anySegment, path, end, trailingSlash);
+        }
+        if (policy == null && node.variable != null) {
+            policy = match(node.variable, path, end, trailingSlash);
+        }
+        return policy != null ? policy : node.tailPolicy;
+    }
+
+    private void add(String pattern, AuthPolicy policy) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route pattern must start with / -> " + pattern);
+        }
+        String[] segments = pattern.substring(1).split("/");
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (ANY_PATH.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("** is only supported as last segment -> " + pattern);
+                }
+                node.tailPolicy = policy;
+                return;
+            }
+            if (ANY_SEGMENT.equals(segment)) {
+                if (node.anySegment == null) {
+                    node.anySegment = new Node();
+                }
+                node = node.anySegment;
+                continue;
+            }
+            if (isVariable(segment)) {
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+                continue;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0) {
+                throw new IllegalArgumentException("Wildcards inside a segment are not supported -> " + pattern);
+            }
+            if (node.children == null) {
+                node.children = new HashMap<>();
+            }
+            node = node.children.computeIfAbsent(segment, key -> new Node());
+        }
+        if (pattern.endsWith("/")) {
+            node.slashPolicy = policy;
+        } else {
+            node.policy = policy;
+        }
+    }
+
+    //a whole segment path variable without regular expression, {id} matches any one segment
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'
+                && segment.indexOf('{', 1) < 0 && segment.indexOf('}') == segment.length() - 1 && segment.indexOf(':') < 0;
+    }
+
+    private static class Node {
+
+        private Map<String, Node> children;
+
+        private Node anySegment;
+
+        private Node variable;
+
+        //policy of a path ending at this node
+        private AuthPolicy policy;
+
+        //policy of a path ending at this node with a trailing slash (pattern ending with /)
+        private AuthPolicy slashPolicy;
+
+        //policy of this node and every path below it (pattern ending with **)
+        private AuthPolicy tailPolicy;
+    }
+}
@@ -4,12 +4,16 @@
 
 package com.smartsense.gaiax.security;
 
+import com.smartsense.gaiax.config.SecuritySettings;
+import com.smartsense.gaiax.config.StorageSettings;
+import com.smartsense.gaiax.dto.AuthPolicy;
 import com.smartsense.gaiax.dto.SessionDTO;
 import com.smartsense.gaiax.dto.StringPool;
 import com.smartsense.gaiax.exception.SecurityException;
+import com.smartsense.gaiax.service.storage.ObjectUrlSigner;
 import com.smartsense.gaiax.utils.JWTUtil;
 import com.smartsense.gaiax.utils.Validate;
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -17,12 +21,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The type Security filter.
@@ -33,34 +35,44 @@ public class SecurityFilter implements Filter {
     private static final Logger LOGGER = LoggerFactory.getLogger(SecurityFilter.class);
 
     private final JWTUtil jwtUtil;
-    private final Set<String> publicUrls;
-    private final AntPathMatcher antPathMatcher;
+    private final TokenVerifier tokenVerifier;
+    private final PathPolicyMatcher pathPolicyMatcher;
 
 
     /**
      * Instantiates a new Security filter.
      *
-     * @param jwtUtil the jwt util
+     * @param jwtUtil          the jwt util
+     * @param tokenVerifier    the token verifier
+     * @param securitySettings the security settings
+     * @param storageSettings  the storage settings
      */
-    public SecurityFilter(JWTUtil jwtUtil) {
+    public SecurityFilter(JWTUtil jwtUtil, TokenVerifier tokenVerifier, SecuritySettings securitySettings, StorageSettings storageSettings) {
         this.jwtUtil = jwtUtil;
-        antPathMatcher = new AntPathMatcher();
-
-        //No authentication will be done, can be handle in better way
-        publicUrls = new TreeSet<>();
-        publicUrls.add("/login");
-        publicUrls.add("/.well-known/**");
-        publicUrls.add("/actuator/health");
-        publicUrls.add("/webjars/**");
-        publicUrls.add("/swagger-ui.html");
-        publicUrls.add("/swagger-ui/**");
-        publicUrls.add("/v3/api-docs/**");
-        publicUrls.add("/favicon.ico");
-        publicUrls.add("/swagger-resources/**");
-        publicUrls.add("/v2/api-docs");
-        publicUrls.add("/verify/presentation");
-        publicUrls.add("/tinyurl");
-        Collections.unmodifiableCollection(publicUrls);
+        this.tokenVerifier = tokenVerifier;
+
+        //No authentication will be done for these, configured routes are applied on top
+        Map<String, AuthPolicy> routes = new LinkedHashMap<>();
+        routes.put("/login", AuthPolicy.PUBLIC);
+        routes.put("/.well-known/**", AuthPolicy.PUBLIC);
+        routes.put("/actuator/health", AuthPolicy.PUBLIC);
+        routes.put("/webjars/**", AuthPolicy.PUBLIC);
+        routes.put("/swagger-ui.html", AuthPolicy.PUBLIC);
+        routes.put("/swagger-ui/**", AuthPolicy.PUBLIC);
+        routes.put("/v3/api-docs/**", AuthPolicy.PUBLIC);
+        routes.put("/favicon.ico", AuthPolicy.PUBLIC);
+        routes.put("/swagger-resources/**", AuthPolicy.PUBLIC);
+        routes.put("/v2/api-docs", AuthPolicy.PUBLIC);
+        routes.put("/verify/presentation", AuthPolicy.PUBLIC);
+        routes.put("/verify/presentation/wait", AuthPolicy.PUBLIC);
+        routes.put("/verify/presentation/events", AuthPolicy.PUBLIC);
+        routes.put("/tinyurl", AuthPolicy.PUBLIC);
+        if (storageSettings.isServedByApplication()) {
+            //pre-signed urls of local and memory object store, the url signature is checked by the controller
+            routes.put(ObjectUrlSigner.OBJECT_PATH, AuthPolicy.PUBLIC);
+        }
+        routes.putAll(securitySettings.getRoutes());
+        pathPolicyMatcher = new PathPolicyMatcher(routes, securitySettings.getDefaultPolicy());
     }
 
 
@@ -71,20 +83,20 @@ public class SecurityFilter implements Filter {
         try {
             String requestURI = httpServletRequest.getRequestURI();
             LOGGER.debug("RequestLogger, uri={}, Method={}, remoteIp={}, userAgent={}", httpServletRequest.getRequestURI(), httpServletRequest.getMethod(), httpServletRequest.getRemoteAddr(), httpServletRequest.getHeader(HttpHeaders.USER_AGENT));
-            if (isPublicPath(requestURI)) {
+            AuthPolicy authPolicy = pathPolicyMatcher.match(requestURI);
+            if (authPolicy == AuthPolicy.PUBLIC) {
                 chain.doFilter(request, response);
                 return;
             }
             String accessToken = httpServletRequest.getHeader(HttpHeaders.AUTHORIZATION);
+            if (accessToken == null && authPolicy == AuthPolicy.OPTIONAL) {
+                chain.doFilter(request, response);
+                return;
+            }
             Validate.isNull(accessToken).launch(new SecurityException("Can not find token"));
 
-            //get user info
-            Claims claims = jwtUtil.getAllClaimsFromToken(jwtUtil.extractToken(accessToken));
-            SessionDTO sessionDTO = SessionDTO.builder()
-                    .role(claims.get(StringPool.ROLE, Integer.class))
-                    .enterpriseId(claims.get(StringPool.ENTERPRISE_ID, Long.class))
-                    .email(claims.get(StringPool.EMAIL, String.class))
-                    .build();
+            //get user info, from cache if the token was verified before
+            SessionDTO sessionDTO = tokenVerifier.verify(jwtUtil.extractToken(accessToken));
 
             httpServletRequest.setAttribute(StringPool.SESSION_DTO, sessionDTO);
 
@@ -92,6 +104,9 @@ public class SecurityFilter implements Filter {
         } catch (SecurityException e) {
             LOGGER.debug("security exception ", e);
             httpServletResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        } catch (JwtException | IllegalArgumentException e) {
+            LOGGER.debug("invalid token -> {}", e.getMessage());
+            httpServletResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         }
     }
 
@@ -103,12 +118,6 @@ public class SecurityFilter implements Filter {
      * @return the boolean
      */
     public boolean isPublicPath(String requestURI) {
-        for (String path : publicUrls) {
-            if (antPathMatcher.match(path, requestURI)) {
-                LOGGER.debug("accessing public path - {}{", requestURI);
-                return true;
-            }
-        }
-        return false;
+        return pathPolicyMatcher.match(requestURI) == AuthPolicy.PUBLIC;
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.security;
+
+import com.smartsense.gaiax.config.JWTSetting;
+import com.smartsense.gaiax.dao.entity.RevokedToken;
+import com.smartsense.gaiax.dao.repository.RevokedTokenRepository;
+import com.smartsense.gaiax.dto.SessionDTO;
+import com.smartsense.gaiax.dto.StringPool;
+import com.smartsense.gaiax.exception.SecurityException;
+import com.smartsense.gaiax.utils.JWTUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type Token verifier. Verifies access tokens and keeps the session of verified tokens in a bounded LRU cache
+ * keyed by the SHA-256 of the token, so repeated requests with the same token skip parsing and signature check.
+ * <p>
+ * Revoked token ids are held in memory until the token expires. A revocation is effective at once on the pod which
+ * revoked the token and after the revocation poll interval on the other pods.
+ */
+@Component
+public class TokenVerifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenVerifier.class);
+
+    //revocations are read again for this long, covers late commits and clock differences between pods
+    private static final long REVOCATION_OVERLAP = 10000;
+
+    private final JWTUtil jwtUtil;
+
+    private final JWTSetting jwtSetting;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    //access ordered map to get LRU eviction, guarded by itself
+    private final LinkedHashMap<String, VerifiedToken> tokens;
+
+    //jti to expiry time in epoch millis
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    //revocations created after this time are read on the next poll, only used by the scheduler thread
+    private Date revocationsSince;
+
+    /**
+     * Instantiates a new Token verifier.
+     *
+     * @param jwtUtil                the jwt util
+     * @param jwtSetting             the jwt setting
+     * @param revokedTokenRepository the revoked token repository
+     * @param meterRegistry          the meter registry
+     */
+    public TokenVerifier(JWTUtil jwtUtil, JWTSetting jwtSetting, RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.jwtSetting = jwtSetting;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokens = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > jwtSetting.getCacheSize();
+            }
+        };
+        hitCounter = Counter.builder("gaiax.jwt.cache")
+                .tag("result", "hit")
+                .description("Requests authenticated from the verified token cache")
+                .register(meterRegistry);
+        missCounter = Counter.builder("gaiax.jwt.cache")
+                .tag("result", "miss")
+                .description("Requests which needed a full token verification")
+                .register(meterRegistry);
+        Gauge.builder("gaiax.jwt.cache.hit.ratio", this, TokenVerifier::hitRatio)
+                .description("Share of requests authenticated from the verified token cache")
+                .register(meterRegistry);
+        Gauge.builder("gaiax.jwt.cache.size", tokens, map -> {
+                    synchronized (map) {
+                        return map.size();
+                    }
+                })
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the revoked tokens which are not expired yet.
+     */
+    @PostConstruct
+    public void loadRevokedTokens() {
+        Date now = new Date();
+        revocationsSince = new Date(now.getTime() - REVOCATION_OVERLAP);
+        revokedTokenRepository.getByExpiresAtAfter(now).forEach(token -> revokedTokens.put(token.getId(), token.getExpiresAt().getTime()));
+        LOGGER.info("Loaded {} revoked tokens", revokedTokens.size());
+    }
+
+    /**
+     * Verify a token and get its session.
+     *
+     * @param token the token
+     * @return the session
+     */
+    public SessionDTO verify(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken verifiedToken;
+        synchronized (tokens) {
+            verifiedToken = tokens.get(key);
+        }
+        if (verifiedToken != null && verifiedToken.expiresAt > now) {
+            hitCounter.increment();
+            checkNotRevoked(verifiedToken);
+            return verifiedToken.session;
+        }
+        missCounter.increment();
+
+        //throws for bad signature and expired token
+        Claims claims = jwtUtil.getAllClaimsFromToken(token);
+        if (claims.getExpiration() == null || claims.getId() == null) {
+            throw new SecurityException("Token without expiry is not accepted");
+        }
+        SessionDTO session = SessionDTO.builder()
+                .role(claims.get(StringPool.ROLE, Integer.class))
+                .enterpriseId(claims.get(StringPool.ENTERPRISE_ID, Long.class))
+                .email(claims.get(StringPool.EMAIL, String.class))
+                .build();
+        verifiedToken = new VerifiedToken(session, claims.getId(), claims.getExpiration().getTime());
+        checkNotRevoked(verifiedToken);
+        synchronized (tokens) {
+            tokens.put(key, verifiedToken);
+        }
+        return session;
+    }
+
+    /**
+     * Revoke the token of an authorization header, it is rejected from now on until it expires.
+     *
+     * @param authorizationHeader the authorization header
+     */
+    public void revoke(String authorizationHeader) {
+        String token = jwtUtil.extractToken(authorizationHeader);
+        Claims claims = jwtUtil.getAllClaimsFromToken(token);
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            throw new SecurityException("Token without id can not be revoked");
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .id(claims.getId())
+                .expiresAt(claims.getExpiration())
+                .build());
+        revokedTokens.put(claims.getId(), claims.getExpiration().getTime());
+        synchronized (tokens) {
+            tokens.remove(hash(token));
+        }
+        LOGGER.debug("Token {} revoked", claims.getId());
+    }
+
+    /**
+     * Read tokens revoked on other pods and forget expired ones.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocationPollInterval:5000}", initialDelayString = "${jwt.revocationPollInterval:5000}")
+    public void pollRevokedTokens() {
+        try {
+            long now = System.currentTimeMillis();
+            Date pollStartedAt = new Date(now - REVOCATION_OVERLAP);
+            for (RevokedToken token : revokedTokenRepository.getByCreatedAtAfter(revocationsSince)) {
+                revokedTokens.put(token.getId(), token.getExpiresAt().getTime());
+            }
+            revocationsSince = pollStartedAt;
+            revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        } catch (Exception e) {
+            LOGGER.error("Can not read revoked tokens", e);
+        }
+    }
+
+    /**
+     * Delete expired revocations.
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void cleanup() {
+        int deleted = revokedTokenRepository.deleteExpired(new Date());
+        if (deleted > 0) {
+            LOGGER.info("Expired revoked tokens deleted ->{}", deleted);
+        }
+    }
+
+    private void checkNotRevoked(VerifiedToken verifiedToken) {
+        if (revokedTokens.containsKey(verifiedToken.tokenId)) {
+            throw new SecurityException("Token is revoked");
+        }
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            //SHA-256 is mandatory for every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class VerifiedToken {
+
+        private final SessionDTO session;
+
+        private final String tokenId;
+
+        private final long expiresAt;
+
+        private VerifiedToken(SessionDTO session, String tokenId, long expiresAt) {
+            this.session = session;
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
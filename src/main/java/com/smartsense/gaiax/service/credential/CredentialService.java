@@ -6,19 +6,16 @@ package com.smartsense.gaiax.service.credential;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.smartsense.gaiax.client.SignerClient;
 import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
 import com.smartsense.gaiax.dao.repository.EnterpriseCredentialRepository;
 import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
-import com.smartsense.gaiax.dto.CreateVPRequest;
 import com.smartsense.gaiax.exception.BadDataException;
 import com.smartsense.gaiax.exception.EntityNotFoundException;
+import com.smartsense.gaiax.service.signer.CredentialSigner;
 import com.smartsense.gaiax.utils.CommonUtils;
-import com.smartsense.gaiax.utils.S3Utils;
 import com.smartsense.gaiax.utils.Validate;
 import org.json.JSONObject;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -36,8 +33,7 @@ public class CredentialService {
 
     private final ObjectMapper objectMapper;
 
-    private final SignerClient signerClient;
-    private final S3Utils s3Utils;
+    private final CredentialSigner credentialSigner;
 
     /**
      * Instantiates a new Credential service.
@@ -45,15 +41,13 @@ public class CredentialService {
      * @param enterpriseRepository           the enterprise repository
      * @param enterpriseCredentialRepository the enterprise credential repository
      * @param objectMapper                   the object mapper
-     * @param signerClient                   the signer client
-     * @param s3Utils                        the s 3 utils
+     * @param credentialSigner               the credential signer
      */
-    public CredentialService(EnterpriseRepository enterpriseRepository, EnterpriseCredentialRepository enterpriseCredentialRepository, ObjectMapper objectMapper, SignerClient signerClient, S3Utils s3Utils) {
+    public CredentialService(EnterpriseRepository enterpriseRepository, EnterpriseCredentialRepository enterpriseCredentialRepository, ObjectMapper objectMapper, CredentialSigner credentialSigner) {
         this.enterpriseRepository = enterpriseRepository;
         this.enterpriseCredentialRepository = enterpriseCredentialRepository;
         this.objectMapper = objectMapper;
-        this.signerClient = signerClient;
-        this.s3Utils = s3Utils;
+        this.credentialSigner = credentialSigner;
     }
 
     /**
@@ -70,15 +64,9 @@ public class CredentialService {
         Validate.isNull(enterpriseCredential).launch(new EntityNotFoundException("Can not find participant credential for enterprise id->" + enterpriseId));
         JSONObject verifiableCredential = new JSONObject(enterpriseCredential.getCredentials()).getJSONObject("selfDescriptionCredential").getJSONArray("verifiableCredential").getJSONObject(0);
 
-        CreateVPRequest createVPRequest = CreateVPRequest.builder()
-                .holderDID(CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()))
-                .privateKeyUrl(s3Utils.getPreSignedUrl(enterpriseId + "/pkcs8_" + enterprise.getSubDomainName() + ".key"))
-                .claims(List.of(verifiableCredential.toMap()))
-                .build();
+        Map<String, Object> vp = credentialSigner.createVP(enterpriseId, enterprise.getSubDomainName(), CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()), List.of(verifiableCredential.toMap()));
 
-        ResponseEntity<Map<String, Object>> vp = signerClient.createVP(createVPRequest);
-
-        String serviceOfferingString = objectMapper.writeValueAsString(((Map<String, Object>) vp.getBody().get("data")).get("verifiablePresentation"));
+        String serviceOfferingString = objectMapper.writeValueAsString(vp);
         return new JSONObject(serviceOfferingString).toMap();
     }
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.domain;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.route53.AmazonRoute53;
+import com.amazonaws.services.route53.AmazonRoute53ClientBuilder;
+import com.amazonaws.services.route53.model.*;
+import com.smartsense.gaiax.config.AWSSettings;
+import com.smartsense.gaiax.config.DnsSettings;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * The type Dns change coalescer. Record changes are collected for a short window and submitted as one change batch
+ * per hosted zone, so bulk onboarding stays below the Route53 request limit. Waiters for the same batch share one
+ * INSYNC poll.
+ * <p>
+ * A change batch is applied atomically, if Route53 rejects it the changes are submitted one by one so a single
+ * invalid change (e.g. delete of a missing record) does not fail the other changes.
+ */
+@Component
+public class DnsChangeCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DnsChangeCoalescer.class);
+
+    private final DnsSettings dnsSettings;
+
+    private final AmazonRoute53 amazonRoute53;
+
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    //open batch window per hosted zone, guarded by this
+    private final Map<String, Window> windows = new HashMap<>();
+
+    /**
+     * Instantiates a new Dns change coalescer.
+     *
+     * @param awsSettings the aws settings
+     * @param dnsSettings the dns settings
+     */
+    public DnsChangeCoalescer(AWSSettings awsSettings, DnsSettings dnsSettings) {
+        this.dnsSettings = dnsSettings;
+        this.amazonRoute53 = AmazonRoute53ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(awsSettings.getAccessKey(), awsSettings.getSecretKey())))
+                //Route53 is a global service served from us-east-1
+                .withRegion(Regions.US_EAST_1)
+                .build();
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(2);
+        taskScheduler.setThreadNamePrefix("dns-");
+        taskScheduler.initialize();
+    }
+
+    /**
+     * Submit a record change.
+     *
+     * @param hostedZoneId the hosted zone id
+     * @param change       the change
+     * @param waitForSync  true if the future should complete when the change is INSYNC, otherwise when it is submitted
+     * @return the future, completed exceptionally if Route53 rejects the change
+     */
+    public CompletableFuture<Void> submit(String hostedZoneId, Change change, boolean waitForSync) {
+        PendingChange pendingChange = new PendingChange(change, waitForSync);
+        Window fullWindow = null;
+        synchronized (this) {
+            Window window = windows.get(hostedZoneId);
+            if (window == null) {
+                window = new Window();
+                windows.put(hostedZoneId, window);
+                //first change of the window, flush when window ends
+                Window scheduled = window;
+                window.flushTask = taskScheduler.schedule(() -> flush(hostedZoneId, scheduled), Instant.now().plusMillis(dnsSettings.getBatchWindow()));
+            }
+            window.changes.add(pendingChange);
+            if (window.changes.size() >= dnsSettings.getMaxBatchSize()) {
+                windows.remove(hostedZoneId);
+                //the timer of this window must not flush the next window early
+                window.flushTask.cancel(false);
+                fullWindow = window;
+            }
+        }
+        if (fullWindow != null) {
+            List<PendingChange> fullBatch = fullWindow.changes;
+            taskScheduler.execute(() -> submitBatch(hostedZoneId, fullBatch));
+        }
+        return pendingChange.future;
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        synchronized (this) {
+            windows.forEach((hostedZoneId, window) -> {
+                window.flushTask.cancel(false);
+                submitBatch(hostedZoneId, window.changes);
+            });
+            windows.clear();
+        }
+        taskScheduler.shutdown();
+    }
+
+    private void flush(String hostedZoneId, Window window) {
+        synchronized (this) {
+            //only flush the window the timer was scheduled for, it may have been flushed early because it was full
+            if (!windows.remove(hostedZoneId, window)) {
+                return;
+            }
+        }
+        submitBatch(hostedZoneId, window.changes);
+    }
+
+    private void submitBatch(String hostedZoneId, List<PendingChange> batch) {
+        try {
+            ChangeInfo changeInfo = changeResourceRecordSets(hostedZoneId, merge(batch));
+            LOGGER.info("Submitted {} record changes to hosted zone {}, change id ->{}", batch.size(), hostedZoneId, changeInfo.getId());
+            complete(batch, changeInfo);
+        } catch (InvalidChangeBatchException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            LOGGER.warn("Change batch of {} changes rejected, submitting changes one by one: {}", batch.size(), e.getErrorMessage());
+            for (PendingChange pendingChange : batch) {
+                submitBatch(hostedZoneId, List.of(pendingChange));
+            }
+        } catch (Exception e) {
+            LOGGER.error("Can not submit {} record changes to hosted zone {}", batch.size(), hostedZoneId, e);
+            batch.forEach(pendingChange -> pendingChange.future.completeExceptionally(e));
+        }
+    }
+
+    private ChangeInfo changeResourceRecordSets(String hostedZoneId, List<Change> changes) {
+        ChangeResourceRecordSetsRequest request = new ChangeResourceRecordSetsRequest()
+                .withHostedZoneId(hostedZoneId)
+                .withChangeBatch(new ChangeBatch(changes));
+        return amazonRoute53.changeResourceRecordSets(request).getChangeInfo();
+    }
+
+    private void complete(List<PendingChange> batch, ChangeInfo changeInfo) {
+        List<CompletableFuture<Void>> syncWaiters = new ArrayList<>();
+        for (PendingChange pendingChange : batch) {
+            if (pendingChange.waitForSync) {
+                syncWaiters.add(pendingChange.future);
+            } else {
+                pendingChange.future.complete(null);
+            }
+        }
+        if (syncWaiters.isEmpty()) {
+            return;
+        }
+        if (ChangeStatus.INSYNC.name().equalsIgnoreCase(changeInfo.getStatus())) {
+            syncWaiters.forEach(future -> future.complete(null));
+            return;
+        }
+        taskScheduler.schedule(new SyncPollTask(changeInfo.getId(), syncWaiters), Instant.now().plusSeconds(dnsSettings.getSyncPollInterval()));
+    }
+
+    /**
+     * Merge changes of the same record set, Route53 rejects a batch with two changes of the same name and type.
+     */
+    private static List<Change> merge(List<PendingChange> batch) {
+        Map<String, Change> changes = new LinkedHashMap<>();
+        for (PendingChange pendingChange : batch) {
+            Change change = pendingChange.change;
+            ResourceRecordSet recordSet = change.getResourceRecordSet();
+            String key = change.getAction() + "|" + recordSet.getName() + "|" + recordSet.getType();
+            Change existing = changes.get(key);
+            if (existing == null) {
+                ResourceRecordSet copy = recordSet.clone().withResourceRecords(new ArrayList<>(recordSet.getResourceRecords()));
+                changes.put(key, new Change(change.getAction(), copy));
+            } else {
+                List<ResourceRecord> records = existing.getResourceRecordSet().getResourceRecords();
+                for (ResourceRecord resourceRecord : recordSet.getResourceRecords()) {
+                    if (!records.contains(resourceRecord)) {
+                        records.add(resourceRecord);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(changes.values());
+    }
+
+    private static class Window {
+
+        private final List<PendingChange> changes = new ArrayList<>();
+
+        private ScheduledFuture<?> flushTask;
+    }
+
+    private static class PendingChange {
+
+        private final Change change;
+
+        private final boolean waitForSync;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingChange(Change change, boolean waitForSync) {
+            this.change = change;
+            this.waitForSync = waitForSync;
+        }
+    }
+
+    /**
+     * Shared INSYNC poll of one change batch.
+     */
+    private class SyncPollTask implements Runnable {
+
+        private final String changeId;
+
+        private final List<CompletableFuture<Void>> waiters;
+
+        private int attempts;
+
+        SyncPollTask(String changeId, List<CompletableFuture<Void>> waiters) {
+            this.changeId = changeId;
+            this.waiters = waiters;
+        }
+
+        @Override
+        public void run() {
+            attempts++;
+            String status;
+            try {
+                status = amazonRoute53.getChange(new GetChangeRequest().withId(changeId)).getChangeInfo().getStatus();
+            } catch (Exception e) {
+                LOGGER.warn("Can not get status of change {}", changeId, e);
+                status = null;
+            }
+            LOGGER.debug("change ->{} status  ->{} count - >{}", changeId, status, attempts);
+            if (ChangeStatus.INSYNC.name().equalsIgnoreCase(status)) {
+                waiters.forEach(future -> future.complete(null));
+            } else if (attempts >= dnsSettings.getSyncMaxAttempts()) {
+                //same as before, waiters continue and the record is most likely visible soon
+                LOGGER.warn("Change {} is not in sync after {} checks", changeId, attempts);
+                waiters.forEach(future -> future.complete(null));
+            } else {
+                taskScheduler.schedule(this, Instant.now().plusSeconds(dnsSettings.getSyncPollInterval()));
+            }
+        }
+    }
+}
@@ -4,24 +4,17 @@
 
 package com.smartsense.gaiax.service.domain;
 
-import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.regions.Regions;
-import com.amazonaws.services.route53.AmazonRoute53;
-import com.amazonaws.services.route53.AmazonRoute53ClientBuilder;
 import com.amazonaws.services.route53.model.*;
 import com.smartsense.gaiax.config.AWSSettings;
 import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
 import com.smartsense.gaiax.dto.RegistrationStatus;
-import com.smartsense.gaiax.dto.StringPool;
-import com.smartsense.gaiax.service.job.ScheduleService;
-import org.quartz.SchedulerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The type Domain service.
@@ -37,35 +30,33 @@ public class DomainService {
 
     private final AWSSettings awsSettings;
 
-    private final AmazonRoute53 amazonRoute53;
+    private final DnsChangeCoalescer dnsChangeCoalescer;
 
     private final EnterpriseRepository enterpriseRepository;
 
-    private final ScheduleService scheduleService;
-
     /**
      * Instantiates a new Domain service.
      *
      * @param awsSettings          the aws settings
+     * @param dnsChangeCoalescer   the dns change coalescer
      * @param enterpriseRepository the enterprise repository
-     * @param scheduleService      the schedule service
      */
-    public DomainService(AWSSettings awsSettings, EnterpriseRepository enterpriseRepository, ScheduleService scheduleService) {
+    public DomainService(AWSSettings awsSettings, DnsChangeCoalescer dnsChangeCoalescer, EnterpriseRepository enterpriseRepository) {
         this.awsSettings = awsSettings;
+        this.dnsChangeCoalescer = dnsChangeCoalescer;
         this.enterpriseRepository = enterpriseRepository;
-        this.scheduleService = scheduleService;
-        this.amazonRoute53 = getAmazonRoute53();
     }
 
 
     /**
-     * Update txt records.
+     * Update txt records. Changes are submitted in batches, a created record is awaited until it is in sync.
      *
      * @param domainName the domain name
      * @param value      the value
      * @param action     the action
+     * @return the future, completed when the change is submitted or, for create, in sync
      */
-    public void updateTxtRecords(String domainName, String value, ChangeAction action) {
+    public CompletableFuture<Void> updateTxtRecords(String domainName, String value, ChangeAction action) {
         ResourceRecord resourceRecord = new ResourceRecord();
         resourceRecord.setValue("\"" + value + "\"");
 
@@ -76,39 +67,8 @@ public class DomainService {
         recordsSet.setName(domainName);
 
         Change change = new Change(action, recordsSet);
-
-        ChangeBatch batch = new ChangeBatch(List.of(change));
-
-        ChangeResourceRecordSetsRequest request = new ChangeResourceRecordSetsRequest();
-        request.setChangeBatch(batch);
-
-
-        request.setHostedZoneId(awsSettings.getHostedZoneId());
-        ChangeResourceRecordSetsResult result = amazonRoute53.changeResourceRecordSets(request);
-
-        if (action.name().equalsIgnoreCase("CREATE")) {
-            String status = result.getChangeInfo().getStatus();
-            String changeId = result.getChangeInfo().getId();
-            int count = 0;
-            LOGGER.debug("status  ->{} count - >{}", status, ++count);
-
-            while (!status.equalsIgnoreCase(ChangeStatus.INSYNC.name()) && count <= 12) {
-                try {
-                    Thread.sleep(10000);
-                } catch (InterruptedException e) {
-                    LOGGER.error("Interrupted!", e);
-                    Thread.currentThread().interrupt();
-                }
-                GetChangeRequest getChangeRequest = new GetChangeRequest()
-                        .withId(changeId);
-                ChangeInfo changeInfo = amazonRoute53.getChange(getChangeRequest).getChangeInfo();
-                status = changeInfo.getStatus();
-                LOGGER.debug("status  ->{} count - >{}", status, ++count);
-            }
-        }
-
-
-        LOGGER.info("TXT record updated -> {}, result-> {}", domainName, result);
+        return dnsChangeCoalescer.submit(awsSettings.getHostedZoneId(), change, action == ChangeAction.CREATE)
+                .thenRun(() -> LOGGER.info("TXT record updated -> {}, action-> {}", domainName, action));
     }
 
     /**
@@ -116,14 +76,14 @@ public class DomainService {
      *
      * @param domainName the domain name
      * @param value      the value
+     * @return the future, completed when the change is submitted
      */
-    public void deleteTxtRecordForSSLCertificate(String domainName, String value) {
-        try {
-            updateTxtRecords(domainName, value, ChangeAction.DELETE);
-        } catch (Exception e) {
-            LOGGER.error("Can not delete txt records for domain ->{}", domainName, e); //TODO need to check if record is already exist
-        }
-        LOGGER.info("TXT record deleted -> {}", domainName);
+    public CompletableFuture<Void> deleteTxtRecordForSSLCertificate(String domainName, String value) {
+        return updateTxtRecords(domainName, value, ChangeAction.DELETE)
+                .exceptionally(e -> {
+                    LOGGER.error("Can not delete txt records for domain ->{}", domainName, e); //TODO need to check if record is already exist
+                    return null;
+                });
     }
 
 
@@ -132,92 +92,54 @@ public class DomainService {
      *
      * @param domainName the domain name
      * @param value      the value
+     * @return the future, completed when the record is in sync, completed exceptionally if the record can not be created
      */
-    public void createTxtRecordForSSLCertificate(String domainName, String value) {
-        try {
-            updateTxtRecords(domainName, value, ChangeAction.CREATE);
-        } catch (Exception e) {
-            LOGGER.error("Can not create txt records for domain ->{}", domainName, e); //TODO need to check if record is already created
-        }
-        LOGGER.info("TXT record created -> {} ", domainName);
+    public CompletableFuture<Void> createTxtRecordForSSLCertificate(String domainName, String value) {
+        //the challenge can not succeed without the record, so the failure is passed on to the certificate order
+        return updateTxtRecords(domainName, value, ChangeAction.CREATE)
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        LOGGER.error("Can not create txt records for domain ->{}", domainName, e);
+                    }
+                });
     }
 
     /**
      * Create sub domain.
      *
      * @param enterpriseId the enterprise id
+     * @return future completed with true if sub domain is created
      */
-    public void createSubDomain(long enterpriseId) {
+    public CompletableFuture<Boolean> createSubDomain(long enterpriseId) {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElse(null);
         if (enterprise == null) {
             LOGGER.error("Invalid enterprise id ->{}", enterpriseId);
-            return;
+            return CompletableFuture.completedFuture(false);
         }
-        try {
-            String domainName = enterprise.getSubDomainName();
-            ResourceRecord resourceRecord = new ResourceRecord();
-            resourceRecord.setValue(awsSettings.getServerIp());
-
-            ResourceRecordSet recordsSet = new ResourceRecordSet();
-            recordsSet.setResourceRecords(List.of(resourceRecord));
-            recordsSet.setType(RRType.A);
-            recordsSet.setTTL(900L);
-            recordsSet.setName(domainName);
-
-            Change change = new Change(ChangeAction.CREATE, recordsSet);
-
-            ChangeBatch batch = new ChangeBatch(List.of(change));
-
-            ChangeResourceRecordSetsRequest request = new ChangeResourceRecordSetsRequest();
-            request.setChangeBatch(batch);
-
-            request.setHostedZoneId(awsSettings.getHostedZoneId());
-            ChangeResourceRecordSetsResult result = amazonRoute53.changeResourceRecordSets(request);
-            LOGGER.info("subdomain created -> {} for enterprise id->{}, result-> {}", domainName, enterpriseId, result);
-            enterprise.setStatus(RegistrationStatus.DOMAIN_CREATED.getStatus());
-
-            //create job to create certificate
-            createCertificateCreationJob(enterpriseId, enterprise);
-        } catch (Exception e) {
-            LOGGER.error("Can not create sub domain for enterprise->{}", enterpriseId, e);
-            enterprise.setStatus(RegistrationStatus.DOMAIN_CREATION_FAILED.getStatus());
-        } finally {
-            enterpriseRepository.save(enterprise);
-        }
-    }
-
-    private void createCertificateCreationJob(long enterpriseId, Enterprise enterprise) {
-        try {
-            scheduleService.createJob(enterpriseId, StringPool.JOB_TYPE_CREATE_CERTIFICATE, 0); //try for 3 time for certificate
-        } catch (SchedulerException e) {
-            LOGGER.error("Can not create certificate creation job for enterprise->{}", enterprise, e);
-            enterprise.setStatus(RegistrationStatus.CERTIFICATE_CREATION_FAILED.getStatus());
-        }
-    }
+        String domainName = enterprise.getSubDomainName();
+        ResourceRecord resourceRecord = new ResourceRecord();
+        resourceRecord.setValue(awsSettings.getServerIp());
 
-    private AmazonRoute53 getAmazonRoute53() {
-        return AmazonRoute53ClientBuilder.standard().withCredentials(new AWSCredentialsProvider() {
-                    @Override
-                    public AWSCredentials getCredentials() {
-                        return new AWSCredentials() {
-                            @Override
-                            public String getAWSAccessKeyId() {
-                                return awsSettings.getAccessKey();
-                            }
-
-                            @Override
-                            public String getAWSSecretKey() {
-                                return awsSettings.getSecretKey();
-                            }
-                        };
-                    }
+        ResourceRecordSet recordsSet = new ResourceRecordSet();
+        recordsSet.setResourceRecords(List.of(resourceRecord));
+        recordsSet.setType(RRType.A);
+        recordsSet.setTTL(900L);
+        recordsSet.setName(domainName);
 
-                    @Override
-                    public void refresh() {
-                        //Do nothing
+        //upsert, step can be executed again
+        Change change = new Change(ChangeAction.UPSERT, recordsSet);
+
+        return dnsChangeCoalescer.submit(awsSettings.getHostedZoneId(), change, false)
+                .handle((result, e) -> {
+                    if (e == null) {
+                        LOGGER.info("subdomain created -> {} for enterprise id->{}", domainName, enterpriseId);
+                        enterprise.setStatus(RegistrationStatus.DOMAIN_CREATED.getStatus());
+                    } else {
+                        LOGGER.error("Can not create sub domain for enterprise->{}", enterpriseId, e);
+                        enterprise.setStatus(RegistrationStatus.DOMAIN_CREATION_FAILED.getStatus());
                     }
-                })
-                .withRegion(Regions.US_EAST_1)
-                .build();
+                    enterpriseRepository.save(enterprise);
+                    return e == null;
+                });
     }
-}
\ No newline at end of file
+}
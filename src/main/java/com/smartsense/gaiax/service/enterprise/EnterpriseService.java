@@ -7,32 +7,44 @@ package com.smartsense.gaiax.service.enterprise;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartsense.gaiax.client.*;
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.config.PaginationSettings;
+import com.smartsense.gaiax.config.StorageSettings;
 import com.smartsense.gaiax.dao.entity.*;
 import com.smartsense.gaiax.dao.repository.*;
 import com.smartsense.gaiax.dto.*;
 import com.smartsense.gaiax.exception.BadDataException;
 import com.smartsense.gaiax.exception.EntityNotFoundException;
+import com.smartsense.gaiax.service.jsonld.JsonLdContexts;
+import com.smartsense.gaiax.service.ocm.PresentationState;
+import com.smartsense.gaiax.service.ocm.PresentationWatcher;
+import com.smartsense.gaiax.service.operation.AsyncOperationService;
+import com.smartsense.gaiax.service.search.CatalogueSearchService;
+import com.smartsense.gaiax.service.signer.CredentialSigner;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import com.smartsense.gaiax.service.wellknown.WellKnownFile;
+import com.smartsense.gaiax.service.wellknown.WellKnownFileCache;
 import com.smartsense.gaiax.utils.CommonUtils;
 import com.smartsense.gaiax.utils.JWTUtil;
-import com.smartsense.gaiax.utils.S3Utils;
 import com.smartsense.gaiax.utils.Validate;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Sort;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * The type Enterprise service.
@@ -46,15 +58,19 @@ public class EnterpriseService {
      */
     public static final String INVALID_USERNAME_OR_PASSWORD = "invalid.username.or.password";  //pragma: allowlist secret
 
+    private static final String CERTIFICATE_CHAIN_FILE = "x509CertificateChain.pem";
+
+    private static final String TERMS_HASH = "70c1d713215f95191a11d38fe2341faed27d19e083917bc8732ca4fea4976700"; //pragma: allowlist secret
+
     private final EnterpriseRepository enterpriseRepository;
 
     private final EnterpriseCredentialRepository enterpriseCredentialRepository;
 
-    private final S3Utils s3Utils;
+    private final ObjectStore objectStore;
 
     private final ServiceOfferRepository serviceOfferRepository;
 
-    private final SignerClient signerClient;
+    private final CredentialSigner credentialSigner;
 
     private final ObjectMapper objectMapper;
 
@@ -66,52 +82,122 @@ public class EnterpriseService {
 
     private final ServiceAccessLogRepository serviceAccessLogRepository;
 
-    private final OcmClient ocmClient;
+    private final PresentationWatcher presentationWatcher;
+
+    private final WellKnownFileCache wellKnownFileCache;
+
+    private final CertificateSettings certificateSettings;
 
+    private final AsyncOperationService asyncOperationService;
+
+    private final PaginationSettings paginationSettings;
+
+    private final CatalogueSearchService catalogueSearchService;
+
+    private final StorageSettings storageSettings;
 
     /**
      * Instantiates a new Enterprise service.
      *
      * @param enterpriseRepository           the enterprise repository
      * @param enterpriseCredentialRepository the enterprise credential repository
-     * @param s3Utils                        the s 3 utils
+     * @param objectStore                    the object store
      * @param serviceOfferRepository         the service offer repository
-     * @param signerClient                   the signer client
+     * @param credentialSigner               the credential signer
      * @param objectMapper                   the object mapper
      * @param adminRepository                the admin repository
      * @param jwtUtil                        the jwt util
      * @param serviceOfferViewRepository     the service offer view repository
      * @param serviceAccessLogRepository     the service access log repository
-     * @param ocmClient                  the vereign client
+     * @param presentationWatcher            the presentation watcher
+     * @param wellKnownFileCache             the well known file cache
+     * @param certificateSettings            the certificate settings
+     * @param asyncOperationService          the async operation service
+     * @param paginationSettings             the pagination settings
+     * @param catalogueSearchService         the catalogue search service
+     * @param storageSettings                the storage settings
      */
-    public EnterpriseService(EnterpriseRepository enterpriseRepository, EnterpriseCredentialRepository enterpriseCredentialRepository, S3Utils s3Utils, ServiceOfferRepository serviceOfferRepository, SignerClient signerClient, ObjectMapper objectMapper, AdminRepository adminRepository, JWTUtil jwtUtil, ServiceOfferViewRepository serviceOfferViewRepository, ServiceAccessLogRepository serviceAccessLogRepository, OcmClient ocmClient) {
+    public EnterpriseService(EnterpriseRepository enterpriseRepository, EnterpriseCredentialRepository enterpriseCredentialRepository, ObjectStore objectStore, ServiceOfferRepository serviceOfferRepository, CredentialSigner credentialSigner, ObjectMapper objectMapper, AdminRepository adminRepository, JWTUtil jwtUtil, ServiceOfferViewRepository serviceOfferViewRepository, ServiceAccessLogRepository serviceAccessLogRepository, PresentationWatcher presentationWatcher, WellKnownFileCache wellKnownFileCache, CertificateSettings certificateSettings, AsyncOperationService asyncOperationService, PaginationSettings paginationSettings, CatalogueSearchService catalogueSearchService, StorageSettings storageSettings) {
         this.enterpriseRepository = enterpriseRepository;
         this.enterpriseCredentialRepository = enterpriseCredentialRepository;
-        this.s3Utils = s3Utils;
+        this.objectStore = objectStore;
         this.serviceOfferRepository = serviceOfferRepository;
-        this.signerClient = signerClient;
+        this.credentialSigner = credentialSigner;
         this.objectMapper = objectMapper;
         this.adminRepository = adminRepository;
         this.jwtUtil = jwtUtil;
         this.serviceOfferViewRepository = serviceOfferViewRepository;
         this.serviceAccessLogRepository = serviceAccessLogRepository;
-        this.ocmClient = ocmClient;
+        this.presentationWatcher = presentationWatcher;
+        this.wellKnownFileCache = wellKnownFileCache;
+        this.certificateSettings = certificateSettings;
+        this.asyncOperationService = asyncOperationService;
+        this.paginationSettings = paginationSettings;
+        this.catalogueSearchService = catalogueSearchService;
+        this.storageSettings = storageSettings;
     }
 
     /**
-     * Verify presentation login response.
+     * Verify presentation login response. The presentation is watched on the server, repeated calls for the same
+     * presentation return the last polled state and do not call OCM.
      *
      * @param presentationId the presentation id
+     * @param client         the client which verifies the presentation
      * @return the login response
-     * @throws JsonProcessingException the json processing exception
      */
-    public LoginResponse verifyPresentation(String presentationId) throws JsonProcessingException {
-        ResponseEntity<VerifyPresentationResponse> responseEntity = ocmClient.verifyPresentation(presentationId);
-        VerifyPresentationResponse body = responseEntity.getBody();
-        LOGGER.debug(" verifyPresentation response -> {}", objectMapper.writeValueAsString(body));
-        PresentationData data = body.getData();
+    public LoginResponse verifyPresentation(String presentationId, String client) {
+        return toLoginResponse(awaitPresentationState(presentationWatcher.current(presentationId, client)));
+    }
+
+    /**
+     * Await presentation, completes once the presentation reached a terminal state or is no longer watched.
+     *
+     * @param presentationId the presentation id
+     * @param client         the client which verifies the presentation
+     * @return the future of the login response
+     */
+    public CompletableFuture<LoginResponse> awaitPresentation(String presentationId, String client) {
+        return presentationWatcher.result(presentationId, client).thenApplyAsync(this::toLoginResponse, asyncOperationService.getExecutor());
+    }
+
+    /**
+     * Current presentation state, never issues a token.
+     *
+     * @param presentationId the presentation id
+     * @return the login response with the last polled state, 202 if the presentation is not polled yet
+     */
+    public LoginResponse currentPresentation(String presentationId) {
+        PresentationState state = presentationWatcher.latest(presentationId);
+        if (state == null) {
+            return LoginResponse.builder()
+                    .statusCode(HttpStatus.ACCEPTED.value())
+                    .build();
+        }
+        return LoginResponse.builder()
+                .statusCode(state.getStatusCode())
+                .status(state.getState())
+                .build();
+    }
+
+    /**
+     * Subscribe to state changes of a presentation, the listener gets the state only and never a token.
+     *
+     * @param presentationId the presentation id
+     * @param client         the client which verifies the presentation
+     * @param listener       the listener
+     * @return the runnable which removes the listener
+     */
+    public Runnable subscribePresentation(String presentationId, String client, Consumer<LoginResponse> listener) {
+        return presentationWatcher.subscribe(presentationId, client, state -> listener.accept(LoginResponse.builder()
+                .statusCode(state.getStatusCode())
+                .status(state.getState())
+                .build()));
+    }
+
+    private LoginResponse toLoginResponse(PresentationState presentationState) {
+        PresentationData data = presentationState.getData();
         String state = data.getState();
-        if (state.equalsIgnoreCase("done") && !data.getPresentations().isEmpty()) {
+        if ("done".equalsIgnoreCase(state) && !data.getPresentations().isEmpty()) {
             Presentation presentation = data.getPresentations().get(0);
             String email = presentation.getCredentialSubject().get("email");
             LOGGER.debug("Email form verification result -{}", email);
@@ -128,16 +214,27 @@ public class EnterpriseService {
                     .token("Bearer " + jwtUtil.generateToken(sessionDTO))
                     .session(sessionDTO)
                     .status(data.getState())
-                    .statusCode(responseEntity.getStatusCode().value())
+                    .statusCode(presentationState.getStatusCode())
                     .build();
         } else {
             return LoginResponse.builder()
-                    .statusCode(responseEntity.getStatusCode().value())
+                    .statusCode(presentationState.getStatusCode())
                     .status(data.getState())
                     .build();
         }
     }
 
+    private static PresentationState awaitPresentationState(CompletableFuture<PresentationState> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Login login response.
      *
@@ -178,42 +275,39 @@ public class EnterpriseService {
     }
 
     /**
-     * List enterprise list.
+     * List enterprises, newest first.
      *
-     * @return the list
+     * @param afterId id of the last enterprise of the previous page, null for the first page
+     * @param limit   the page size, null for the default
+     * @param count   whether to count all enterprises
+     * @return the keyset page
      */
-    public List<Enterprise> listEnterprise() {
-        return enterpriseRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
+    public KeysetPage<Enterprise> listEnterprise(Long afterId, Integer limit, boolean count) {
+        int pageSize = pageSize(limit);
+        List<Enterprise> enterprises = enterpriseRepository.findByIdLessThanOrderByIdDesc(afterId == null ? Long.MAX_VALUE : afterId, PageRequest.ofSize(pageSize + 1));
+        return KeysetPage.of(enterprises, pageSize, Enterprise::getId, count ? enterpriseRepository.count() : null);
     }
 
 
     /**
      * Gets enterprise files.
      *
-     * @param hostName the host name
-     * @param fileName the file name
-     * @return the enterprise files
+     * @param hostName       the host name
+     * @param enterpriseName the enterprise legal name
+     * @param fileName       the file name
+     * @return the enterprise files, must be closed by the caller
      * @throws IOException the io exception
      */
-    public String getEnterpriseFiles(String hostName, String enterpriseName, String fileName) throws IOException {
-        File file = null;
-        try {
-            //Restrict key and csr file download
-            //TODO can be improved by storing private key in more secure place
-            if (fileName.endsWith("key") || fileName.endsWith("csr")) {
-                throw new EntityNotFoundException("Can find file -> " + fileName);
-            }
+    public WellKnownFile getEnterpriseFiles(String hostName, String enterpriseName, String fileName) throws IOException {
+        validatePublicFileName(fileName);
+        Long enterpriseId = wellKnownFileCache.resolveEnterpriseId("name:" + enterpriseName, () -> {
             Enterprise enterprise = enterpriseRepository.getByLegalName(enterpriseName);
-            if (enterprise == null) {
-                throw new BadDataException("Can not find lefal name -> " + enterpriseName);
-            }
-
-            String fileKey = enterprise.getId() + "/" + fileName;
-            file = s3Utils.getObject(fileKey, fileName);
-            return FileUtils.readFileToString(file, Charset.defaultCharset());
-        } finally {
-            CommonUtils.deleteFile(file);
+            return enterprise == null ? null : enterprise.getId();
+        });
+        if (enterpriseId == null) {
+            throw new BadDataException("Can not find lefal name -> " + enterpriseName);
         }
+        return getPublicFile(enterpriseId, fileName);
     }
 
     /**
@@ -221,28 +315,37 @@ public class EnterpriseService {
      *
      * @param hostName the host name
      * @param fileName the file name
-     * @return the enterprise files
+     * @return the enterprise files, must be closed by the caller
      * @throws IOException the io exception
      */
-    public String getEnterpriseFiles(String hostName, String fileName) throws IOException {
-        File file = null;
-        try {
-            //Restrict key and csr file download
-            //TODO can be improved by storing private key in more secure place
-            if (fileName.endsWith("key") || fileName.endsWith("csr")) {
-                throw new EntityNotFoundException("Can find file -> " + fileName);
-            }
+    public WellKnownFile getEnterpriseFiles(String hostName, String fileName) throws IOException {
+        validatePublicFileName(fileName);
+        Long enterpriseId = wellKnownFileCache.resolveEnterpriseId("host:" + hostName, () -> {
             Enterprise enterprise = enterpriseRepository.getBySubDomainName(hostName);
-            if (enterprise == null) {
-                throw new BadDataException("Can not find subdomain -> " + hostName);
-            }
+            return enterprise == null ? null : enterprise.getId();
+        });
+        if (enterpriseId == null) {
+            throw new BadDataException("Can not find subdomain -> " + hostName);
+        }
+        return getPublicFile(enterpriseId, fileName);
+    }
+
+    private void validatePublicFileName(String fileName) {
+        //Restrict key and csr file download
+        //TODO can be improved by storing private key in more secure place
+        if (fileName.endsWith("key") || fileName.endsWith("csr")) {
+            throw new EntityNotFoundException("Can find file -> " + fileName);
+        }
+    }
 
-            String fileKey = enterprise.getId() + "/" + fileName;
-            file = s3Utils.getObject(fileKey, fileName);
-            return FileUtils.readFileToString(file, Charset.defaultCharset());
-        } finally {
-            CommonUtils.deleteFile(file);
+    private WellKnownFile getPublicFile(long enterpriseId, String fileName) throws IOException {
+        //in wildcard mode the wildcard certificate does not certify the signing key of the enterprise, the did
+        //publishes the key itself and no certificate chain is served as verification material
+        if (certificateSettings.isWildcard() && CERTIFICATE_CHAIN_FILE.equals(fileName)) {
+            throw new EntityNotFoundException("Can find file -> " + fileName);
         }
+        String fileKey = enterpriseId + "/" + fileName;
+        return wellKnownFileCache.get(fileKey, () -> objectStore.get(fileKey));
     }
 
     /**
@@ -254,150 +357,276 @@ public class EnterpriseService {
      * @throws IOException the io exception
      */
     public ServiceOffer createServiceOffering(long enterpriseId, CreateServiceOfferingRequest request) throws IOException {
-        LOGGER.debug("creating service offer for enterprise id -> {}", enterpriseId);
-        Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(EntityNotFoundException::new);
-
-        String name = request.getName().replaceAll("\\s", "").toLowerCase();
-        File file = new File("/tmp/" + name + ".json");
-        //check name:
         try {
-            ServiceOffer serviceOffer = serviceOfferRepository.getByEnterpriseIdAndName(enterpriseId, name);
-            if (serviceOffer != null) {
-                throw new BadDataException("Duplicate service offering");
+            return createServiceOfferingAsync(enterpriseId, request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
             }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
 
-            //TODO labelLevel
-            String labelLevelId = "labelLevel_" + UUID.randomUUID();
-            String labelLevelUrl = "https://" + enterprise.getSubDomainName() + "/.well-known/" + labelLevelId + ".json";
-            String serviceOfferUrl = "https://" + enterprise.getSubDomainName() + "/.well-known/" + request.getName() + ".json";
-
-            Map<String, Object> labelLevelVCs = new LinkedHashMap<>();
-            Map<String, Object> labelLevel = new LinkedHashMap<>();
-            labelLevel.put("@context", List.of("https://www.w3.org/2018/credentials/v1", "https://w3id.org/security/suites/jws-2020/v1", "https://registry.lab.gaia-x.eu/development/api/trusted-shape-registry/v1/shapes/jsonld/trustframework#"));
-            labelLevel.put("issuanceDate", LocalDateTime.now().atZone(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-            labelLevel.put("type", List.of("VerifiableCredential"));
-            labelLevel.put("issuer", enterprise.getDid());
-            labelLevel.put("id", labelLevelUrl);
-
-            Map<String, Object> labelLevelSubject = new LinkedHashMap<>();
-            labelLevelSubject.put("gx:criteria", request.getLabelLevel());
-            labelLevelSubject.put("gx:assignedTo", serviceOfferUrl);
-            labelLevelSubject.put("id", labelLevelUrl);
-            labelLevelSubject.put("type", "gx:ServiceOfferingLabel");
-            labelLevel.put("credentialSubject", labelLevelSubject);
-
-            labelLevelVCs.put("vcs", Map.of("labelLevel", labelLevel));
-            labelLevelVCs.put("verificationMethod", CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()));
-            labelLevelVCs.put("issuer", CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()));
-
-            String fileKey = enterpriseId + "/pkcs8_" + enterprise.getSubDomainName() + ".key";
-
+    /**
+     * Create service offering. The request is validated on the calling thread, the label level VC and the service
+     * offering VC are independent and signed in parallel, uploads and the credential are saved as soon as their VC is
+     * ready.
+     *
+     * @param enterpriseId the enterprise id
+     * @param request      the request
+     * @return future of the service offer
+     * @throws JsonProcessingException the json processing exception
+     */
+    public CompletableFuture<ServiceOffer> createServiceOfferingAsync(long enterpriseId, CreateServiceOfferingRequest request) throws JsonProcessingException {
+        LOGGER.debug("creating service offer for enterprise id -> {}", enterpriseId);
+        Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(EntityNotFoundException::new);
 
-            labelLevelVCs.put("privateKeyUrl", s3Utils.getPreSignedUrl(fileKey));
+        //check name:
+        ServiceOffer existingServiceOffer = serviceOfferRepository.getByEnterpriseIdAndName(enterpriseId, normalizeServiceOfferName(request.getName()));
+        if (existingServiceOffer != null) {
+            throw new BadDataException("Duplicate service offering");
+        }
 
-            LOGGER.info("label level request  -> {}", objectMapper.writeValueAsString(labelLevelVCs));
+        ServiceOfferDraft draft = prepareServiceOffer(enterprise, request);
+        ServiceOfferSigning signing = signServiceOffer(draft);
+        Executor executor = asyncOperationService.getExecutor();
+
+        //credential is saved while the service offering file is uploaded
+        CompletableFuture<EnterpriseCredential> credentialSaved = signing.getServiceOfferingVc().thenApplyAsync(serviceOfferingString ->
+                enterpriseCredentialRepository.save(toEnterpriseCredential(draft, serviceOfferingString)), executor);
+
+        //Store service offer
+        return CompletableFuture.allOf(signing.getUploaded(), credentialSaved)
+                .thenApply(v -> {
+                    ServiceOffer serviceOffer = serviceOfferRepository.save(toServiceOffer(draft, credentialSaved.join().getId()));
+                    catalogueSearchService.serviceOffersSaved(List.of(serviceOffer));
+                    return serviceOffer;
+                });
+    }
 
-            Map<String, Object> labelLevelResponse = signerClient.labelLevel(labelLevelVCs).getBody();
+    /**
+     * Normalize service offer name, the normalized name is unique per enterprise and used as file name.
+     *
+     * @param name the name
+     * @return the normalized name
+     */
+    static String normalizeServiceOfferName(String name) {
+        return name.replaceAll("\\s", "").toLowerCase();
+    }
 
-            String labelLevelVc = objectMapper.writeValueAsString(labelLevelResponse.get("data"));
+    /**
+     * Build the signer requests of a service offering, no remote call is made. The draft does not contain the
+     * pre-signed URL of the private key, a draft may wait longer for signing than the URL is valid.
+     *
+     * @param enterprise the enterprise
+     * @param request    the request
+     * @return the service offer draft
+     * @throws JsonProcessingException the json processing exception
+     */
+    ServiceOfferDraft prepareServiceOffer(Enterprise enterprise, CreateServiceOfferingRequest request) throws JsonProcessingException {
+        long enterpriseId = enterprise.getId();
+        String name = normalizeServiceOfferName(request.getName());
+        String fileName = name + ".json";
+
+        //TODO labelLevel
+        String labelLevelId = "labelLevel_" + UUID.randomUUID();
+        String labelLevelUrl = "https://" + enterprise.getSubDomainName() + "/.well-known/" + labelLevelId + ".json";
+        String serviceOfferUrl = "https://" + enterprise.getSubDomainName() + "/.well-known/" + request.getName() + ".json";
+
+        Map<String, Object> labelLevelVCs = new LinkedHashMap<>();
+        Map<String, Object> labelLevel = new LinkedHashMap<>();
+        labelLevel.put("@context", List.of(JsonLdContexts.CREDENTIALS_V1, JsonLdContexts.JWS_2020_V1, JsonLdContexts.GAIA_X_TRUST_FRAMEWORK));
+        labelLevel.put("issuanceDate", LocalDateTime.now().atZone(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        labelLevel.put("type", List.of("VerifiableCredential"));
+        labelLevel.put("issuer", enterprise.getDid());
+        labelLevel.put("id", labelLevelUrl);
+
+        Map<String, Object> labelLevelSubject = new LinkedHashMap<>();
+        labelLevelSubject.put("gx:criteria", request.getLabelLevel());
+        labelLevelSubject.put("gx:assignedTo", serviceOfferUrl);
+        labelLevelSubject.put("id", labelLevelUrl);
+        labelLevelSubject.put("type", "gx:ServiceOfferingLabel");
+        labelLevel.put("credentialSubject", labelLevelSubject);
+
+        labelLevelVCs.put("vcs", Map.of("labelLevel", labelLevel));
+        labelLevelVCs.put("verificationMethod", CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()));
+        labelLevelVCs.put("issuer", CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()));
+
+        LOGGER.info("label level request  -> {}", objectMapper.writeValueAsString(labelLevelVCs));
+
+        //create VC for service offering
+        String domain = enterprise.getSubDomainName();
+        String did = CommonUtils.getEnterpriseDid(enterprise.getSubDomainName());
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("name", request.getName());
+        data.put("fileName", fileName);
+        data.put("description", request.getDescription());
+        data.put("policyUrl", request.getPolicy());
+        data.put("termsAndConditionsUrl", request.getTerms());
+        data.put("termsAndConditionsHash", TERMS_HASH);
+        data.put("requestType", request.getRequestType());
+        data.put("accessType", request.getAccessType());
+        data.put("formatType", request.getFormatType());
+        if (request.getResource() != null) {
+            data.put("resource", request.getResource());
+        }
+        return new ServiceOfferDraft(enterpriseId, request, name, fileName, did, domain, labelLevelId, labelLevelVCs, data);
+    }
 
-            LOGGER.info("label level response  -> {}", labelLevelVc);
+    /**
+     * Sign the label level VC and the service offering VC in parallel and upload them as public files.
+     *
+     * @param draft the service offer draft
+     * @return the service offer signing
+     */
+    ServiceOfferSigning signServiceOffer(ServiceOfferDraft draft) {
+        long enterpriseId = draft.getEnterpriseId();
+        Executor executor = asyncOperationService.getExecutor();
+
+        //label level VC and upload
+        CompletableFuture<Void> labelLevelUploaded = CompletableFuture.supplyAsync(() -> {
+                    String labelLevelVc = credentialSigner.signLabelLevel(enterpriseId, draft.getSubDomain(), draft.getLabelLevelVCs());
+                    LOGGER.info("label level response  -> {}", labelLevelVc);
+                    return labelLevelVc;
+                }, executor)
+                .thenAcceptAsync(labelLevelVc -> {
+                    LOGGER.info("uploading label level json file");
+                    uploadPublicFile(enterpriseId + "/" + draft.getLabelLevelId() + ".json", labelLevelVc);
+                    LOGGER.info("label level json file uploaded");
+                }, executor);
+
+        //service offering VC and upload
+        CompletableFuture<String> serviceOfferingVc = CompletableFuture.supplyAsync(() ->
+                toJson(credentialSigner.createVC(enterpriseId, draft.getSubDomain(), CredentialSigner.SERVICE_OFFERING, draft.getServiceOfferingData())), executor);
+        CompletableFuture<Void> serviceOfferingUploaded = serviceOfferingVc.thenAcceptAsync(serviceOfferingString ->
+                uploadPublicFile(enterpriseId + "/" + draft.getFileName(), serviceOfferingString), executor);
+
+        return new ServiceOfferSigning(serviceOfferingVc, CompletableFuture.allOf(labelLevelUploaded, serviceOfferingUploaded));
+    }
 
+    /**
+     * Build the credential of a signed service offering.
+     *
+     * @param draft             the service offer draft
+     * @param serviceOfferingVc the signed service offering VC
+     * @return the enterprise credential
+     */
+    EnterpriseCredential toEnterpriseCredential(ServiceOfferDraft draft, String serviceOfferingVc) {
+        return EnterpriseCredential.builder()
+                .label(draft.getName())
+                .enterpriseId(draft.getEnterpriseId())
+                .credentials(serviceOfferingVc)
+                .build();
+    }
 
-            LOGGER.info("uploading label level json file");
-            File labelLeveFile = new File("/tmp/" + labelLevelId + ".json");
-            FileUtils.writeStringToFile(labelLeveFile, labelLevelVc, Charset.defaultCharset());
-            s3Utils.uploadFile(enterpriseId + "/" + labelLevelId + ".json", labelLeveFile);
-            LOGGER.info("label level json file uploaded");
+    /**
+     * Build the service offer of a signed service offering.
+     *
+     * @param draft        the service offer draft
+     * @param credentialId the id of the saved credential
+     * @return the service offer
+     */
+    ServiceOffer toServiceOffer(ServiceOfferDraft draft, Long credentialId) {
+        CreateServiceOfferingRequest request = draft.getRequest();
+        return ServiceOffer.builder()
+                .enterpriseId(draft.getEnterpriseId())
+                .meta(request.getMeta())
+                .copyrightOwnedBy(draft.getDid())
+                .name(draft.getName())
+                .label(request.getName())
+                .credentialId(credentialId)
+                .description(request.getDescription())
+                .policy(request.getPolicy())
+                .producedBy(draft.getDid())
+                .subjectDid(draft.getDid())
+                .labelLevel(draft.getLabelLevelId() + ".json")
+                .accessType(request.getAccessType())
+                .requestType(request.getRequestType())
+                .formatType(request.getFormatType())
+                .terms(request.getTerms())
+                .termsHash(TERMS_HASH)
+                .build();
+    }
 
-            //-----------------
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new CompletionException(e);
+        }
+    }
 
-            //create VC for service offering
-            String domain = enterprise.getSubDomainName();
-            String did = CommonUtils.getEnterpriseDid(enterprise.getSubDomainName());
-            HashMap<String, Object> data = new HashMap<>();
-            data.put("name", request.getName());
-            data.put("fileName", file.getName());
-            data.put("description", request.getDescription());
-            data.put("policyUrl", request.getPolicy());
-            data.put("termsAndConditionsUrl", request.getTerms());
-            data.put("termsAndConditionsHash", "70c1d713215f95191a11d38fe2341faed27d19e083917bc8732ca4fea4976700"); //pragma: allowlist secret
-            data.put("requestType", request.getRequestType());
-            data.put("accessType", request.getAccessType());
-            data.put("formatType", request.getFormatType());
-            if (request.getResource() != null) {
-                data.put("resource", request.getResource());
-            }
-            CreateVCRequest createVCRequest = CreateVCRequest.builder()
-                    .data(data)
-                    .templateId("ServiceOffering")
-                    .domain(domain)
-                    .privateKeyUrl(s3Utils.getPreSignedUrl(enterpriseId + "/pkcs8_" + domain + ".key"))
-                    .build();
-            ResponseEntity<Map<String, Object>> vc = signerClient.createVc(createVCRequest);
-            String serviceOfferingString = objectMapper.writeValueAsString(((Map<String, Object>) vc.getBody().get("data")).get("verifiableCredential"));
-
-            //save credentials
-            EnterpriseCredential enterpriseCredential = EnterpriseCredential.builder()
-                    .label(name)
-                    .enterpriseId(enterpriseId)
-                    .credentials(serviceOfferingString)
-                    .build();
-            enterpriseCredential = enterpriseCredentialRepository.save(enterpriseCredential);
-
-            //Save file in S3
-            FileUtils.writeStringToFile(file, serviceOfferingString, Charset.defaultCharset());
-            s3Utils.uploadFile(enterpriseId + "/" + name + ".json", file);
-
-            //Store service offer
-            serviceOffer = ServiceOffer.builder()
-                    .enterpriseId(enterpriseId)
-                    .meta(request.getMeta())
-                    .copyrightOwnedBy(did)
-                    .name(name)
-                    .label(request.getName())
-                    .credentialId(enterpriseCredential.getId())
-                    .description(request.getDescription())
-                    .policy(request.getPolicy())
-                    .producedBy(did)
-                    .subjectDid(did)
-                    .labelLevel(labelLevelId + ".json")
-                    .accessType(request.getAccessType())
-                    .requestType(request.getRequestType())
-                    .formatType(request.getFormatType())
-                    .terms(request.getTerms())
-                    .termsHash("70c1d713215f95191a11d38fe2341faed27d19e083917bc8732ca4fea4976700") //pragma: allowlist secret
-                    .build();
-            return serviceOfferRepository.save(serviceOffer);
-        } finally {
-            CommonUtils.deleteFile(file);
+    private void uploadPublicFile(String key, String content) {
+        try {
+            objectStore.put(key, content.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON_VALUE);
+            wellKnownFileCache.invalidate(key);
+        } catch (IOException e) {
+            throw new CompletionException(e);
         }
     }
 
     /**
-     * Service offer list list.
+     * Service offers of all other enterprises, ordered by id.
      *
      * @param enterpriseId the enterprise id
      * @param query        the query
-     * @return the list
+     * @param afterId      id of the last service offer of the previous page, null for the first page
+     * @param limit        the page size, null for the default
+     * @param count        whether to count all matching service offers
+     * @return the keyset page
      */
-    public List<ServiceOfferView> allServiceOfferList(long enterpriseId, String query) {
-        if (StringUtils.isBlank(query)) {
-            return serviceOfferViewRepository.getAllServiceOffers(enterpriseId);
+    public KeysetPage<ServiceOfferView> allServiceOfferList(long enterpriseId, String query, Long afterId, Integer limit, boolean count) {
+        int pageSize = pageSize(limit);
+        long after = afterId == null ? 0 : afterId;
+        if (ServiceOfferSearchRepository.toTsQuery(query) == null) {
+            return KeysetPage.of(serviceOfferViewRepository.getAllServiceOffers(enterpriseId, after, PageRequest.ofSize(pageSize + 1)), pageSize, ServiceOfferView::getId,
+                    count ? serviceOfferViewRepository.countAllServiceOffers(enterpriseId) : null);
         } else {
-            return serviceOfferViewRepository.getAllServiceOffers(enterpriseId, query);
+            ServiceOfferSearchFilter filter = ServiceOfferSearchFilter.builder().query(query).build();
+            return KeysetPage.of(catalogueSearchService.match(enterpriseId, filter, after, pageSize + 1), pageSize, ServiceOfferView::getId,
+                    count ? catalogueSearchService.count(enterpriseId, filter) : null);
         }
+    }
 
+    /**
+     * Full text search of service offers of all other enterprises, best match first.
+     *
+     * @param enterpriseId the enterprise id
+     * @param filter       the filter
+     * @param offset       the offset
+     * @param limit        the page size, null for the default
+     * @return the search result
+     */
+    public ServiceOfferSearchResult searchServiceOffers(long enterpriseId, ServiceOfferSearchFilter filter, int offset, Integer limit) {
+        Validate.isTrue(ServiceOfferSearchRepository.toTsQuery(filter.getQuery()) == null).launch(new BadDataException("Search query is required"));
+        Validate.isTrue(offset < 0).launch(new BadDataException("Offset can not be negative"));
+        return catalogueSearchService.search(enterpriseId, filter, offset, pageSize(limit));
     }
 
     /**
-     * Service offer list list.
+     * Service offers of the enterprise, ordered by id.
      *
      * @param enterpriseId the enterprise id
-     * @return the list
+     * @param afterId      id of the last service offer of the previous page, null for the first page
+     * @param limit        the page size, null for the default
+     * @param count        whether to count all service offers of the enterprise
+     * @return the keyset page
      */
-    public List<ServiceOfferView> serviceOfferList(long enterpriseId) {
-        return serviceOfferViewRepository.getByEnterpriseId(enterpriseId);
+    public KeysetPage<ServiceOfferView> serviceOfferList(long enterpriseId, Long afterId, Integer limit, boolean count) {
+        int pageSize = pageSize(limit);
+        List<ServiceOfferView> serviceOffers = serviceOfferViewRepository.getByEnterpriseId(enterpriseId, afterId == null ? 0 : afterId, PageRequest.ofSize(pageSize + 1));
+        return KeysetPage.of(serviceOffers, pageSize, ServiceOfferView::getId, count ? serviceOfferViewRepository.countByEnterpriseId(enterpriseId) : null);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return paginationSettings.getDefaultLimit();
+        }
+        Validate.isTrue(limit < 1 || limit > paginationSettings.getMaxLimit()).launch(new BadDataException("Limit must be between 1 and " + paginationSettings.getMaxLimit()));
+        return limit;
     }
 
     /**
@@ -417,17 +646,16 @@ public class EnterpriseService {
      * @param enterpriseId   the enterprise id
      * @param offerId        the offer id
      * @param presentationId the presentation id
+     * @param client         the client which verifies the presentation
      * @return the map
-     * @throws JsonProcessingException the json processing exception
      */
-    public ServiceOfferDetailsResponse serviceOfferDetails(long enterpriseId, long offerId, String presentationId) throws JsonProcessingException {
+    public ServiceOfferDetailsResponse serviceOfferDetails(long enterpriseId, long offerId, String presentationId, String client) {
         ServiceOffer serviceOffer = serviceOfferRepository.findById(offerId).orElseThrow(EntityNotFoundException::new);
-        ResponseEntity<VerifyPresentationResponse> responseEntity = ocmClient.verifyPresentation(presentationId);
-        VerifyPresentationResponse body = responseEntity.getBody();
-        LOGGER.debug(" verifyPresentation response while accessing service offer {} -> {}", offerId, objectMapper.writeValueAsString(body));
-        PresentationData data = body.getData();
+        PresentationState presentationState = awaitPresentationState(presentationWatcher.current(presentationId, client));
+        PresentationData data = presentationState.getData();
+        LOGGER.debug(" verifyPresentation state while accessing service offer {} -> {}", offerId, data.getState());
         String state = data.getState();
-        if (state.equalsIgnoreCase("done") && !data.getPresentations().isEmpty()) {
+        if ("done".equalsIgnoreCase(state) && !data.getPresentations().isEmpty()) {
             Presentation presentation = data.getPresentations().get(0);
             String legalName = presentation.getCredentialSubject().get("gx:legalName");
             LOGGER.debug("legalName form verification result -{}", legalName);
@@ -443,29 +671,31 @@ public class EnterpriseService {
                     .build();
             serviceAccessLogRepository.save(serviceAccessLog);
             return ServiceOfferDetailsResponse.builder()
-                    .statusCode(responseEntity.getStatusCode().value())
+                    .statusCode(presentationState.getStatusCode())
                     .status(data.getState())
                     .meta(serviceOffer.getMeta())
                     .build();
         } else {
             return ServiceOfferDetailsResponse.builder()
-                    .statusCode(responseEntity.getStatusCode().value())
+                    .statusCode(presentationState.getStatusCode())
                     .status(data.getState())
                     .build();
         }
     }
 
     /**
-     * Export keys map.
+     * Export keys map. Only S3 shares private keys with pre-signed urls, the local and memory object store never serve
+     * them.
      *
      * @param enterpriseId the enterprise id
      * @return the map
      */
     public Map<String, String> exportKeys(long enterpriseId) {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(EntityNotFoundException::new);
+        Validate.isTrue(storageSettings.isServedByApplication()).launch(new BadDataException("Keys can not be exported from the " + storageSettings.getType() + " object store, private keys are only shared with pre-signed urls of S3"));
         Map<String, String> keys = new HashMap<>();
-        keys.put("key", s3Utils.getPreSignedUrl(s3Utils.getPreSignedUrl(enterpriseId + "/" + enterprise.getSubDomainName() + ".key")));
-        keys.put("pkcs8Key", s3Utils.getPreSignedUrl(s3Utils.getPreSignedUrl(enterpriseId + "/pkcs8_" + enterprise.getSubDomainName() + ".key")));
+        keys.put("key", objectStore.getPreSignedUrl(enterpriseId + "/" + enterprise.getSubDomainName() + ".key"));
+        keys.put("pkcs8Key", objectStore.getPreSignedUrl(enterpriseId + "/pkcs8_" + enterprise.getSubDomainName() + ".key"));
         return keys;
     }
 
@@ -479,10 +709,6 @@ public class EnterpriseService {
     public ServiceOfferView getServiceOfferDetailsById(long enterpriseId, long id) {
         ServiceOfferView serviceOfferView = serviceOfferViewRepository.getByEnterpriseIdAndId(enterpriseId, id);
         Validate.isNull(serviceOfferView).launch(new BadDataException("invalid.service.offer.id"));
-        ServiceOffer serviceOffer = serviceOfferRepository.getByIdAndEnterpriseId(id, enterpriseId);
-        Validate.isNull(serviceOfferView).launch(new BadDataException("invalid.service.offer.id"));
-        Validate.isNull(serviceOffer).launch(new BadDataException());
-        serviceOfferView.setMeta(serviceOffer.getMeta());
         return serviceOfferView;
     }
 
@@ -497,7 +723,9 @@ public class EnterpriseService {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(EntityNotFoundException::new);
         enterprise.setStatus(status);
 
-        return enterpriseRepository.save(enterprise);
+        enterprise = enterpriseRepository.save(enterprise);
+        catalogueSearchService.enterpriseChanged(enterpriseId);
+        return enterprise;
     }
 
     public String encodeToBase64(String content) {
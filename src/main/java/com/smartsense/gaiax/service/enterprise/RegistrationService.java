@@ -10,9 +10,8 @@ import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
 import com.smartsense.gaiax.dto.RegisterRequest;
 import com.smartsense.gaiax.dto.RegistrationStatus;
-import com.smartsense.gaiax.dto.StringPool;
-import com.smartsense.gaiax.service.job.ScheduleService;
 import com.smartsense.gaiax.service.ocm.OcmService;
+import com.smartsense.gaiax.service.onboarding.OnboardingService;
 import com.smartsense.gaiax.utils.Validate;
 import org.quartz.SchedulerException;
 import org.springframework.stereotype.Service;
@@ -34,7 +33,7 @@ public class RegistrationService {
 
     private final AWSSettings awsSettings;
 
-    private final ScheduleService scheduleService;
+    private final OnboardingService onboardingService;
 
     private final OcmService ocmService;
 
@@ -44,13 +43,13 @@ public class RegistrationService {
      *
      * @param enterpriseRepository the enterprise repository
      * @param awsSettings          the aws settings
-     * @param scheduleService
+     * @param onboardingService    the onboarding service
      * @param ocmService
      */
-    public RegistrationService(EnterpriseRepository enterpriseRepository, AWSSettings awsSettings, ScheduleService scheduleService, OcmService ocmService) {
+    public RegistrationService(EnterpriseRepository enterpriseRepository, AWSSettings awsSettings, OnboardingService onboardingService, OcmService ocmService) {
         this.enterpriseRepository = enterpriseRepository;
         this.awsSettings = awsSettings;
-        this.scheduleService = scheduleService;
+        this.onboardingService = onboardingService;
         this.ocmService = ocmService;
     }
 
@@ -103,8 +102,8 @@ public class RegistrationService {
                 .build());
 
 
-        //create job to create subdomain
-        scheduleService.createJob(enterprise.getId(), StringPool.JOB_TYPE_CREATE_SUB_DOMAIN, 0);
+        //start onboarding, first step is sub domain creation
+        onboardingService.start(enterprise.getId());
         return enterprise;
     }
 
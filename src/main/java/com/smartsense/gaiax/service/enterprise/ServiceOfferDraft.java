@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.enterprise;
+
+import com.smartsense.gaiax.dto.CreateServiceOfferingRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The type Service offer draft. A validated service offering with the data of its signer requests, ready to be signed.
+ */
+@Getter
+@AllArgsConstructor
+class ServiceOfferDraft {
+
+    private final long enterpriseId;
+
+    private final CreateServiceOfferingRequest request;
+
+    private final String name;
+
+    private final String fileName;
+
+    private final String did;
+
+    private final String subDomain;
+
+    private final String labelLevelId;
+
+    private final Map<String, Object> labelLevelVCs;
+
+    private final Map<String, Object> serviceOfferingData;
+}
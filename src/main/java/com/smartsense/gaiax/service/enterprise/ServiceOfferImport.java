@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.enterprise;
+
+import com.smartsense.gaiax.dto.ServiceOfferImportResult;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The type Service offer import. A validated import request, items which failed the validation already have their
+ * result.
+ */
+@Getter
+@AllArgsConstructor
+public class ServiceOfferImport {
+
+    private final long enterpriseId;
+
+    private final List<ServiceOfferImportResult> rejected;
+
+    private final List<Item> items;
+
+    /**
+     * The type Item, a valid service offering of the import.
+     */
+    @Getter
+    @AllArgsConstructor
+    static class Item {
+
+        private final int index;
+
+        private final ServiceOfferDraft draft;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.enterprise;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsense.gaiax.config.ServiceOfferImportSettings;
+import com.smartsense.gaiax.dao.entity.Enterprise;
+import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
+import com.smartsense.gaiax.dao.entity.ServiceOffer;
+import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
+import com.smartsense.gaiax.dao.repository.ServiceOfferBatchRepository;
+import com.smartsense.gaiax.dao.repository.ServiceOfferRepository;
+import com.smartsense.gaiax.dto.CreateServiceOfferingRequest;
+import com.smartsense.gaiax.dto.OperationStatus;
+import com.smartsense.gaiax.dto.ServiceOfferImportResult;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.exception.DownstreamUnavailableException;
+import com.smartsense.gaiax.exception.EntityNotFoundException;
+import com.smartsense.gaiax.service.search.CatalogueSearchService;
+import com.smartsense.gaiax.utils.Validate;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Service offer import service. Creates many service offerings of one enterprise in one request: all items
+ * are validated up front, signed with bounded concurrency and saved with JDBC batches. The result of every item is
+ * written as one NDJSON line as soon as it is known.
+ */
+@Service
+public class ServiceOfferImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceOfferImportService.class);
+
+    private final EnterpriseService enterpriseService;
+
+    private final EnterpriseRepository enterpriseRepository;
+
+    private final ServiceOfferRepository serviceOfferRepository;
+
+    private final ServiceOfferBatchRepository serviceOfferBatchRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final ServiceOfferImportSettings settings;
+
+    private final CatalogueSearchService catalogueSearchService;
+
+    private final ThreadPoolTaskExecutor importExecutor;
+
+    /**
+     * Instantiates a new Service offer import service.
+     *
+     * @param enterpriseService           the enterprise service
+     * @param enterpriseRepository        the enterprise repository
+     * @param serviceOfferRepository      the service offer repository
+     * @param serviceOfferBatchRepository the service offer batch repository
+     * @param objectMapper                the object mapper
+     * @param settings                    the settings
+     * @param catalogueSearchService      the catalogue search service
+     */
+    public ServiceOfferImportService(EnterpriseService enterpriseService, EnterpriseRepository enterpriseRepository, ServiceOfferRepository serviceOfferRepository, ServiceOfferBatchRepository serviceOfferBatchRepository, ObjectMapper objectMapper, ServiceOfferImportSettings settings, CatalogueSearchService catalogueSearchService) {
+        this.enterpriseService = enterpriseService;
+        this.enterpriseRepository = enterpriseRepository;
+        this.serviceOfferRepository = serviceOfferRepository;
+        this.serviceOfferBatchRepository = serviceOfferBatchRepository;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.catalogueSearchService = catalogueSearchService;
+        importExecutor = new ThreadPoolTaskExecutor();
+        importExecutor.setCorePoolSize(settings.getMaxRunning());
+        importExecutor.setMaxPoolSize(settings.getMaxRunning());
+        importExecutor.setQueueCapacity(0);
+        importExecutor.setThreadNamePrefix("service-offer-import-");
+        importExecutor.initialize();
+    }
+
+    /**
+     * Read and validate an import request. The content is either a JSON array or NDJSON of create service offering
+     * requests. Errors of single items are reported as item results, only a malformed or too big request is rejected.
+     * The body is parsed item by item but read completely before any result is written, at most maxItems items are
+     * held in memory. Validating all names up front keeps a malformed request a 400 and needs one IN query only.
+     *
+     * @param enterpriseId the enterprise id
+     * @param inputStream  the request body
+     * @return the service offer import
+     * @throws IOException the io exception
+     */
+    public ServiceOfferImport prepare(long enterpriseId, InputStream inputStream) throws IOException {
+        Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(EntityNotFoundException::new);
+
+        //jackson unwraps a root level array, so the same iterator reads NDJSON and JSON arrays
+        List<CreateServiceOfferingRequest> requests = new ArrayList<>();
+        try (MappingIterator<CreateServiceOfferingRequest> iterator = objectMapper.readerFor(CreateServiceOfferingRequest.class).readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                requests.add(iterator.nextValue());
+                Validate.isTrue(requests.size() > settings.getMaxItems()).launch(new BadDataException("Maximum " + settings.getMaxItems() + " service offerings can be imported at once"));
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadDataException("Invalid service offering import: " + e.getOriginalMessage());
+        }
+        Validate.isTrue(requests.isEmpty()).launch(new BadDataException("No service offering to import"));
+
+        //one query for all names instead of one per item
+        Set<String> names = new HashSet<>();
+        for (CreateServiceOfferingRequest request : requests) {
+            if (StringUtils.isNotBlank(request.getName())) {
+                names.add(EnterpriseService.normalizeServiceOfferName(request.getName()));
+            }
+        }
+        Set<String> usedNames = names.isEmpty() ? new HashSet<>() : new HashSet<>(serviceOfferRepository.getExistingNames(enterpriseId, names));
+
+        List<ServiceOfferImportResult> rejected = new ArrayList<>();
+        List<ServiceOfferImport.Item> items = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            CreateServiceOfferingRequest request = requests.get(index);
+            if (StringUtils.isBlank(request.getName())) {
+                rejected.add(failed(index, request.getName(), "Name is required"));
+                continue;
+            }
+            //also rejects duplicates within the request
+            if (!usedNames.add(EnterpriseService.normalizeServiceOfferName(request.getName()))) {
+                rejected.add(failed(index, request.getName(), "Duplicate service offering"));
+                continue;
+            }
+            try {
+                items.add(new ServiceOfferImport.Item(index, enterpriseService.prepareServiceOffer(enterprise, request)));
+            } catch (JsonProcessingException e) {
+                rejected.add(failed(index, request.getName(), e.getOriginalMessage()));
+            }
+        }
+        LOGGER.debug("Service offering import of enterprise {}: {} valid, {} rejected", enterpriseId, items.size(), rejected.size());
+        return new ServiceOfferImport(enterpriseId, rejected, items);
+    }
+
+    /**
+     * Start an import on the import executor. The emitter has its own timeout, so only import responses stay open that
+     * long.
+     *
+     * @param serviceOfferImport the service offer import
+     * @return the emitter of the NDJSON result lines
+     */
+    public ResponseBodyEmitter start(ServiceOfferImport serviceOfferImport) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(settings.getTimeout());
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    run(serviceOfferImport, emitter);
+                    emitter.complete();
+                } catch (Exception e) {
+                    LOGGER.error("Service offering import of enterprise {} failed", serviceOfferImport.getEnterpriseId(), e);
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            throw new DownstreamUnavailableException("Too many service offering imports in progress, please retry later");
+        }
+        return emitter;
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        importExecutor.shutdown();
+    }
+
+    /**
+     * Run an import, the result of every item is sent as one NDJSON line. Once signing has started the import is
+     * completed even if the client goes away or the emitter times out, so uploaded files always get their service
+     * offer.
+     *
+     * @param serviceOfferImport the service offer import
+     * @param emitter            the emitter
+     * @throws IOException the io exception
+     */
+    void run(ServiceOfferImport serviceOfferImport, ResponseBodyEmitter emitter) throws IOException {
+        ResultWriter writer = new ResultWriter(emitter);
+        for (ServiceOfferImportResult result : serviceOfferImport.getRejected()) {
+            writer.write(result);
+        }
+
+        List<ServiceOfferImport.Item> items = serviceOfferImport.getItems();
+        BlockingQueue<SignedItem> signedItems = new LinkedBlockingQueue<>();
+        List<SignedItem> batch = new ArrayList<>();
+        long batchStartedAt = 0;
+        int next = 0;
+        int inFlight = 0;
+        int created = 0;
+        try {
+            while (next < items.size() || inFlight > 0) {
+                //keep at most signConcurrency items at the signer
+                while (inFlight < settings.getSignConcurrency() && next < items.size()) {
+                    ServiceOfferImport.Item item = items.get(next++);
+                    inFlight++;
+                    enterpriseService.signServiceOffer(item.getDraft()).whenUploaded()
+                            .whenComplete((vc, throwable) -> signedItems.add(new SignedItem(item, vc, throwable)));
+                }
+
+                long wait = batch.isEmpty() ? settings.getFlushInterval() : Math.max(0, batchStartedAt + settings.getFlushInterval() - System.currentTimeMillis());
+                SignedItem signedItem = signedItems.poll(wait, TimeUnit.MILLISECONDS);
+                if (signedItem != null) {
+                    inFlight--;
+                    if (signedItem.getError() != null) {
+                        Throwable cause = signedItem.getError() instanceof CompletionException ? signedItem.getError().getCause() : signedItem.getError();
+                        LOGGER.error("Can not sign service offering {} of enterprise {}", signedItem.getItem().getDraft().getName(), serviceOfferImport.getEnterpriseId(), cause);
+                        writer.write(failed(signedItem.getItem(), cause.getMessage()));
+                        continue;
+                    }
+                    if (batch.isEmpty()) {
+                        batchStartedAt = System.currentTimeMillis();
+                    }
+                    batch.add(signedItem);
+                }
+                if (!batch.isEmpty() && (batch.size() >= settings.getBatchSize() || System.currentTimeMillis() - batchStartedAt >= settings.getFlushInterval())) {
+                    created += flush(batch, writer);
+                }
+            }
+            created += flush(batch, writer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Service offering import interrupted", e);
+        }
+        LOGGER.info("Service offering import of enterprise {} done, {} of {} created", serviceOfferImport.getEnterpriseId(), created, serviceOfferImport.getRejected().size() + items.size());
+    }
+
+    private int flush(List<SignedItem> batch, ResultWriter writer) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<EnterpriseCredential> credentials = new ArrayList<>(batch.size());
+        List<ServiceOffer> serviceOffers = new ArrayList<>(batch.size());
+        for (SignedItem signedItem : batch) {
+            ServiceOfferDraft draft = signedItem.getItem().getDraft();
+            credentials.add(enterpriseService.toEnterpriseCredential(draft, signedItem.getServiceOfferingVc()));
+            serviceOffers.add(enterpriseService.toServiceOffer(draft, null));
+        }
+        int created = 0;
+        try {
+            serviceOfferBatchRepository.saveAll(credentials, serviceOffers);
+            catalogueSearchService.serviceOffersSaved(serviceOffers);
+            for (int i = 0; i < batch.size(); i++) {
+                ServiceOfferImport.Item item = batch.get(i).getItem();
+                writer.write(ServiceOfferImportResult.builder()
+                        .index(item.getIndex())
+                        .name(item.getDraft().getRequest().getName())
+                        .status(OperationStatus.COMPLETED)
+                        .serviceOfferId(serviceOffers.get(i).getId())
+                        .build());
+            }
+            created = batch.size();
+        } catch (RuntimeException e) {
+            LOGGER.error("Can not save batch of {} service offerings", batch.size(), e);
+            for (SignedItem signedItem : batch) {
+                writer.write(failed(signedItem.getItem(), "Can not save service offering"));
+            }
+        }
+        batch.clear();
+        return created;
+    }
+
+    private static ServiceOfferImportResult failed(ServiceOfferImport.Item item, String error) {
+        return failed(item.getIndex(), item.getDraft().getRequest().getName(), error);
+    }
+
+    private static ServiceOfferImportResult failed(int index, String name, String error) {
+        return ServiceOfferImportResult.builder()
+                .index(index)
+                .name(name)
+                .status(OperationStatus.FAILED)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Result of the signing of one item.
+     */
+    private static class SignedItem {
+
+        private final ServiceOfferImport.Item item;
+
+        private final String serviceOfferingVc;
+
+        private final Throwable error;
+
+        private SignedItem(ServiceOfferImport.Item item, String serviceOfferingVc, Throwable error) {
+            this.item = item;
+            this.serviceOfferingVc = serviceOfferingVc;
+            this.error = error;
+        }
+
+        private ServiceOfferImport.Item getItem() {
+            return item;
+        }
+
+        private String getServiceOfferingVc() {
+            return serviceOfferingVc;
+        }
+
+        private Throwable getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Sends NDJSON lines, stops sending but does not fail once the client is gone or the emitter timed out.
+     */
+    private class ResultWriter {
+
+        private final ResponseBodyEmitter emitter;
+
+        private boolean closed;
+
+        private ResultWriter(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void write(ServiceOfferImportResult result) {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send((objectMapper.writeValueAsString(result) + "\n").getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_NDJSON);
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.warn("Can not send service offering import result, client is gone: {}", e.getMessage());
+                closed = true;
+            }
+        }
+    }
+}
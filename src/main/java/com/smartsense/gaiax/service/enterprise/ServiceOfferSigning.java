@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.enterprise;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The type Service offer signing. Futures of a running signing of a service offering.
+ */
+@Getter
+@AllArgsConstructor
+class ServiceOfferSigning {
+
+    /**
+     * Completes with the signed service offering VC
+     */
+    private final CompletableFuture<String> serviceOfferingVc;
+
+    /**
+     * Completes once the label level VC and the service offering VC are uploaded
+     */
+    private final CompletableFuture<Void> uploaded;
+
+    /**
+     * Future which completes with the service offering VC once both files are uploaded.
+     *
+     * @return the future
+     */
+    CompletableFuture<String> whenUploaded() {
+        return uploaded.thenCompose(v -> serviceOfferingVc);
+    }
+}
@@ -47,29 +47,59 @@ public class ScheduleService {
     }
 
     /**
-     * Create job.
+     * Create job. The job is removed by Quartz when it is executed, it is executed again on another node if the node
+     * executing it dies.
      *
      * @param enterpriseId the enterprise id
      * @param type         the type
-     * @param count        the count
+     * @param delay        the start delay in milliseconds, 0 to start immediately
      * @throws SchedulerException the scheduler exception
      */
-    public void createJob(long enterpriseId, String type, int count) throws SchedulerException {
+    public void createJob(long enterpriseId, String type, long delay) throws SchedulerException {
         JobDetail job = JobBuilder.newJob(ScheduledJobBean.class)
                 .withIdentity(UUID.randomUUID().toString(), type)
-                .storeDurably()
                 .requestRecovery()
                 .usingJobData(StringPool.ENTERPRISE_ID, enterpriseId)
                 .usingJobData(StringPool.JOB_TYPE, type)
                 .build();
 
-        SimpleTrigger activateEnterpriseUserTrigger = TriggerBuilder.newTrigger()
+        TriggerBuilder<Trigger> triggerBuilder = TriggerBuilder.newTrigger()
                 .forJob(job)
-                .withIdentity(UUID.randomUUID().toString(), type)
-                .startAt(new Date(System.currentTimeMillis() + 10000)) //start after 10 sec
-                .withSchedule(SimpleScheduleBuilder.simpleSchedule().withRepeatCount(count).withIntervalInSeconds(30))
-                .build();
-        scheduler.scheduleJob(job, activateEnterpriseUserTrigger);
+                .withIdentity(UUID.randomUUID().toString(), type);
+        if (delay > 0) {
+            triggerBuilder.startAt(new Date(System.currentTimeMillis() + delay));
+        } else {
+            triggerBuilder.startNow();
+        }
+        scheduler.scheduleJob(job, triggerBuilder.build());
         LOGGER.debug("{}: job created for enterprise id->{}", type, enterpriseId);
     }
+
+    /**
+     * Create singleton job. The job key is the type, so only one job of the type exists in the cluster at a time.
+     *
+     * @param type the type
+     * @return true if job is created, false if a job of the type already exists
+     * @throws SchedulerException the scheduler exception
+     */
+    public boolean createSingletonJob(String type) throws SchedulerException {
+        JobDetail job = JobBuilder.newJob(ScheduledJobBean.class)
+                .withIdentity(type, type)
+                .requestRecovery()
+                .usingJobData(StringPool.JOB_TYPE, type)
+                .build();
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .forJob(job)
+                .withIdentity(type, type)
+                .startNow()
+                .build();
+        try {
+            scheduler.scheduleJob(job, trigger);
+        } catch (ObjectAlreadyExistsException e) {
+            LOGGER.debug("{}: job already exists", type);
+            return false;
+        }
+        LOGGER.debug("{}: singleton job created", type);
+        return true;
+    }
 }
@@ -4,11 +4,14 @@
 
 package com.smartsense.gaiax.service.job;
 
+import com.smartsense.gaiax.dto.OnboardingStepType;
 import com.smartsense.gaiax.dto.StringPool;
 import com.smartsense.gaiax.service.domain.DomainService;
 import com.smartsense.gaiax.service.k8s.K8SService;
+import com.smartsense.gaiax.service.onboarding.OnboardingService;
 import com.smartsense.gaiax.service.signer.SignerService;
 import com.smartsense.gaiax.service.ssl.CertificateService;
+import com.smartsense.gaiax.service.ssl.WildcardCertificateService;
 import org.quartz.DisallowConcurrentExecution;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
@@ -17,6 +20,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The type Scheduled job bean.
  */
@@ -34,39 +39,53 @@ public class ScheduledJobBean extends QuartzJobBean {
 
     private final SignerService signerService;
 
+    private final OnboardingService onboardingService;
+
+    private final WildcardCertificateService wildcardCertificateService;
+
     /**
      * Instantiates a new Scheduled job bean.
      *
-     * @param domainService      the domain service
-     * @param certificateService the certificate service
-     * @param k8SService         the k 8 s service
-     * @param signerService      the signer service
+     * @param domainService              the domain service
+     * @param certificateService         the certificate service
+     * @param k8SService                 the k 8 s service
+     * @param signerService              the signer service
+     * @param onboardingService          the onboarding service
+     * @param wildcardCertificateService the wildcard certificate service
      */
-    public ScheduledJobBean(DomainService domainService, CertificateService certificateService, K8SService k8SService, SignerService signerService) {
+    public ScheduledJobBean(DomainService domainService, CertificateService certificateService, K8SService k8SService, SignerService signerService, OnboardingService onboardingService, WildcardCertificateService wildcardCertificateService) {
         this.domainService = domainService;
         this.certificateService = certificateService;
         this.k8SService = k8SService;
         this.signerService = signerService;
+        this.onboardingService = onboardingService;
+        this.wildcardCertificateService = wildcardCertificateService;
     }
 
     @Override
     protected void executeInternal(JobExecutionContext context) {
         JobDetail jobDetail = context.getJobDetail();
         String jobType = jobDetail.getJobDataMap().getString(StringPool.JOB_TYPE);
+        if (StringPool.JOB_TYPE_RENEW_WILDCARD_CERTIFICATE.equals(jobType)) {
+            wildcardCertificateService.renew();
+            LOGGER.info("job completed");
+            return;
+        }
+        long enterpriseId = jobDetail.getJobDataMap().getLong(StringPool.ENTERPRISE_ID);
 
-        switch (jobType) {
-            case StringPool.JOB_TYPE_CREATE_SUB_DOMAIN ->
-                    domainService.createSubDomain(jobDetail.getJobDataMap().getLong(StringPool.ENTERPRISE_ID));
-            case StringPool.JOB_TYPE_CREATE_CERTIFICATE ->
-                    certificateService.createSSLCertificate(jobDetail.getJobDataMap().getLong(StringPool.ENTERPRISE_ID), jobDetail.getKey());
-            case StringPool.JOB_TYPE_CREATE_INGRESS ->
-                    k8SService.createIngress(jobDetail.getJobDataMap().getLong(StringPool.ENTERPRISE_ID));
-            case StringPool.JOB_TYPE_CREATE_DID ->
-                    signerService.createDid(jobDetail.getJobDataMap().getLong(StringPool.ENTERPRISE_ID));
-            case StringPool.JOB_TYPE_CREATE_PARTICIPANT ->
-                    signerService.createParticipantJson(jobDetail.getJobDataMap().getLong(StringPool.ENTERPRISE_ID));
-            default -> LOGGER.error("Invalid job type -> {}", jobType);
+        OnboardingStepType stepType = OnboardingStepType.fromJobType(jobType);
+        if (stepType == null) {
+            LOGGER.error("Invalid job type -> {}", jobType);
+            return;
         }
+        onboardingService.execute(enterpriseId, stepType, context.isRecovering(), () -> switch (stepType) {
+            //sub domain, certificate and ingress are created asynchronously, the job thread is released while DNS, ACME and ingress shards are processed
+            case SUB_DOMAIN -> domainService.createSubDomain(enterpriseId);
+            case CERTIFICATE -> certificateService.createSSLCertificate(enterpriseId);
+            case INGRESS -> k8SService.createIngress(enterpriseId);
+            case DID -> CompletableFuture.completedFuture(signerService.createDid(enterpriseId));
+            case PARTICIPANT -> CompletableFuture.completedFuture(signerService.createParticipantJson(enterpriseId));
+        });
         LOGGER.info("job completed");
     }
 }
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.jsonld;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdErrorCode;
+import com.apicatalog.jsonld.document.Document;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.apicatalog.jsonld.loader.DocumentLoaderOptions;
+import com.smartsense.gaiax.config.JsonLdSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Caching document loader. JSON-LD document loader for canonicalization and verification which serves
+ * contexts from memory. Contexts come from the bundled classpath resources, the disk cache or are fetched once and
+ * written to the disk cache, so they survive restarts. Expired contexts are served from cache while they are fetched
+ * again in the background, a fetch only blocks the first load of a context which is neither bundled nor on disk.
+ */
+@Component
+public class CachingDocumentLoader implements DocumentLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingDocumentLoader.class);
+
+    private static final String METRIC = "gaiax.jsonld.loader";
+
+    private final JsonLdSettings settings;
+
+    private final Map<URI, CachedContext> contexts = new ConcurrentHashMap<>();
+
+    private final Set<URI> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final HttpClient httpClient;
+
+    private final ThreadPoolTaskExecutor refreshExecutor;
+
+    private final Counter hitCounter;
+
+    private final Counter staleCounter;
+
+    private final Counter missCounter;
+
+    /**
+     * Instantiates a new Caching document loader.
+     *
+     * @param settings      the settings
+     * @param meterRegistry the meter registry
+     */
+    public CachingDocumentLoader(JsonLdSettings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(settings.getFetchTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        refreshExecutor = new ThreadPoolTaskExecutor();
+        refreshExecutor.setCorePoolSize(1);
+        refreshExecutor.setMaxPoolSize(1);
+        refreshExecutor.setDaemon(true);
+        refreshExecutor.setThreadNamePrefix("jsonld-");
+        refreshExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        refreshExecutor.initialize();
+        hitCounter = Counter.builder(METRIC).tag("result", "hit").register(meterRegistry);
+        staleCounter = Counter.builder(METRIC).tag("result", "stale").register(meterRegistry);
+        missCounter = Counter.builder(METRIC).tag("result", "miss").register(meterRegistry);
+        Gauge.builder(METRIC + ".size", contexts, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Load bundled and disk cached contexts.
+     */
+    @PostConstruct
+    public void init() {
+        settings.getBundled().forEach((url, resource) -> {
+            try (InputStream inputStream = new ClassPathResource(resource).getInputStream()) {
+                URI uri = normalize(url);
+                //bundled contexts never expire
+                contexts.put(uri, new CachedContext(parse(uri, inputStream.readAllBytes()), Long.MAX_VALUE));
+            } catch (IOException | JsonLdError | URISyntaxException e) {
+                LOGGER.error("Can not load bundled context {} from {}", url, resource, e);
+            }
+        });
+        for (String url : settings.getPreload()) {
+            try {
+                URI uri = normalize(url);
+                if (!contexts.containsKey(uri)) {
+                    loadFromDisk(uri);
+                }
+            } catch (URISyntaxException e) {
+                LOGGER.error("Invalid context url {}", url, e);
+            }
+        }
+        LOGGER.info("{} JSON-LD contexts loaded from bundle and disk cache", contexts.size());
+    }
+
+    /**
+     * Preload contexts which are missing or expired once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (settings.isOffline()) {
+            return;
+        }
+        for (String url : settings.getPreload()) {
+            try {
+                URI uri = normalize(url);
+                CachedContext cachedContext = contexts.get(uri);
+                if (cachedContext == null || cachedContext.isExpired()) {
+                    refreshInBackground(uri);
+                }
+            } catch (URISyntaxException e) {
+                LOGGER.error("Invalid context url {}", url, e);
+            }
+        }
+    }
+
+    @Override
+    public Document loadDocument(URI url, DocumentLoaderOptions options) throws JsonLdError {
+        URI uri;
+        try {
+            uri = normalize(url.toString());
+        } catch (URISyntaxException e) {
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Invalid context url " + url);
+        }
+        CachedContext cachedContext = contexts.get(uri);
+        if (cachedContext != null) {
+            if (cachedContext.isExpired()) {
+                staleCounter.increment();
+                refreshInBackground(uri);
+            } else {
+                hitCounter.increment();
+            }
+            return cachedContext.document;
+        }
+        missCounter.increment();
+        cachedContext = loadFromDisk(uri);
+        if (cachedContext != null) {
+            return cachedContext.document;
+        }
+        if (settings.isOffline()) {
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Context " + uri + " is not cached and fetching is disabled");
+        }
+        return fetch(uri).document;
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+
+    private void refreshInBackground(URI uri) {
+        if (!refreshing.add(uri)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                fetch(uri);
+            } catch (JsonLdError e) {
+                LOGGER.warn("Can not refresh context {}, cached copy is still used -> {}", uri, e.getMessage());
+            } finally {
+                refreshing.remove(uri);
+            }
+        });
+    }
+
+    private CachedContext fetch(URI uri) throws JsonLdError {
+        LOGGER.debug("Fetching context {}", uri);
+        byte[] content;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMillis(settings.getFetchTimeout()))
+                    .header("Accept", "application/ld+json, application/json")
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Context " + uri + " returned status " + response.statusCode());
+            }
+            content = response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Interrupted while fetching context " + uri);
+        } catch (IOException e) {
+            throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Can not fetch context " + uri + " -> " + e.getMessage());
+        }
+        CachedContext cachedContext = new CachedContext(parse(uri, content), expiry(System.currentTimeMillis()));
+        contexts.put(uri, cachedContext);
+        writeToDisk(uri, content);
+        return cachedContext;
+    }
+
+    private CachedContext loadFromDisk(URI uri) {
+        Path file = cacheFile(uri);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file);
+            CachedContext cachedContext = new CachedContext(parse(uri, content), expiry(Files.getLastModifiedTime(file).toMillis()));
+            contexts.put(uri, cachedContext);
+            return cachedContext;
+        } catch (IOException | JsonLdError e) {
+            LOGGER.warn("Can not read cached context {} from {} -> {}", uri, file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(URI uri, byte[] content) {
+        Path file = cacheFile(uri);
+        try {
+            Files.createDirectories(file.getParent());
+            //write to temp file and move, a crash must not leave a truncated context behind
+            Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(tempFile, content);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Can not write context {} to disk cache -> {}", uri, e.getMessage());
+        }
+    }
+
+    private Path cacheFile(URI uri) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(uri.toString().getBytes(StandardCharsets.UTF_8));
+            return Paths.get(settings.getCacheDir(), HexFormat.of().formatHex(digest) + ".jsonld");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long expiry(long fetchedAt) {
+        return fetchedAt + TimeUnit.HOURS.toMillis(settings.getTtl());
+    }
+
+    private static Document parse(URI uri, byte[] content) throws JsonLdError {
+        JsonDocument document = JsonDocument.of(new ByteArrayInputStream(content));
+        document.setDocumentUrl(uri);
+        return document;
+    }
+
+    //the fragment is not part of the document, trustframework# and trustframework are the same context
+    private static URI normalize(String url) throws URISyntaxException {
+        URI uri = new URI(url);
+        return new URI(uri.getScheme(), uri.getSchemeSpecificPart(), null);
+    }
+
+    private static class CachedContext {
+
+        private final Document document;
+
+        private final long expiresAt;
+
+        CachedContext(Document document, long expiresAt) {
+            this.document = document;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
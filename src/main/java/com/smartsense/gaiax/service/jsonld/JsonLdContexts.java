@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.jsonld;
+
+/**
+ * The interface Json ld contexts used in the credentials we issue.
+ */
+public interface JsonLdContexts {
+
+    /**
+     * The constant CREDENTIALS_V1.
+     */
+    String CREDENTIALS_V1 = "https://www.w3.org/2018/credentials/v1";
+
+    /**
+     * The constant JWS_2020_V1.
+     */
+    String JWS_2020_V1 = "https://w3id.org/security/suites/jws-2020/v1";
+
+    /**
+     * The constant GAIA_X_TRUST_FRAMEWORK.
+     */
+    String GAIA_X_TRUST_FRAMEWORK = "https://registry.lab.gaia-x.eu/development/api/trusted-shape-registry/v1/shapes/jsonld/trustframework#";
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.k8s;
+
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.config.K8SSettings;
+import com.smartsense.gaiax.dao.entity.Enterprise;
+import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
+import com.smartsense.gaiax.dto.OnboardingStepStatus;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import com.smartsense.gaiax.dto.RegistrationStatus;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.NetworkingV1Api;
+import io.kubernetes.client.openapi.models.V1Ingress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The type Ingress reconciler. With ingress sharding enterprise hosts are packed into shared ingress objects, an
+ * enterprise id belongs to shard id / hostsPerIngress so shards never move hosts. Requested shards are applied once
+ * per reconcile cycle, and all shards are compared with the cluster in a longer interval. An ingress is only replaced
+ * if its hosts changed, so the ingress controller reloads at most once per shard and cycle.
+ */
+@Component
+public class IngressReconciler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngressReconciler.class);
+
+    private static final String SHARD_LABEL = "gaiax.smartsense.com/ingress-shard";
+
+    //enterprises onboarded before the onboarding workflow, they have an ingress if status is one of these
+    private static final List<Integer> LEGACY_INGRESS_STATUSES = List.of(
+            RegistrationStatus.INGRESS_CREATED.getStatus(),
+            RegistrationStatus.DID_JSON_CREATED.getStatus(),
+            RegistrationStatus.DID_JSON_CREATION_FAILED.getStatus(),
+            RegistrationStatus.PARTICIPANT_JSON_CREATED.getStatus(),
+            RegistrationStatus.PARTICIPANT_JSON_CREATION_FAILED.getStatus());
+
+    private static final List<OnboardingStepStatus> INGRESS_STEP_STATUSES = List.of(OnboardingStepStatus.RUNNING, OnboardingStepStatus.COMPLETED);
+
+    private final EnterpriseRepository enterpriseRepository;
+
+    private final NetworkingV1Api networkingV1Api;
+
+    private final K8SSettings k8SSettings;
+
+    private final CertificateSettings certificateSettings;
+
+    //waiters of requested shards, guarded by this
+    private final Map<Long, List<CompletableFuture<Void>>> requestedShards = new HashMap<>();
+
+    /**
+     * Instantiates a new Ingress reconciler.
+     *
+     * @param enterpriseRepository the enterprise repository
+     * @param networkingV1Api      the networking v 1 api
+     * @param k8SSettings          the k 8 s settings
+     * @param certificateSettings  the certificate settings
+     */
+    public IngressReconciler(EnterpriseRepository enterpriseRepository, NetworkingV1Api networkingV1Api, K8SSettings k8SSettings, CertificateSettings certificateSettings) {
+        this.enterpriseRepository = enterpriseRepository;
+        this.networkingV1Api = networkingV1Api;
+        this.k8SSettings = k8SSettings;
+        this.certificateSettings = certificateSettings;
+    }
+
+    /**
+     * Request reconcile of the shard of an enterprise.
+     *
+     * @param enterpriseId the enterprise id
+     * @return future completed when the shard is applied
+     */
+    public CompletableFuture<Void> requestReconcile(long enterpriseId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (this) {
+            requestedShards.computeIfAbsent(getShard(enterpriseId), shard -> new ArrayList<>()).add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Apply requested shards, all requests of a shard in one cycle result in one ingress update.
+     */
+    @Scheduled(fixedDelayString = "${k8s.reconcileInterval:5000}")
+    public void reconcile() {
+        Map<Long, List<CompletableFuture<Void>>> shards;
+        synchronized (this) {
+            if (requestedShards.isEmpty()) {
+                return;
+            }
+            shards = new HashMap<>(requestedShards);
+            requestedShards.clear();
+        }
+        shards.forEach((shard, waiters) -> {
+            try {
+                reconcileShard(shard, getIngress(shardName(shard)));
+                waiters.forEach(future -> future.complete(null));
+            } catch (Exception e) {
+                LOGGER.error("Can not reconcile ingress shard {}", shard, e);
+                waiters.forEach(future -> future.completeExceptionally(e));
+            }
+        });
+    }
+
+    /**
+     * Compare all shards with the ingresses in the cluster and fix differences.
+     */
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${k8s.fullReconcileInterval:300000}")
+    public void reconcileAll() {
+        if (!k8SSettings.isIngressSharding()) {
+            return;
+        }
+        try {
+            Map<String, V1Ingress> existing = new HashMap<>();
+            for (V1Ingress ingress : networkingV1Api.listNamespacedIngress(K8SService.DEFAULT, null, null, null, null, SHARD_LABEL, null, null, null, null, null).getItems()) {
+                existing.put(ingress.getMetadata().getName(), ingress);
+            }
+            Long maxId = enterpriseRepository.getMaxId();
+            long shardCount = maxId == null ? 0 : getShard(maxId) + 1;
+            for (long shard = 0; shard < shardCount; shard++) {
+                reconcileShard(shard, existing.remove(shardName(shard)));
+            }
+            //shards above the last enterprise
+            for (String name : existing.keySet()) {
+                networkingV1Api.deleteNamespacedIngress(name, K8SService.DEFAULT, null, null, null, null, null, null);
+                LOGGER.info("Ingress shard {} deleted", name);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Can not reconcile ingress shards", e);
+        }
+    }
+
+    private void reconcileShard(long shard, V1Ingress existing) throws ApiException {
+        String name = shardName(shard);
+        long fromId = shard * k8SSettings.getHostsPerIngress();
+        List<Enterprise> enterprises = enterpriseRepository.getIngressEnterprises(fromId, fromId + k8SSettings.getHostsPerIngress(), OnboardingStepType.INGRESS, INGRESS_STEP_STATUSES, LEGACY_INGRESS_STATUSES);
+
+        Map<String, String> desired = new HashMap<>();
+        for (Enterprise enterprise : enterprises) {
+            desired.put(enterprise.getSubDomainName(), certificateSettings.isWildcard() ? k8SSettings.getWildcardSecretName() : enterprise.getSubDomainName());
+        }
+        if (desired.isEmpty()) {
+            if (existing != null) {
+                networkingV1Api.deleteNamespacedIngress(name, K8SService.DEFAULT, null, null, null, null, null, null);
+                LOGGER.info("Ingress shard {} deleted", name);
+            }
+            return;
+        }
+        if (existing != null && desired.equals(Ingresses.hostSecrets(existing))) {
+            LOGGER.debug("Ingress shard {} is up to date", name);
+            return;
+        }
+        Ingresses.apply(networkingV1Api, Ingresses.build(name, desired, Map.of(SHARD_LABEL, String.valueOf(shard)), k8SSettings.getServiceName()));
+        LOGGER.info("Ingress shard {} applied with {} hosts", name, desired.size());
+    }
+
+    private V1Ingress getIngress(String name) throws ApiException {
+        try {
+            return networkingV1Api.readNamespacedIngress(name, K8SService.DEFAULT, null);
+        } catch (ApiException e) {
+            if (e.getCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private long getShard(long enterpriseId) {
+        return enterpriseId / k8SSettings.getHostsPerIngress();
+    }
+
+    private String shardName(long shard) {
+        return k8SSettings.getIngressShardPrefix() + shard;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.k8s;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.NetworkingV1Api;
+import io.kubernetes.client.openapi.models.*;
+import org.springframework.http.HttpStatus;
+
+import java.util.*;
+
+/**
+ * Builds and applies enterprise ingresses, used for single enterprise ingresses and shared ingress shards.
+ */
+final class Ingresses {
+
+    private Ingresses() {
+    }
+
+    /**
+     * Build ingress with one rule per host, hosts sharing a TLS secret share one TLS item.
+     *
+     * @param name        the name
+     * @param hostSecrets the TLS secret name by host
+     * @param labels      the labels
+     * @param serviceName the backend service name
+     * @return the ingress
+     */
+    static V1Ingress build(String name, Map<String, String> hostSecrets, Map<String, String> labels, String serviceName) {
+        ///annotations
+        Map<String, String> annotations = new HashMap<>();
+        annotations.put("nginx.ingress.kubernetes.io/proxy-body-size", "35m");
+        annotations.put("nginx.ingress.kubernetes.io/client-body-buffer-size", "35m");
+        annotations.put("nginx.ingress.kubernetes.io/proxy-connect-timeout", "600");
+        annotations.put("nginx.ingress.kubernetes.io/proxy-send-timeout", "600");
+        annotations.put("nginx.ingress.kubernetes.io/proxy-read-timeout", "600");
+
+        V1ObjectMeta metadata = new V1ObjectMeta();
+        metadata.setName(name);
+        metadata.setNamespace(K8SService.DEFAULT);
+        metadata.setAnnotations(annotations);
+        if (!labels.isEmpty()) {
+            metadata.setLabels(new HashMap<>(labels));
+        }
+
+        //service backend
+        V1IngressServiceBackend backend = new V1IngressServiceBackend();
+        backend.setName(serviceName);
+        V1ServiceBackendPort port = new V1ServiceBackendPort();
+        port.setNumber(8080);
+        backend.setPort(port);
+
+        V1IngressBackend v1IngressBackend = new V1IngressBackend();
+        v1IngressBackend.setService(backend);
+
+        V1IngressSpec spec = new V1IngressSpec();
+        //sorted, so the same hosts always produce the same spec
+        Map<String, List<String>> secretHosts = new TreeMap<>();
+        for (String host : new TreeSet<>(hostSecrets.keySet())) {
+            secretHosts.computeIfAbsent(hostSecrets.get(host), key -> new ArrayList<>()).add(host);
+
+            //path
+            V1HTTPIngressPath path = new V1HTTPIngressPath();
+            path.backend(v1IngressBackend);
+            path.pathType("Prefix");
+            path.path("/");
+
+            //http rule
+            V1HTTPIngressRuleValue httpIngressRuleValue = new V1HTTPIngressRuleValue();
+            httpIngressRuleValue.addPathsItem(path);
+
+            //v1 rule
+            V1IngressRule rule = new V1IngressRule();
+            rule.host(host);
+            rule.http(httpIngressRuleValue);
+            spec.addRulesItem(rule);
+        }
+
+        //tls items
+        secretHosts.forEach((secretName, hosts) -> {
+            V1IngressTLS ingressTLS = new V1IngressTLS();
+            ingressTLS.setSecretName(secretName);
+            ingressTLS.setHosts(hosts);
+            spec.addTlsItem(ingressTLS);
+        });
+
+        //main ingress object
+        V1Ingress v1Ingress = new V1Ingress();
+        v1Ingress.metadata(metadata);
+        v1Ingress.setSpec(spec);
+        return v1Ingress;
+    }
+
+    /**
+     * Create ingress, or replace it if it already exists.
+     *
+     * @param networkingV1Api the networking v 1 api
+     * @param ingress         the ingress
+     * @throws ApiException the api exception
+     */
+    static void apply(NetworkingV1Api networkingV1Api, V1Ingress ingress) throws ApiException {
+        try {
+            networkingV1Api.createNamespacedIngress(K8SService.DEFAULT, ingress, null, null, null, null);
+        } catch (ApiException e) {
+            if (e.getCode() != HttpStatus.CONFLICT.value()) {
+                throw e;
+            }
+            networkingV1Api.replaceNamespacedIngress(ingress.getMetadata().getName(), K8SService.DEFAULT, ingress, null, null, null, null);
+        }
+    }
+
+    /**
+     * Hosts and TLS secrets of an ingress, used to compare the desired and the actual ingress.
+     *
+     * @param ingress the ingress
+     * @return the TLS secret name by host
+     */
+    static Map<String, String> hostSecrets(V1Ingress ingress) {
+        Map<String, String> hostSecrets = new HashMap<>();
+        if (ingress.getSpec() == null || ingress.getSpec().getTls() == null) {
+            return hostSecrets;
+        }
+        for (V1IngressTLS tls : ingress.getSpec().getTls()) {
+            if (tls.getHosts() != null) {
+                tls.getHosts().forEach(host -> hostSecrets.put(host, tls.getSecretName()));
+            }
+        }
+        return hostSecrets;
+    }
+}
@@ -4,33 +4,27 @@
 
 package com.smartsense.gaiax.service.k8s;
 
+import com.smartsense.gaiax.config.CertificateSettings;
 import com.smartsense.gaiax.config.K8SSettings;
 import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.entity.EnterpriseCertificate;
 import com.smartsense.gaiax.dao.repository.EnterpriseCertificateRepository;
 import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
 import com.smartsense.gaiax.dto.RegistrationStatus;
-import com.smartsense.gaiax.dto.StringPool;
 import com.smartsense.gaiax.exception.BadDataException;
-import com.smartsense.gaiax.service.job.ScheduleService;
-import com.smartsense.gaiax.utils.CommonUtils;
-import com.smartsense.gaiax.utils.S3Utils;
-import io.kubernetes.client.openapi.ApiClient;
-import io.kubernetes.client.openapi.Configuration;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.apis.NetworkingV1Api;
 import io.kubernetes.client.openapi.models.*;
-import io.kubernetes.client.util.Config;
-import org.quartz.SchedulerException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The type K 8 s service.
@@ -48,144 +42,119 @@ public class K8SService {
 
     private final EnterpriseCertificateRepository enterpriseCertificateRepository;
 
-    private final S3Utils s3Util;
+    private final ObjectStore objectStore;
 
     private final K8SSettings k8SSettings;
 
-    private final ScheduleService scheduleService;
+    private final CertificateSettings certificateSettings;
+
+    private final CoreV1Api coreV1Api;
+
+    private final NetworkingV1Api networkingV1Api;
+
+    private final IngressReconciler ingressReconciler;
 
     /**
      * Instantiates a new K 8 s service.
      *
      * @param enterpriseRepository            the enterprise repository
      * @param enterpriseCertificateRepository the enterprise certificate repository
-     * @param s3Util                          the s 3 util
+     * @param objectStore                     the object store
      * @param k8SSettings                     the k 8 s settings
-     * @param scheduleService                 the schedule service
+     * @param certificateSettings             the certificate settings
+     * @param coreV1Api                       the core v 1 api
+     * @param networkingV1Api                 the networking v 1 api
+     * @param ingressReconciler               the ingress reconciler
      */
-    public K8SService(EnterpriseRepository enterpriseRepository, EnterpriseCertificateRepository enterpriseCertificateRepository, S3Utils s3Util, K8SSettings k8SSettings, ScheduleService scheduleService) {
+    public K8SService(EnterpriseRepository enterpriseRepository, EnterpriseCertificateRepository enterpriseCertificateRepository, ObjectStore objectStore, K8SSettings k8SSettings, CertificateSettings certificateSettings, CoreV1Api coreV1Api, NetworkingV1Api networkingV1Api, IngressReconciler ingressReconciler) {
         this.enterpriseRepository = enterpriseRepository;
         this.enterpriseCertificateRepository = enterpriseCertificateRepository;
-        this.s3Util = s3Util;
+        this.objectStore = objectStore;
         this.k8SSettings = k8SSettings;
-        this.scheduleService = scheduleService;
+        this.certificateSettings = certificateSettings;
+        this.coreV1Api = coreV1Api;
+        this.networkingV1Api = networkingV1Api;
+        this.ingressReconciler = ingressReconciler;
+    }
+
+    /**
+     * Create or replace the TLS secret of the wildcard certificate, used by the ingresses of all enterprises in
+     * wildcard mode.
+     *
+     * @param certificateChain the certificate chain
+     * @param privateKey       the private key
+     * @throws ApiException the api exception
+     */
+    public void updateWildcardSecret(String certificateChain, String privateKey) throws ApiException {
+        applySecret(tlsSecret(k8SSettings.getWildcardSecretName(), certificateChain, privateKey));
     }
 
     /**
-     * Create ingress.
+     * Create ingress. Secret and ingress are created or replaced, so the step can be executed again. With ingress
+     * sharding the host is added to a shared ingress by the next reconcile cycle.
      *
      * @param enterpriseId the enterprise id
+     * @return future completed with true if ingress is created
      */
-    public void createIngress(long enterpriseId) {
-        File crt = null;
-        File key = null;
+    public CompletableFuture<Boolean> createIngress(long enterpriseId) {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(BadDataException::new);
+        CompletableFuture<Void> created;
         try {
-
-            EnterpriseCertificate enterpriseCertificate = enterpriseCertificateRepository.getByEnterpriseId(enterpriseId);
-            crt = s3Util.getObject(enterpriseCertificate.getCertificateChain(), "chain.crt");
-
-            key = s3Util.getObject(enterpriseCertificate.getPrivateKey(), "private.key");
-            //Step 1: create secret using SSL certificate
-            ApiClient client = Config.fromToken(k8SSettings.getBasePath(), k8SSettings.getToken(), false);
-            Configuration.setDefaultApiClient(client);
-
-
-            CoreV1Api api = new CoreV1Api();
-
-            V1Secret secret = new V1Secret();
-            secret.setMetadata(new V1ObjectMeta().name(enterprise.getSubDomainName()));
-            secret.setType("kubernetes.io/tls");
-
-
-            String certString = Files.readString(crt.toPath());
-            String keyString = Files.readString(key.toPath());
-            LOGGER.debug("certString  -> {}", certString);
-            LOGGER.debug("keyString  -> {}", keyString);
-
-            secret.putDataItem("tls.crt", certString.getBytes());
-            secret.putDataItem("tls.key", keyString.getBytes());
-
-
-            api.createNamespacedSecret(DEFAULT, secret, null, null, null, null);
-            LOGGER.debug("tls secret created for enterprise -{} domain ->{}", enterpriseId, enterprise.getSubDomainName());
-
-            ///annotations
-            Map<String, String> annotations = new HashMap<>();
-            annotations.put("nginx.ingress.kubernetes.io/proxy-body-size", "35m");
-            annotations.put("nginx.ingress.kubernetes.io/client-body-buffer-size", "35m");
-            annotations.put("nginx.ingress.kubernetes.io/proxy-connect-timeout", "600");
-            annotations.put("nginx.ingress.kubernetes.io/proxy-send-timeout", "600");
-            annotations.put("nginx.ingress.kubernetes.io/proxy-read-timeout", "600");
-
+            //in wildcard mode the ingress uses the shared secret of the wildcard certificate
+            String secretName = k8SSettings.getWildcardSecretName();
+            if (!certificateSettings.isWildcard()) {
+                secretName = enterprise.getSubDomainName();
+                EnterpriseCertificate enterpriseCertificate = enterpriseCertificateRepository.getByEnterpriseId(enterpriseId);
+                String certString = new String(objectStore.getBytes(enterpriseCertificate.getCertificateChain()), StandardCharsets.UTF_8);
+                String keyString = new String(objectStore.getBytes(enterpriseCertificate.getPrivateKey()), StandardCharsets.UTF_8);
+                //Step 1: create secret using SSL certificate
+                applySecret(tlsSecret(secretName, certString, keyString));
+                LOGGER.debug("tls secret created for enterprise -{} domain ->{}", enterpriseId, enterprise.getSubDomainName());
+            }
 
             //Step 2: Create ingress
-            NetworkingV1Api networkingV1Api = new NetworkingV1Api();
-            V1ObjectMeta metadata = new V1ObjectMeta();
-            metadata.setName(enterprise.getSubDomainName());
-            metadata.setNamespace(DEFAULT);
-            metadata.setAnnotations(annotations);
-
-            //tls item
-            V1IngressTLS ingressTLS = new V1IngressTLS();
-            ingressTLS.setSecretName(enterprise.getSubDomainName());
-            ingressTLS.setHosts(List.of(enterprise.getSubDomainName()));
-
-            //service backend
-            V1IngressServiceBackend backend = new V1IngressServiceBackend();
-            backend.setName(k8SSettings.getServiceName());
-            V1ServiceBackendPort port = new V1ServiceBackendPort();
-            port.setNumber(8080);
-            backend.setPort(port);
-
-            V1IngressBackend v1IngressBackend = new V1IngressBackend();
-            v1IngressBackend.setService(backend);
-
-            //path
-            V1HTTPIngressPath path = new V1HTTPIngressPath();
-            path.backend(v1IngressBackend);
-            path.pathType("Prefix");
-            path.path("/");
-
-            //http rule
-            V1HTTPIngressRuleValue httpIngressRuleValue = new V1HTTPIngressRuleValue();
-            httpIngressRuleValue.addPathsItem(path);
-
-            //v1 rule
-            V1IngressRule rule = new V1IngressRule();
-            rule.host(enterprise.getSubDomainName());
-            rule.http(httpIngressRuleValue);
-
-            V1IngressSpec spec = new V1IngressSpec();
-            spec.addTlsItem(ingressTLS);
-            spec.addRulesItem(rule);
-
-            //main ingress object
-            V1Ingress v1Ingress = new V1Ingress();
-            v1Ingress.metadata(metadata);
-            v1Ingress.setSpec(spec);
-
-            networkingV1Api.createNamespacedIngress(DEFAULT, v1Ingress, null, null, null, null);
-
-            enterprise.setStatus(RegistrationStatus.INGRESS_CREATED.getStatus());
-
-            LOGGER.debug("Ingress created for enterprise -> {} and domain ->{}", enterpriseId, enterprise.getSubDomainName());
-            createDidCreationJob(enterpriseId, enterprise);
+            if (k8SSettings.isIngressSharding()) {
+                created = ingressReconciler.requestReconcile(enterpriseId);
+            } else {
+                V1Ingress v1Ingress = Ingresses.build(enterprise.getSubDomainName(), Map.of(enterprise.getSubDomainName(), secretName), Map.of(), k8SSettings.getServiceName());
+                Ingresses.apply(networkingV1Api, v1Ingress);
+                created = CompletableFuture.completedFuture(null);
+            }
         } catch (Exception e) {
-            LOGGER.error("Can not create ingress for enterprise -> {}", enterpriseId, e);
-            enterprise.setStatus(RegistrationStatus.INGRESS_CREATION_FAILED.getStatus());
-        } finally {
-            enterpriseRepository.save(enterprise);
-            CommonUtils.deleteFile(crt, key);
+            created = CompletableFuture.failedFuture(e);
         }
+        return created.handle((v, e) -> {
+            if (e == null) {
+                enterprise.setStatus(RegistrationStatus.INGRESS_CREATED.getStatus());
+                LOGGER.debug("Ingress created for enterprise -> {} and domain ->{}", enterpriseId, enterprise.getSubDomainName());
+            } else {
+                LOGGER.error("Can not create ingress for enterprise -> {}", enterpriseId, e);
+                enterprise.setStatus(RegistrationStatus.INGRESS_CREATION_FAILED.getStatus());
+            }
+            enterpriseRepository.save(enterprise);
+            return e == null;
+        });
+    }
+
+    private V1Secret tlsSecret(String name, String certificateChain, String privateKey) {
+        V1Secret secret = new V1Secret();
+        secret.setMetadata(new V1ObjectMeta().name(name));
+        secret.setType("kubernetes.io/tls");
+        secret.putDataItem("tls.crt", certificateChain.getBytes(StandardCharsets.UTF_8));
+        secret.putDataItem("tls.key", privateKey.getBytes(StandardCharsets.UTF_8));
+        return secret;
     }
 
-    private void createDidCreationJob(long enterpriseId, Enterprise enterprise) {
+    private void applySecret(V1Secret secret) throws ApiException {
+        String name = secret.getMetadata().getName();
         try {
-            scheduleService.createJob(enterpriseId, StringPool.JOB_TYPE_CREATE_DID, 0);
-        } catch (SchedulerException e) {
-            LOGGER.error("Can not create did creation job for enterprise->{}", enterprise, e);
-            enterprise.setStatus(RegistrationStatus.DID_JSON_CREATION_FAILED.getStatus());
+            coreV1Api.createNamespacedSecret(DEFAULT, secret, null, null, null, null);
+        } catch (ApiException e) {
+            if (e.getCode() != HttpStatus.CONFLICT.value()) {
+                throw e;
+            }
+            coreV1Api.replaceNamespacedSecret(name, DEFAULT, secret, null, null, null, null);
+            LOGGER.debug("secret {} already exists, replaced", name);
         }
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.key;
+
+import com.smartsense.gaiax.config.KeyPoolSettings;
+import com.smartsense.gaiax.dto.KeyType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Key pair pool. Keeps pre-generated key pairs ready so onboarding does not generate keys on the job thread.
+ * The pool is refilled by low priority threads. If the pool of a type is empty the key pair is generated on the
+ * calling thread. Pooled key pairs exist in memory only.
+ */
+@Service
+public class KeyPairPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static final int RSA_KEY_SIZE = 2048;
+
+    private final Map<KeyType, BlockingQueue<KeyPair>> pools = new EnumMap<>(KeyType.class);
+
+    private final Map<KeyType, AtomicBoolean> refilling = new EnumMap<>(KeyType.class);
+
+    private final Map<KeyType, Timer> generationTimers = new EnumMap<>(KeyType.class);
+
+    private final Map<KeyType, Counter> missCounters = new EnumMap<>(KeyType.class);
+
+    private final ThreadPoolTaskExecutor refillExecutor;
+
+    /**
+     * Instantiates a new Key pair pool.
+     *
+     * @param keyPoolSettings the key pool settings
+     * @param meterRegistry   the meter registry
+     */
+    public KeyPairPool(KeyPoolSettings keyPoolSettings, MeterRegistry meterRegistry) {
+        for (KeyType type : KeyType.values()) {
+            int size = keyPoolSettings.getSize().getOrDefault(type, 0);
+            generationTimers.put(type, Timer.builder("gaiax.key.pool.generation")
+                    .description("Time to generate a key pair")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            missCounters.put(type, Counter.builder("gaiax.key.pool.miss")
+                    .description("Key pairs generated on the calling thread because the pool was empty")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            if (size > 0) {
+                BlockingQueue<KeyPair> pool = new ArrayBlockingQueue<>(size);
+                pools.put(type, pool);
+                refilling.put(type, new AtomicBoolean());
+                Gauge.builder("gaiax.key.pool.depth", pool, BlockingQueue::size)
+                        .description("Number of pre-generated key pairs")
+                        .tag("type", type.name())
+                        .register(meterRegistry);
+            }
+        }
+        refillExecutor = new ThreadPoolTaskExecutor();
+        refillExecutor.setCorePoolSize(keyPoolSettings.getRefillThreads());
+        refillExecutor.setMaxPoolSize(keyPoolSettings.getRefillThreads());
+        refillExecutor.setThreadPriority(Thread.MIN_PRIORITY);
+        refillExecutor.setDaemon(true);
+        refillExecutor.setThreadNamePrefix("key-pool-");
+        refillExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        refillExecutor.initialize();
+    }
+
+    /**
+     * Fill the pools once the application is started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fill() {
+        pools.keySet().forEach(this::refill);
+    }
+
+    /**
+     * Take a key pair from the pool, the pool is refilled in the background.
+     *
+     * @param type the key type
+     * @return the key pair
+     */
+    public KeyPair take(KeyType type) {
+        BlockingQueue<KeyPair> pool = pools.get(type);
+        KeyPair keyPair = pool == null ? null : pool.poll();
+        if (pool != null) {
+            refill(type);
+        }
+        if (keyPair != null) {
+            return keyPair;
+        }
+        missCounters.get(type).increment();
+        return generate(type);
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        refillExecutor.shutdown();
+        pools.values().forEach(BlockingQueue::clear);
+    }
+
+    private void refill(KeyType type) {
+        //one refill task per type at a time
+        if (!refilling.get(type).compareAndSet(false, true)) {
+            return;
+        }
+        refillExecutor.execute(() -> {
+            BlockingQueue<KeyPair> pool = pools.get(type);
+            try {
+                while (pool.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                    if (!pool.offer(generate(type))) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.error("Can not refill key pool of type {}", type, e);
+            } finally {
+                refilling.get(type).set(false);
+            }
+            LOGGER.debug("Key pool of type {} refilled, size ->{}", type, pool.size());
+        });
+    }
+
+    private KeyPair generate(KeyType type) {
+        return generationTimers.get(type).record(() -> {
+            try {
+                KeyPairGenerator generator;
+                switch (type) {
+                    case EC_P256 -> {
+                        generator = KeyPairGenerator.getInstance("EC");
+                        generator.initialize(new ECGenParameterSpec("secp256r1"));
+                    }
+                    case ED25519 -> generator = KeyPairGenerator.getInstance("Ed25519");
+                    default -> {
+                        generator = KeyPairGenerator.getInstance("RSA");
+                        generator.initialize(RSA_KEY_SIZE);
+                    }
+                }
+                return generator.generateKeyPair();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Can not generate key pair of type " + type, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.key;
+
+import com.smartsense.gaiax.config.SigningKeyCacheSettings;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The type Signing key cache.
+ * <p>
+ * Keeps the PKCS#8 signing keys of enterprises in memory so signing does not read the key from the object store every
+ * time. Entries are evicted in LRU order above the max entries and after the TTL, the cached key bytes are overwritten
+ * with zeros when an entry is evicted or invalidated. With encryption enabled the bytes are kept AES-GCM encrypted with a
+ * key generated at startup which never leaves the process, a heap dump alone does not reveal the signing keys.
+ * <p>
+ * The PrivateKey objects handed out are built per call and can not be wiped, callers must not keep them.
+ */
+@Component
+public class SigningKeyCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SigningKeyCache.class);
+
+    private static final String METRIC = "gaiax.signing.key.cache";
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH = 128;
+
+    private final ObjectStore objectStore;
+
+    private final SigningKeyCacheSettings settings;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final SecretKey memoryKey;
+
+    //access ordered map to get LRU iteration order, guarded by this
+    private final LinkedHashMap<Long, CachedKey> keys = new LinkedHashMap<>(64, 0.75f, true);
+
+    //incremented on every invalidation, a load which overlaps with an invalidation is not cached
+    private long generation;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    /**
+     * Instantiates a new Signing key cache.
+     *
+     * @param objectStore   the object store
+     * @param settings      the settings
+     * @param meterRegistry the meter registry
+     */
+    public SigningKeyCache(ObjectStore objectStore, SigningKeyCacheSettings settings, MeterRegistry meterRegistry) {
+        this.objectStore = objectStore;
+        this.settings = settings;
+        this.memoryKey = settings.isEncrypt() ? generateMemoryKey() : null;
+        hitCounter = Counter.builder(METRIC).tag("result", "hit").register(meterRegistry);
+        missCounter = Counter.builder(METRIC).tag("result", "miss").register(meterRegistry);
+        Gauge.builder(METRIC + ".size", this, SigningKeyCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Gets the signing key of an enterprise, from cache or from the object store.
+     *
+     * @param enterpriseId the enterprise id
+     * @param storageKey   the storage key of the PKCS#8 PEM file
+     * @return the private key
+     */
+    public PrivateKey get(long enterpriseId, String storageKey) {
+        byte[] encoded = null;
+        String algorithm = null;
+        long loadGeneration;
+        synchronized (this) {
+            CachedKey cachedKey = keys.get(enterpriseId);
+            if (cachedKey != null) {
+                if (cachedKey.isExpired(System.currentTimeMillis())) {
+                    remove(enterpriseId);
+                } else {
+                    //copy out under the lock, eviction wipes the cached bytes
+                    encoded = reveal(cachedKey);
+                    algorithm = cachedKey.algorithm;
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (encoded != null) {
+            hitCounter.increment();
+            try {
+                return toPrivateKey(algorithm, encoded);
+            } finally {
+                Arrays.fill(encoded, (byte) 0);
+            }
+        }
+
+        missCounter.increment();
+        PrivateKey privateKey = load(enterpriseId, storageKey);
+        if (settings.getMaxEntries() > 0) {
+            byte[] pkcs8 = privateKey.getEncoded();
+            try {
+                CachedKey cachedKey = conceal(privateKey.getAlgorithm(), pkcs8, System.currentTimeMillis() + settings.getTtl() * 1000);
+                synchronized (this) {
+                    if (loadGeneration == generation) {
+                        remove(enterpriseId);
+                        keys.put(enterpriseId, cachedKey);
+                        evictOverflow();
+                    } else {
+                        cachedKey.wipe();
+                    }
+                }
+            } finally {
+                Arrays.fill(pkcs8, (byte) 0);
+            }
+        }
+        return privateKey;
+    }
+
+    /**
+     * Invalidate the key of an enterprise, must be called whenever the signing key of the enterprise is replaced.
+     *
+     * @param enterpriseId the enterprise id
+     */
+    public synchronized void invalidate(long enterpriseId) {
+        generation++;
+        if (remove(enterpriseId)) {
+            LOGGER.debug("Signing key of enterprise {} invalidated", enterpriseId);
+        }
+    }
+
+    /**
+     * Remove expired keys, so they do not stay in memory until the next access.
+     */
+    @Scheduled(fixedDelayString = "${signing-key-cache.sweepInterval:60000}")
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        Iterator<CachedKey> iterator = keys.values().iterator();
+        while (iterator.hasNext()) {
+            CachedKey cachedKey = iterator.next();
+            if (cachedKey.isExpired(now)) {
+                cachedKey.wipe();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Wipe all keys on shutdown.
+     */
+    @PreDestroy
+    public synchronized void destroy() {
+        keys.values().forEach(CachedKey::wipe);
+        keys.clear();
+    }
+
+    private synchronized int size() {
+        return keys.size();
+    }
+
+    private boolean remove(long enterpriseId) {
+        CachedKey removed = keys.remove(enterpriseId);
+        if (removed != null) {
+            removed.wipe();
+            return true;
+        }
+        return false;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, CachedKey>> iterator = keys.entrySet().iterator();
+        while (keys.size() > settings.getMaxEntries() && iterator.hasNext()) {
+            Map.Entry<Long, CachedKey> eldest = iterator.next();
+            eldest.getValue().wipe();
+            iterator.remove();
+            LOGGER.debug("Signing key of enterprise {} evicted", eldest.getKey());
+        }
+    }
+
+    private PrivateKey load(long enterpriseId, String storageKey) {
+        byte[] pem;
+        try {
+            pem = objectStore.getBytes(storageKey);
+        } catch (IOException e) {
+            throw new BadDataException("Can not read private key of enterprise " + enterpriseId, e);
+        }
+        try (PEMParser pemParser = new PEMParser(new InputStreamReader(new ByteArrayInputStream(pem), StandardCharsets.UTF_8))) {
+            Object object = pemParser.readObject();
+            if (!(object instanceof PrivateKeyInfo privateKeyInfo)) {
+                throw new BadDataException("Private key of enterprise " + enterpriseId + " is not in PKCS#8 format");
+            }
+            return new JcaPEMKeyConverter().getPrivateKey(privateKeyInfo);
+        } catch (IOException e) {
+            throw new BadDataException("Can not parse private key of enterprise " + enterpriseId, e);
+        } finally {
+            Arrays.fill(pem, (byte) 0);
+        }
+    }
+
+    private CachedKey conceal(String algorithm, byte[] pkcs8, long expiresAt) {
+        if (memoryKey == null) {
+            return new CachedKey(algorithm, pkcs8.clone(), null, expiresAt);
+        }
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, memoryKey, new GCMParameterSpec(TAG_LENGTH, iv));
+            return new CachedKey(algorithm, cipher.doFinal(pkcs8), iv, expiresAt);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not encrypt signing key", e);
+        }
+    }
+
+    private byte[] reveal(CachedKey cachedKey) {
+        if (cachedKey.iv == null) {
+            return cachedKey.content.clone();
+        }
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, memoryKey, new GCMParameterSpec(TAG_LENGTH, cachedKey.iv));
+            return cipher.doFinal(cachedKey.content);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not decrypt signing key", e);
+        }
+    }
+
+    private static PrivateKey toPrivateKey(String algorithm, byte[] pkcs8) {
+        try {
+            return KeyFactory.getInstance(algorithm).generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not decode cached signing key", e);
+        }
+    }
+
+    private static SecretKey generateMemoryKey() {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(256);
+            return keyGenerator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not generate memory key", e);
+        }
+    }
+
+    private static class CachedKey {
+
+        private final String algorithm;
+
+        //PKCS#8 bytes, encrypted if iv is set
+        private final byte[] content;
+
+        private final byte[] iv;
+
+        private final long expiresAt;
+
+        CachedKey(String algorithm, byte[] content, byte[] iv, long expiresAt) {
+            this.algorithm = algorithm;
+            this.content = content;
+            this.iv = iv;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        void wipe() {
+            Arrays.fill(content, (byte) 0);
+        }
+    }
+}
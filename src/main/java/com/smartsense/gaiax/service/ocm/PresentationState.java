@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ocm;
+
+import com.smartsense.gaiax.client.PresentationData;
+import lombok.Getter;
+
+/**
+ * The type Presentation state. Immutable result of one poll of a presentation in OCM.
+ */
+@Getter
+public class PresentationState {
+
+    private final String presentationId;
+
+    private final int statusCode;
+
+    private final PresentationData data;
+
+    private final boolean terminal;
+
+    /**
+     * Instantiates a new Presentation state.
+     *
+     * @param presentationId the presentation id
+     * @param statusCode     the status code of the OCM response
+     * @param data           the presentation data
+     * @param terminal       true if the state does not change anymore
+     */
+    public PresentationState(String presentationId, int statusCode, PresentationData data, boolean terminal) {
+        this.presentationId = presentationId;
+        this.statusCode = statusCode;
+        this.data = data;
+        this.terminal = terminal;
+    }
+
+    /**
+     * Gets state.
+     *
+     * @return the proof state
+     */
+    public String getState() {
+        return data.getState();
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ocm;
+
+import com.smartsense.gaiax.client.OcmClient;
+import com.smartsense.gaiax.client.PresentationData;
+import com.smartsense.gaiax.client.VerifyPresentationResponse;
+import com.smartsense.gaiax.config.PresentationSettings;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.exception.DownstreamUnavailableException;
+import com.smartsense.gaiax.exception.TooManyRequestsException;
+import feign.FeignException;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The type Presentation watcher.
+ * <p>
+ * Polls the state of a presentation in OCM on the server instead of letting every client poll through us. There is one
+ * watch per presentation id, all requests for the same id share its polls, so OCM is called once per poll interval no
+ * matter how many clients wait. The interval grows with every poll up to the max interval and the watch stops once the
+ * state is terminal or the timeout is reached. Finished watches with a state are kept for the result retention time,
+ * watches of unknown presentations are dropped at once. Only running watches count towards the max sessions and every
+ * client can start a limited number of watches per client window, so requests for made up ids can not block logins.
+ */
+@Component
+public class PresentationWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PresentationWatcher.class);
+
+    private final OcmClient ocmClient;
+
+    private final PresentationSettings settings;
+
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    private final Map<String, ClientWatches> clients = new ConcurrentHashMap<>();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Instantiates a new Presentation watcher.
+     *
+     * @param ocmClient the ocm client
+     * @param settings  the settings
+     */
+    public PresentationWatcher(OcmClient ocmClient, PresentationSettings settings) {
+        this.ocmClient = ocmClient;
+        this.settings = settings;
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(settings.getPollThreads());
+        taskScheduler.setThreadNamePrefix("presentation-");
+        taskScheduler.setWaitForTasksToCompleteOnShutdown(false);
+        taskScheduler.initialize();
+        Duration clientWindow = Duration.ofSeconds(settings.getClientWindow());
+        taskScheduler.scheduleWithFixedDelay(this::expireClients, Instant.now().plus(clientWindow), clientWindow);
+    }
+
+    /**
+     * Current state of a presentation. Starts watching the presentation if it is not watched yet, otherwise the last
+     * polled state is returned without calling OCM.
+     *
+     * @param presentationId the presentation id
+     * @param client         the client, e.g. the remote address, which starts the watch
+     * @return the future of the current state
+     */
+    public CompletableFuture<PresentationState> current(String presentationId, String client) {
+        Watch watch = watch(presentationId, client);
+        PresentationState latest = watch.latest;
+        if (latest != null) {
+            return CompletableFuture.completedFuture(latest);
+        }
+        return watch.firstPoll;
+    }
+
+    /**
+     * Final state of a presentation, completes once the state is terminal or the watch timed out.
+     *
+     * @param presentationId the presentation id
+     * @param client         the client, e.g. the remote address, which starts the watch
+     * @return the future of the final state
+     */
+    public CompletableFuture<PresentationState> result(String presentationId, String client) {
+        return watch(presentationId, client).result;
+    }
+
+    /**
+     * Subscribe to state changes of a presentation. The listener is called with the current state if there is one and
+     * then with every changed state, including the final one.
+     *
+     * @param presentationId the presentation id
+     * @param client         the client, e.g. the remote address, which starts the watch
+     * @param listener       the listener
+     * @return the runnable which removes the listener
+     */
+    public Runnable subscribe(String presentationId, String client, Consumer<PresentationState> listener) {
+        Watch watch = watch(presentationId, client);
+        watch.listeners.add(listener);
+        PresentationState latest = watch.latest;
+        if (latest != null) {
+            listener.accept(latest);
+        }
+        return () -> watch.listeners.remove(listener);
+    }
+
+    /**
+     * Last polled state of a presentation.
+     *
+     * @param presentationId the presentation id
+     * @return the state, null if the presentation is not watched or not polled yet
+     */
+    public PresentationState latest(String presentationId) {
+        Watch watch = watches.get(presentationId);
+        return watch != null ? watch.latest : null;
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        taskScheduler.shutdown();
+    }
+
+    private Watch watch(String presentationId, String client) {
+        Watch watch = watches.get(presentationId);
+        if (watch != null) {
+            return watch;
+        }
+        admit(client);
+        if (running.incrementAndGet() > settings.getMaxSessions()) {
+            running.decrementAndGet();
+            throw new DownstreamUnavailableException("Too many presentations in verification, try again later");
+        }
+        Watch created = new Watch(presentationId);
+        watch = watches.putIfAbsent(presentationId, created);
+        if (watch != null) {
+            running.decrementAndGet();
+            return watch;
+        }
+        LOGGER.debug("Watching presentation {} for {}", presentationId, client);
+        taskScheduler.execute(created);
+        return created;
+    }
+
+    //counts the watches a client started in the current window, joining a running watch is free
+    private void admit(String client) {
+        long now = System.currentTimeMillis();
+        long window = settings.getClientWindow() * 1000;
+        ClientWatches started = clients.compute(client, (key, current) -> current == null || now - current.windowStart >= window
+                ? new ClientWatches(now, 1)
+                : new ClientWatches(current.windowStart, current.count + 1));
+        if (started.count > settings.getClientMaxWatches()) {
+            LOGGER.debug("Client {} started too many presentation watches", client);
+            throw new TooManyRequestsException("Too many presentations verified, try again later");
+        }
+    }
+
+    private void expireClients() {
+        long before = System.currentTimeMillis() - settings.getClientWindow() * 1000;
+        clients.values().removeIf(started -> started.windowStart <= before);
+    }
+
+    private record ClientWatches(long windowStart, int count) {
+    }
+
+    private class Watch implements Runnable {
+
+        private final String presentationId;
+
+        private final Instant deadline;
+
+        private final CompletableFuture<PresentationState> firstPoll = new CompletableFuture<>();
+
+        private final CompletableFuture<PresentationState> result = new CompletableFuture<>();
+
+        private final List<Consumer<PresentationState>> listeners = new CopyOnWriteArrayList<>();
+
+        private volatile PresentationState latest;
+
+        private long delay;
+
+        Watch(String presentationId) {
+            this.presentationId = presentationId;
+            this.deadline = Instant.now().plusSeconds(settings.getTimeout());
+            this.delay = settings.getPollInterval();
+        }
+
+        @Override
+        public void run() {
+            try {
+                ResponseEntity<VerifyPresentationResponse> responseEntity = ocmClient.verifyPresentation(presentationId);
+                PresentationData data = responseEntity.getBody().getData();
+                boolean terminal = data.getState() != null && settings.getTerminalStates().contains(data.getState().toLowerCase());
+                PresentationState state = new PresentationState(presentationId, responseEntity.getStatusCode().value(), data, terminal);
+                PresentationState previous = latest;
+                latest = state;
+                firstPoll.complete(state);
+                if (previous == null || !StringUtils.equalsIgnoreCase(data.getState(), previous.getState())) {
+                    LOGGER.debug("Presentation {} state ->{}", presentationId, data.getState());
+                    notifyListeners(state);
+                }
+                if (terminal) {
+                    finish(state, null);
+                    return;
+                }
+            } catch (FeignException e) {
+                if (e.status() >= 400 && e.status() < 500) {
+                    //unknown presentation or bad request, polling again will not help
+                    finish(null, e);
+                    return;
+                }
+                LOGGER.debug("Can not poll presentation {}, retrying -> {}", presentationId, e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.debug("Can not poll presentation {}, retrying -> {}", presentationId, e.getMessage());
+            }
+            if (!Instant.now().plusMillis(delay).isBefore(deadline)) {
+                LOGGER.debug("Presentation {} is not finished in time, last state ->{}", presentationId, latest != null ? latest.getState() : null);
+                finish(latest, latest == null ? new BadDataException("Can not verify presentation, OCM is not reachable") : null);
+                return;
+            }
+            taskScheduler.schedule(this, Instant.now().plusMillis(delay));
+            delay = Math.min((long) (delay * settings.getBackoffMultiplier()), settings.getMaxPollInterval());
+        }
+
+        private void notifyListeners(PresentationState state) {
+            for (Consumer<PresentationState> listener : listeners) {
+                try {
+                    listener.accept(state);
+                } catch (RuntimeException e) {
+                    LOGGER.debug("Presentation listener failed, removing it -> {}", e.getMessage());
+                    listeners.remove(listener);
+                }
+            }
+        }
+
+        private void finish(PresentationState state, RuntimeException error) {
+            running.decrementAndGet();
+            if (state == null) {
+                //unknown presentation or OCM not reachable, nothing worth keeping
+                watches.remove(presentationId, this);
+            } else {
+                //keep the result for late requests, then the next request starts a new watch
+                taskScheduler.schedule(() -> watches.remove(presentationId, this), Instant.now().plusSeconds(settings.getResultRetention()));
+            }
+            if (error != null) {
+                firstPoll.completeExceptionally(error);
+                result.completeExceptionally(error);
+            } else {
+                firstPoll.complete(state);
+                result.complete(state);
+            }
+            listeners.clear();
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.onboarding;
+
+import com.smartsense.gaiax.config.OnboardingSettings;
+import com.smartsense.gaiax.dao.entity.OnboardingStep;
+import com.smartsense.gaiax.dao.repository.OnboardingStepRepository;
+import com.smartsense.gaiax.dto.OnboardingStepStatus;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.service.job.ScheduleService;
+import com.smartsense.gaiax.utils.Validate;
+import org.apache.commons.lang3.StringUtils;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The type Onboarding service.
+ * <p>
+ * Runs the onboarding of an enterprise as a workflow of {@link OnboardingStepType} steps. Every step is executed as a
+ * Quartz job which is started as soon as all dependencies of the step are completed, so independent steps run in
+ * parallel. Step state is stored in the onboarding_step table, a restart continues with the steps which are not
+ * completed yet. Status changes which start and finish a step are conditional updates so only one node of the cluster
+ * starts it, and a run which was superseded (recovered by the watchdog or restarted) can not overwrite the newer run.
+ * Running steps are kept alive with a heartbeat, only steps of a dead node are recovered by the watchdog.
+ */
+@Service
+public class OnboardingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OnboardingService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OnboardingStepRepository onboardingStepRepository;
+
+    private final ScheduleService scheduleService;
+
+    private final OnboardingSettings onboardingSettings;
+
+    //runs of this node by step id, refreshed by the heartbeat
+    private final Map<Long, Run> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Onboarding service.
+     *
+     * @param onboardingStepRepository the onboarding step repository
+     * @param scheduleService          the schedule service
+     * @param onboardingSettings       the onboarding settings
+     */
+    public OnboardingService(OnboardingStepRepository onboardingStepRepository, ScheduleService scheduleService, OnboardingSettings onboardingSettings) {
+        this.onboardingStepRepository = onboardingStepRepository;
+        this.scheduleService = scheduleService;
+        this.onboardingSettings = onboardingSettings;
+    }
+
+    /**
+     * Start onboarding of a new enterprise.
+     *
+     * @param enterpriseId the enterprise id
+     */
+    public void start(long enterpriseId) {
+        for (OnboardingStepType type : OnboardingStepType.values()) {
+            if (onboardingStepRepository.getByEnterpriseIdAndStep(enterpriseId, type) == null) {
+                onboardingStepRepository.save(OnboardingStep.builder()
+                        .enterpriseId(enterpriseId)
+                        .step(type)
+                        .status(OnboardingStepStatus.PENDING)
+                        .build());
+            }
+        }
+        dispatchReadySteps(enterpriseId);
+    }
+
+    /**
+     * Restart onboarding from a step, the step and all steps which depend on it are executed again. Steps before it
+     * which were never tracked (enterprise onboarded before the workflow existed) are considered completed.
+     *
+     * @param enterpriseId the enterprise id
+     * @param from         the step to restart from
+     */
+    public void restartFrom(long enterpriseId, OnboardingStepType from) {
+        Map<OnboardingStepType, OnboardingStep> steps = getStepMap(enterpriseId);
+        for (OnboardingStep step : steps.values()) {
+            boolean active = step.getStatus() == OnboardingStepStatus.QUEUED || step.getStatus() == OnboardingStepStatus.RUNNING;
+            Validate.isTrue(active && (step.getStep() == from || step.getStep().isDownstreamOf(from))).launch(new BadDataException("Onboarding step " + step.getStep() + " is already running"));
+        }
+        for (OnboardingStepType type : OnboardingStepType.values()) {
+            OnboardingStep step = steps.get(type);
+            boolean rerun = type == from || type.isDownstreamOf(from);
+            if (step == null) {
+                step = OnboardingStep.builder()
+                        .enterpriseId(enterpriseId)
+                        .step(type)
+                        .status(rerun ? OnboardingStepStatus.PENDING : OnboardingStepStatus.COMPLETED)
+                        .build();
+            } else if (rerun) {
+                step.setStatus(OnboardingStepStatus.PENDING);
+                step.setAttempts(0);
+                step.setError(null);
+            } else {
+                continue;
+            }
+            onboardingStepRepository.save(step);
+        }
+        LOGGER.info("Onboarding of enterprise {} restarted from step {}", enterpriseId, from);
+        dispatchReadySteps(enterpriseId);
+    }
+
+    /**
+     * Gets steps.
+     *
+     * @param enterpriseId the enterprise id
+     * @return the steps
+     */
+    public List<OnboardingStep> getSteps(long enterpriseId) {
+        return onboardingStepRepository.getByEnterpriseIdOrderById(enterpriseId);
+    }
+
+    /**
+     * Execute a step, called by the job of the step. Asynchronous steps release the job thread, the step is finished
+     * when the returned future completes.
+     *
+     * @param enterpriseId the enterprise id
+     * @param type         the step type
+     * @param recovering   true if Quartz runs the job again after a node failure
+     * @param action       the step action, completes with true on success
+     */
+    public void execute(long enterpriseId, OnboardingStepType type, boolean recovering, Supplier<CompletableFuture<Boolean>> action) {
+        OnboardingStep step = onboardingStepRepository.getByEnterpriseIdAndStep(enterpriseId, type);
+        if (step == null) {
+            //enterprise onboarded before the workflow existed, the step is only tracked once it is done
+            long startTime = System.currentTimeMillis();
+            run(action).whenComplete((success, e) -> recordUntracked(enterpriseId, type, startTime, Boolean.TRUE.equals(success) && e == null, unwrap(e)));
+            return;
+        }
+        OnboardingStepStatus expected = recovering && step.getStatus() == OnboardingStepStatus.RUNNING ? OnboardingStepStatus.RUNNING : OnboardingStepStatus.QUEUED;
+        int attempts = step.getAttempts() + 1;
+        Date startedAt = new Date();
+        if (onboardingStepRepository.startRun(step.getId(), expected, attempts, startedAt) != 1) {
+            LOGGER.debug("Step {} of enterprise {} is {}, execution skipped", type, enterpriseId, step.getStatus());
+            return;
+        }
+        Run current = new Run(step.getId(), enterpriseId, type, attempts, startedAt);
+        runs.put(step.getId(), current);
+        run(action).whenComplete((success, e) -> {
+            try {
+                finish(current, Boolean.TRUE.equals(success) && e == null, unwrap(e));
+            } finally {
+                runs.remove(current.id, current);
+            }
+        });
+    }
+
+    /**
+     * Heartbeat of the steps running on this node. Asynchronous steps (ACME polling, DNS sync, ingress reconcile) do
+     * not touch the step while they run, without the heartbeat the watchdog would start a slow step a second time.
+     */
+    @Scheduled(fixedDelayString = "${onboarding.heartbeatInterval:60000}", initialDelayString = "${onboarding.heartbeatInterval:60000}")
+    public void heartbeat() {
+        for (Run run : runs.values()) {
+            try {
+                if (onboardingStepRepository.heartbeat(run.id, run.startedAt, new Date()) != 1) {
+                    //run was recovered or restarted by someone else, its result will be ignored
+                    runs.remove(run.id, run);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Heartbeat of step {} of enterprise {} failed", run.type, run.enterpriseId, e);
+            }
+        }
+    }
+
+    private void finish(Run run, boolean success, Throwable e) {
+        long duration = System.currentTimeMillis() - run.startedAt.getTime();
+        Date now = new Date();
+        if (success) {
+            if (onboardingStepRepository.finishRun(run.id, run.startedAt, OnboardingStepStatus.COMPLETED, now, duration, null, now) != 1) {
+                LOGGER.warn("Step {} of enterprise {} completed in {} ms, but the run was superseded, result ignored", run.type, run.enterpriseId, duration);
+                return;
+            }
+            LOGGER.info("Step {} of enterprise {} completed in {} ms", run.type, run.enterpriseId, duration);
+            dispatchReadySteps(run.enterpriseId);
+            return;
+        }
+        if (e != null) {
+            LOGGER.error("Step {} of enterprise {} failed", run.type, run.enterpriseId, e);
+        }
+        String error = toError(e);
+        boolean retry = run.attempts < onboardingSettings.getMaxAttempts();
+        if (onboardingStepRepository.finishRun(run.id, run.startedAt, retry ? OnboardingStepStatus.QUEUED : OnboardingStepStatus.FAILED, null, duration, error, now) != 1) {
+            LOGGER.warn("Step {} of enterprise {} failed, but the run was superseded, result ignored", run.type, run.enterpriseId);
+            return;
+        }
+        if (retry) {
+            long delay = onboardingSettings.getRetryDelay() * 1000 * run.attempts;
+            LOGGER.warn("Step {} of enterprise {} failed in attempt {}, retry after {} ms", run.type, run.enterpriseId, run.attempts, delay);
+            createJob(run.id, run.enterpriseId, run.type, delay);
+        } else {
+            LOGGER.error("Step {} of enterprise {} failed after {} attempts", run.type, run.enterpriseId, run.attempts);
+        }
+    }
+
+    private void recordUntracked(long enterpriseId, OnboardingStepType type, long startTime, boolean success, Throwable e) {
+        long duration = System.currentTimeMillis() - startTime;
+        if (success) {
+            LOGGER.info("Untracked step {} of enterprise {} completed in {} ms", type, enterpriseId, duration);
+        } else {
+            LOGGER.error("Untracked step {} of enterprise {} failed", type, enterpriseId, e);
+        }
+        try {
+            if (onboardingStepRepository.getByEnterpriseIdAndStep(enterpriseId, type) != null) {
+                return;
+            }
+            //track the result, a failed step can then be seen and restarted with restartFrom
+            onboardingStepRepository.save(OnboardingStep.builder()
+                    .enterpriseId(enterpriseId)
+                    .step(type)
+                    .status(success ? OnboardingStepStatus.COMPLETED : OnboardingStepStatus.FAILED)
+                    .attempts(1)
+                    .startedAt(new Date(startTime))
+                    .completedAt(success ? new Date() : null)
+                    .durationMs(duration)
+                    .error(success ? null : toError(e))
+                    .build());
+        } catch (Exception ex) {
+            LOGGER.error("Can not record result of untracked step {} of enterprise {}", type, enterpriseId, ex);
+        }
+    }
+
+    private static CompletableFuture<Boolean> run(Supplier<CompletableFuture<Boolean>> action) {
+        try {
+            CompletableFuture<Boolean> future = action.get();
+            return future == null ? CompletableFuture.completedFuture(false) : future;
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static String toError(Throwable e) {
+        return StringUtils.abbreviate(e == null || StringUtils.isBlank(e.getMessage()) ? "Step failed" : e.getMessage(), MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Resume steps after a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        watchdog();
+    }
+
+    /**
+     * Start pending steps whose dependencies are completed and recover queued or running steps which were lost, e.g.
+     * when a node died before the job was created.
+     */
+    @Scheduled(fixedDelayString = "${onboarding.watchdogInterval:60000}", initialDelayString = "${onboarding.watchdogInterval:60000}")
+    public void watchdog() {
+        try {
+            Date before = new Date(System.currentTimeMillis() - onboardingSettings.getStuckTimeout() * 1000);
+            for (OnboardingStep step : onboardingStepRepository.getByStatusInAndUpdatedAtBefore(List.of(OnboardingStepStatus.QUEUED, OnboardingStepStatus.RUNNING), before)) {
+                if (onboardingStepRepository.changeStatus(step.getId(), step.getStatus(), OnboardingStepStatus.PENDING, new Date()) == 1) {
+                    LOGGER.warn("Step {} of enterprise {} was {} since {}, started again", step.getStep(), step.getEnterpriseId(), step.getStatus(), step.getUpdatedAt());
+                }
+            }
+            Set<Long> enterpriseIds = new TreeSet<>();
+            for (OnboardingStep step : onboardingStepRepository.getByStatus(OnboardingStepStatus.PENDING)) {
+                enterpriseIds.add(step.getEnterpriseId());
+            }
+            enterpriseIds.forEach(this::dispatchReadySteps);
+        } catch (Exception e) {
+            LOGGER.error("Onboarding watchdog failed", e);
+        }
+    }
+
+    private void dispatchReadySteps(long enterpriseId) {
+        Map<OnboardingStepType, OnboardingStep> steps = getStepMap(enterpriseId);
+        for (OnboardingStep step : steps.values()) {
+            if (step.getStatus() != OnboardingStepStatus.PENDING || !isReady(step.getStep(), steps)) {
+                continue;
+            }
+            if (onboardingStepRepository.changeStatus(step.getId(), OnboardingStepStatus.PENDING, OnboardingStepStatus.QUEUED, new Date()) == 1) {
+                createJob(step.getId(), enterpriseId, step.getStep(), 0);
+            }
+        }
+    }
+
+    private void createJob(long stepId, long enterpriseId, OnboardingStepType type, long delay) {
+        try {
+            scheduleService.createJob(enterpriseId, type.getJobType(), delay);
+        } catch (SchedulerException e) {
+            LOGGER.error("Can not create job for step {} of enterprise {}", type, enterpriseId, e);
+            //watchdog tries again
+            onboardingStepRepository.changeStatus(stepId, OnboardingStepStatus.QUEUED, OnboardingStepStatus.PENDING, new Date());
+        }
+    }
+
+    private static boolean isReady(OnboardingStepType type, Map<OnboardingStepType, OnboardingStep> steps) {
+        for (OnboardingStepType dependency : type.getDependencies()) {
+            OnboardingStep step = steps.get(dependency);
+            if (step == null || step.getStatus() != OnboardingStepStatus.COMPLETED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<OnboardingStepType, OnboardingStep> getStepMap(long enterpriseId) {
+        Map<OnboardingStepType, OnboardingStep> steps = new EnumMap<>(OnboardingStepType.class);
+        for (OnboardingStep step : onboardingStepRepository.getByEnterpriseIdOrderById(enterpriseId)) {
+            steps.put(step.getStep(), step);
+        }
+        return steps;
+    }
+
+    private record Run(long id, long enterpriseId, OnboardingStepType type, int attempts, Date startedAt) {
+    }
+}
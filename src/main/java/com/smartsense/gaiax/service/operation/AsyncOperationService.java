@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.operation;
+
+import com.smartsense.gaiax.config.AsyncSettings;
+import com.smartsense.gaiax.dao.entity.AsyncOperation;
+import com.smartsense.gaiax.dao.repository.AsyncOperationRepository;
+import com.smartsense.gaiax.dto.OperationStatus;
+import com.smartsense.gaiax.exception.DownstreamUnavailableException;
+import com.smartsense.gaiax.exception.EntityNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The type Async operation service. Runs API requests in the background, the state is stored in the database so the
+ * client can poll it from any node. Also provides the executor used to fan out calls of a request.
+ */
+@Service
+public class AsyncOperationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncOperationService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AsyncOperationRepository asyncOperationRepository;
+
+    private final AsyncSettings asyncSettings;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Executor admittingExecutor;
+
+    /**
+     * Instantiates a new Async operation service.
+     *
+     * @param asyncOperationRepository the async operation repository
+     * @param asyncSettings            the async settings
+     */
+    public AsyncOperationService(AsyncOperationRepository asyncOperationRepository, AsyncSettings asyncSettings) {
+        this.asyncOperationRepository = asyncOperationRepository;
+        this.asyncSettings = asyncSettings;
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(asyncSettings.getThreads());
+        executor.setMaxPoolSize(asyncSettings.getThreads());
+        executor.setQueueCapacity(asyncSettings.getQueueCapacity());
+        executor.setThreadNamePrefix("api-async-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            //new work of a request is refused, the next step of accepted work runs on the thread which finished the previous one
+            if (RequestContextHolder.getRequestAttributes() != null || pool.isShutdown()) {
+                throw new RejectedExecutionException("Async queue is full");
+            }
+            task.run();
+        });
+        executor.initialize();
+        admittingExecutor = task -> {
+            try {
+                executor.execute(task);
+            } catch (TaskRejectedException e) {
+                throw new DownstreamUnavailableException("Too many requests in progress, please retry later");
+            }
+        };
+    }
+
+    /**
+     * Gets executor for calls of API requests. Work submitted while the queue is full fails with
+     * DownstreamUnavailableException, so the request is answered with 503.
+     *
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return admittingExecutor;
+    }
+
+    /**
+     * Track an operation which is already started, the state is updated when the future completes.
+     *
+     * @param enterpriseId the enterprise id
+     * @param type         the operation type
+     * @param future       the future of the operation, completes with the id of the created entity
+     * @return the running operation
+     */
+    public AsyncOperation track(long enterpriseId, String type, CompletableFuture<Long> future) {
+        AsyncOperation operation = asyncOperationRepository.save(AsyncOperation.builder()
+                .id(UUID.randomUUID().toString())
+                .enterpriseId(enterpriseId)
+                .type(type)
+                .status(OperationStatus.RUNNING)
+                .build());
+        String id = operation.getId();
+        //attached after the operation is saved, so a fast operation does not complete before it exists
+        //only a running operation is finished, an operation which was timed out by the cleanup stays failed
+        future.whenComplete((resultId, e) -> {
+            int updated;
+            if (e == null) {
+                updated = asyncOperationRepository.complete(id, resultId, new Date(), OperationStatus.RUNNING, OperationStatus.COMPLETED);
+            } else {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                LOGGER.error("Operation {} of type {} failed", id, type, cause);
+                String error = StringUtils.abbreviate(StringUtils.defaultIfBlank(cause.getMessage(), cause.getClass().getSimpleName()), MAX_ERROR_LENGTH);
+                updated = asyncOperationRepository.fail(id, error, new Date(), OperationStatus.RUNNING, OperationStatus.FAILED);
+            }
+            if (updated == 0) {
+                LOGGER.warn("Operation {} of type {} finished after it was no longer running, the result is dropped", id, type);
+            }
+        });
+        return operation;
+    }
+
+    /**
+     * Gets operation.
+     *
+     * @param enterpriseId the enterprise id
+     * @param id           the operation id
+     * @return the operation
+     */
+    public AsyncOperation getOperation(long enterpriseId, String id) {
+        AsyncOperation operation = asyncOperationRepository.getByIdAndEnterpriseId(id, enterpriseId);
+        if (operation == null) {
+            throw new EntityNotFoundException("Can not find operation -> " + id);
+        }
+        return operation;
+    }
+
+    /**
+     * Fail operations of stopped nodes and delete old finished operations.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        int failed = asyncOperationRepository.failStale(new Date(now - asyncSettings.getOperationTimeout() * 1000), "Operation timed out", new Date(now), OperationStatus.RUNNING, OperationStatus.FAILED);
+        int deleted = asyncOperationRepository.deleteFinished(new Date(now - asyncSettings.getOperationRetention() * 3600 * 1000), OperationStatus.RUNNING);
+        if (failed > 0 || deleted > 0) {
+            LOGGER.info("Operations cleaned up, failed ->{}, deleted ->{}", failed, deleted);
+        }
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The type Catalogue document, the searchable fields of one service offer.
+ */
+@Getter
+@AllArgsConstructor
+class CatalogueDocument {
+
+    private final long serviceOfferId;
+
+    private final long enterpriseId;
+
+    private final String label;
+
+    private final String description;
+
+    private final String enterpriseName;
+
+    private final String accessType;
+
+    private final String requestType;
+
+    private final String formatType;
+
+    private final boolean labelLevel;
+}
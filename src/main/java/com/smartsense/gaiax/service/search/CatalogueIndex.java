@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.search;
+
+import com.smartsense.gaiax.dto.ServiceOfferSearchFilter;
+import com.smartsense.gaiax.dto.ServiceOfferSearchResult;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The type Catalogue index. In-memory inverted index of service offers.
+ * <p>
+ * Every service offer is a document with a sequential number. A term maps to a posting list of document numbers with
+ * a bit mask of the fields containing the term, both stored in primitive arrays. Terms are kept sorted so prefix
+ * matches are a range of the dictionary. An updated service offer gets a new document number and the old one is
+ * marked as deleted, the owner rebuilds the index once too many documents are deleted.
+ */
+class CatalogueIndex {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final byte LABEL = 1;
+
+    private static final byte DESCRIPTION = 2;
+
+    private static final byte ENTERPRISE_NAME = 4;
+
+    private static final float EXACT = 1f;
+
+    private static final float PREFIX = 0.7f;
+
+    private static final float FUZZY = 0.4f;
+
+    private final int fuzzyMaxEdits;
+
+    private final int fuzzyMinLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    private final Map<Long, Integer> documents = new HashMap<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private final BitSet labelLevels = new BitSet();
+
+    private final Facet accessTypes = new Facet();
+
+    private final Facet requestTypes = new Facet();
+
+    private final Facet formatTypes = new Facet();
+
+    private long[] serviceOfferIds = new long[1024];
+
+    private long[] enterpriseIds = new long[1024];
+
+    private int size;
+
+    private int deletedCount;
+
+    /**
+     * Instantiates a new Catalogue index.
+     *
+     * @param fuzzyMaxEdits  the maximum edit distance of fuzzy matches
+     * @param fuzzyMinLength the minimum length of a word to be matched fuzzy
+     */
+    CatalogueIndex(int fuzzyMaxEdits, int fuzzyMinLength) {
+        this.fuzzyMaxEdits = fuzzyMaxEdits;
+        this.fuzzyMinLength = fuzzyMinLength;
+    }
+
+    /**
+     * Split a text into lower case words of letters and digits.
+     *
+     * @param text the text
+     * @return the words
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            words.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+        return words;
+    }
+
+    /**
+     * Wrap the words of the text which are in the given terms with {@code <mark>} tags.
+     *
+     * @param text  the text
+     * @param marks the terms to mark
+     * @return the highlighted text
+     */
+    static String highlight(String text, Set<String> marks) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder highlighted = new StringBuilder(text.length() + 16);
+        Matcher matcher = WORD.matcher(text);
+        int end = 0;
+        while (matcher.find()) {
+            if (marks.contains(matcher.group().toLowerCase(Locale.ROOT))) {
+                highlighted.append(text, end, matcher.start()).append("<mark>").append(matcher.group()).append("</mark>");
+                end = matcher.end();
+            }
+        }
+        return highlighted.append(text, end, text.length()).toString();
+    }
+
+    /**
+     * Add or replace a document.
+     *
+     * @param document the document
+     */
+    void put(CatalogueDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.getServiceOfferId());
+            int doc = size++;
+            if (doc == serviceOfferIds.length) {
+                serviceOfferIds = Arrays.copyOf(serviceOfferIds, doc * 2);
+                enterpriseIds = Arrays.copyOf(enterpriseIds, doc * 2);
+            }
+            serviceOfferIds[doc] = document.getServiceOfferId();
+            enterpriseIds[doc] = document.getEnterpriseId();
+            accessTypes.set(doc, document.getAccessType());
+            requestTypes.set(doc, document.getRequestType());
+            formatTypes.set(doc, document.getFormatType());
+            labelLevels.set(doc, document.isLabelLevel());
+            addTerms(doc, document.getLabel(), LABEL);
+            addTerms(doc, document.getDescription(), DESCRIPTION);
+            addTerms(doc, document.getEnterpriseName(), ENTERPRISE_NAME);
+            documents.put(document.getServiceOfferId(), doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ratio of deleted documents.
+     *
+     * @return the ratio
+     */
+    double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : (double) deletedCount / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of live documents.
+     *
+     * @return the number of documents
+     */
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search documents of all other enterprises. Every word of the query must match exactly, as prefix or fuzzy in
+     * one of the fields.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter
+     * @param ranked       order by score instead of service offer id
+     * @param afterId      only service offers with a bigger id, ignored if ranked
+     * @param offset       the offset
+     * @param limit        the limit
+     * @return the result
+     */
+    Result search(long enterpriseId, ServiceOfferSearchFilter filter, boolean ranked, long afterId, int offset, int limit) {
+        List<String> words = tokenize(filter.getQuery());
+        lock.readLock().lock();
+        try {
+            float[] scores = new float[size];
+            Set<String> matchedTerms = new HashSet<>();
+            BitSet matched = null;
+            for (String word : words) {
+                BitSet wordDocs = matchWord(word, scores, matchedTerms);
+                if (matched == null) {
+                    matched = wordDocs;
+                } else {
+                    matched.and(wordDocs);
+                }
+            }
+            if (matched == null) {
+                matched = new BitSet();
+            }
+            matched.andNot(deleted);
+            applyFilters(matched, enterpriseId, filter);
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put(ServiceOfferSearchResult.FACET_ACCESS_TYPE, accessTypes.count(matched));
+            facets.put(ServiceOfferSearchResult.FACET_REQUEST_TYPE, requestTypes.count(matched));
+            facets.put(ServiceOfferSearchResult.FACET_FORMAT_TYPE, formatTypes.count(matched));
+
+            List<Integer> docs = new ArrayList<>(matched.cardinality());
+            for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+                if (ranked || serviceOfferIds[doc] > afterId) {
+                    docs.add(doc);
+                }
+            }
+            if (ranked) {
+                docs.sort((a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a]) : Long.compare(serviceOfferIds[b], serviceOfferIds[a]));
+            } else {
+                docs.sort(Comparator.comparingLong(doc -> serviceOfferIds[doc]));
+            }
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, docs.size()));
+            for (int i = offset; i < docs.size() && hits.size() < limit; i++) {
+                int doc = docs.get(i);
+                hits.add(new Hit(serviceOfferIds[doc], scores[doc]));
+            }
+            return new Result(hits, matched.cardinality(), facets, matchedTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matchWord(String word, float[] scores, Set<String> matchedTerms) {
+        BitSet wordDocs = new BitSet(size);
+        float[] wordScores = new float[size];
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            collect(exact, EXACT, wordDocs, wordScores);
+            matchedTerms.add(word);
+        }
+        for (Map.Entry<String, Postings> entry : terms.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+            collect(entry.getValue(), PREFIX, wordDocs, wordScores);
+            matchedTerms.add(entry.getKey());
+        }
+        if (fuzzyMaxEdits > 0 && word.length() >= fuzzyMinLength) {
+            //typos in the first letter are not matched, this keeps the scan to a small range of the dictionary
+            String first = word.substring(0, 1);
+            for (Map.Entry<String, Postings> entry : terms.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                String term = entry.getKey();
+                if (!term.startsWith(word) && Math.abs(term.length() - word.length()) <= fuzzyMaxEdits && editDistance(word, term, fuzzyMaxEdits) <= fuzzyMaxEdits) {
+                    collect(entry.getValue(), FUZZY, wordDocs, wordScores);
+                    matchedTerms.add(term);
+                }
+            }
+        }
+        for (int doc = wordDocs.nextSetBit(0); doc >= 0; doc = wordDocs.nextSetBit(doc + 1)) {
+            scores[doc] += wordScores[doc];
+        }
+        return wordDocs;
+    }
+
+    private static void collect(Postings postings, float factor, BitSet wordDocs, float[] wordScores) {
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            wordDocs.set(doc);
+            wordScores[doc] = Math.max(wordScores[doc], factor * weight(postings.fields[i]));
+        }
+    }
+
+    private static float weight(byte fields) {
+        if ((fields & LABEL) != 0) {
+            return 3f;
+        }
+        if ((fields & ENTERPRISE_NAME) != 0) {
+            return 2f;
+        }
+        return 1f;
+    }
+
+    private void applyFilters(BitSet matched, long enterpriseId, ServiceOfferSearchFilter filter) {
+        for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+            if (enterpriseIds[doc] == enterpriseId
+                    || !accessTypes.is(doc, filter.getAccessType())
+                    || !requestTypes.is(doc, filter.getRequestType())
+                    || !formatTypes.is(doc, filter.getFormatType())
+                    || (filter.getLabelLevel() != null && labelLevels.get(doc) != filter.getLabelLevel())) {
+                matched.clear(doc);
+            }
+        }
+    }
+
+    private void addTerms(int doc, String text, byte field) {
+        for (String word : tokenize(text)) {
+            terms.computeIfAbsent(word, k -> new Postings()).add(doc, field);
+        }
+    }
+
+    private void remove(long serviceOfferId) {
+        Integer doc = documents.remove(serviceOfferId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Levenshtein distance, stops early once the distance is bigger than max.
+     */
+    private static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Posting list of a term. Documents are only appended with increasing numbers, so the list is always sorted.
+     */
+    private static class Postings {
+
+        private int[] docs = new int[4];
+
+        private byte[] fields = new byte[4];
+
+        private int size;
+
+        private void add(int doc, byte field) {
+            if (size > 0 && docs[size - 1] == doc) {
+                fields[size - 1] |= field;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size] = field;
+            size++;
+        }
+    }
+
+    /**
+     * Values of a facet field stored as ordinals per document, -1 if the document has no value.
+     */
+    private static class Facet {
+
+        private final List<String> values = new ArrayList<>();
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+
+        private int[] documentOrdinals = new int[1024];
+
+        private void set(int doc, String value) {
+            if (doc >= documentOrdinals.length) {
+                documentOrdinals = Arrays.copyOf(documentOrdinals, Math.max(doc + 1, documentOrdinals.length * 2));
+            }
+            if (value == null) {
+                documentOrdinals[doc] = -1;
+                return;
+            }
+            documentOrdinals[doc] = ordinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        private boolean is(int doc, String value) {
+            if (value == null) {
+                return true;
+            }
+            Integer ordinal = ordinals.get(value);
+            return ordinal != null && documentOrdinals[doc] == ordinal;
+        }
+
+        private Map<String, Long> count(BitSet docs) {
+            long[] counts = new long[values.size()];
+            for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                if (documentOrdinals[doc] >= 0) {
+                    counts[documentOrdinals[doc]]++;
+                }
+            }
+            Map<String, Long> facet = new TreeMap<>();
+            for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                if (counts[ordinal] > 0) {
+                    facet.put(values.get(ordinal), counts[ordinal]);
+                }
+            }
+            return facet;
+        }
+    }
+
+    /**
+     * The type Hit.
+     */
+    @Getter
+    static class Hit {
+
+        private final long serviceOfferId;
+
+        private final float score;
+
+        private Hit(long serviceOfferId, float score) {
+            this.serviceOfferId = serviceOfferId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The type Result.
+     */
+    @Getter
+    static class Result {
+
+        private final List<Hit> hits;
+
+        private final long total;
+
+        private final Map<String, Map<String, Long>> facets;
+
+        /**
+         * Terms of the dictionary which matched a word of the query, used for highlighting
+         */
+        private final Set<String> matchedTerms;
+
+        private Result(List<Hit> hits, long total, Map<String, Map<String, Long>> facets, Set<String> matchedTerms) {
+            this.hits = hits;
+            this.total = total;
+            this.facets = facets;
+            this.matchedTerms = matchedTerms;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.search;
+
+import com.smartsense.gaiax.config.SearchSettings;
+import com.smartsense.gaiax.dao.entity.CatalogueChange;
+import com.smartsense.gaiax.dao.entity.Enterprise;
+import com.smartsense.gaiax.dao.entity.ServiceOffer;
+import com.smartsense.gaiax.dao.entity.ServiceOfferView;
+import com.smartsense.gaiax.dao.repository.*;
+import com.smartsense.gaiax.dto.SearchEngine;
+import com.smartsense.gaiax.dto.ServiceOfferSearchFilter;
+import com.smartsense.gaiax.dto.ServiceOfferSearchHit;
+import com.smartsense.gaiax.dto.ServiceOfferSearchResult;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The type Catalogue search service. Searches the catalogue with the configured engine.
+ * <p>
+ * With the memory engine every pod holds a {@link CatalogueIndex} which is built at startup. Writers record a
+ * {@link CatalogueChange} for every created service offer and changed enterprise, every pod reads the change feed and
+ * reindexes the changed service offers from the database. Changes are read again for a while, applying a change twice
+ * does no harm.
+ */
+@Service
+public class CatalogueSearchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogueSearchService.class);
+
+    private final SearchSettings searchSettings;
+
+    private final ServiceOfferSearchRepository serviceOfferSearchRepository;
+
+    private final ServiceOfferRepository serviceOfferRepository;
+
+    private final ServiceOfferViewRepository serviceOfferViewRepository;
+
+    private final EnterpriseRepository enterpriseRepository;
+
+    private final CatalogueChangeRepository catalogueChangeRepository;
+
+    private volatile CatalogueIndex index;
+
+    //changes created after this time are read on the next poll, only used by the scheduler thread
+    private Date changesSince;
+
+    /**
+     * Instantiates a new Catalogue search service.
+     *
+     * @param searchSettings               the search settings
+     * @param serviceOfferSearchRepository the service offer search repository
+     * @param serviceOfferRepository       the service offer repository
+     * @param serviceOfferViewRepository   the service offer view repository
+     * @param enterpriseRepository         the enterprise repository
+     * @param catalogueChangeRepository    the catalogue change repository
+     */
+    public CatalogueSearchService(SearchSettings searchSettings, ServiceOfferSearchRepository serviceOfferSearchRepository, ServiceOfferRepository serviceOfferRepository, ServiceOfferViewRepository serviceOfferViewRepository, EnterpriseRepository enterpriseRepository, CatalogueChangeRepository catalogueChangeRepository) {
+        this.searchSettings = searchSettings;
+        this.serviceOfferSearchRepository = serviceOfferSearchRepository;
+        this.serviceOfferRepository = serviceOfferRepository;
+        this.serviceOfferViewRepository = serviceOfferViewRepository;
+        this.enterpriseRepository = enterpriseRepository;
+        this.catalogueChangeRepository = catalogueChangeRepository;
+    }
+
+    /**
+     * Build the index once the application is started, memory engine only.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (isMemoryEngine()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Search service offers of all other enterprises, best match first.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @param offset       the offset
+     * @param limit        the limit
+     * @return the search result
+     */
+    public ServiceOfferSearchResult search(long enterpriseId, ServiceOfferSearchFilter filter, int offset, int limit) {
+        CatalogueIndex catalogueIndex = index;
+        if (catalogueIndex == null) {
+            return new ServiceOfferSearchResult(serviceOfferSearchRepository.search(enterpriseId, filter, offset, limit), serviceOfferSearchRepository.facets(enterpriseId, filter));
+        }
+        CatalogueIndex.Result result = catalogueIndex.search(enterpriseId, filter, true, 0, offset, limit);
+        Map<Long, ServiceOfferView> views = loadViews(result);
+        List<ServiceOfferSearchHit> hits = new ArrayList<>(result.getHits().size());
+        for (CatalogueIndex.Hit hit : result.getHits()) {
+            ServiceOfferView view = views.get(hit.getServiceOfferId());
+            if (view != null) {
+                hits.add(new ServiceOfferSearchHit(view, hit.getScore(),
+                        CatalogueIndex.highlight(view.getLabel(), result.getMatchedTerms()),
+                        CatalogueIndex.highlight(view.getDescription(), result.getMatchedTerms())));
+            }
+        }
+        return new ServiceOfferSearchResult(hits, result.getFacets());
+    }
+
+    /**
+     * Service offers of all other enterprises matching the filter, ordered by id.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @param afterId      id of the last service offer of the previous page
+     * @param limit        the limit
+     * @return the service offers
+     */
+    public List<ServiceOfferView> match(long enterpriseId, ServiceOfferSearchFilter filter, long afterId, int limit) {
+        CatalogueIndex catalogueIndex = index;
+        if (catalogueIndex == null) {
+            return serviceOfferSearchRepository.match(enterpriseId, filter, afterId, limit);
+        }
+        CatalogueIndex.Result result = catalogueIndex.search(enterpriseId, filter, false, afterId, 0, limit);
+        Map<Long, ServiceOfferView> views = loadViews(result);
+        return result.getHits().stream()
+                .map(hit -> views.get(hit.getServiceOfferId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Count service offers of all other enterprises matching the filter.
+     *
+     * @param enterpriseId the enterprise id of the caller
+     * @param filter       the filter, query is required
+     * @return the count
+     */
+    public long count(long enterpriseId, ServiceOfferSearchFilter filter) {
+        CatalogueIndex catalogueIndex = index;
+        if (catalogueIndex == null) {
+            return serviceOfferSearchRepository.count(enterpriseId, filter);
+        }
+        return catalogueIndex.search(enterpriseId, filter, false, 0, 0, 0).getTotal();
+    }
+
+    /**
+     * Record created service offers in the change feed and index them on this pod right away.
+     *
+     * @param serviceOffers the saved service offers
+     */
+    public void serviceOffersSaved(List<ServiceOffer> serviceOffers) {
+        if (!isMemoryEngine() || serviceOffers.isEmpty()) {
+            return;
+        }
+        catalogueChangeRepository.saveAll(serviceOffers.stream()
+                .map(serviceOffer -> CatalogueChange.builder()
+                        .enterpriseId(serviceOffer.getEnterpriseId())
+                        .serviceOfferId(serviceOffer.getId())
+                        .build())
+                .toList());
+        CatalogueIndex catalogueIndex = index;
+        if (catalogueIndex != null) {
+            Map<Long, Enterprise> enterprises = loadEnterprises(serviceOffers);
+            serviceOffers.forEach(serviceOffer -> catalogueIndex.put(toDocument(serviceOffer, enterprises.get(serviceOffer.getEnterpriseId()))));
+        }
+    }
+
+    /**
+     * Record a changed enterprise in the change feed and reindex its service offers on this pod right away.
+     *
+     * @param enterpriseId the enterprise id
+     */
+    public void enterpriseChanged(long enterpriseId) {
+        if (!isMemoryEngine()) {
+            return;
+        }
+        catalogueChangeRepository.save(CatalogueChange.builder()
+                .enterpriseId(enterpriseId)
+                .build());
+        CatalogueIndex catalogueIndex = index;
+        if (catalogueIndex != null) {
+            reindexEnterprise(catalogueIndex, enterpriseId);
+        }
+    }
+
+    /**
+     * Apply changes of other pods, memory engine only.
+     */
+    @Scheduled(fixedDelayString = "${search.changePollInterval:1000}", initialDelayString = "${search.changePollInterval:1000}")
+    public void pollChanges() {
+        CatalogueIndex catalogueIndex = index;
+        if (catalogueIndex == null) {
+            return;
+        }
+        try {
+            if (catalogueIndex.deletedRatio() > searchSettings.getMaxDeletedRatio()) {
+                LOGGER.info("Catalogue index has {}% replaced documents, rebuilding", Math.round(catalogueIndex.deletedRatio() * 100));
+                rebuild();
+                return;
+            }
+            Date pollStartedAt = new Date(System.currentTimeMillis() - searchSettings.getChangeOverlap() * 1000);
+            List<CatalogueChange> changes = catalogueChangeRepository.getByCreatedAtAfterOrderById(changesSince);
+            Set<Long> enterpriseIds = new HashSet<>();
+            Set<Long> serviceOfferIds = new HashSet<>();
+            for (CatalogueChange change : changes) {
+                if (change.getServiceOfferId() == null) {
+                    enterpriseIds.add(change.getEnterpriseId());
+                } else {
+                    serviceOfferIds.add(change.getServiceOfferId());
+                }
+            }
+            enterpriseIds.forEach(enterpriseId -> reindexEnterprise(catalogueIndex, enterpriseId));
+            List<ServiceOffer> serviceOffers = serviceOfferRepository.findAllById(serviceOfferIds).stream()
+                    .filter(serviceOffer -> !enterpriseIds.contains(serviceOffer.getEnterpriseId()))
+                    .toList();
+            Map<Long, Enterprise> enterprises = loadEnterprises(serviceOffers);
+            serviceOffers.forEach(serviceOffer -> catalogueIndex.put(toDocument(serviceOffer, enterprises.get(serviceOffer.getEnterpriseId()))));
+            changesSince = pollStartedAt;
+        } catch (Exception e) {
+            LOGGER.error("Can not apply catalogue changes", e);
+        }
+    }
+
+    /**
+     * Delete old changes of the feed.
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void cleanup() {
+        if (!isMemoryEngine()) {
+            return;
+        }
+        int deleted = catalogueChangeRepository.deleteOld(new Date(System.currentTimeMillis() - searchSettings.getChangeRetention() * 3600 * 1000));
+        if (deleted > 0) {
+            LOGGER.info("Catalogue changes deleted ->{}", deleted);
+        }
+    }
+
+    private boolean isMemoryEngine() {
+        return searchSettings.getEngine() == SearchEngine.MEMORY;
+    }
+
+    private synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        //changes during the build are read again by the next poll
+        Date since = new Date(startedAt - searchSettings.getChangeOverlap() * 1000);
+        CatalogueIndex catalogueIndex = new CatalogueIndex(searchSettings.getFuzzyMaxEdits(), searchSettings.getFuzzyMinLength());
+        Map<Long, Enterprise> enterprises = enterpriseRepository.findAll().stream()
+                .collect(Collectors.toMap(Enterprise::getId, Function.identity()));
+        for (ServiceOffer serviceOffer : serviceOfferRepository.findAll()) {
+            catalogueIndex.put(toDocument(serviceOffer, enterprises.get(serviceOffer.getEnterpriseId())));
+        }
+        changesSince = since;
+        index = catalogueIndex;
+        LOGGER.info("Catalogue index built with {} service offers in {} ms", catalogueIndex.documentCount(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void reindexEnterprise(CatalogueIndex catalogueIndex, long enterpriseId) {
+        Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElse(null);
+        for (ServiceOffer serviceOffer : serviceOfferRepository.getByEnterpriseId(enterpriseId)) {
+            catalogueIndex.put(toDocument(serviceOffer, enterprise));
+        }
+    }
+
+    private Map<Long, Enterprise> loadEnterprises(List<ServiceOffer> serviceOffers) {
+        Set<Long> enterpriseIds = serviceOffers.stream().map(ServiceOffer::getEnterpriseId).collect(Collectors.toSet());
+        return enterpriseRepository.findAllById(enterpriseIds).stream()
+                .collect(Collectors.toMap(Enterprise::getId, Function.identity()));
+    }
+
+    private Map<Long, ServiceOfferView> loadViews(CatalogueIndex.Result result) {
+        List<Long> ids = result.getHits().stream().map(CatalogueIndex.Hit::getServiceOfferId).toList();
+        return serviceOfferViewRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ServiceOfferView::getId, Function.identity()));
+    }
+
+    private static CatalogueDocument toDocument(ServiceOffer serviceOffer, Enterprise enterprise) {
+        return new CatalogueDocument(serviceOffer.getId(), serviceOffer.getEnterpriseId(), serviceOffer.getLabel(), serviceOffer.getDescription(),
+                enterprise == null ? null : enterprise.getLegalName(), serviceOffer.getAccessType(), serviceOffer.getRequestType(), serviceOffer.getFormatType(),
+                StringUtils.isNotBlank(serviceOffer.getLabelLevel()));
+    }
+}
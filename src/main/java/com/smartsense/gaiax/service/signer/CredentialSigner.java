@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The interface Credential signer. Signs participant, service offering and label level VCs and creates VPs with the key
+ * of an enterprise. The implementation is selected with the signer.engine property.
+ */
+public interface CredentialSigner {
+
+    /**
+     * The constant LEGAL_PARTICIPANT, template of participant VCs.
+     */
+    String LEGAL_PARTICIPANT = "LegalParticipant";
+
+    /**
+     * The constant SERVICE_OFFERING, template of service offering VCs.
+     */
+    String SERVICE_OFFERING = "ServiceOffering";
+
+    /**
+     * Storage key of the PKCS#8 private key of an enterprise.
+     *
+     * @param enterpriseId the enterprise id
+     * @param subDomain    the sub domain of the enterprise
+     * @return the storage key
+     */
+    static String privateKeyKey(long enterpriseId, String subDomain) {
+        return enterpriseId + "/pkcs8_" + subDomain + ".key";
+    }
+
+    /**
+     * Sign label level VC.
+     *
+     * @param enterpriseId  the enterprise id
+     * @param subDomain     the sub domain of the enterprise
+     * @param labelLevelVCs the label level request, the unsigned VC is in vcs.labelLevel
+     * @return the json of the label level file
+     */
+    String signLabelLevel(long enterpriseId, String subDomain, Map<String, Object> labelLevelVCs);
+
+    /**
+     * Create a signed Gaia-X VC from a template.
+     *
+     * @param enterpriseId the enterprise id
+     * @param subDomain    the sub domain of the enterprise
+     * @param templateId   the template id
+     * @param data         the template data
+     * @return the verifiable credential, the signed VC is in selfDescriptionCredential.verifiableCredential
+     */
+    Map<String, Object> createVC(long enterpriseId, String subDomain, String templateId, Map<String, Object> data);
+
+    /**
+     * Create a signed VP.
+     *
+     * @param enterpriseId the enterprise id
+     * @param subDomain    the sub domain of the enterprise
+     * @param holderDid    the holder did
+     * @param claims       the verifiable credentials
+     * @return the verifiable presentation
+     */
+    Map<String, Object> createVP(long enterpriseId, String subDomain, String holderDid, List<Map<String, Object>> claims);
+}
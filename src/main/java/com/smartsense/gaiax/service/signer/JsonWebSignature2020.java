@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.smartsense.gaiax.exception.BadDataException;
+import foundation.identity.jsonld.JsonLDException;
+import foundation.identity.jsonld.JsonLDObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The type Json web signature 2020. Creates JsonWebSignature2020 proofs the way the Gaia-X compliance service verifies
+ * them: the document without proof is canonicalized with URDNA2015, its SHA-256 hex digest is signed as detached JWS
+ * with unencoded payload (b64=false) and PS256.
+ */
+public class JsonWebSignature2020 {
+
+    /**
+     * The constant PROOF_TYPE.
+     */
+    public static final String PROOF_TYPE = "JsonWebSignature2020";
+
+    private static final String CANONICALIZATION_ALGORITHM = "urdna2015";
+
+    //{"alg":"PS256","b64":false,"crit":["b64"]}
+    private static final String PROTECTED_HEADER = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"PS256\",\"b64\":false,\"crit\":[\"b64\"]}".getBytes(StandardCharsets.UTF_8));
+
+    private final DocumentLoader documentLoader;
+
+    /**
+     * Instantiates a new Json web signature 2020.
+     *
+     * @param documentLoader the document loader resolving the JSON-LD contexts
+     */
+    public JsonWebSignature2020(DocumentLoader documentLoader) {
+        this.documentLoader = documentLoader;
+    }
+
+    /**
+     * Sign a document, the proof is added to the document.
+     *
+     * @param document           the credential or presentation without proof
+     * @param privateKey         the RSA private key
+     * @param verificationMethod the verification method
+     * @param proofPurpose       the proof purpose
+     * @return the document with proof
+     */
+    public Map<String, Object> sign(Map<String, Object> document, PrivateKey privateKey, String verificationMethod, String proofPurpose) {
+        if (!(privateKey instanceof RSAPrivateKey)) {
+            throw new BadDataException("Only RSA keys are supported, key algorithm ->" + privateKey.getAlgorithm());
+        }
+        String digest = HexFormat.of().formatHex(sha256(canonicalize(document)));
+
+        byte[] signature;
+        try {
+            Signature signer = Signature.getInstance("RSASSA-PSS");
+            signer.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
+            signer.initSign(privateKey);
+            signer.update((PROTECTED_HEADER + ".").getBytes(StandardCharsets.US_ASCII));
+            signer.update(digest.getBytes(StandardCharsets.US_ASCII));
+            signature = signer.sign();
+        } catch (GeneralSecurityException e) {
+            throw new BadDataException("Can not sign document", e);
+        }
+
+        Map<String, Object> proof = new LinkedHashMap<>();
+        proof.put("type", PROOF_TYPE);
+        proof.put("created", ZonedDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS).format(DateTimeFormatter.ISO_INSTANT));
+        proof.put("proofPurpose", proofPurpose);
+        proof.put("verificationMethod", verificationMethod);
+        proof.put("jws", PROTECTED_HEADER + ".." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+
+        Map<String, Object> signed = new LinkedHashMap<>(document);
+        signed.put("proof", proof);
+        return signed;
+    }
+
+    private String canonicalize(Map<String, Object> document) {
+        Map<String, Object> unsigned = new LinkedHashMap<>(document);
+        unsigned.remove("proof");
+        JsonLDObject jsonLDObject = JsonLDObject.fromJsonObject(unsigned);
+        jsonLDObject.setDocumentLoader(documentLoader);
+        try {
+            return jsonLDObject.normalize(CANONICALIZATION_ALGORITHM);
+        } catch (JsonLDException | NoSuchAlgorithmException e) {
+            throw new BadDataException("Can not canonicalize document -> " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
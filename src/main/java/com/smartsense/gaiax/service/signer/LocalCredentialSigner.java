@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsense.gaiax.config.SignerSettings;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.service.jsonld.CachingDocumentLoader;
+import com.smartsense.gaiax.service.jsonld.JsonLdContexts;
+import com.smartsense.gaiax.service.key.SigningKeyCache;
+import com.smartsense.gaiax.utils.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.security.PrivateKey;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Local credential signer. Signs in-process with JsonWebSignature2020, the private key is read from the signing key
+ * cache instead of being downloaded by the remote signer through a pre-signed URL. Participant and service offering VCs
+ * are self-signed only, the Gaia-X compliance credential which the remote signer adds is not requested.
+ */
+@Service
+@ConditionalOnProperty(prefix = "signer", name = "engine", havingValue = "local")
+public class LocalCredentialSigner implements CredentialSigner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalCredentialSigner.class);
+
+    private static final String PROOF_PURPOSE = "assertionMethod";
+
+    private final SigningKeyCache signingKeyCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final SignerSettings signerSettings;
+
+    private final JsonWebSignature2020 jsonWebSignature2020;
+
+    /**
+     * Instantiates a new Local credential signer.
+     *
+     * @param signingKeyCache the signing key cache
+     * @param objectMapper    the object mapper
+     * @param signerSettings  the signer settings
+     * @param documentLoader  the document loader
+     */
+    public LocalCredentialSigner(SigningKeyCache signingKeyCache, ObjectMapper objectMapper, SignerSettings signerSettings, CachingDocumentLoader documentLoader) {
+        this.signingKeyCache = signingKeyCache;
+        this.objectMapper = objectMapper;
+        this.signerSettings = signerSettings;
+        this.jsonWebSignature2020 = new JsonWebSignature2020(documentLoader);
+    }
+
+    @Override
+    public String signLabelLevel(long enterpriseId, String subDomain, Map<String, Object> labelLevelVCs) {
+        Map<String, Object> vcs = (Map<String, Object>) labelLevelVCs.get("vcs");
+        Map<String, Object> labelLevel = (Map<String, Object>) vcs.get("labelLevel");
+        String verificationMethod = labelLevelVCs.get("verificationMethod") + "#" + signerSettings.getVerificationMethodFragment();
+        Map<String, Object> signed = jsonWebSignature2020.sign(labelLevel, loadPrivateKey(enterpriseId, subDomain), verificationMethod, PROOF_PURPOSE);
+        LOGGER.debug("Label level VC {} signed for enterprise {}", labelLevel.get("id"), enterpriseId);
+        try {
+            return objectMapper.writeValueAsString(signed);
+        } catch (JsonProcessingException e) {
+            throw new BadDataException("Can not serialize label level", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> createVC(long enterpriseId, String subDomain, String templateId, Map<String, Object> data) {
+        Map<String, Object> credentialSubject = switch (templateId) {
+            case LEGAL_PARTICIPANT -> legalParticipant(subDomain, data);
+            case SERVICE_OFFERING -> serviceOffering(subDomain, data);
+            default -> throw new BadDataException("Template " + templateId + " is not supported by the local signer engine");
+        };
+        String did = CommonUtils.getEnterpriseDid(subDomain);
+        Map<String, Object> credential = new LinkedHashMap<>();
+        credential.put("@context", List.of(JsonLdContexts.CREDENTIALS_V1, JsonLdContexts.JWS_2020_V1, JsonLdContexts.GAIA_X_TRUST_FRAMEWORK));
+        credential.put("type", List.of("VerifiableCredential"));
+        credential.put("id", credentialSubject.get("id"));
+        credential.put("issuer", did);
+        credential.put("issuanceDate", ZonedDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS).format(DateTimeFormatter.ISO_INSTANT));
+        credential.put("credentialSubject", credentialSubject);
+        Map<String, Object> signed = jsonWebSignature2020.sign(credential, loadPrivateKey(enterpriseId, subDomain), did + "#" + signerSettings.getVerificationMethodFragment(), PROOF_PURPOSE);
+        LOGGER.debug("{} VC {} signed for enterprise {}", templateId, credential.get("id"), enterpriseId);
+
+        //same structure as the remote signer, there is no compliance credential
+        Map<String, Object> selfDescription = new LinkedHashMap<>();
+        selfDescription.put("@context", List.of(JsonLdContexts.CREDENTIALS_V1));
+        selfDescription.put("type", List.of("VerifiablePresentation"));
+        selfDescription.put("verifiableCredential", List.of(signed));
+        Map<String, Object> verifiableCredential = new LinkedHashMap<>();
+        verifiableCredential.put("selfDescriptionCredential", selfDescription);
+        return verifiableCredential;
+    }
+
+    @Override
+    public Map<String, Object> createVP(long enterpriseId, String subDomain, String holderDid, List<Map<String, Object>> claims) {
+        Map<String, Object> presentation = new LinkedHashMap<>();
+        presentation.put("@context", List.of(JsonLdContexts.CREDENTIALS_V1, JsonLdContexts.JWS_2020_V1));
+        presentation.put("type", List.of("VerifiablePresentation"));
+        presentation.put("holder", holderDid);
+        presentation.put("verifiableCredential", claims);
+        String verificationMethod = holderDid + "#" + signerSettings.getVerificationMethodFragment();
+        Map<String, Object> signed = jsonWebSignature2020.sign(presentation, loadPrivateKey(enterpriseId, subDomain), verificationMethod, PROOF_PURPOSE);
+        LOGGER.debug("VP created for enterprise {}", enterpriseId);
+        return signed;
+    }
+
+    private static Map<String, Object> legalParticipant(String subDomain, Map<String, Object> data) {
+        Map<String, Object> subject = new LinkedHashMap<>();
+        subject.put("id", CommonUtils.getParticipantJsonLink(subDomain));
+        subject.put("type", "gx:LegalParticipant");
+        subject.put("gx:legalName", data.get("legalName"));
+        subject.put("gx:legalRegistrationNumber", Map.of("gx:" + data.get("legalRegistrationType"), String.valueOf(data.get("legalRegistrationNumber"))));
+        subject.put("gx:headquarterAddress", Map.of("gx:countrySubdivisionCode", String.valueOf(data.get("headquarterAddress"))));
+        subject.put("gx:legalAddress", Map.of("gx:countrySubdivisionCode", String.valueOf(data.get("legalAddress"))));
+        return subject;
+    }
+
+    private static Map<String, Object> serviceOffering(String subDomain, Map<String, Object> data) {
+        Map<String, Object> termsAndConditions = new LinkedHashMap<>();
+        termsAndConditions.put("gx:URL", data.get("termsAndConditionsUrl"));
+        termsAndConditions.put("gx:hash", data.get("termsAndConditionsHash"));
+        Map<String, Object> dataAccountExport = new LinkedHashMap<>();
+        dataAccountExport.put("gx:requestType", data.get("requestType"));
+        dataAccountExport.put("gx:accessType", data.get("accessType"));
+        dataAccountExport.put("gx:formatType", data.get("formatType"));
+
+        Map<String, Object> subject = new LinkedHashMap<>();
+        subject.put("id", "https://" + subDomain + "/.well-known/" + data.get("fileName"));
+        subject.put("type", "gx:ServiceOffering");
+        subject.put("gx:providedBy", Map.of("id", CommonUtils.getParticipantJsonLink(subDomain)));
+        subject.put("gx:name", data.get("name"));
+        subject.put("gx:description", data.get("description"));
+        subject.put("gx:policy", data.get("policyUrl"));
+        subject.put("gx:termsAndConditions", termsAndConditions);
+        subject.put("gx:dataAccountExport", dataAccountExport);
+        if (data.get("resource") != null) {
+            subject.put("gx:aggregationOf", List.of(data.get("resource")));
+        }
+        return subject;
+    }
+
+    private PrivateKey loadPrivateKey(long enterpriseId, String subDomain) {
+        return signingKeyCache.get(enterpriseId, CredentialSigner.privateKeyKey(enterpriseId, subDomain));
+    }
+}
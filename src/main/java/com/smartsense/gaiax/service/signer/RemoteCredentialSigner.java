@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsense.gaiax.client.CreateVCRequest;
+import com.smartsense.gaiax.client.SignerClient;
+import com.smartsense.gaiax.dto.CreateVPRequest;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Remote credential signer. Signs with the remote signer API, the signer downloads the private key with a
+ * pre-signed URL.
+ */
+@Service
+@ConditionalOnProperty(prefix = "signer", name = "engine", havingValue = "remote", matchIfMissing = true)
+public class RemoteCredentialSigner implements CredentialSigner {
+
+    private final SignerClient signerClient;
+
+    private final ObjectStore objectStore;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Instantiates a new Remote credential signer.
+     *
+     * @param signerClient the signer client
+     * @param objectStore  the object store
+     * @param objectMapper the object mapper
+     */
+    public RemoteCredentialSigner(SignerClient signerClient, ObjectStore objectStore, ObjectMapper objectMapper) {
+        this.signerClient = signerClient;
+        this.objectStore = objectStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String signLabelLevel(long enterpriseId, String subDomain, Map<String, Object> labelLevelVCs) {
+        Map<String, Object> request = new LinkedHashMap<>(labelLevelVCs);
+        request.put("privateKeyUrl", objectStore.getPreSignedUrl(CredentialSigner.privateKeyKey(enterpriseId, subDomain)));
+        Map<String, Object> labelLevelResponse = signerClient.labelLevel(request).getBody();
+        try {
+            return objectMapper.writeValueAsString(labelLevelResponse.get("data"));
+        } catch (JsonProcessingException e) {
+            throw new BadDataException("Can not serialize label level", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> createVC(long enterpriseId, String subDomain, String templateId, Map<String, Object> data) {
+        //the url is created right before the signer gets it, it is only valid for a short time
+        CreateVCRequest request = CreateVCRequest.builder()
+                .data(data)
+                .templateId(templateId)
+                .domain(subDomain)
+                .privateKeyUrl(objectStore.getPreSignedUrl(CredentialSigner.privateKeyKey(enterpriseId, subDomain)))
+                .build();
+        Map<String, Object> body = signerClient.createVc(request).getBody();
+        return (Map<String, Object>) ((Map<String, Object>) body.get("data")).get("verifiableCredential");
+    }
+
+    @Override
+    public Map<String, Object> createVP(long enterpriseId, String subDomain, String holderDid, List<Map<String, Object>> claims) {
+        CreateVPRequest createVPRequest = CreateVPRequest.builder()
+                .holderDID(holderDid)
+                .privateKeyUrl(objectStore.getPreSignedUrl(CredentialSigner.privateKeyKey(enterpriseId, subDomain)))
+                .claims(claims)
+                .build();
+        Map<String, Object> body = signerClient.createVP(createVPRequest).getBody();
+        return (Map<String, Object>) ((Map<String, Object>) body.get("data")).get("verifiablePresentation");
+    }
+}
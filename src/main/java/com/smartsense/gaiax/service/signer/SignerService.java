@@ -6,27 +6,28 @@ package com.smartsense.gaiax.service.signer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartsense.gaiax.client.CreateDidRequest;
-import com.smartsense.gaiax.client.CreateVCRequest;
 import com.smartsense.gaiax.client.SignerClient;
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.config.SignerSettings;
 import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
 import com.smartsense.gaiax.dao.repository.EnterpriseCredentialRepository;
 import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
 import com.smartsense.gaiax.dto.RegistrationStatus;
-import com.smartsense.gaiax.dto.StringPool;
 import com.smartsense.gaiax.exception.BadDataException;
-import com.smartsense.gaiax.service.job.ScheduleService;
+import com.smartsense.gaiax.service.key.SigningKeyCache;
 import com.smartsense.gaiax.service.ocm.OcmService;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import com.smartsense.gaiax.service.wellknown.WellKnownFileCache;
 import com.smartsense.gaiax.utils.CommonUtils;
-import com.smartsense.gaiax.utils.S3Utils;
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -42,44 +43,60 @@ public class SignerService {
 
     private final SignerClient signerClient;
 
-    private final S3Utils s3Utils;
+    private final ObjectStore objectStore;
 
     private final ObjectMapper objectMapper;
 
-    private final ScheduleService scheduleService;
-
     private final EnterpriseCredentialRepository enterpriseCredentialRepository;
 
     private final OcmService ocmService;
 
+    private final WellKnownFileCache wellKnownFileCache;
+
+    private final CertificateSettings certificateSettings;
+
+    private final SignerSettings signerSettings;
+
+    private final SigningKeyCache signingKeyCache;
+
+    private final CredentialSigner credentialSigner;
+
     /**
      * Instantiates a new Signer service.
      *
      * @param enterpriseRepository           the enterprise repository
      * @param signerClient                   the signer client
-     * @param s3Utils                        the s 3 utils
+     * @param objectStore                    the object store
      * @param objectMapper                   the object mapper
-     * @param scheduleService                the schedule service
      * @param enterpriseCredentialRepository the enterprise credential repository
      * @param ocmService
+     * @param wellKnownFileCache             the well known file cache
+     * @param certificateSettings            the certificate settings
+     * @param signerSettings                 the signer settings
+     * @param signingKeyCache                the signing key cache
+     * @param credentialSigner               the credential signer
      */
-    public SignerService(EnterpriseRepository enterpriseRepository, SignerClient signerClient, S3Utils s3Utils, ObjectMapper objectMapper, ScheduleService scheduleService, EnterpriseCredentialRepository enterpriseCredentialRepository, OcmService ocmService) {
+    public SignerService(EnterpriseRepository enterpriseRepository, SignerClient signerClient, ObjectStore objectStore, ObjectMapper objectMapper, EnterpriseCredentialRepository enterpriseCredentialRepository, OcmService ocmService, WellKnownFileCache wellKnownFileCache, CertificateSettings certificateSettings, SignerSettings signerSettings, SigningKeyCache signingKeyCache, CredentialSigner credentialSigner) {
         this.enterpriseRepository = enterpriseRepository;
         this.signerClient = signerClient;
-        this.s3Utils = s3Utils;
+        this.objectStore = objectStore;
         this.objectMapper = objectMapper;
-        this.scheduleService = scheduleService;
         this.enterpriseCredentialRepository = enterpriseCredentialRepository;
         this.ocmService = ocmService;
+        this.wellKnownFileCache = wellKnownFileCache;
+        this.certificateSettings = certificateSettings;
+        this.signerSettings = signerSettings;
+        this.signingKeyCache = signingKeyCache;
+        this.credentialSigner = credentialSigner;
     }
 
     /**
      * Create participant json.
      *
      * @param enterpriseId the enterprise id
+     * @return true if participant json is created
      */
-    public void createParticipantJson(long enterpriseId) {
-        File file = new File("/tmp/participant.json");
+    public boolean createParticipantJson(long enterpriseId) {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(BadDataException::new);
         try {
             String domain = enterprise.getSubDomainName();
@@ -89,16 +106,9 @@ public class SignerService {
             data.put("legalRegistrationNumber", enterprise.getLegalRegistrationNumber());
             data.put("headquarterAddress", enterprise.getHeadquarterAddress());
             data.put("legalAddress", enterprise.getLegalAddress());
-            CreateVCRequest request = CreateVCRequest.builder()
-                    .data(data)
-                    .templateId("LegalParticipant")
-                    .domain(domain)
-                    .privateKeyUrl(s3Utils.getPreSignedUrl(enterpriseId + "/pkcs8_" + domain + ".key"))
-                    .build();
-            ResponseEntity<Map<String, Object>> responseEntity = signerClient.createVc(request);
-            String participantString = objectMapper.writeValueAsString(((Map<String, Object>) responseEntity.getBody().get("data")).get("verifiableCredential"));
-            FileUtils.writeStringToFile(file, participantString, Charset.defaultCharset());
-            s3Utils.uploadFile(enterpriseId + "/participant.json", file);
+            String participantString = objectMapper.writeValueAsString(credentialSigner.createVC(enterpriseId, domain, CredentialSigner.LEGAL_PARTICIPANT, data));
+            objectStore.put(enterpriseId + "/participant.json", participantString.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON_VALUE);
+            wellKnownFileCache.invalidate(enterpriseId + "/participant.json");
 
             //offer legal person credential in PCM
             String offerId = ocmService.offerLegalPersonCredentials(enterprise.getConnectionId(), CommonUtils.getEnterpriseDid(enterprise.getSubDomainName()), CommonUtils.getParticipantJsonLink(enterprise.getSubDomainName()), enterprise.getLegalName());
@@ -121,12 +131,13 @@ public class SignerService {
 
 
             LOGGER.debug("participant json created for enterprise->{} , json ->{}", enterpriseId, participantString);
+            return true;
         } catch (Exception e) {
             LOGGER.error("Error while creating participant json for enterprise -{}", enterpriseId, e);
             enterprise.setStatus(RegistrationStatus.PARTICIPANT_JSON_CREATION_FAILED.getStatus());
+            return false;
         } finally {
             enterpriseRepository.save(enterprise);
-            CommonUtils.deleteFile(file);
         }
     }
 
@@ -134,37 +145,36 @@ public class SignerService {
      * Create did.
      *
      * @param enterpriseId the enterprise id
+     * @return true if did is created
      */
-    public void createDid(long enterpriseId) {
-        File file = new File("/tmp/did.json");
+    public boolean createDid(long enterpriseId) {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElseThrow(BadDataException::new);
         try {
             String domain = enterprise.getSubDomainName();
-            CreateDidRequest createDidRequest = CreateDidRequest.builder()
-                    .domain(domain)
-                    .build();
-            ResponseEntity<Map<String, Object>> responseEntity = signerClient.createDid(createDidRequest);
-            String didString = objectMapper.writeValueAsString(((Map<String, Object>) responseEntity.getBody().get("data")).get("did"));
-            FileUtils.writeStringToFile(file, didString, Charset.defaultCharset());
-            s3Utils.uploadFile(enterpriseId + "/did.json", file);
+            String didString;
+            if (certificateSettings.isWildcard()) {
+                //the signer puts the x5u of the TLS certificate into the did, in wildcard mode that certificate does
+                //not certify the signing key of the enterprise, so the key itself is published
+                PrivateKey signingKey = signingKeyCache.get(enterpriseId, CredentialSigner.privateKeyKey(enterpriseId, domain));
+                didString = objectMapper.writeValueAsString(WebDidDocument.create(CommonUtils.getEnterpriseDid(domain), signerSettings.getVerificationMethodFragment(), signingKey));
+            } else {
+                CreateDidRequest createDidRequest = CreateDidRequest.builder()
+                        .domain(domain)
+                        .build();
+                ResponseEntity<Map<String, Object>> responseEntity = signerClient.createDid(createDidRequest);
+                didString = objectMapper.writeValueAsString(((Map<String, Object>) responseEntity.getBody().get("data")).get("did"));
+            }
+            objectStore.put(enterpriseId + "/did.json", didString.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_JSON_VALUE);
+            wellKnownFileCache.invalidate(enterpriseId + "/did.json");
             enterprise.setStatus(RegistrationStatus.DID_JSON_CREATED.getStatus());
             LOGGER.debug("Did created for enterprise->{} , did ->{}", enterpriseId, didString);
-            createParticipantCreationJob(enterpriseId, enterprise);
+            return true;
         } catch (Exception e) {
             LOGGER.error("Error while creating did json for enterprise -{}", enterpriseId, e);
             enterprise.setStatus(RegistrationStatus.DID_JSON_CREATION_FAILED.getStatus());
+            return false;
         } finally {
             enterpriseRepository.save(enterprise);
-            CommonUtils.deleteFile(file);
-        }
-    }
-
-    private void createParticipantCreationJob(long enterpriseId, Enterprise enterprise) {
-        try {
-            scheduleService.createJob(enterpriseId, StringPool.JOB_TYPE_CREATE_PARTICIPANT, 0);
-            enterprise.setStatus(RegistrationStatus.PARTICIPANT_JSON_CREATION_FAILED.getStatus());
-        } catch (Exception e) {
-            LOGGER.error("Can not create participant job for enterprise -{}", enterpriseId, e);
         }
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.service.jsonld.JsonLdContexts;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Web did document. Builds a did:web document which publishes the signing key of an enterprise as JsonWebKey2020
+ * without x5u. Used in wildcard mode, the wildcard certificate does not certify the signing key of the enterprise, so
+ * the key must be published itself.
+ */
+public final class WebDidDocument {
+
+    /**
+     * The constant DID_V1.
+     */
+    public static final String DID_V1 = "https://www.w3.org/ns/did/v1";
+
+    private WebDidDocument() {
+    }
+
+    /**
+     * Create did document.
+     *
+     * @param did        the did
+     * @param fragment   the fragment of the verification method
+     * @param privateKey the RSA signing key, the public key is derived from it
+     * @return the did document
+     */
+    public static Map<String, Object> create(String did, String fragment, PrivateKey privateKey) {
+        String verificationMethodId = did + "#" + fragment;
+        Map<String, Object> verificationMethod = new LinkedHashMap<>();
+        verificationMethod.put("@context", JsonLdContexts.JWS_2020_V1);
+        verificationMethod.put("id", verificationMethodId);
+        verificationMethod.put("type", "JsonWebKey2020");
+        verificationMethod.put("controller", did);
+        verificationMethod.put("publicKeyJwk", toJwk(toPublicKey(privateKey)));
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("@context", List.of(DID_V1, JsonLdContexts.JWS_2020_V1));
+        document.put("id", did);
+        document.put("verificationMethod", List.of(verificationMethod));
+        document.put("assertionMethod", List.of(verificationMethodId));
+        return document;
+    }
+
+    /**
+     * Derive the public key of an RSA private key.
+     *
+     * @param privateKey the private key, must contain the CRT parameters as PKCS#8 RSA keys do
+     * @return the public key
+     */
+    public static RSAPublicKey toPublicKey(PrivateKey privateKey) {
+        if (!(privateKey instanceof RSAPrivateCrtKey rsaPrivateKey)) {
+            throw new BadDataException("Only RSA keys are supported, key algorithm ->" + privateKey.getAlgorithm());
+        }
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(rsaPrivateKey.getModulus(), rsaPrivateKey.getPublicExponent()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not derive public key", e);
+        }
+    }
+
+    private static Map<String, Object> toJwk(RSAPublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("n", base64Url(publicKey.getModulus()));
+        jwk.put("e", base64Url(publicKey.getPublicExponent()));
+        jwk.put("alg", "PS256");
+        return jwk;
+    }
+
+    //JWK integers are unsigned big endian without leading zero bytes
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
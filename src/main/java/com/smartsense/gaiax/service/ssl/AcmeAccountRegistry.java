@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ssl;
+
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.exception.EntityNotFoundException;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import org.shredzone.acme4j.Account;
+import org.shredzone.acme4j.AccountBuilder;
+import org.shredzone.acme4j.Login;
+import org.shredzone.acme4j.Session;
+import org.shredzone.acme4j.exception.AcmeException;
+import org.shredzone.acme4j.util.KeyPairUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+
+/**
+ * The type Acme account registry. Keeps one ACME session and account login per process. The account key and the
+ * account URL are stored in the object store, so every pod of the cluster uses the same account and a new account is
+ * only registered once.
+ */
+@Component
+public class AcmeAccountRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AcmeAccountRegistry.class);
+
+    /**
+     * The constant ACCOUNT_KEY.
+     */
+    public static final String ACCOUNT_KEY = "acme/account.key";
+
+    /**
+     * The constant ACCOUNT_URL.
+     */
+    public static final String ACCOUNT_URL = "acme/account.url";
+
+    //RSA key size of the account key pair
+    private static final int KEY_SIZE = 2048;
+
+    private final ObjectStore objectStore;
+
+    private final CertificateSettings certificateSettings;
+
+    private volatile Login login;
+
+    //set when the ACME server rejected the account, the stored URL is then derived from the stored key again, guarded by this
+    private boolean verifyAccountUrl;
+
+    /**
+     * Instantiates a new Acme account registry.
+     *
+     * @param objectStore         the object store
+     * @param certificateSettings the certificate settings
+     */
+    public AcmeAccountRegistry(ObjectStore objectStore, CertificateSettings certificateSettings) {
+        this.objectStore = objectStore;
+        this.certificateSettings = certificateSettings;
+    }
+
+    /**
+     * Gets account. The session keeps the directory metadata and nonce, so only the first call talks to the ACME
+     * server.
+     *
+     * @return the account
+     * @throws AcmeException the acme exception
+     * @throws IOException   the io exception
+     */
+    public Account getAccount() throws AcmeException, IOException {
+        Login current = login;
+        if (current == null) {
+            synchronized (this) {
+                current = login;
+                if (current == null) {
+                    current = createLogin();
+                    login = current;
+                }
+            }
+        }
+        return current.getAccount();
+    }
+
+    /**
+     * Forget the cached login, next call of {@link #getAccount()} logs in again and looks up the account of the stored
+     * key, a stored account URL which does not belong to the key is replaced. Used if the ACME server rejects the
+     * cached account.
+     */
+    public synchronized void reset() {
+        login = null;
+        verifyAccountUrl = true;
+    }
+
+    private Login createLogin() throws AcmeException, IOException {
+        Session session = new Session(certificateSettings.getAcmeServer());
+        KeyPair accountKeyPair = loadOrCreateAccountKeyPair();
+        if (!verifyAccountUrl && objectStore.exists(ACCOUNT_URL)) {
+            URL accountUrl = readAccountUrl();
+            LOGGER.debug("Login to existing ACME account {}", accountUrl);
+            return session.login(accountUrl, accountKeyPair);
+        }
+
+        //all pods use the stored key, registration with a known key returns the existing account
+        Login newLogin = new AccountBuilder()
+                .agreeToTermsOfService()
+                .useKeyPair(accountKeyPair)
+                .createLogin(session);
+        URL accountUrl = newLogin.getAccountLocation();
+        verifyAccountUrl = false;
+        if (objectStore.putIfAbsent(ACCOUNT_URL, accountUrl.toString().getBytes(StandardCharsets.UTF_8), "text/plain")) {
+            LOGGER.info("Registered ACME account, URL: {}", accountUrl);
+            return newLogin;
+        }
+        URL storedUrl = readAccountUrl();
+        if (!storedUrl.equals(accountUrl)) {
+            //stored URL belongs to another key (written before the key was created conditionally), every pod derives
+            //the same URL from the stored key so overwriting it is safe
+            LOGGER.warn("Stored ACME account URL {} differs from account {} of the stored key, replacing it", storedUrl, accountUrl);
+            objectStore.put(ACCOUNT_URL, accountUrl.toString().getBytes(StandardCharsets.UTF_8), "text/plain");
+        }
+        return newLogin;
+    }
+
+    private URL readAccountUrl() throws IOException {
+        return new URL(new String(objectStore.getBytes(ACCOUNT_URL), StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * Loads the account key pair from the object store. If there is none, a new key pair is generated and saved with a
+     * conditional write, so if pods start at the same time only one key is stored and all pods use it.
+     * <p>
+     * The account can not be accessed any more if this key pair is lost.
+     */
+    private KeyPair loadOrCreateAccountKeyPair() throws IOException {
+        try {
+            return readAccountKeyPair();
+        } catch (EntityNotFoundException e) {
+            LOGGER.info("No ACME account key found, creating new key pair");
+        }
+        KeyPair accountKeyPair = KeyPairUtils.createKeyPair(KEY_SIZE);
+        StringWriter keyWriter = new StringWriter();
+        KeyPairUtils.writeKeyPair(accountKeyPair, keyWriter);
+        if (objectStore.putIfAbsent(ACCOUNT_KEY, keyWriter.toString().getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE)) {
+            return accountKeyPair;
+        }
+        LOGGER.info("ACME account key was created by another pod, using it");
+        return readAccountKeyPair();
+    }
+
+    private KeyPair readAccountKeyPair() throws IOException {
+        byte[] key = objectStore.getBytes(ACCOUNT_KEY);
+        return KeyPairUtils.readKeyPair(new StringReader(new String(key, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ssl;
+
+import com.smartsense.gaiax.config.CertificateSettings;
+import jakarta.annotation.PreDestroy;
+import org.shredzone.acme4j.AcmeJsonResource;
+import org.shredzone.acme4j.Status;
+import org.shredzone.acme4j.exception.AcmeException;
+import org.shredzone.acme4j.exception.AcmeRetryAfterException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The type Acme poller. Polls status of ACME resources with scheduled tasks instead of sleeping threads, a thread is
+ * only used while a status request is running. Retry-After sent by the server is honoured.
+ */
+@Component
+public class AcmePoller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AcmePoller.class);
+
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    /**
+     * Instantiates a new Acme poller.
+     *
+     * @param certificateSettings the certificate settings
+     */
+    public AcmePoller(CertificateSettings certificateSettings) {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(certificateSettings.getAcmeThreads());
+        taskScheduler.setThreadNamePrefix("acme-");
+        taskScheduler.setWaitForTasksToCompleteOnShutdown(false);
+        taskScheduler.initialize();
+    }
+
+    /**
+     * Gets executor for ACME requests.
+     *
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return taskScheduler;
+    }
+
+    /**
+     * Poll resource until it is valid or invalid or all attempts are used.
+     *
+     * @param name        the name of the resource, used for logging
+     * @param resource    the resource
+     * @param status      the status of the resource
+     * @param maxAttempts the max attempts
+     * @param interval    the interval between two polls if the server sends no Retry-After
+     * @return the last status
+     */
+    public CompletableFuture<Status> poll(String name, AcmeJsonResource resource, Supplier<Status> status, int maxAttempts, Duration interval) {
+        CompletableFuture<Status> result = new CompletableFuture<>();
+        taskScheduler.schedule(new PollTask(name, resource, status, maxAttempts, interval, result), Instant.now().plus(interval));
+        return result;
+    }
+
+    /**
+     * Destroy.
+     */
+    @PreDestroy
+    public void destroy() {
+        taskScheduler.shutdown();
+    }
+
+    private class PollTask implements Runnable {
+
+        private final String name;
+
+        private final AcmeJsonResource resource;
+
+        private final Supplier<Status> status;
+
+        private final int maxAttempts;
+
+        private final Duration interval;
+
+        private final CompletableFuture<Status> result;
+
+        private int attempt;
+
+        PollTask(String name, AcmeJsonResource resource, Supplier<Status> status, int maxAttempts, Duration interval, CompletableFuture<Status> result) {
+            this.name = name;
+            this.resource = resource;
+            this.status = status;
+            this.maxAttempts = maxAttempts;
+            this.interval = interval;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            Instant next = Instant.now().plus(interval);
+            try {
+                resource.update();
+            } catch (AcmeRetryAfterException e) {
+                //resource is updated, server asks to wait before next request
+                if (e.getRetryAfter() != null && e.getRetryAfter().isAfter(next)) {
+                    next = e.getRetryAfter();
+                }
+            } catch (AcmeException | RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            Status current = status.get();
+            attempt++;
+            LOGGER.debug("{} status ->{}, attempt ->{}", name, current, attempt);
+            if (current == Status.VALID || current == Status.INVALID || attempt >= maxAttempts) {
+                result.complete(current);
+                return;
+            }
+            taskScheduler.schedule(this, next);
+        }
+    }
+}
@@ -3,73 +3,116 @@
  */
 package com.smartsense.gaiax.service.ssl;
 
+import com.smartsense.gaiax.config.CertificateSettings;
 import com.smartsense.gaiax.dao.entity.Enterprise;
 import com.smartsense.gaiax.dao.entity.EnterpriseCertificate;
 import com.smartsense.gaiax.dao.repository.EnterpriseCertificateRepository;
 import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
+import com.smartsense.gaiax.dto.KeyType;
 import com.smartsense.gaiax.dto.RegistrationStatus;
-import com.smartsense.gaiax.dto.StringPool;
 import com.smartsense.gaiax.service.domain.DomainService;
-import com.smartsense.gaiax.service.job.ScheduleService;
-import com.smartsense.gaiax.utils.CommonUtils;
-import com.smartsense.gaiax.utils.S3Utils;
-import org.quartz.JobKey;
+import com.smartsense.gaiax.service.key.KeyPairPool;
+import com.smartsense.gaiax.service.key.SigningKeyCache;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import com.smartsense.gaiax.service.wellknown.WellKnownFileCache;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.openssl.jcajce.JcaPKCS8Generator;
 import org.shredzone.acme4j.*;
 import org.shredzone.acme4j.challenge.Challenge;
 import org.shredzone.acme4j.challenge.Dns01Challenge;
 import org.shredzone.acme4j.exception.AcmeException;
+import org.shredzone.acme4j.exception.AcmeUnauthorizedException;
 import org.shredzone.acme4j.toolbox.AcmeUtils;
 import org.shredzone.acme4j.util.CSRBuilder;
 import org.shredzone.acme4j.util.KeyPairUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
+import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
- * A simple client test tool.
- * <p>
- * Pass the names of the domains as parameters.
+ * The type Certificate service.
  */
 @Service
 public class CertificateService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CertificateService.class);
-    private static final File USER_KEY_FILE = new File("user.key");
 
     //Challenge type to be used
     private static final ChallengeType CHALLENGE_TYPE = ChallengeType.DNS;
 
-    // RSA key size of generated key pairs
-    private static final int KEY_SIZE = 2048;
-
-    private static final Logger LOG = LoggerFactory.getLogger(CertificateService.class);
-    /**
-     * The constant CAN_NOT_CONVERT_FILE_IN_PCCS_8_FORMATE_FOR_ENTERPRISE.
-     */
-    public static final String CAN_NOT_CONVERT_FILE_IN_PCCS_8_FORMATE_FOR_ENTERPRISE = "Can not convert file in pccs8 formate for enterprise->{}";
+    //root certificate of the chain, Let's Encrypt does not send it
+    private static final String ISRG_ROOT_X1 = """
+            -----BEGIN CERTIFICATE-----
+            MIIFazCCA1OgAwIBAgIRAIIQz7DSQONZRGPgu2OCiwAwDQYJKoZIhvcNAQELBQAw
+            TzELMAkGA1UEBhMCVVMxKTAnBgNVBAoTIEludGVybmV0IFNlY3VyaXR5IFJlc2Vh
+            cmNoIEdyb3VwMRUwEwYDVQQDEwxJU1JHIFJvb3QgWDEwHhcNMTUwNjA0MTEwNDM4
+            WhcNMzUwNjA0MTEwNDM4WjBPMQswCQYDVQQGEwJVUzEpMCcGA1UEChMgSW50ZXJu
+            ZXQgU2VjdXJpdHkgUmVzZWFyY2ggR3JvdXAxFTATBgNVBAMTDElTUkcgUm9vdCBY
+            MTCCAiIwDQYJKoZIhvcNAQEBBQADggIPADCCAgoCggIBAK3oJHP0FDfzm54rVygc
+            h77ct984kIxuPOZXoHj3dcKi/vVqbvYATyjb3miGbESTtrFj/RQSa78f0uoxmyF+
+            0TM8ukj13Xnfs7j/EvEhmkvBioZxaUpmZmyPfjxwv60pIgbz5MDmgK7iS4+3mX6U
+            A5/TR5d8mUgjU+g4rk8Kb4Mu0UlXjIB0ttov0DiNewNwIRt18jA8+o+u3dpjq+sW
+            T8KOEUt+zwvo/7V3LvSye0rgTBIlDHCNAymg4VMk7BPZ7hm/ELNKjD+Jo2FR3qyH
+            B5T0Y3HsLuJvW5iB4YlcNHlsdu87kGJ55tukmi8mxdAQ4Q7e2RCOFvu396j3x+UC
+            B5iPNgiV5+I3lg02dZ77DnKxHZu8A/lJBdiB3QW0KtZB6awBdpUKD9jf1b0SHzUv
+            KBds0pjBqAlkd25HN7rOrFleaJ1/ctaJxQZBKT5ZPt0m9STJEadao0xAH0ahmbWn
+            OlFuhjuefXKnEgV4We0+UXgVCwOPjdAvBbI+e0ocS3MFEvzG6uBQE3xDk3SzynTn
+            jh8BCNAw1FtxNrQHusEwMFxIt4I7mKZ9YIqioymCzLq9gwQbooMDQaHWBfEbwrbw
+            qHyGO0aoSCqI3Haadr8faqU9GY/rOPNk3sgrDQoo//fb4hVC1CLQJ13hef4Y53CI
+            rU7m2Ys6xt0nUW7/vGT1M0NPAgMBAAGjQjBAMA4GA1UdDwEB/wQEAwIBBjAPBgNV
+            HRMBAf8EBTADAQH/MB0GA1UdDgQWBBR5tFnme7bl5AFzgAiIyBpY9umbbjANBgkq
+            hkiG9w0BAQsFAAOCAgEAVR9YqbyyqFDQDLHYGmkgJykIrGF1XIpu+ILlaS/V9lZL
+            ubhzEFnTIZd+50xx+7LSYK05qAvqFyFWhfFQDlnrzuBZ6brJFe+GnY+EgPbk6ZGQ
+            3BebYhtF8GaV0nxvwuo77x/Py9auJ/GpsMiu/X1+mvoiBOv/2X/qkSsisRcOj/KK
+            NFtY2PwByVS5uCbMiogziUwthDyC3+6WVwW6LLv3xLfHTjuCvjHIInNzktHCgKQ5
+            ORAzI4JMPJ+GslWYHb4phowim57iaztXOoJwTdwJx4nLCgdNbOhdjsnvzqvHu7Ur
+            TkXWStAmzOVyyghqpZXjFaH3pO3JLF+l+/+sKAIuvtd7u+Nxe5AW0wdeRlN8NwdC
+            jNPElpzVmbUq4JUagEiuTDkHzsxHpFKVK7q4+63SM1N95R1NbdWhscdCb+ZAJzVc
+            oyi3B43njTOQ5yOf+1CceWxG1bQVs5ZufpsMljq4Ui0/1lvh+wjChP4kqKOJ2qxq
+            4RgqsahDYVvTH9w7jXbyLeiNdd8XM2w9U/t7y0Ff/9yi0GE44Za4rF2LN9d11TPA
+            mRGunUHBcnWEvgJBQl9nJEiU0Zsnvgc/ubhPgXRR4Xq37Z0j4r7g1SgEEzwxA57d
+            emyPxgcYxn/eR44/KJ4EBs+lVDR3veyJm+kXQ99b21/+jh5Xos1AnX5iItreGCc=
+            -----END CERTIFICATE-----
+            """;
 
     /**
      * Instantiates a new Certificate service.
      *
      * @param domainService                   the domain service
      * @param enterpriseRepository            the enterprise repository
-     * @param s3Utils                         the s 3 utils
+     * @param objectStore                     the object store
      * @param enterpriseCertificateRepository the enterprise certificate repository
-     * @param scheduleService                 the schedule service
+     * @param wellKnownFileCache              the well known file cache
+     * @param acmePoller                      the acme poller
+     * @param acmeAccountRegistry             the acme account registry
+     * @param keyPairPool                     the key pair pool
+     * @param certificateSettings             the certificate settings
+     * @param signingKeyCache                 the signing key cache
      */
-    public CertificateService(DomainService domainService, EnterpriseRepository enterpriseRepository, S3Utils s3Utils, EnterpriseCertificateRepository enterpriseCertificateRepository, ScheduleService scheduleService) {
+    public CertificateService(DomainService domainService, EnterpriseRepository enterpriseRepository, ObjectStore objectStore, EnterpriseCertificateRepository enterpriseCertificateRepository, WellKnownFileCache wellKnownFileCache, AcmePoller acmePoller, AcmeAccountRegistry acmeAccountRegistry, KeyPairPool keyPairPool, CertificateSettings certificateSettings, SigningKeyCache signingKeyCache) {
         this.domainService = domainService;
         this.enterpriseRepository = enterpriseRepository;
-        this.s3Utils = s3Utils;
+        this.objectStore = objectStore;
         this.enterpriseCertificateRepository = enterpriseCertificateRepository;
-        this.scheduleService = scheduleService;
+        this.wellKnownFileCache = wellKnownFileCache;
+        this.acmePoller = acmePoller;
+        this.acmeAccountRegistry = acmeAccountRegistry;
+        this.keyPairPool = keyPairPool;
+        this.certificateSettings = certificateSettings;
+        this.signingKeyCache = signingKeyCache;
     }
 
     private enum ChallengeType {
@@ -83,144 +126,188 @@ public class CertificateService {
 
     private final EnterpriseRepository enterpriseRepository;
 
-    private final S3Utils s3Utils;
+    private final ObjectStore objectStore;
 
     private final EnterpriseCertificateRepository enterpriseCertificateRepository;
 
-    private final ScheduleService scheduleService;
+    private final WellKnownFileCache wellKnownFileCache;
 
+    private final AcmePoller acmePoller;
 
-    @Async
-    public void createSSLCertificate(long enterpriseId) {
-        createSSLCertificate(enterpriseId, null);
-    }
+    private final AcmeAccountRegistry acmeAccountRegistry;
+
+    private final KeyPairPool keyPairPool;
+
+    private final CertificateSettings certificateSettings;
+
+    private final SigningKeyCache signingKeyCache;
 
     /**
-     * Create ssl certificate.
+     * Create ssl certificate. Challenge and order status are polled with scheduled tasks, the calling thread is not
+     * blocked. In wildcard mode the enterprise uses the wildcard certificate of the base domain and only a signing key
+     * is created.
      *
      * @param enterpriseId the enterprise id
-     * @param jobKey       the job key
+     * @return future completed with true if certificate is created
      */
-    public void createSSLCertificate(long enterpriseId, JobKey jobKey) {
+    public CompletableFuture<Boolean> createSSLCertificate(long enterpriseId) {
         Enterprise enterprise = enterpriseRepository.findById(enterpriseId).orElse(null);
         if (enterprise == null) {
             LOGGER.error("Invalid enterprise id");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
-        enterprise.setStatus(RegistrationStatus.PARTICIPANT_JSON_CREATED.getStatus());
-        String domain = enterprise.getSubDomainName();
-        File domainChainFile = new File("/tmp/" + domain + "_chain.crt");
-        File csrFile = new File("/tmp/" + domain + ".csr");
-        File keyfile = new File("/tmp/" + domain + ".key");
-        File pkcs8File = new File("/tmp/pkcs8_" + domain + ".key");
+        enterprise.setStatus(RegistrationStatus.CERTIFICATE_CREATION_IN_PROCESS.getStatus());
+        Executor executor = acmePoller.getExecutor();
 
-        try {
-
-            // Load the user key file. If there is no key file, create a new one.
-            KeyPair userKeyPair = loadOrCreateUserKeyPair();
-
-            // Create a session for Let's Encrypt.
-            // Use "acme://letsencrypt.org" for production server
-            Session session = new Session("acme://letsencrypt.org");
+        CompletableFuture<Boolean> created;
+        if (certificateSettings.isWildcard()) {
+            created = CompletableFuture.supplyAsync(() -> createSigningKey(enterprise), executor);
+        } else {
+            created = issueCertificate(List.of(enterprise.getSubDomainName()))
+                    .thenApplyAsync(issuedCertificate -> saveCertificate(enterprise, issuedCertificate), executor);
+        }
+        return created.handle((result, e) -> {
+            if (e != null) {
+                LOGGER.error("Can not create certificate for enterprise ->{}, domain ->{}", enterpriseId, enterprise.getSubDomainName(), e);
+                enterprise.setStatus(RegistrationStatus.CERTIFICATE_CREATION_FAILED.getStatus());
+            }
+            enterpriseRepository.save(enterprise);
+            return e == null;
+        });
+    }
 
-            // Get the Account.
-            // If there is no account yet, create a new one.
-            Account acct = findOrRegisterAccount(session, userKeyPair);
+    /**
+     * Issue certificate with the ACME server, domain ownership is proven with DNS challenges.
+     *
+     * @param domains the domains, may contain a wildcard domain
+     * @return future of the issued certificate
+     */
+    public CompletableFuture<IssuedCertificate> issueCertificate(List<String> domains) {
+        CertificateOrder certificateOrder = new CertificateOrder(domains);
+        Executor executor = acmePoller.getExecutor();
+        return CompletableFuture.supplyAsync(() -> createOrder(certificateOrder), executor)
+                .thenCompose(order -> authorizeAll(certificateOrder))
+                .thenComposeAsync(v -> executeOrder(certificateOrder), executor)
+                .thenApplyAsync(v -> downloadCertificate(certificateOrder), executor)
+                .whenComplete((issuedCertificate, e) -> {
+                    for (String[] txtRecord : certificateOrder.txtRecords) {
+                        domainService.deleteTxtRecordForSSLCertificate(txtRecord[0], txtRecord[1]);
+                    }
+                });
+    }
 
-            // Load or create a key pair for the domains. This should not be the userKeyPair!
-            KeyPair domainKeyPair = loadOrCreateDomainKeyPair(keyfile);
+    private Order createOrder(CertificateOrder certificateOrder) {
+        try {
+            // Get the Account, session and login are shared by all orders
+            Account acct = acmeAccountRegistry.getAccount();
 
             // Order the certificate
-            Order order = acct.newOrder().domain(domain).create();
+            certificateOrder.order = acct.newOrder().domains(certificateOrder.domains).create();
+            return certificateOrder.order;
+        } catch (AcmeUnauthorizedException e) {
+            //account is not valid anymore, login again with the next order
+            acmeAccountRegistry.reset();
+            throw new CompletionException(e);
+        } catch (AcmeException | IOException e) {
+            throw new CompletionException(e);
+        }
+    }
 
-            // Perform all required authorizations
-            for (Authorization auth : order.getAuthorizations()) {
-                authorize(auth);
-            }
+    private CompletableFuture<Void> authorizeAll(CertificateOrder certificateOrder) {
+        // Perform all required authorizations in parallel
+        List<Authorization> authorizations = certificateOrder.order.getAuthorizations();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[authorizations.size()];
+        for (int i = 0; i < authorizations.size(); i++) {
+            Authorization auth = authorizations.get(i);
+            futures[i] = CompletableFuture.supplyAsync(() -> authorize(auth, certificateOrder), acmePoller.getExecutor())
+                    .thenCompose(future -> future);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    private CompletableFuture<Status> executeOrder(CertificateOrder certificateOrder) {
+        try {
+            // Take a pre-generated key pair for the domains. This should not be the account key pair!
+            KeyPair domainKeyPair = keyPairPool.take(KeyType.RSA);
+            StringWriter keyWriter = new StringWriter();
+            KeyPairUtils.writeKeyPair(domainKeyPair, keyWriter);
+            certificateOrder.domainKeyPair = domainKeyPair;
+            certificateOrder.domainKey = keyWriter.toString();
 
             // Generate a CSR for all of the domains, and sign it with the domain key pair.
             CSRBuilder csrb = new CSRBuilder();
-            csrb.addDomain(domain);
+            csrb.addDomains(certificateOrder.domains);
             csrb.sign(domainKeyPair);
 
-
-            // Write the CSR to a file, for later use.
-            try (Writer out = new FileWriter(csrFile)) {
-                csrb.write(out);
-            }
+            // Keep the CSR, for later use.
+            StringWriter csrWriter = new StringWriter();
+            csrb.write(csrWriter);
+            certificateOrder.csr = csrWriter.toString();
 
             // Order the certificate
+            Order order = certificateOrder.order;
             order.execute(csrb.getEncoded());
 
             // Wait for the order to complete
-            checkOrderStatus(order);
+            return acmePoller.poll("Order of " + certificateOrder.domains, order, order::getStatus, certificateSettings.getOrderMaxAttempts(), Duration.ofSeconds(certificateSettings.getOrderPollInterval()))
+                    .thenApply(status -> {
+                        if (status != Status.VALID) {
+                            LOGGER.error("Order has failed, status: {}, reason: {}", status, order.getError());
+                            throw new CompletionException(new AcmeException("Order failed... Giving up."));
+                        }
+                        return status;
+                    });
+        } catch (AcmeException | IOException e) {
+            throw new CompletionException(e);
+        }
+    }
 
+    private IssuedCertificate downloadCertificate(CertificateOrder certificateOrder) {
+        try {
             // Get the certificate
-            Certificate certificate = order.getCertificate();
+            Certificate certificate = certificateOrder.order.getCertificate();
 
             List<X509Certificate> certificateChain1 = certificate.getCertificateChain();
             X509Certificate cert1 = certificateChain1.get(0);
             X509Certificate cert2 = certificateChain1.get(1);
             List<X509Certificate> fileCertificates = List.of(cert1, cert2);
-            try (FileWriter fw = new FileWriter(domainChainFile)) {
-                for (X509Certificate cert : fileCertificates) {
-                    AcmeUtils.writeToPem(cert.getEncoded(), AcmeUtils.PemLabel.CERTIFICATE, fw);
-                }
-                //TODO this flow can be improved
-                //write root certificate
-                fw.append("""
-                        -----BEGIN CERTIFICATE-----
-                        MIIFazCCA1OgAwIBAgIRAIIQz7DSQONZRGPgu2OCiwAwDQYJKoZIhvcNAQELBQAw
-                        TzELMAkGA1UEBhMCVVMxKTAnBgNVBAoTIEludGVybmV0IFNlY3VyaXR5IFJlc2Vh
-                        cmNoIEdyb3VwMRUwEwYDVQQDEwxJU1JHIFJvb3QgWDEwHhcNMTUwNjA0MTEwNDM4
-                        WhcNMzUwNjA0MTEwNDM4WjBPMQswCQYDVQQGEwJVUzEpMCcGA1UEChMgSW50ZXJu
-                        ZXQgU2VjdXJpdHkgUmVzZWFyY2ggR3JvdXAxFTATBgNVBAMTDElTUkcgUm9vdCBY
-                        MTCCAiIwDQYJKoZIhvcNAQEBBQADggIPADCCAgoCggIBAK3oJHP0FDfzm54rVygc
-                        h77ct984kIxuPOZXoHj3dcKi/vVqbvYATyjb3miGbESTtrFj/RQSa78f0uoxmyF+
-                        0TM8ukj13Xnfs7j/EvEhmkvBioZxaUpmZmyPfjxwv60pIgbz5MDmgK7iS4+3mX6U
-                        A5/TR5d8mUgjU+g4rk8Kb4Mu0UlXjIB0ttov0DiNewNwIRt18jA8+o+u3dpjq+sW
-                        T8KOEUt+zwvo/7V3LvSye0rgTBIlDHCNAymg4VMk7BPZ7hm/ELNKjD+Jo2FR3qyH
-                        B5T0Y3HsLuJvW5iB4YlcNHlsdu87kGJ55tukmi8mxdAQ4Q7e2RCOFvu396j3x+UC
-                        B5iPNgiV5+I3lg02dZ77DnKxHZu8A/lJBdiB3QW0KtZB6awBdpUKD9jf1b0SHzUv
-                        KBds0pjBqAlkd25HN7rOrFleaJ1/ctaJxQZBKT5ZPt0m9STJEadao0xAH0ahmbWn
-                        OlFuhjuefXKnEgV4We0+UXgVCwOPjdAvBbI+e0ocS3MFEvzG6uBQE3xDk3SzynTn
-                        jh8BCNAw1FtxNrQHusEwMFxIt4I7mKZ9YIqioymCzLq9gwQbooMDQaHWBfEbwrbw
-                        qHyGO0aoSCqI3Haadr8faqU9GY/rOPNk3sgrDQoo//fb4hVC1CLQJ13hef4Y53CI
-                        rU7m2Ys6xt0nUW7/vGT1M0NPAgMBAAGjQjBAMA4GA1UdDwEB/wQEAwIBBjAPBgNV
-                        HRMBAf8EBTADAQH/MB0GA1UdDgQWBBR5tFnme7bl5AFzgAiIyBpY9umbbjANBgkq
-                        hkiG9w0BAQsFAAOCAgEAVR9YqbyyqFDQDLHYGmkgJykIrGF1XIpu+ILlaS/V9lZL
-                        ubhzEFnTIZd+50xx+7LSYK05qAvqFyFWhfFQDlnrzuBZ6brJFe+GnY+EgPbk6ZGQ
-                        3BebYhtF8GaV0nxvwuo77x/Py9auJ/GpsMiu/X1+mvoiBOv/2X/qkSsisRcOj/KK
-                        NFtY2PwByVS5uCbMiogziUwthDyC3+6WVwW6LLv3xLfHTjuCvjHIInNzktHCgKQ5
-                        ORAzI4JMPJ+GslWYHb4phowim57iaztXOoJwTdwJx4nLCgdNbOhdjsnvzqvHu7Ur
-                        TkXWStAmzOVyyghqpZXjFaH3pO3JLF+l+/+sKAIuvtd7u+Nxe5AW0wdeRlN8NwdC
-                        jNPElpzVmbUq4JUagEiuTDkHzsxHpFKVK7q4+63SM1N95R1NbdWhscdCb+ZAJzVc
-                        oyi3B43njTOQ5yOf+1CceWxG1bQVs5ZufpsMljq4Ui0/1lvh+wjChP4kqKOJ2qxq
-                        4RgqsahDYVvTH9w7jXbyLeiNdd8XM2w9U/t7y0Ff/9yi0GE44Za4rF2LN9d11TPA
-                        mRGunUHBcnWEvgJBQl9nJEiU0Zsnvgc/ubhPgXRR4Xq37Z0j4r7g1SgEEzwxA57d
-                        emyPxgcYxn/eR44/KJ4EBs+lVDR3veyJm+kXQ99b21/+jh5Xos1AnX5iItreGCc=
-                        -----END CERTIFICATE-----
-                        """);
+            StringWriter fw = new StringWriter();
+            for (X509Certificate cert : fileCertificates) {
+                AcmeUtils.writeToPem(cert.getEncoded(), AcmeUtils.PemLabel.CERTIFICATE, fw);
             }
+            //TODO this flow can be improved
+            //write root certificate
+            fw.append(ISRG_ROOT_X1);
+
+            LOGGER.info("Success! The certificate for domains {} has been generated!", certificateOrder.domains);
+            LOGGER.info("Certificate URL: {}", certificate.getLocation());
+            return new IssuedCertificate(certificateOrder.domains, fw.toString(), certificateOrder.domainKeyPair, certificateOrder.domainKey, certificateOrder.csr);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new CompletionException(e);
+        }
+    }
 
-
-            LOG.info("Success! The certificate for domains {} has been generated!", domain);
-            LOG.info("Certificate URL: {}", certificate.getLocation());
+    private boolean saveCertificate(Enterprise enterprise, IssuedCertificate issuedCertificate) {
+        try {
+            long enterpriseId = enterprise.getId();
+            String domain = enterprise.getSubDomainName();
 
             String certificateChainS3Key = enterpriseId + "/x509CertificateChain.pem";
-            String csrS3Key = enterpriseId + "/" + csrFile.getName();
-            String keyS3Key = enterpriseId + "/" + keyfile.getName();
-            String pkcs8FileS3Key = enterpriseId + "/pkcs8_" + keyfile.getName();
+            String csrS3Key = enterpriseId + "/" + domain + ".csr";
+            String keyS3Key = enterpriseId + "/" + domain + ".key";
+            String pkcs8FileS3Key = enterpriseId + "/pkcs8_" + domain + ".key";
 
 
-            //convert private key in pkcs8 format
-            convertKeyFileInPKCS8(keyfile.getAbsolutePath(), pkcs8File.getAbsolutePath(), enterpriseId);
+            //encode private key in pkcs8 format
+            byte[] pkcs8Key = toPKCS8Pem(issuedCertificate.getKeyPair().getPrivate()).getBytes(StandardCharsets.UTF_8);
 
             //save files in s3
-            s3Utils.uploadFile(certificateChainS3Key, domainChainFile);
-            s3Utils.uploadFile(csrS3Key, csrFile);
-            s3Utils.uploadFile(keyS3Key, keyfile);
-            s3Utils.uploadFile(pkcs8FileS3Key, pkcs8File);
+            objectStore.put(certificateChainS3Key, issuedCertificate.getCertificateChain().getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE);
+            objectStore.put(csrS3Key, issuedCertificate.getCsr().getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE);
+            objectStore.put(keyS3Key, issuedCertificate.getPrivateKey().getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE);
+            objectStore.put(pkcs8FileS3Key, pkcs8Key, ObjectStore.PEM_CONTENT_TYPE);
+            wellKnownFileCache.invalidate(certificateChainS3Key);
+            signingKeyCache.invalidate(enterpriseId);
 
 
             enterprise.setStatus(RegistrationStatus.CERTIFICATE_CREATED.getStatus());
@@ -236,183 +323,113 @@ public class CertificateService {
             } else {
                 enterpriseCertificate.setCertificateChain(certificateChainS3Key);
                 enterpriseCertificate.setCsr(csrS3Key);
-                enterpriseCertificate.setPrivateKey(pkcs8FileS3Key);
+                enterpriseCertificate.setPrivateKey(keyS3Key);
             }
             //save certificate location
             enterpriseCertificateRepository.save(enterpriseCertificate);
-
-            //create Job tp create ingress and tls secret
-            scheduleService.createJob(enterpriseId, StringPool.JOB_TYPE_CREATE_INGRESS, 0);
-            if (jobKey != null) {
-                //delete job
-                scheduleService.deleteJob(jobKey);
-            }
-
-        } catch (Exception e) {
-            LOGGER.error("Can not create certificate for enterprise ->{}, domain ->{}", enterpriseId, enterprise.getSubDomainName(), e);
-            enterprise.setStatus(RegistrationStatus.CERTIFICATE_CREATION_FAILED.getStatus());
-        } finally {
-            enterpriseRepository.save(enterprise);
-            //delete files
-            CommonUtils.deleteFile(domainChainFile, csrFile, keyfile, pkcs8File);
-        }
-    }
-
-    private static void checkOrderStatus(Order order) throws AcmeException {
-        try {
-            int attempts = 10;
-            while (order.getStatus() != Status.VALID && attempts-- > 0) {
-                LOGGER.debug("Waiting for order confirmation attempts->{}", attempts);
-                // Did the order fail?
-                if (order.getStatus() == Status.INVALID) {
-                    LOG.error("Order has failed, reason: {}", order.getError());
-                    throw new AcmeException("Order failed... Giving up.");
-                }
-
-                // Wait for a few seconds
-                Thread.sleep(6000L);
-
-                // Then update the status
-                order.update();
-            }
-        } catch (InterruptedException ex) {
-            LOG.error("interrupted", ex);
-            Thread.currentThread().interrupt();
+            return true;
+        } catch (IOException e) {
+            throw new CompletionException(e);
         }
     }
 
     /**
-     * Loads a user key pair from {@link #USER_KEY_FILE}. If the file does not exist, a
-     * new key pair is generated and saved.
-     * <p>
-     * Keep this key pair in a safe place! In a production environment, you will not be
-     * able to access your account again if you should lose the key pair.
-     *
-     * @return User's {@link KeyPair}.
+     * Create signing key of an enterprise in wildcard mode. TLS is served with the wildcard certificate, the key is
+     * only used to sign credentials of the did:web of the enterprise.
      */
-    private KeyPair loadOrCreateUserKeyPair() throws IOException {
-        if (USER_KEY_FILE.exists()) {
-            // If there is a key file, read it
-            try (FileReader fr = new FileReader(USER_KEY_FILE)) {
-                return KeyPairUtils.readKeyPair(fr);
-            }
-
-        } else {
-            // If there is none, create a new key pair and save it
-            KeyPair userKeyPair = KeyPairUtils.createKeyPair(KEY_SIZE);
-            try (FileWriter fw = new FileWriter(USER_KEY_FILE)) {
-                KeyPairUtils.writeKeyPair(userKeyPair, fw);
-            }
-            return userKeyPair;
-        }
-    }
+    private boolean createSigningKey(Enterprise enterprise) {
+        try {
+            long enterpriseId = enterprise.getId();
+            String domain = enterprise.getSubDomainName();
+            String keyS3Key = enterpriseId + "/" + domain + ".key";
+            String pkcs8FileS3Key = enterpriseId + "/pkcs8_" + domain + ".key";
 
-    private KeyPair loadOrCreateDomainKeyPair(File domainChainFile) throws IOException {
-        if (domainChainFile.exists()) {
-            try (FileReader fr = new FileReader(domainChainFile)) {
-                return KeyPairUtils.readKeyPair(fr);
-            }
-        } else {
-            KeyPair domainKeyPair = KeyPairUtils.createKeyPair(KEY_SIZE);
-            try (FileWriter fw = new FileWriter(domainChainFile)) {
-                KeyPairUtils.writeKeyPair(domainKeyPair, fw);
-            }
-            return domainKeyPair;
-        }
-    }
+            KeyPair signingKeyPair = keyPairPool.take(KeyType.RSA);
+            StringWriter keyWriter = new StringWriter();
+            KeyPairUtils.writeKeyPair(signingKeyPair, keyWriter);
+            String key = keyWriter.toString();
+            byte[] pkcs8Key = toPKCS8Pem(signingKeyPair.getPrivate()).getBytes(StandardCharsets.UTF_8);
 
-    /**
-     * Finds your {@link Account} at the ACME server. It will be found by your user's
-     * public key. If your key is not known to the server yet, a new account will be
-     * created.
-     * <p>
-     * This is a simple way of finding your {@link Account}. A better way is to get the
-     * URL of your new account with {@link Account#getLocation()} and store it somewhere.
-     * If you need to get access to your account later, reconnect to it via {@link
-     * Session#login(URL, KeyPair)} by using the stored location.
-     *
-     * @param session {@link Session} to bind with
-     * @return {@link Account}
-     */
-    private Account findOrRegisterAccount(Session session, KeyPair accountKey) throws AcmeException {
+            objectStore.put(keyS3Key, key.getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE);
+            objectStore.put(pkcs8FileS3Key, pkcs8Key, ObjectStore.PEM_CONTENT_TYPE);
+            signingKeyCache.invalidate(enterpriseId);
 
-        Account account = new AccountBuilder()
-                .agreeToTermsOfService()
-                .useKeyPair(accountKey)
-                .create(session);
-        LOG.info("Registered a new user, URL: {}", account.getLocation());
+            EnterpriseCertificate enterpriseCertificate = enterpriseCertificateRepository.getByEnterpriseId(enterpriseId);
+            if (enterpriseCertificate == null) {
+                enterpriseCertificate = EnterpriseCertificate.builder()
+                        .enterpriseId(enterpriseId)
+                        .build();
+            }
+            enterpriseCertificate.setCertificateChain(WildcardCertificateService.WILDCARD_CERTIFICATE_CHAIN);
+            enterpriseCertificate.setPrivateKey(keyS3Key);
+            enterpriseCertificateRepository.save(enterpriseCertificate);
 
-        return account;
+            enterprise.setStatus(RegistrationStatus.CERTIFICATE_CREATED.getStatus());
+            LOGGER.info("Signing key created for enterprise ->{}, TLS uses wildcard certificate", enterpriseId);
+            return true;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
     }
 
     /**
      * Authorize a domain. It will be associated with your account, so you will be able to
      * retrieve a signed certificate for the domain later.
      *
-     * @param auth {@link Authorization} to perform
+     * @param auth             {@link Authorization} to perform
+     * @param certificateOrder the certificate order
+     * @return future completed when the challenge is valid
      */
-    private void authorize(Authorization auth) throws AcmeException {
-        LOG.info("Authorization for domain {}", auth.getIdentifier().getDomain());
-        Dns01Challenge dnsChallenge = auth.findChallenge(Dns01Challenge.TYPE);
-        String valuesToBeAdded = dnsChallenge.getDigest();
-        String domain = Dns01Challenge.toRRName(auth.getIdentifier());
-
+    private CompletableFuture<Void> authorize(Authorization auth, CertificateOrder certificateOrder) {
+        LOGGER.info("Authorization for domain {}", auth.getIdentifier().getDomain());
         try {
             // The authorization is already valid. No need to process a challenge.
             if (auth.getStatus() == Status.VALID) {
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             // Find the desired challenge and prepare it.
-            Challenge challenge = null;
+            CompletableFuture<Challenge> prepared = null;
             if (CHALLENGE_TYPE == ChallengeType.DNS) {
-                challenge = dnsChallenge(auth);
+                prepared = dnsChallenge(auth, certificateOrder);
             }
 
-            if (challenge == null) {
+            if (prepared == null) {
                 throw new AcmeException("No challenge found");
             }
+            return prepared.thenComposeAsync(challenge -> triggerChallenge(auth, challenge), acmePoller.getExecutor());
+        } catch (AcmeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
+    private CompletableFuture<Void> triggerChallenge(Authorization auth, Challenge challenge) {
+        try {
             // If the challenge is already verified, there's no need to execute it again.
             if (challenge.getStatus() == Status.VALID) {
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             // Now trigger the challenge.
             challenge.trigger();
 
             // Poll for the challenge to complete.
-            //TODO known issue, sometime certificate issuing not working
-            try {
-                int attempts = 3;
-                while (challenge.getStatus() != Status.VALID && attempts-- > 0) {
-                    LOGGER.debug("Waiting for 30 sec before check of DNS record attempts -> {}", attempts);
-                    // Wait for a few seconds
-                    Thread.sleep(30000L);
-
-                    // Then update the status
-                    challenge.update();
-                }
-                // Did the authorization fail?
-                if (challenge.getStatus() == Status.INVALID) {
-                    LOG.error("Challenge has failed, reason: {}", challenge.getError());
-                    throw new AcmeException("Challenge failed... Giving up.");
-                }
-            } catch (InterruptedException ex) {
-                LOG.error("interrupted", ex);
-                Thread.currentThread().interrupt();
-            }
-
-            // All reattempts are used up and there is still no valid authorization?
-            if (challenge.getStatus() != Status.VALID) {
-                throw new AcmeException("Failed to pass the challenge for domain "
-                        + auth.getIdentifier().getDomain() + ", ... Giving up.");
-            }
-
-            LOG.info("Challenge has been completed. Remember to remove the validation resource.");
-
-        } finally {
-            domainService.deleteTxtRecordForSSLCertificate(domain, valuesToBeAdded);
+            return acmePoller.poll("Challenge of " + auth.getIdentifier().getDomain(), challenge, challenge::getStatus, certificateSettings.getChallengeMaxAttempts(), Duration.ofSeconds(certificateSettings.getChallengePollInterval()))
+                    .thenAccept(status -> {
+                        // Did the authorization fail?
+                        if (status == Status.INVALID) {
+                            LOGGER.error("Challenge has failed, reason: {}", challenge.getError());
+                            throw new CompletionException(new AcmeException("Challenge failed... Giving up."));
+                        }
+                        // All reattempts are used up and there is still no valid authorization?
+                        if (status != Status.VALID) {
+                            throw new CompletionException(new AcmeException("Failed to pass the challenge for domain "
+                                    + auth.getIdentifier().getDomain() + ", ... Giving up."));
+                        }
+                        LOGGER.info("Challenge has been completed. Remember to remove the validation resource.");
+                    });
+        } catch (AcmeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -421,14 +438,13 @@ public class CertificateService {
      * Prepares a DNS challenge.
      * <p>
      * The verification of this challenge expects a TXT record with a certain content.
-     * <p>
-     * This example outputs instructions that need to be executed manually. In a
-     * production environment, you would rather configure your DNS automatically.
+     * The record is removed when the certificate order is finished.
      *
-     * @param auth {@link Authorization} to find the challenge in
-     * @return {@link Challenge} to verify
+     * @param auth             {@link Authorization} to find the challenge in
+     * @param certificateOrder the certificate order
+     * @return future of the {@link Challenge} to verify, completed when the TXT record is in sync
      */
-    private Challenge dnsChallenge(Authorization auth) throws AcmeException {
+    private CompletableFuture<Challenge> dnsChallenge(Authorization auth, CertificateOrder certificateOrder) throws AcmeException {
         // Find a single dns-01 challenge
         Dns01Challenge challenge = auth.findChallenge(Dns01Challenge.TYPE);
         if (challenge == null) {
@@ -438,29 +454,48 @@ public class CertificateService {
         String valuesToBeAdded = challenge.getDigest();
         String domain = Dns01Challenge.toRRName(auth.getIdentifier());
 
-        //Create TXT records
-        domainService.createTxtRecordForSSLCertificate(domain, valuesToBeAdded);
-
-        return challenge;
+        //Create TXT records, submitted together with records of other orders
+        certificateOrder.txtRecords.add(new String[]{domain, valuesToBeAdded});
+        return domainService.createTxtRecordForSSLCertificate(domain, valuesToBeAdded)
+                .thenApply(v -> challenge);
     }
 
 
-    private void convertKeyFileInPKCS8(String file, String outputFile, long enterpriseId) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("openssl", "pkcs8", "-topk8", "-in", file, "-nocrypt", "-out", outputFile);
-            Process p = pb.start();
-            int exitCode = p.waitFor();
-            if (exitCode == 0) {
-                LOGGER.debug("key file converted in pkcs8 format foe enterprise id->{}", enterpriseId);
-            } else {
-                LOGGER.error(CAN_NOT_CONVERT_FILE_IN_PCCS_8_FORMATE_FOR_ENTERPRISE, enterpriseId);
-            }
-        } catch (InterruptedException e) {
-            LOGGER.error(CAN_NOT_CONVERT_FILE_IN_PCCS_8_FORMATE_FOR_ENTERPRISE, enterpriseId, e);
-            Thread.currentThread().interrupt();
-        } catch (IOException e) {
-            LOGGER.error(CAN_NOT_CONVERT_FILE_IN_PCCS_8_FORMATE_FOR_ENTERPRISE, enterpriseId, e);
+    /**
+     * Encode the private key in PKCS#8 PEM format in memory.
+     *
+     * @param privateKey the private key
+     * @return the PKCS#8 PEM
+     * @throws IOException if the key can not be encoded
+     */
+    private static String toPKCS8Pem(PrivateKey privateKey) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JcaPEMWriter pemWriter = new JcaPEMWriter(writer)) {
+            pemWriter.writeObject(new JcaPKCS8Generator(privateKey, null));
         }
+        return writer.toString();
+    }
+
+    /**
+     * State of a running certificate order.
+     */
+    private static class CertificateOrder {
+
+        private final List<String> domains;
 
+        //name and value of created TXT records, removed when order is finished
+        private final List<String[]> txtRecords = new CopyOnWriteArrayList<>();
+
+        private Order order;
+
+        private KeyPair domainKeyPair;
+
+        private String domainKey;
+
+        private String csr;
+
+        CertificateOrder(List<String> domains) {
+            this.domains = domains;
+        }
     }
-}
\ No newline at end of file
+}
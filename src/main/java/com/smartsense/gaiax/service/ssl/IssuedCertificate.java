@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ssl;
+
+import lombok.Getter;
+
+import java.security.KeyPair;
+import java.util.List;
+
+/**
+ * The type Issued certificate. PEM encoded result of an ACME order.
+ */
+@Getter
+public class IssuedCertificate {
+
+    private final List<String> domains;
+
+    private final String certificateChain;
+
+    private final KeyPair keyPair;
+
+    private final String privateKey;
+
+    private final String csr;
+
+    /**
+     * Instantiates a new Issued certificate.
+     *
+     * @param domains          the domains
+     * @param certificateChain the certificate chain including the root certificate
+     * @param keyPair          the key pair of the certificate
+     * @param privateKey       the private key of the certificate in PEM format
+     * @param csr              the csr
+     */
+    public IssuedCertificate(List<String> domains, String certificateChain, KeyPair keyPair, String privateKey, String csr) {
+        this.domains = domains;
+        this.certificateChain = certificateChain;
+        this.keyPair = keyPair;
+        this.privateKey = privateKey;
+        this.csr = csr;
+    }
+}
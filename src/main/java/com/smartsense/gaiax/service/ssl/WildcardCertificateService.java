@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ssl;
+
+import com.smartsense.gaiax.config.AWSSettings;
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.dto.StringPool;
+import com.smartsense.gaiax.service.job.ScheduleService;
+import com.smartsense.gaiax.service.k8s.K8SService;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import com.smartsense.gaiax.service.wellknown.WellKnownFileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The type Wildcard certificate service. In wildcard mode one certificate of *.baseDomain is used by all enterprises.
+ * The expiry is checked on every node, the renewal runs as a Quartz singleton job so only one node of the cluster
+ * orders a new certificate.
+ */
+@Service
+public class WildcardCertificateService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WildcardCertificateService.class);
+
+    /**
+     * The constant WILDCARD_CERTIFICATE_CHAIN.
+     */
+    public static final String WILDCARD_CERTIFICATE_CHAIN = "wildcard/x509CertificateChain.pem";
+
+    /**
+     * The constant WILDCARD_PRIVATE_KEY.
+     */
+    public static final String WILDCARD_PRIVATE_KEY = "wildcard/privkey.key";
+
+    private final CertificateService certificateService;
+
+    private final K8SService k8SService;
+
+    private final ScheduleService scheduleService;
+
+    private final ObjectStore objectStore;
+
+    private final WellKnownFileCache wellKnownFileCache;
+
+    private final CertificateSettings certificateSettings;
+
+    private final AWSSettings awsSettings;
+
+    /**
+     * Instantiates a new Wildcard certificate service.
+     *
+     * @param certificateService  the certificate service
+     * @param k8SService          the k 8 s service
+     * @param scheduleService     the schedule service
+     * @param objectStore         the object store
+     * @param wellKnownFileCache  the well known file cache
+     * @param certificateSettings the certificate settings
+     * @param awsSettings         the aws settings
+     */
+    public WildcardCertificateService(CertificateService certificateService, K8SService k8SService, ScheduleService scheduleService, ObjectStore objectStore, WellKnownFileCache wellKnownFileCache, CertificateSettings certificateSettings, AWSSettings awsSettings) {
+        this.certificateService = certificateService;
+        this.k8SService = k8SService;
+        this.scheduleService = scheduleService;
+        this.objectStore = objectStore;
+        this.wellKnownFileCache = wellKnownFileCache;
+        this.certificateSettings = certificateSettings;
+        this.awsSettings = awsSettings;
+    }
+
+    /**
+     * Check expiry of the wildcard certificate and schedule renewal if needed.
+     */
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${certificate.wildcardCheckInterval:21600000}")
+    public void checkRenewal() {
+        if (!certificateSettings.isWildcard()) {
+            return;
+        }
+        try {
+            if (needsRenewal() && scheduleService.createSingletonJob(StringPool.JOB_TYPE_RENEW_WILDCARD_CERTIFICATE)) {
+                LOGGER.info("Wildcard certificate renewal scheduled");
+            }
+        } catch (Exception e) {
+            LOGGER.error("Can not check wildcard certificate", e);
+        }
+    }
+
+    /**
+     * Renew wildcard certificate, called by the renewal job. The job waits for the order, so no other node starts a
+     * renewal while this one is running.
+     *
+     * @return true if certificate is renewed
+     */
+    public boolean renew() {
+        String wildcardDomain = "*." + awsSettings.getBaseDomain();
+        try {
+            IssuedCertificate issuedCertificate = certificateService.issueCertificate(List.of(wildcardDomain)).join();
+            objectStore.put(WILDCARD_CERTIFICATE_CHAIN, issuedCertificate.getCertificateChain().getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE);
+            objectStore.put(WILDCARD_PRIVATE_KEY, issuedCertificate.getPrivateKey().getBytes(StandardCharsets.UTF_8), ObjectStore.PEM_CONTENT_TYPE);
+            wellKnownFileCache.invalidate(WILDCARD_CERTIFICATE_CHAIN);
+            k8SService.updateWildcardSecret(issuedCertificate.getCertificateChain(), issuedCertificate.getPrivateKey());
+            LOGGER.info("Wildcard certificate for {} renewed", wildcardDomain);
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Can not renew wildcard certificate for {}", wildcardDomain, e);
+            return false;
+        }
+    }
+
+    private boolean needsRenewal() throws Exception {
+        if (!objectStore.exists(WILDCARD_CERTIFICATE_CHAIN)) {
+            return true;
+        }
+        byte[] chain = objectStore.getBytes(WILDCARD_CERTIFICATE_CHAIN);
+        //first certificate of the chain is the leaf certificate
+        X509Certificate certificate = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(chain));
+        Instant renewAt = certificate.getNotAfter().toInstant().minus(Duration.ofDays(certificateSettings.getWildcardRenewBefore()));
+        return Instant.now().isAfter(renewAt);
+    }
+}
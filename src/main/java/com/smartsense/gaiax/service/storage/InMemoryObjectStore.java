@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import com.smartsense.gaiax.exception.EntityNotFoundException;
+import org.apache.commons.io.IOUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type In memory object store. Objects are lost on restart, meant for local runs and tests without AWS.
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "memory")
+public class InMemoryObjectStore implements ObjectStore {
+
+    private final Map<String, Entry> objects = new ConcurrentHashMap<>();
+
+    private final ObjectUrlSigner objectUrlSigner;
+
+    /**
+     * Instantiates a new In memory object store.
+     *
+     * @param objectUrlSigner the object url signer
+     */
+    public InMemoryObjectStore(ObjectUrlSigner objectUrlSigner) {
+        this.objectUrlSigner = objectUrlSigner;
+    }
+
+    @Override
+    public void put(String key, InputStream inputStream, long contentLength, String contentType) throws IOException {
+        byte[] content = IOUtils.toByteArray(inputStream, contentLength);
+        objects.put(key, new Entry(content, contentType, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void put(String key, byte[] content, String contentType) {
+        objects.put(key, new Entry(content.clone(), contentType, System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, byte[] content, String contentType) {
+        return objects.putIfAbsent(key, new Entry(content.clone(), contentType, System.currentTimeMillis())) == null;
+    }
+
+    @Override
+    public StoredObject get(String key) {
+        Entry entry = objects.get(key);
+        if (entry == null) {
+            throw new EntityNotFoundException("Can not find object " + key);
+        }
+        return new StoredObject(key, entry.content.length, entry.contentType,
+                "\"" + Integer.toHexString(System.identityHashCode(entry)) + "-" + Long.toHexString(entry.lastModified) + "\"",
+                entry.lastModified, new ByteArrayInputStream(entry.content));
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        Entry entry = objects.get(key);
+        if (entry == null) {
+            throw new EntityNotFoundException("Can not find object " + key);
+        }
+        return entry.content.clone();
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return objects.containsKey(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        objects.remove(key);
+    }
+
+    @Override
+    public String getPreSignedUrl(String key) {
+        return objectUrlSigner.sign(key);
+    }
+
+    private record Entry(byte[] content, String contentType, long lastModified) {
+    }
+}
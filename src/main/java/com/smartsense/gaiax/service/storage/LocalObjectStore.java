@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import com.smartsense.gaiax.config.StorageSettings;
+import com.smartsense.gaiax.exception.BadDataException;
+import com.smartsense.gaiax.exception.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The type Local object store. Keeps objects as files below the configured root directory, reads are served from the
+ * page cache with {@link FileChannel#transferTo(long, long, WritableByteChannel)} and memory-mapped buffers instead of
+ * copying through a heap buffer.
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalObjectStore implements ObjectStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalObjectStore.class);
+
+    private final Path root;
+
+    private final ObjectUrlSigner objectUrlSigner;
+
+    /**
+     * Instantiates a new Local object store.
+     *
+     * @param storageSettings the storage settings
+     * @param objectUrlSigner the object url signer
+     * @throws IOException the io exception
+     */
+    public LocalObjectStore(StorageSettings storageSettings, ObjectUrlSigner objectUrlSigner) throws IOException {
+        this.root = Files.createDirectories(Paths.get(storageSettings.getLocalPath())).toRealPath();
+        this.objectUrlSigner = objectUrlSigner;
+        LOGGER.info("Local object store at {}", root);
+    }
+
+    @Override
+    public void put(String key, InputStream inputStream, long contentLength, String contentType) throws IOException {
+        Path file = resolve(key);
+        Files.createDirectories(file.getParent());
+        //write next to the target and move, readers never see a partially written file
+        Path tempFile = Files.createTempFile(file.getParent(), ".upload", ".tmp");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, byte[] content, String contentType) throws IOException {
+        Path file = resolve(key);
+        Files.createDirectories(file.getParent());
+        Path tempFile = Files.createTempFile(file.getParent(), ".upload", ".tmp");
+        try {
+            Files.write(tempFile, content);
+            //link creation fails atomically if the target exists, readers never see a partially written file
+            Files.createLink(file, tempFile);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public StoredObject get(String key) throws IOException {
+        Path file = resolve(key);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new EntityNotFoundException("Can not find object " + key);
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStoredObject(key, channel, attributes);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public byte[] getBytes(String key) throws IOException {
+        try (StoredObject storedObject = get(key)) {
+            FileChannel channel = ((FileStoredObject) storedObject).channel;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] content = new byte[buffer.remaining()];
+            buffer.get(content);
+            return content;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public String getPreSignedUrl(String key) {
+        return objectUrlSigner.sign(key);
+    }
+
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new BadDataException("Invalid object key " + key);
+        }
+        return file;
+    }
+
+    private static class FileStoredObject extends StoredObject {
+
+        private final FileChannel channel;
+
+        FileStoredObject(String key, FileChannel channel, BasicFileAttributes attributes) throws IOException {
+            super(key, channel.size(), MediaTypeFactory.getMediaType(key).map(Object::toString).orElse(null),
+                    "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "-" + Long.toHexString(attributes.size()) + "\"",
+                    attributes.lastModifiedTime().toMillis(), Channels.newInputStream(channel));
+            this.channel = channel;
+        }
+
+        @Override
+        public long transferTo(OutputStream outputStream) throws IOException {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    //channel does not support transfer, copy from a mapped buffer
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size - position);
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    return size;
+                }
+                position += transferred;
+            }
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
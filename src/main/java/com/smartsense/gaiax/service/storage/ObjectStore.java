@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * The interface Object store. Storage of all persisted artifacts (keys, CSRs, certificate chains, DID documents and
+ * verifiable credentials). The backend is selected with the storage.type property.
+ */
+public interface ObjectStore {
+
+    /**
+     * The constant PEM_CONTENT_TYPE.
+     */
+    String PEM_CONTENT_TYPE = "application/x-pem-file";
+
+    /**
+     * The constant PRIVATE_KEY_SUFFIX, all private keys (enterprise keys, ACME account key, wildcard key) use it.
+     */
+    String PRIVATE_KEY_SUFFIX = ".key";
+
+    /**
+     * Is private key boolean. The key is normalized the same way the local object store resolves it, so dot segments
+     * or trailing slashes can not hide a private key.
+     *
+     * @param key the key
+     * @return true if the object is a private key or the key can not be parsed
+     */
+    static boolean isPrivateKey(String key) {
+        try {
+            Path fileName = Paths.get(key).normalize().getFileName();
+            return fileName == null || fileName.toString().toLowerCase(Locale.ROOT).endsWith(PRIVATE_KEY_SUFFIX);
+        } catch (InvalidPathException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Put object from a stream, content length must be known so the stream is not buffered in memory.
+     *
+     * @param key           the key
+     * @param inputStream   the input stream
+     * @param contentLength the content length
+     * @param contentType   the content type
+     * @throws IOException the io exception
+     */
+    void put(String key, InputStream inputStream, long contentLength, String contentType) throws IOException;
+
+    /**
+     * Put object.
+     *
+     * @param key         the key
+     * @param content     the content
+     * @param contentType the content type
+     * @throws IOException the io exception
+     */
+    default void put(String key, byte[] content, String contentType) throws IOException {
+        put(key, new ByteArrayInputStream(content), content.length, contentType);
+    }
+
+    /**
+     * Put object only if no object with the key exists, the check and the write are atomic also across the pods of
+     * the cluster.
+     *
+     * @param key         the key
+     * @param content     the content
+     * @param contentType the content type
+     * @return true if the object was written, false if it already existed
+     * @throws IOException the io exception
+     */
+    boolean putIfAbsent(String key, byte[] content, String contentType) throws IOException;
+
+    /**
+     * Open object, caller must close the returned object.
+     *
+     * @param key the key
+     * @return the stored object
+     * @throws IOException the io exception
+     */
+    StoredObject get(String key) throws IOException;
+
+    /**
+     * Gets object as bytes.
+     *
+     * @param key the key
+     * @return the object content
+     * @throws IOException the io exception
+     */
+    default byte[] getBytes(String key) throws IOException {
+        try (StoredObject storedObject = get(key)) {
+            return IOUtils.toByteArray(storedObject.getContent(), storedObject.getContentLength());
+        }
+    }
+
+    /**
+     * Copy object content to the output stream.
+     *
+     * @param key          the key
+     * @param outputStream the output stream
+     * @return number of bytes copied
+     * @throws IOException the io exception
+     */
+    default long copyTo(String key, OutputStream outputStream) throws IOException {
+        try (StoredObject storedObject = get(key)) {
+            return storedObject.transferTo(outputStream);
+        }
+    }
+
+    /**
+     * Exists boolean.
+     *
+     * @param key the key
+     * @return the boolean
+     */
+    boolean exists(String key);
+
+    /**
+     * Delete object, missing object is ignored.
+     *
+     * @param key the key
+     * @throws IOException the io exception
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Gets pre signed url, a short-lived url to download the object without authentication.
+     *
+     * @param key the key
+     * @return the pre signed url
+     */
+    String getPreSignedUrl(String key);
+}
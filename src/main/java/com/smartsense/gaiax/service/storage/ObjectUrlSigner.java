@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import com.smartsense.gaiax.config.StorageSettings;
+import com.smartsense.gaiax.exception.BadDataException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * The type Object url signer. Builds and verifies pre-signed urls for object stores which are served by this
+ * application (local and memory), S3 signs its own urls. Private keys are never served with pre-signed urls.
+ */
+@Component
+@ConditionalOnExpression(ObjectUrlSigner.SERVED_BY_APPLICATION)
+public class ObjectUrlSigner {
+
+    /**
+     * The constant SERVED_BY_APPLICATION, condition of beans which only exist if objects are served by this application.
+     */
+    public static final String SERVED_BY_APPLICATION = "'${storage.type:s3}' == 'local' or '${storage.type:s3}' == 'memory'";
+
+    /**
+     * The constant OBJECT_PATH.
+     */
+    public static final String OBJECT_PATH = "/storage/object";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final StorageSettings storageSettings;
+
+    private final byte[] signingKey;
+
+    /**
+     * Instantiates a new Object url signer.
+     *
+     * @param storageSettings the storage settings
+     */
+    public ObjectUrlSigner(StorageSettings storageSettings) {
+        if (StringUtils.isBlank(storageSettings.getSigningKey())) {
+            throw new IllegalStateException("storage.signingKey must be set for the " + storageSettings.getType() + " object store");
+        }
+        this.storageSettings = storageSettings;
+        this.signingKey = storageSettings.getSigningKey().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sign url.
+     *
+     * @param key the object key
+     * @return the pre signed url
+     */
+    public String sign(String key) {
+        if (ObjectStore.isPrivateKey(key)) {
+            throw new BadDataException("Private key " + key + " can not be shared with a pre-signed url of the " + storageSettings.getType() + " object store, the remote signer engine requires storage.type=s3");
+        }
+        long expires = System.currentTimeMillis() / 1000 + storageSettings.getPreSignedUrlExpiry();
+        return UriComponentsBuilder.fromHttpUrl(storageSettings.getPublicUrl())
+                .path(OBJECT_PATH)
+                .queryParam("key", key)
+                .queryParam("expires", expires)
+                .queryParam("signature", signature(key, expires))
+                .encode()
+                .toUriString();
+    }
+
+    /**
+     * Verify signature of a pre-signed url.
+     *
+     * @param key       the object key
+     * @param expires   the expiry time in epoch seconds
+     * @param signature the signature
+     * @return true if the signature is valid and not expired
+     */
+    public boolean verify(String key, long expires, String signature) {
+        if (ObjectStore.isPrivateKey(key) || StringUtils.isBlank(signature) || expires < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        return MessageDigest.isEqual(signature(key, expires).getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String signature(String key, long expires) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey, HMAC_ALGORITHM));
+            byte[] digest = mac.doFinal((key + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not sign object url", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.smartsense.gaiax.config.AWSSettings;
+import com.smartsense.gaiax.config.StorageSettings;
+import com.smartsense.gaiax.exception.EntityNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Date;
+
+/**
+ * The type S3 object store.
+ */
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "s3", matchIfMissing = true)
+public class S3ObjectStore implements ObjectStore {
+
+    private final AmazonS3 s3Client;
+
+    private final AWSSettings awsSettings;
+
+    private final StorageSettings storageSettings;
+
+    /**
+     * Instantiates a new S3 object store.
+     *
+     * @param awsSettings     the aws settings
+     * @param storageSettings the storage settings
+     */
+    public S3ObjectStore(AWSSettings awsSettings, StorageSettings storageSettings) {
+        s3Client = AmazonS3ClientBuilder.standard()
+                .withRegion(awsSettings.getRegion())
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(awsSettings.getAccessKey(), awsSettings.getSecretKey())))
+                .build();
+        this.awsSettings = awsSettings;
+        this.storageSettings = storageSettings;
+    }
+
+    @Override
+    public void put(String key, InputStream inputStream, long contentLength, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(contentLength);
+        metadata.setContentType(contentType);
+        s3Client.putObject(awsSettings.getBucketName(), key, inputStream, metadata);
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, byte[] content, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        metadata.setContentType(contentType);
+        PutObjectRequest request = new PutObjectRequest(awsSettings.getBucketName(), key, new ByteArrayInputStream(content), metadata);
+        //conditional write, S3 rejects the put with 412 if the object exists
+        request.putCustomRequestHeader(HttpHeaders.IF_NONE_MATCH, "*");
+        try {
+            s3Client.putObject(request);
+            return true;
+        } catch (AmazonS3Exception e) {
+            //409 is returned if a concurrent conditional write to the same key won
+            if (e.getStatusCode() == HttpStatus.PRECONDITION_FAILED.value() || e.getStatusCode() == HttpStatus.CONFLICT.value()) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public StoredObject get(String key) {
+        S3Object s3Object;
+        try {
+            s3Object = s3Client.getObject(awsSettings.getBucketName(), key);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new EntityNotFoundException("Can not find object " + key);
+            }
+            throw e;
+        }
+        ObjectMetadata metadata = s3Object.getObjectMetadata();
+        return new StoredObject(key, metadata.getContentLength(), metadata.getContentType(), "\"" + metadata.getETag() + "\"",
+                metadata.getLastModified() == null ? System.currentTimeMillis() : metadata.getLastModified().getTime(),
+                s3Object.getObjectContent());
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return s3Client.doesObjectExist(awsSettings.getBucketName(), key);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(awsSettings.getBucketName(), key);
+    }
+
+    @Override
+    public String getPreSignedUrl(String key) {
+        Date expiration = new Date(System.currentTimeMillis() + storageSettings.getPreSignedUrlExpiry() * 1000);
+        return s3Client.generatePresignedUrl(awsSettings.getBucketName(), key, expiration).toString();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import lombok.Getter;
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The type Stored object. An open handle on an object in the storage, the content stream must be closed by the caller.
+ */
+@Getter
+public class StoredObject implements Closeable {
+
+    private final String key;
+
+    private final long contentLength;
+
+    private final String contentType;
+
+    private final String eTag;
+
+    private final long lastModified;
+
+    private final InputStream content;
+
+    /**
+     * Instantiates a new Stored object.
+     *
+     * @param key           the key
+     * @param contentLength the content length
+     * @param contentType   the content type
+     * @param eTag          the e tag
+     * @param lastModified  the last modified time in epoch millis
+     * @param content       the content
+     */
+    public StoredObject(String key, long contentLength, String contentType, String eTag, long lastModified, InputStream content) {
+        this.key = key;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.content = content;
+    }
+
+    /**
+     * Copy the content to the output stream. Backends which can avoid copying through a heap buffer override this.
+     *
+     * @param outputStream the output stream
+     * @return number of bytes copied
+     * @throws IOException the io exception
+     */
+    public long transferTo(OutputStream outputStream) throws IOException {
+        return IOUtils.copyLarge(content, outputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.wellknown;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * The type Cached file. Immutable snapshot of a .well-known file with its validators.
+ */
+@Getter
+public class CachedFile implements WellKnownFile {
+
+    private final String key;
+
+    private final byte[] content;
+
+    private final String contentType;
+
+    private final String eTag;
+
+    private final long lastModified;
+
+    private final long expiresAt;
+
+    /**
+     * Instantiates a new Cached file.
+     *
+     * @param key          the storage key
+     * @param content      the content
+     * @param contentType  the content type
+     * @param lastModified the last modified time in epoch millis
+     * @param expiresAt    the expiry time in epoch millis
+     */
+    public CachedFile(String key, byte[] content, String contentType, long lastModified, long expiresAt) {
+        this.key = key;
+        this.content = content;
+        this.contentType = contentType;
+        this.eTag = computeETag(content);
+        //HTTP dates have seconds precision
+        this.lastModified = lastModified / 1000 * 1000;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public long getContentLength() {
+        return content.length;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(content);
+    }
+
+    /**
+     * Gets size.
+     *
+     * @return the size in bytes
+     */
+    public int getSize() {
+        return content.length;
+    }
+
+    /**
+     * Is expired boolean.
+     *
+     * @param now the now
+     * @return the boolean
+     */
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    private static String computeETag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            //SHA-256 is mandatory for every JVM, fallback is only for completeness
+            return "\"" + Integer.toHexString(new String(content, StandardCharsets.ISO_8859_1).hashCode()) + "\"";
+        }
+    }
+}
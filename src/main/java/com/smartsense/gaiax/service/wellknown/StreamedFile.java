@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.wellknown;
+
+import com.smartsense.gaiax.service.storage.StoredObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The type Streamed file. Public file which is too big to be cached, content is copied from the storage to the response.
+ */
+public class StreamedFile implements WellKnownFile {
+
+    private final StoredObject storedObject;
+
+    /**
+     * Instantiates a new Streamed file.
+     *
+     * @param storedObject the stored object
+     */
+    public StreamedFile(StoredObject storedObject) {
+        this.storedObject = storedObject;
+    }
+
+    @Override
+    public String getETag() {
+        return storedObject.getETag();
+    }
+
+    @Override
+    public long getLastModified() {
+        return storedObject.getLastModified();
+    }
+
+    @Override
+    public long getContentLength() {
+        return storedObject.getContentLength();
+    }
+
+    @Override
+    public String getContentType() {
+        return storedObject.getContentType();
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        storedObject.transferTo(outputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        storedObject.close();
+    }
+}
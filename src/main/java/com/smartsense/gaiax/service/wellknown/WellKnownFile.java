@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.wellknown;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The interface Well known file. A public file ready to be written to the HTTP response.
+ */
+public interface WellKnownFile extends Closeable {
+
+    /**
+     * Gets e tag.
+     *
+     * @return the e tag
+     */
+    String getETag();
+
+    /**
+     * Gets last modified.
+     *
+     * @return the last modified time in epoch millis
+     */
+    long getLastModified();
+
+    /**
+     * Gets content length.
+     *
+     * @return the content length
+     */
+    long getContentLength();
+
+    /**
+     * Gets content type.
+     *
+     * @return the content type, can be null
+     */
+    String getContentType();
+
+    /**
+     * Write the content to the output stream.
+     *
+     * @param outputStream the output stream
+     * @throws IOException the io exception
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+        //nothing to release by default
+    }
+}
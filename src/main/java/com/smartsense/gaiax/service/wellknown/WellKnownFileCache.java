@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.wellknown;
+
+import com.smartsense.gaiax.config.WellKnownCacheSettings;
+import com.smartsense.gaiax.service.storage.StoredObject;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The type Well known file cache.
+ * <p>
+ * Bounded in-memory cache of public files (did.json, participant.json, certificate chain, service offers) served under
+ * the .well-known path. Entries are evicted in LRU order once the total content size exceeds the configured limit,
+ * and expire after the configured TTL. Every upload of a public file must call {@link #invalidate(String)}.
+ */
+@Service
+public class WellKnownFileCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WellKnownFileCache.class);
+
+    private final WellKnownCacheSettings settings;
+
+    //access ordered map to get LRU iteration order, guarded by this
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final LinkedHashMap<String, Long> enterpriseIds;
+
+    private long currentSize;
+
+    //incremented on every invalidation, a load which overlaps with an invalidation is not cached
+    private long generation;
+
+    /**
+     * Instantiates a new Well known file cache.
+     *
+     * @param settings the settings
+     */
+    public WellKnownFileCache(WellKnownCacheSettings settings) {
+        this.settings = settings;
+        this.enterpriseIds = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > settings.getMaxEnterprises();
+            }
+        };
+    }
+
+    /**
+     * Resolve enterprise id, the mapping of subdomain or legal name to id never changes so it is cached without TTL.
+     *
+     * @param lookupKey the lookup key (host or legal name)
+     * @param loader    the loader, may return null if enterprise does not exist
+     * @return the enterprise id or null
+     */
+    public Long resolveEnterpriseId(String lookupKey, Supplier<Long> loader) {
+        synchronized (this) {
+            Long id = enterpriseIds.get(lookupKey);
+            if (id != null) {
+                return id;
+            }
+        }
+        Long id = loader.get();
+        if (id != null) {
+            synchronized (this) {
+                enterpriseIds.put(lookupKey, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Gets file from cache or open it from the storage. Small files are read and cached, files bigger than the
+     * max entry size are returned as open stream and must be closed by the caller.
+     *
+     * @param key    the storage key
+     * @param opener the opener
+     * @return the well known file
+     * @throws IOException the io exception
+     */
+    public WellKnownFile get(String key, Opener opener) throws IOException {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (this) {
+            CachedFile cachedFile = files.get(key);
+            if (cachedFile != null) {
+                if (!cachedFile.isExpired(now)) {
+                    return cachedFile;
+                }
+                remove(key);
+            }
+            loadGeneration = generation;
+        }
+
+        //load outside the lock, storage call can be slow
+        StoredObject storedObject = opener.open();
+        if (storedObject.getContentLength() > settings.getMaxEntrySize()) {
+            LOGGER.debug("File {} with size {} is too big to cache, streaming it", key, storedObject.getContentLength());
+            return new StreamedFile(storedObject);
+        }
+        byte[] content;
+        try (storedObject) {
+            content = IOUtils.toByteArray(storedObject.getContent(), storedObject.getContentLength());
+        }
+        CachedFile cachedFile = new CachedFile(key, content, storedObject.getContentType(), storedObject.getLastModified(), now + settings.getTtl() * 1000);
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                put(cachedFile);
+            }
+        }
+        return cachedFile;
+    }
+
+    /**
+     * Invalidate a file, must be called after every upload of a public file.
+     *
+     * @param key the storage key
+     */
+    public synchronized void invalidate(String key) {
+        generation++;
+        if (remove(key) != null) {
+            LOGGER.debug("Cached file {} invalidated", key);
+        }
+    }
+
+    /**
+     * Invalidate all files of an enterprise.
+     *
+     * @param enterpriseId the enterprise id
+     */
+    public synchronized void invalidateEnterprise(long enterpriseId) {
+        generation++;
+        String prefix = enterpriseId + "/";
+        Iterator<Map.Entry<String, CachedFile>> iterator = files.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedFile> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                currentSize -= entry.getValue().getSize();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void put(CachedFile cachedFile) {
+        remove(cachedFile.getKey());
+        files.put(cachedFile.getKey(), cachedFile);
+        currentSize += cachedFile.getSize();
+        Iterator<CachedFile> iterator = files.values().iterator();
+        while (currentSize > settings.getMaxSize() && iterator.hasNext()) {
+            CachedFile eldest = iterator.next();
+            currentSize -= eldest.getSize();
+            iterator.remove();
+            LOGGER.debug("Cached file {} evicted", eldest.getKey());
+        }
+    }
+
+    private CachedFile remove(String key) {
+        CachedFile removed = files.remove(key);
+        if (removed != null) {
+            currentSize -= removed.getSize();
+        }
+        return removed;
+    }
+
+    /**
+     * The interface Opener, opens a file in the storage.
+     */
+    @FunctionalInterface
+    public interface Opener {
+
+        /**
+         * Open stored object.
+         *
+         * @return the stored object
+         * @throws IOException the io exception
+         */
+        StoredObject open() throws IOException;
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Component;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * The type Jwt util.
@@ -68,20 +69,24 @@ public class JWTUtil {
     }
 
     /**
-     * Generates token for the given claims, username and expiry date
+     * Generates token for the given claims, username and expiry date. Every token has an id (jti) so it can be
+     * revoked.
      *
      * @param claims   claims
      * @param username username/email
      * @return access token
      */
     public String doGenerateToken(Map<String, Object> claims, String username) {
+        Date now = new Date();
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setAudience("Smart-X")
                 .setIssuer("Smart-X")
-                .setNotBefore(new Date())
+                .setNotBefore(now)
                 .setSubject(username)
-                .setIssuedAt(new Date())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtSetting.getTokenExpiry() * 1000))
                 .signWith(SignatureAlgorithm.HS512, jwtSetting.getTokenSigningKey())
                 .compact();
     }
@@ -127,3 +127,141 @@ ALTER TABLE public.service_offer ADD label_level varchar(255) NULL;
 
 --changeset Neha:11
 ALTER TABLE public.enterprise DROP CONSTRAINT IF EXISTS uk_4jka3x297mdgt6qcelb88flxb;
+
+--changeset Nitin:12
+CREATE TABLE public.onboarding_step (
+	id bigserial NOT NULL,
+	created_at timestamp(6) NULL,
+	updated_at timestamp(6) NULL,
+	enterprise_id int8 NOT NULL,
+	step varchar(50) NOT NULL,
+	status varchar(50) NOT NULL,
+	attempts int4 NOT NULL DEFAULT 0,
+	started_at timestamp(6) NULL,
+	completed_at timestamp(6) NULL,
+	duration_ms int8 NULL,
+	error varchar(1000) NULL,
+	CONSTRAINT onboarding_step_pkey PRIMARY KEY (id),
+	CONSTRAINT onboarding_step_uk UNIQUE (enterprise_id, step),
+	CONSTRAINT onboarding_step_fk FOREIGN KEY (enterprise_id) REFERENCES public.enterprise(id)
+);
+CREATE INDEX onboarding_step_status_idx ON public.onboarding_step (status, updated_at);
+
+--changeset Nitin:13
+CREATE TABLE public.async_operation (
+	id varchar(36) NOT NULL,
+	created_at timestamp(6) NULL,
+	updated_at timestamp(6) NULL,
+	enterprise_id int8 NOT NULL,
+	"type" varchar(50) NOT NULL,
+	status varchar(50) NOT NULL,
+	result_id int8 NULL,
+	error varchar(1000) NULL,
+	CONSTRAINT async_operation_pkey PRIMARY KEY (id),
+	CONSTRAINT async_operation_fk FOREIGN KEY (enterprise_id) REFERENCES public.enterprise(id)
+);
+CREATE INDEX async_operation_status_idx ON public.async_operation (status, updated_at);
+
+--changeset Nitin:14
+CREATE INDEX service_offer_enterprise_id_id_idx ON public.service_offer (enterprise_id, id);
+
+--changeset Nitin:15
+ALTER TABLE public.service_offer ADD search_vector tsvector GENERATED ALWAYS AS (setweight(to_tsvector('simple', coalesce(label, '')), 'A') || setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED;
+CREATE INDEX service_offer_search_vector_idx ON public.service_offer USING gin (search_vector);
+ALTER TABLE public.enterprise ADD search_vector tsvector GENERATED ALWAYS AS (setweight(to_tsvector('simple', coalesce(legal_name, '')), 'C')) STORED;
+CREATE INDEX enterprise_search_vector_idx ON public.enterprise USING gin (search_vector);
+
+--changeset Nitin:16
+CREATE TABLE public.catalogue_change (
+	id bigserial NOT NULL,
+	created_at timestamp(6) NULL,
+	updated_at timestamp(6) NULL,
+	enterprise_id int8 NOT NULL,
+	service_offer_id int8 NULL,
+	CONSTRAINT catalogue_change_pkey PRIMARY KEY (id)
+);
+CREATE INDEX catalogue_change_created_at_idx ON public.catalogue_change (created_at);
+
+--changeset Nitin:17
+CREATE TABLE public.catalogue_service_offer (
+	id int8 NOT NULL,
+	enterprise_id int8 NOT NULL,
+	enterprise_name varchar(255) NULL,
+	sub_domain_name varchar(255) NULL,
+	credential_id int8 NULL,
+	subject_did varchar(255) NULL,
+	"name" varchar(255) NULL,
+	"label" varchar(255) NULL,
+	produced_by varchar(255) NULL,
+	copyright_owned_by varchar(255) NULL,
+	description varchar(255) NULL,
+	access_type varchar(255) NULL,
+	request_type varchar(255) NULL,
+	format_type varchar(255) NULL,
+	terms varchar(255) NULL,
+	terms_hash varchar(255) NULL,
+	label_level varchar(255) NULL,
+	meta text NULL,
+	offer_link varchar(1000) NULL,
+	label_level_url varchar(1000) NULL,
+	search_vector tsvector GENERATED ALWAYS AS (setweight(to_tsvector('simple', coalesce("label", '')), 'A') || setweight(to_tsvector('simple', coalesce(description, '')), 'B') || setweight(to_tsvector('simple', coalesce(enterprise_name, '')), 'C')) STORED,
+	CONSTRAINT catalogue_service_offer_pkey PRIMARY KEY (id)
+);
+CREATE INDEX catalogue_service_offer_enterprise_id_idx ON public.catalogue_service_offer (enterprise_id, id);
+CREATE INDEX catalogue_service_offer_search_vector_idx ON public.catalogue_service_offer USING gin (search_vector);
+
+--changeset Nitin:18 splitStatements:false
+CREATE OR REPLACE FUNCTION public.catalogue_service_offer_sync() RETURNS trigger AS $$
+BEGIN
+	IF TG_OP = 'DELETE' THEN
+		DELETE FROM public.catalogue_service_offer WHERE id = OLD.id;
+		RETURN OLD;
+	END IF;
+	INSERT INTO public.catalogue_service_offer (id, enterprise_id, enterprise_name, sub_domain_name, credential_id, subject_did, "name", "label", produced_by, copyright_owned_by, description, access_type, request_type, format_type, terms, terms_hash, label_level, meta, offer_link, label_level_url)
+	SELECT NEW.id, NEW.enterprise_id, e.legal_name, e.sub_domain_name, NEW.credential_id, NEW.subject_did, NEW."name", NEW."label", NEW.produced_by, NEW.copyright_owned_by, NEW.description, NEW.access_type, NEW.request_type, NEW.format_type, NEW.terms, NEW.terms_hash, NEW.label_level, NEW.meta,
+		'https://' || e.sub_domain_name || '/.well-known/' || NEW."name" || '.json',
+		CASE WHEN btrim(NEW.label_level) <> '' THEN 'https://' || e.sub_domain_name || '/.well-known/' || NEW.label_level END
+	FROM public.enterprise e WHERE e.id = NEW.enterprise_id
+	ON CONFLICT (id) DO UPDATE SET enterprise_id = EXCLUDED.enterprise_id, enterprise_name = EXCLUDED.enterprise_name, sub_domain_name = EXCLUDED.sub_domain_name, credential_id = EXCLUDED.credential_id, subject_did = EXCLUDED.subject_did, "name" = EXCLUDED."name", "label" = EXCLUDED."label", produced_by = EXCLUDED.produced_by, copyright_owned_by = EXCLUDED.copyright_owned_by, description = EXCLUDED.description, access_type = EXCLUDED.access_type, request_type = EXCLUDED.request_type, format_type = EXCLUDED.format_type, terms = EXCLUDED.terms, terms_hash = EXCLUDED.terms_hash, label_level = EXCLUDED.label_level, meta = EXCLUDED.meta, offer_link = EXCLUDED.offer_link, label_level_url = EXCLUDED.label_level_url;
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.catalogue_enterprise_sync() RETURNS trigger AS $$
+BEGIN
+	UPDATE public.catalogue_service_offer SET enterprise_name = NEW.legal_name, sub_domain_name = NEW.sub_domain_name,
+		offer_link = 'https://' || NEW.sub_domain_name || '/.well-known/' || "name" || '.json',
+		label_level_url = CASE WHEN btrim(label_level) <> '' THEN 'https://' || NEW.sub_domain_name || '/.well-known/' || label_level END
+	WHERE enterprise_id = NEW.id;
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER service_offer_catalogue_sync AFTER INSERT OR UPDATE OR DELETE ON public.service_offer FOR EACH ROW EXECUTE FUNCTION public.catalogue_service_offer_sync();
+
+CREATE TRIGGER enterprise_catalogue_sync AFTER UPDATE ON public.enterprise FOR EACH ROW
+	WHEN (OLD.legal_name IS DISTINCT FROM NEW.legal_name OR OLD.sub_domain_name IS DISTINCT FROM NEW.sub_domain_name)
+	EXECUTE FUNCTION public.catalogue_enterprise_sync();
+
+--changeset Nitin:19
+INSERT INTO public.catalogue_service_offer (id, enterprise_id, enterprise_name, sub_domain_name, credential_id, subject_did, "name", "label", produced_by, copyright_owned_by, description, access_type, request_type, format_type, terms, terms_hash, label_level, meta, offer_link, label_level_url)
+SELECT so.id, so.enterprise_id, e.legal_name, e.sub_domain_name, so.credential_id, so.subject_did, so."name", so."label", so.produced_by, so.copyright_owned_by, so.description, so.access_type, so.request_type, so.format_type, so.terms, so.terms_hash, so.label_level, so.meta,
+	'https://' || e.sub_domain_name || '/.well-known/' || so."name" || '.json',
+	CASE WHEN btrim(so.label_level) <> '' THEN 'https://' || e.sub_domain_name || '/.well-known/' || so.label_level END
+FROM public.service_offer so INNER JOIN public.enterprise e ON e.id = so.enterprise_id
+ON CONFLICT (id) DO NOTHING;
+DROP INDEX public.service_offer_search_vector_idx;
+ALTER TABLE public.service_offer DROP COLUMN search_vector;
+DROP INDEX public.enterprise_search_vector_idx;
+ALTER TABLE public.enterprise DROP COLUMN search_vector;
+
+--changeset Nitin:20
+CREATE TABLE public.revoked_token (
+	id varchar(36) NOT NULL,
+	created_at timestamp(6) NULL,
+	updated_at timestamp(6) NULL,
+	expires_at timestamp(6) NOT NULL,
+	CONSTRAINT revoked_token_pkey PRIMARY KEY (id)
+);
+CREATE INDEX revoked_token_created_at_idx ON public.revoked_token (created_at);
+CREATE INDEX revoked_token_expires_at_idx ON public.revoked_token (expires_at);
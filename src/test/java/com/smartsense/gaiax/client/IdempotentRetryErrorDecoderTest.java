@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.client;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentRetryErrorDecoderTest {
+
+    private final IdempotentRetryErrorDecoder errorDecoder = new IdempotentRetryErrorDecoder();
+
+    @Test
+    void serverErrorOfIdempotentCallIsRetryable() {
+        for (Request.HttpMethod method : new Request.HttpMethod[]{Request.HttpMethod.GET, Request.HttpMethod.HEAD, Request.HttpMethod.OPTIONS, Request.HttpMethod.PUT, Request.HttpMethod.DELETE}) {
+            Exception exception = errorDecoder.decode("Client#call()", response(method, 503));
+
+            assertThat(exception).as(method.name()).isInstanceOf(RetryableException.class);
+            assertThat(((RetryableException) exception).status()).isEqualTo(503);
+            assertThat(exception.getCause()).isInstanceOf(FeignException.ServiceUnavailable.class);
+        }
+    }
+
+    @Test
+    void serverErrorOfNonIdempotentCallIsNotRetryable() {
+        for (Request.HttpMethod method : new Request.HttpMethod[]{Request.HttpMethod.POST, Request.HttpMethod.PATCH}) {
+            Exception exception = errorDecoder.decode("Client#call()", response(method, 502));
+
+            assertThat(exception).as(method.name()).isInstanceOf(FeignException.BadGateway.class).isNotInstanceOf(RetryableException.class);
+        }
+    }
+
+    @Test
+    void clientErrorAndNotImplementedAreNotRetryable() {
+        assertThat(errorDecoder.decode("Client#call()", response(Request.HttpMethod.GET, 404))).isInstanceOf(FeignException.NotFound.class);
+        assertThat(errorDecoder.decode("Client#call()", response(Request.HttpMethod.GET, 501))).isInstanceOf(FeignException.NotImplemented.class);
+    }
+
+    @Test
+    void retriesEndWithTheDecodedError() {
+        JitteredRetryer retryer = new JitteredRetryer(2, 1, 1);
+        RetryableException exception = (RetryableException) errorDecoder.decode("Client#call()", response(Request.HttpMethod.GET, 503));
+
+        retryer.continueOrPropagate(exception);
+
+        assertThatThrownBy(() -> retryer.continueOrPropagate(exception)).isInstanceOf(FeignException.ServiceUnavailable.class);
+    }
+
+    private static Response response(Request.HttpMethod method, int status) {
+        Request request = Request.create(method, "http://downstream/call", Map.of(), null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(status)
+                .reason("error")
+                .request(request)
+                .headers(Map.of())
+                .body("error", StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
+import com.smartsense.gaiax.dao.entity.ServiceOffer;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the change log on PostgreSQL and checks that the triggers keep catalogue_service_offer in sync.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CatalogueServiceOfferTriggerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private long enterpriseId;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db/changelog/changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM service_offer");
+        jdbcTemplate.update("DELETE FROM enterprise_credential");
+        jdbcTemplate.update("DELETE FROM enterprise");
+        enterpriseId = jdbcTemplate.queryForObject("INSERT INTO enterprise (email, headquarter_address, legal_address, legal_name, legal_registration_number, legal_registration_type, status, sub_domain_name) "
+                + "VALUES ('a@b.c', 'hq', 'legal', 'Acme', '1', 'taxID', 1, 'acme.example.com') RETURNING id", Long.class);
+    }
+
+    @Test
+    void insertedServiceOfferIsCopiedWithEnterprise() {
+        long id = insertServiceOffer("storage", "Cold storage", "label.json");
+
+        Map<String, Object> row = catalogueRow(id);
+        assertThat(row).containsEntry("enterprise_id", enterpriseId)
+                .containsEntry("enterprise_name", "Acme")
+                .containsEntry("sub_domain_name", "acme.example.com")
+                .containsEntry("label", "Cold storage")
+                .containsEntry("offer_link", "https://acme.example.com/.well-known/storage.json")
+                .containsEntry("label_level_url", "https://acme.example.com/.well-known/label.json");
+    }
+
+    @Test
+    void blankLabelLevelHasNoUrl() {
+        long id = insertServiceOffer("storage", "Cold storage", " ");
+
+        assertThat(catalogueRow(id)).containsEntry("label_level_url", null);
+    }
+
+    @Test
+    void updatedServiceOfferIsUpdatedAndSearchable() {
+        long id = insertServiceOffer("storage", "Cold storage", null);
+
+        jdbcTemplate.update("UPDATE service_offer SET \"label\" = 'Archive vault' WHERE id = ?", id);
+
+        assertThat(catalogueRow(id)).containsEntry("label", "Archive vault");
+        assertThat(search("vault")).containsExactly(id);
+        assertThat(search("cold")).isEmpty();
+    }
+
+    @Test
+    void enterpriseChangeUpdatesItsServiceOffers() {
+        long id = insertServiceOffer("storage", "Cold storage", "label.json");
+
+        jdbcTemplate.update("UPDATE enterprise SET legal_name = 'Acme Group', sub_domain_name = 'group.example.com' WHERE id = ?", enterpriseId);
+
+        assertThat(catalogueRow(id)).containsEntry("enterprise_name", "Acme Group")
+                .containsEntry("offer_link", "https://group.example.com/.well-known/storage.json")
+                .containsEntry("label_level_url", "https://group.example.com/.well-known/label.json");
+        assertThat(search("group")).containsExactly(id);
+    }
+
+    @Test
+    void deletedServiceOfferIsRemoved() {
+        long id = insertServiceOffer("storage", "Cold storage", null);
+
+        jdbcTemplate.update("DELETE FROM service_offer WHERE id = ?", id);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM catalogue_service_offer WHERE id = ?", Long.class, id)).isZero();
+    }
+
+    @Test
+    void batchInsertedServiceOffersAreCopied() {
+        List<EnterpriseCredential> credentials = List.of(credential(), credential());
+        List<ServiceOffer> serviceOffers = List.of(serviceOffer("first"), serviceOffer("second"));
+
+        new ServiceOfferBatchRepository(jdbcTemplate).saveAll(credentials, serviceOffers);
+
+        for (ServiceOffer serviceOffer : serviceOffers) {
+            assertThat(catalogueRow(serviceOffer.getId())).containsEntry("name", serviceOffer.getName())
+                    .containsEntry("credential_id", serviceOffer.getCredentialId())
+                    .containsEntry("enterprise_name", "Acme");
+        }
+    }
+
+    private long insertServiceOffer(String name, String label, String labelLevel) {
+        long credentialId = jdbcTemplate.queryForObject("INSERT INTO enterprise_credential (credentials, enterprise_id, \"label\") VALUES ('{}', ?, 'service-offer') RETURNING id", Long.class, enterpriseId);
+        return jdbcTemplate.queryForObject("INSERT INTO service_offer (enterprise_id, credential_id, subject_did, \"name\", \"label\", produced_by, copyright_owned_by, description, \"policy\", meta, label_level) "
+                + "VALUES (?, ?, 'did:web:acme.example.com', ?, ?, 'Acme', 'Acme', 'Offsite backups', 'policy', '{}', ?) RETURNING id", Long.class, enterpriseId, credentialId, name, label, labelLevel);
+    }
+
+    private Map<String, Object> catalogueRow(long id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM catalogue_service_offer WHERE id = ?", id);
+    }
+
+    private List<Long> search(String term) {
+        return jdbcTemplate.queryForList("SELECT id FROM catalogue_service_offer WHERE search_vector @@ to_tsquery('simple', ?)", Long.class, term);
+    }
+
+    private EnterpriseCredential credential() {
+        return EnterpriseCredential.builder()
+                .enterpriseId(enterpriseId)
+                .label("service-offer")
+                .credentials("{}")
+                .build();
+    }
+
+    private ServiceOffer serviceOffer(String name) {
+        return ServiceOffer.builder()
+                .enterpriseId(enterpriseId)
+                .subjectDid("did:web:acme.example.com")
+                .name(name)
+                .label(name)
+                .producedBy("Acme")
+                .copyrightOwnedBy("Acme")
+                .description("Offsite backups")
+                .policy("policy")
+                .meta(Map.of())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.dao.repository;
+
+import com.smartsense.gaiax.dao.entity.EnterpriseCredential;
+import com.smartsense.gaiax.dao.entity.ServiceOffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ServiceOfferBatchRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ServiceOfferBatchRepository serviceOfferBatchRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        serviceOfferBatchRepository = new ServiceOfferBatchRepository(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void idsAreTakenFromSequencesInOrder() {
+        when(jdbcTemplate.queryForList(contains("enterprise_credential_id_seq"), eq(Long.class), eq(2))).thenReturn(List.of(41L, 42L));
+        when(jdbcTemplate.queryForList(contains("service_offer_id_seq"), eq(Long.class), eq(2))).thenReturn(List.of(7L, 8L));
+        List<EnterpriseCredential> credentials = List.of(credential("first"), credential("second"));
+        List<ServiceOffer> serviceOffers = List.of(serviceOffer("first"), serviceOffer("second"));
+
+        serviceOfferBatchRepository.saveAll(credentials, serviceOffers);
+
+        //the service offer at an index references the credential at the same index
+        assertThat(credentials).extracting(EnterpriseCredential::getId).containsExactly(41L, 42L);
+        assertThat(serviceOffers).extracting(ServiceOffer::getId).containsExactly(7L, 8L);
+        assertThat(serviceOffers).extracting(ServiceOffer::getCredentialId).containsExactly(41L, 42L);
+        assertThat(serviceOffers).allSatisfy(serviceOffer -> assertThat(serviceOffer.getCreatedAt()).isNotNull());
+
+        ArgumentCaptor<List<Object[]>> credentialRows = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> serviceOfferRows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO enterprise_credential"), credentialRows.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO service_offer"), serviceOfferRows.capture());
+        assertThat(credentialRows.getValue()).extracting(row -> row[0]).containsExactly(41L, 42L);
+        assertThat(credentialRows.getValue()).extracting(row -> row[4]).containsExactly("first", "second");
+        assertThat(serviceOfferRows.getValue()).extracting(row -> row[0]).containsExactly(7L, 8L);
+        assertThat(serviceOfferRows.getValue()).extracting(row -> row[4]).containsExactly(41L, 42L);
+        assertThat(serviceOfferRows.getValue()).extracting(row -> row[6]).containsExactly("first", "second");
+        assertThat(serviceOfferRows.getValue().get(0)[18]).isEqualTo("{\"key\":\"first\"}");
+    }
+
+    @Test
+    void emptyBatchDoesNotTouchDatabase() {
+        serviceOfferBatchRepository.saveAll(List.of(), List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void everyServiceOfferNeedsOneCredential() {
+        assertThatThrownBy(() -> serviceOfferBatchRepository.saveAll(List.of(credential("first")), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static EnterpriseCredential credential(String label) {
+        return EnterpriseCredential.builder()
+                .enterpriseId(3L)
+                .label(label)
+                .credentials("{}")
+                .build();
+    }
+
+    private static ServiceOffer serviceOffer(String name) {
+        return ServiceOffer.builder()
+                .enterpriseId(3L)
+                .name(name)
+                .meta(Map.of("key", name))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.security;
+
+import com.smartsense.gaiax.config.SecuritySettings;
+import com.smartsense.gaiax.config.StorageSettings;
+import com.smartsense.gaiax.dto.AuthPolicy;
+import com.smartsense.gaiax.utils.JWTUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class PathPolicyMatcherTest {
+
+    //public urls of SecurityFilter, matched one by one with AntPathMatcher before the trie
+    private static final List<String> PUBLIC_URLS = List.of("/login", "/.well-known/**", "/actuator/health", "/webjars/**",
+            "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**", "/favicon.ico", "/swagger-resources/**", "/v2/api-docs",
+            "/verify/presentation", "/verify/presentation/wait", "/verify/presentation/events", "/tinyurl", "/storage/object");
+
+    private static final List<String> EDGE_PATTERNS = List.of("/", "/**", "/*", "/a", "/a/", "/a/*", "/a/*/", "/a/**",
+            "/a/*/b", "/a/*/**", "/a/{id}", "/a/{id}/b", "/a/{id}/", "//a//b", "/a/b/**");
+
+    private static final List<String> EDGE_PATHS = List.of("", "/", "//", "a", "a/b", "/a", "/a/", "/a//", "//a", "/a/b",
+            "/a/b/", "/a//b", "/a/b/c", "/a/b/c/", "/a/7", "/a/7/", "/a/7/b", "/a/7/b/", "/a/{id}", "/a/*", "/b", "/b/a",
+            "/A", "/ab", "/a.b");
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Test
+    void builtInRoutesMatchLikeAntPathMatcher() {
+        StorageSettings storageSettings = new StorageSettings();
+        storageSettings.setType("local");
+        SecurityFilter securityFilter = new SecurityFilter(mock(JWTUtil.class), mock(TokenVerifier.class), new SecuritySettings(), storageSettings);
+
+        List<String> paths = new ArrayList<>(EDGE_PATHS);
+        for (String url : PUBLIC_URLS) {
+            String prefix = url.replace("/**", "");
+            paths.add(prefix);
+            paths.add(prefix + "/");
+            paths.add(prefix + "//");
+            paths.add("/" + prefix);
+            paths.add(prefix + "/x");
+            paths.add(prefix + "/x/");
+            paths.add(prefix + "/x/y/z");
+            paths.add(prefix + "x");
+            paths.add(prefix.substring(0, prefix.length() - 1));
+            paths.add(prefix.toUpperCase());
+            paths.add("/api" + prefix);
+        }
+        paths.add("/enterprises/7");
+        paths.add("/verify/presentation/7");
+        paths.add("/storage/object/1/file.json");
+
+        for (String path : paths) {
+            boolean expected = PUBLIC_URLS.stream().anyMatch(url -> antPathMatcher.match(url, path));
+            assertThat(securityFilter.isPublicPath(path)).as(path).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void edgePatternsMatchLikeAntPathMatcher() {
+        for (String pattern : EDGE_PATTERNS) {
+            PathPolicyMatcher matcher = new PathPolicyMatcher(Map.of(pattern, AuthPolicy.PUBLIC), AuthPolicy.AUTHENTICATED);
+            for (String path : EDGE_PATHS) {
+                assertThat(matcher.match(path) == AuthPolicy.PUBLIC).as(pattern + " -> " + path).isEqualTo(antPathMatcher.match(pattern, path));
+            }
+        }
+    }
+
+    @Test
+    void randomRouteTablesMatchLikeAntPathMatcher() {
+        String[] patternSegments = {"a", "b", "*", "**", "{id}", ""};
+        String[] pathSegments = {"a", "b", "x", "*", ""};
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            Map<String, AuthPolicy> routes = new LinkedHashMap<>();
+            int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                routes.put(randomPath(random, patternSegments, true), AuthPolicy.PUBLIC);
+            }
+            PathPolicyMatcher matcher = new PathPolicyMatcher(routes, AuthPolicy.AUTHENTICATED);
+            for (int i = 0; i < 20; i++) {
+                String path = randomPath(random, pathSegments, false);
+                boolean expected = routes.keySet().stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+                assertThat(matcher.match(path) == AuthPolicy.PUBLIC).as(routes.keySet() + " -> " + path).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void mostSpecificRouteWins() {
+        Map<String, AuthPolicy> routes = new LinkedHashMap<>();
+        routes.put("/a/**", AuthPolicy.PUBLIC);
+        routes.put("/a/*", AuthPolicy.OPTIONAL);
+        routes.put("/a/b", AuthPolicy.AUTHENTICATED);
+        PathPolicyMatcher matcher = new PathPolicyMatcher(routes, AuthPolicy.PUBLIC);
+
+        assertThat(matcher.match("/a/b")).isEqualTo(AuthPolicy.AUTHENTICATED);
+        assertThat(matcher.match("/a/c")).isEqualTo(AuthPolicy.OPTIONAL);
+        assertThat(matcher.match("/a/b/c")).isEqualTo(AuthPolicy.PUBLIC);
+        assertThat(matcher.match("/a")).isEqualTo(AuthPolicy.PUBLIC);
+    }
+
+    @Test
+    void unsupportedPatternsAreRejected() {
+        for (String pattern : List.of("a", "/a/**/b", "/a*", "/a/?", "/a/{id:\\d+}", "/a/x{id}")) {
+            assertThatThrownBy(() -> new PathPolicyMatcher(Map.of(pattern, AuthPolicy.PUBLIC), AuthPolicy.AUTHENTICATED))
+                    .as(pattern)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static String randomPath(Random random, String[] segments, boolean pattern) {
+        StringBuilder path = new StringBuilder();
+        int length = random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            String segment = segments[random.nextInt(segments.length)];
+            //** is only supported as last segment of a pattern
+            if (pattern && "**".equals(segment) && i != length - 1) {
+                segment = "a";
+            }
+            path.append('/').append(segment);
+        }
+        if (path.length() == 0 || random.nextInt(4) == 0) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.security;
+
+import com.smartsense.gaiax.config.JWTSetting;
+import com.smartsense.gaiax.dao.entity.RevokedToken;
+import com.smartsense.gaiax.dao.repository.RevokedTokenRepository;
+import com.smartsense.gaiax.dto.SessionDTO;
+import com.smartsense.gaiax.exception.SecurityException;
+import com.smartsense.gaiax.utils.JWTUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class TokenVerifierTest {
+
+    private JWTSetting jwtSetting;
+
+    private JWTUtil jwtUtil;
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenVerifier tokenVerifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtSetting = new JWTSetting();
+        jwtSetting.setTokenSigningKey(Base64.getEncoder().encodeToString("a test signing key which is long enough for HS512 signatures".getBytes()));
+        jwtUtil = spy(new JWTUtil(jwtSetting));
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        tokenVerifier = new TokenVerifier(jwtUtil, jwtSetting, revokedTokenRepository, new SimpleMeterRegistry());
+        tokenVerifier.loadRevokedTokens();
+    }
+
+    @Test
+    void verifiedTokenIsServedFromCache() {
+        String token = token();
+
+        SessionDTO first = tokenVerifier.verify(token);
+        SessionDTO second = tokenVerifier.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getEnterpriseId()).isEqualTo(7L);
+        verify(jwtUtil, times(1)).getAllClaimsFromToken(token);
+    }
+
+    @Test
+    void revokedTokenIsRejectedAlthoughCached() {
+        String token = token();
+        tokenVerifier.verify(token);
+
+        tokenVerifier.revoke("Bearer " + token);
+
+        assertThatThrownBy(() -> tokenVerifier.verify(token)).isInstanceOf(SecurityException.class);
+        ArgumentCaptor<RevokedToken> revokedToken = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(revokedToken.capture());
+        assertThat(revokedToken.getValue().getId()).isEqualTo(claims(token).getId());
+        assertThat(revokedToken.getValue().getExpiresAt()).isEqualTo(claims(token).getExpiration());
+    }
+
+    @Test
+    void revocationOfOtherPodIsAppliedOnPoll() {
+        String token = token();
+        String otherToken = token();
+        tokenVerifier.verify(token);
+        when(revokedTokenRepository.getByCreatedAtAfter(any())).thenReturn(List.of(revoked(token)));
+
+        tokenVerifier.pollRevokedTokens();
+
+        assertThatThrownBy(() -> tokenVerifier.verify(token)).isInstanceOf(SecurityException.class);
+        assertThat(tokenVerifier.verify(otherToken).getEnterpriseId()).isEqualTo(7L);
+    }
+
+    @Test
+    void revocationsAreLoadedOnStart() {
+        String token = token();
+        when(revokedTokenRepository.getByExpiresAtAfter(any())).thenReturn(List.of(revoked(token)));
+
+        tokenVerifier.loadRevokedTokens();
+
+        assertThatThrownBy(() -> tokenVerifier.verify(token)).isInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    void tokenWithoutIdIsRejected() {
+        String token = Jwts.builder()
+                .setSubject("a@b.c")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, jwtSetting.getTokenSigningKey())
+                .compact();
+
+        assertThatThrownBy(() -> tokenVerifier.verify(token)).isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> tokenVerifier.revoke("Bearer " + token)).isInstanceOf(SecurityException.class);
+    }
+
+    private String token() {
+        return jwtUtil.generateToken(SessionDTO.builder()
+                .email("a@b.c")
+                .enterpriseId(7L)
+                .role(2)
+                .build());
+    }
+
+    private Claims claims(String token) {
+        return jwtUtil.getAllClaimsFromToken(token);
+    }
+
+    private RevokedToken revoked(String token) {
+        Claims claims = claims(token);
+        return RevokedToken.builder()
+                .id(claims.getId())
+                .expiresAt(claims.getExpiration())
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.k8s;
+
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.config.K8SSettings;
+import com.smartsense.gaiax.dao.entity.Enterprise;
+import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.NetworkingV1Api;
+import io.kubernetes.client.openapi.models.V1Ingress;
+import io.kubernetes.client.openapi.models.V1IngressList;
+import io.kubernetes.client.openapi.models.V1IngressRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+class IngressReconcilerTest {
+
+    private EnterpriseRepository enterpriseRepository;
+
+    private NetworkingV1Api networkingV1Api;
+
+    private CertificateSettings certificateSettings;
+
+    private IngressReconciler ingressReconciler;
+
+    @BeforeEach
+    void setUp() throws ApiException {
+        enterpriseRepository = mock(EnterpriseRepository.class);
+        networkingV1Api = mock(NetworkingV1Api.class);
+        K8SSettings k8SSettings = new K8SSettings();
+        k8SSettings.setIngressSharding(true);
+        k8SSettings.setHostsPerIngress(10);
+        k8SSettings.setServiceName("gaiax");
+        certificateSettings = new CertificateSettings();
+        ingressReconciler = new IngressReconciler(enterpriseRepository, networkingV1Api, k8SSettings, certificateSettings);
+        when(networkingV1Api.readNamespacedIngress(anyString(), eq(K8SService.DEFAULT), any())).thenThrow(new ApiException(404, "not found"));
+    }
+
+    @Test
+    void enterpriseIdDeterminesShard() throws Exception {
+        when(enterpriseRepository.getIngressEnterprises(eq(0L), eq(10L), eq(OnboardingStepType.INGRESS), any(), any())).thenReturn(List.of(enterprise(3, "a"), enterprise(9, "b")));
+        when(enterpriseRepository.getIngressEnterprises(eq(10L), eq(20L), eq(OnboardingStepType.INGRESS), any(), any())).thenReturn(List.of(enterprise(10, "c")));
+
+        CompletableFuture<Void> first = ingressReconciler.requestReconcile(3);
+        CompletableFuture<Void> second = ingressReconciler.requestReconcile(9);
+        CompletableFuture<Void> third = ingressReconciler.requestReconcile(10);
+        ingressReconciler.reconcile();
+
+        //two requests of shard 0 result in one ingress update
+        ArgumentCaptor<V1Ingress> ingresses = ArgumentCaptor.forClass(V1Ingress.class);
+        verify(networkingV1Api, times(2)).createNamespacedIngress(eq(K8SService.DEFAULT), ingresses.capture(), any(), any(), any(), any());
+        Map<String, List<String>> hostsByShard = ingresses.getAllValues().stream()
+                .collect(Collectors.toMap(ingress -> ingress.getMetadata().getName(), IngressReconcilerTest::hosts));
+        assertThat(hostsByShard).containsOnly(
+                entry("gaiax-tenants-0", List.of("a", "b")),
+                entry("gaiax-tenants-1", List.of("c")));
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(third).isCompleted();
+    }
+
+    @Test
+    void unchangedShardIsNotReplaced() throws Exception {
+        when(enterpriseRepository.getIngressEnterprises(eq(0L), eq(10L), any(), any(), any())).thenReturn(List.of(enterprise(1, "a")));
+        reset(networkingV1Api);
+        when(networkingV1Api.readNamespacedIngress(eq("gaiax-tenants-0"), eq(K8SService.DEFAULT), any()))
+                .thenReturn(Ingresses.build("gaiax-tenants-0", Map.of("a", "a"), Map.of(), "gaiax"));
+
+        CompletableFuture<Void> future = ingressReconciler.requestReconcile(1);
+        ingressReconciler.reconcile();
+
+        assertThat(future).isCompleted();
+        verify(networkingV1Api, never()).createNamespacedIngress(any(), any(), any(), any(), any(), any());
+        verify(networkingV1Api, never()).replaceNamespacedIngress(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void existingShardIsReplacedWhenHostsChange() throws Exception {
+        certificateSettings.setWildcard(true);
+        when(enterpriseRepository.getIngressEnterprises(eq(0L), eq(10L), any(), any(), any())).thenReturn(List.of(enterprise(1, "a"), enterprise(2, "b")));
+        reset(networkingV1Api);
+        when(networkingV1Api.readNamespacedIngress(eq("gaiax-tenants-0"), eq(K8SService.DEFAULT), any()))
+                .thenReturn(Ingresses.build("gaiax-tenants-0", Map.of("a", "wildcard-tls"), Map.of(), "gaiax"));
+        when(networkingV1Api.createNamespacedIngress(any(), any(), any(), any(), any(), any())).thenThrow(new ApiException(409, "exists"));
+
+        ingressReconciler.requestReconcile(2);
+        ingressReconciler.reconcile();
+
+        ArgumentCaptor<V1Ingress> ingress = ArgumentCaptor.forClass(V1Ingress.class);
+        verify(networkingV1Api).replaceNamespacedIngress(eq("gaiax-tenants-0"), eq(K8SService.DEFAULT), ingress.capture(), any(), any(), any(), any());
+        assertThat(Ingresses.hostSecrets(ingress.getValue())).containsOnly(entry("a", "wildcard-tls"), entry("b", "wildcard-tls"));
+        //both hosts share the wildcard secret, so they share one TLS item
+        assertThat(ingress.getValue().getSpec().getTls()).hasSize(1);
+    }
+
+    @Test
+    void failedShardFailsItsWaitersOnly() throws Exception {
+        when(enterpriseRepository.getIngressEnterprises(eq(0L), eq(10L), any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+        when(enterpriseRepository.getIngressEnterprises(eq(10L), eq(20L), any(), any(), any())).thenReturn(List.of(enterprise(11, "c")));
+
+        CompletableFuture<Void> failed = ingressReconciler.requestReconcile(1);
+        CompletableFuture<Void> applied = ingressReconciler.requestReconcile(11);
+        ingressReconciler.reconcile();
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(applied).isCompleted().isNotCompletedExceptionally();
+    }
+
+    @Test
+    void fullReconcileDeletesShardsWithoutHosts() throws Exception {
+        when(enterpriseRepository.getMaxId()).thenReturn(15L);
+        when(enterpriseRepository.getIngressEnterprises(eq(0L), eq(10L), any(), any(), any())).thenReturn(List.of(enterprise(1, "a")));
+        when(enterpriseRepository.getIngressEnterprises(eq(10L), eq(20L), any(), any(), any())).thenReturn(List.of());
+        V1IngressList existing = new V1IngressList();
+        existing.setItems(List.of(
+                Ingresses.build("gaiax-tenants-0", Map.of("a", "a"), Map.of(), "gaiax"),
+                Ingresses.build("gaiax-tenants-1", Map.of("b", "b"), Map.of(), "gaiax"),
+                Ingresses.build("gaiax-tenants-7", Map.of("x", "x"), Map.of(), "gaiax")));
+        when(networkingV1Api.listNamespacedIngress(eq(K8SService.DEFAULT), any(), any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(existing);
+
+        ingressReconciler.reconcileAll();
+
+        verify(networkingV1Api).deleteNamespacedIngress(eq("gaiax-tenants-1"), eq(K8SService.DEFAULT), any(), any(), any(), any(), any(), any());
+        verify(networkingV1Api).deleteNamespacedIngress(eq("gaiax-tenants-7"), eq(K8SService.DEFAULT), any(), any(), any(), any(), any(), any());
+        verify(networkingV1Api, never()).deleteNamespacedIngress(eq("gaiax-tenants-0"), any(), any(), any(), any(), any(), any(), any());
+        verify(networkingV1Api, never()).createNamespacedIngress(any(), any(), any(), any(), any(), any());
+    }
+
+    private static Enterprise enterprise(long id, String subDomainName) {
+        return Enterprise.builder()
+                .id(id)
+                .subDomainName(subDomainName)
+                .build();
+    }
+
+    private static List<String> hosts(V1Ingress ingress) {
+        return ingress.getSpec().getRules().stream().map(V1IngressRule::getHost).toList();
+    }
+}
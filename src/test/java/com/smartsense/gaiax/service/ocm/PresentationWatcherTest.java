@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.ocm;
+
+import com.smartsense.gaiax.client.OcmClient;
+import com.smartsense.gaiax.client.PresentationData;
+import com.smartsense.gaiax.client.VerifyPresentationResponse;
+import com.smartsense.gaiax.config.PresentationSettings;
+import com.smartsense.gaiax.exception.DownstreamUnavailableException;
+import com.smartsense.gaiax.exception.TooManyRequestsException;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class PresentationWatcherTest {
+
+    private static final String CLIENT = "10.0.0.1";
+
+    private OcmClient ocmClient;
+
+    private PresentationSettings settings;
+
+    private PresentationWatcher presentationWatcher;
+
+    @BeforeEach
+    void setUp() {
+        ocmClient = mock(OcmClient.class);
+        settings = new PresentationSettings();
+        settings.setPollInterval(60000);
+        settings.setMaxSessions(2);
+        settings.setClientMaxWatches(3);
+        presentationWatcher = new PresentationWatcher(ocmClient, settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        presentationWatcher.destroy();
+    }
+
+    @Test
+    void unknownPresentationIsDroppedAtOnce() throws Exception {
+        when(ocmClient.verifyPresentation("unknown")).thenThrow(notFound());
+
+        CompletableFuture<PresentationState> result = presentationWatcher.result("unknown", CLIENT);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(FeignException.class);
+        assertThat(presentationWatcher.latest("unknown")).isNull();
+        //the failed watch is gone, so it does not hold a session
+        presentationWatcher.result("a", CLIENT);
+        presentationWatcher.result("b", "10.0.0.2");
+    }
+
+    @Test
+    void finishedWatchesDoNotCountTowardsMaxSessions() throws Exception {
+        when(ocmClient.verifyPresentation("done")).thenReturn(state("done"));
+        when(ocmClient.verifyPresentation("pending")).thenReturn(state("request-sent"));
+
+        assertThat(presentationWatcher.result("done", CLIENT).get(5, TimeUnit.SECONDS).getState()).isEqualTo("done");
+        presentationWatcher.current("pending", CLIENT).get(5, TimeUnit.SECONDS);
+        presentationWatcher.current("other", "10.0.0.2");
+
+        //the finished result is still served without polling again
+        assertThat(presentationWatcher.latest("done").getState()).isEqualTo("done");
+        assertThatThrownBy(() -> presentationWatcher.current("third", "10.0.0.3")).isInstanceOf(DownstreamUnavailableException.class);
+    }
+
+    @Test
+    void clientCanStartLimitedNumberOfWatches() {
+        when(ocmClient.verifyPresentation(anyString())).thenReturn(state("request-sent"));
+        settings.setMaxSessions(10);
+
+        for (String id : List.of("a", "b", "c")) {
+            presentationWatcher.current(id, CLIENT);
+        }
+
+        //joining a running watch is free, starting a new one is not
+        presentationWatcher.result("a", CLIENT);
+        assertThatThrownBy(() -> presentationWatcher.current("d", CLIENT)).isInstanceOf(TooManyRequestsException.class);
+        presentationWatcher.current("d", "10.0.0.2");
+    }
+
+    private static ResponseEntity<VerifyPresentationResponse> state(String state) {
+        return ResponseEntity.ok(new VerifyPresentationResponse(new PresentationData(state, List.of()), null));
+    }
+
+    private static FeignException notFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://ocm/proof/v1/find-by-presentation-id", Map.of(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("OcmClient#verifyPresentation(String)", Response.builder()
+                .status(404)
+                .reason("Not Found")
+                .request(request)
+                .headers(Map.of())
+                .build());
+    }
+}
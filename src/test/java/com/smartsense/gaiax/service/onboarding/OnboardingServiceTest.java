@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.onboarding;
+
+import com.smartsense.gaiax.config.OnboardingSettings;
+import com.smartsense.gaiax.dao.entity.OnboardingStep;
+import com.smartsense.gaiax.dao.repository.OnboardingStepRepository;
+import com.smartsense.gaiax.dto.OnboardingStepStatus;
+import com.smartsense.gaiax.dto.OnboardingStepType;
+import com.smartsense.gaiax.service.job.ScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class OnboardingServiceTest {
+
+    private static final long ENTERPRISE_ID = 7;
+
+    private OnboardingStepRepository repository;
+
+    private ScheduleService scheduleService;
+
+    private OnboardingSettings settings;
+
+    private OnboardingService onboardingService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OnboardingStepRepository.class);
+        scheduleService = mock(ScheduleService.class);
+        settings = new OnboardingSettings();
+        settings.setMaxAttempts(2);
+        settings.setRetryDelay(5);
+        onboardingService = new OnboardingService(repository, scheduleService, settings);
+    }
+
+    @Test
+    void stepIsNotStartedTwice() {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE)).thenReturn(step(1, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.RUNNING, 1));
+        when(repository.startRun(eq(1L), any(), anyInt(), any())).thenReturn(0);
+        AtomicBoolean started = new AtomicBoolean();
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE, false, () -> {
+            started.set(true);
+            return CompletableFuture.completedFuture(true);
+        });
+
+        assertThat(started).isFalse();
+        verify(repository).startRun(eq(1L), eq(OnboardingStepStatus.QUEUED), eq(2), any());
+    }
+
+    @Test
+    void completedStepDispatchesDependents() throws Exception {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE)).thenReturn(step(2, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.QUEUED, 0));
+        when(repository.startRun(eq(2L), eq(OnboardingStepStatus.QUEUED), eq(1), any())).thenReturn(1);
+        when(repository.finishRun(eq(2L), any(), eq(OnboardingStepStatus.COMPLETED), any(), anyLong(), isNull(), any())).thenReturn(1);
+        when(repository.getByEnterpriseIdOrderById(ENTERPRISE_ID)).thenReturn(List.of(
+                step(1, OnboardingStepType.SUB_DOMAIN, OnboardingStepStatus.COMPLETED, 1),
+                step(2, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.COMPLETED, 1),
+                step(3, OnboardingStepType.INGRESS, OnboardingStepStatus.PENDING, 0),
+                step(4, OnboardingStepType.DID, OnboardingStepStatus.PENDING, 0),
+                step(5, OnboardingStepType.PARTICIPANT, OnboardingStepStatus.PENDING, 0)));
+        when(repository.changeStatus(anyLong(), eq(OnboardingStepStatus.PENDING), eq(OnboardingStepStatus.QUEUED), any())).thenReturn(1);
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE, false, () -> CompletableFuture.completedFuture(true));
+
+        verify(scheduleService).createJob(ENTERPRISE_ID, OnboardingStepType.INGRESS.getJobType(), 0);
+        verify(scheduleService).createJob(ENTERPRISE_ID, OnboardingStepType.DID.getJobType(), 0);
+        verify(scheduleService, never()).createJob(ENTERPRISE_ID, OnboardingStepType.PARTICIPANT.getJobType(), 0);
+    }
+
+    @Test
+    void supersededRunDoesNotOverwriteNewerRun() throws Exception {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.INGRESS)).thenReturn(step(3, OnboardingStepType.INGRESS, OnboardingStepStatus.QUEUED, 0));
+        when(repository.startRun(eq(3L), any(), anyInt(), any())).thenReturn(1);
+        //watchdog or restart started a newer run in the meantime
+        when(repository.finishRun(anyLong(), any(), any(), any(), anyLong(), any(), any())).thenReturn(0);
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.INGRESS, false, () -> future);
+        future.complete(true);
+
+        verify(repository, never()).save(any());
+        verify(repository, never()).getByEnterpriseIdOrderById(anyLong());
+        verifyNoInteractions(scheduleService);
+    }
+
+    @Test
+    void finishIsFencedOnTheStartOfTheRun() {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.INGRESS)).thenReturn(step(3, OnboardingStepType.INGRESS, OnboardingStepStatus.QUEUED, 0));
+        when(repository.startRun(eq(3L), any(), anyInt(), any())).thenReturn(1);
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.INGRESS, false, () -> CompletableFuture.completedFuture(true));
+
+        ArgumentCaptor<Date> startedAt = ArgumentCaptor.forClass(Date.class);
+        ArgumentCaptor<Date> finishedRun = ArgumentCaptor.forClass(Date.class);
+        verify(repository).startRun(eq(3L), eq(OnboardingStepStatus.QUEUED), eq(1), startedAt.capture());
+        verify(repository).finishRun(eq(3L), finishedRun.capture(), eq(OnboardingStepStatus.COMPLETED), any(), anyLong(), isNull(), any());
+        assertThat(finishedRun.getValue()).isEqualTo(startedAt.getValue());
+    }
+
+    @Test
+    void runningStepIsKeptAliveUntilItFinishes() {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE)).thenReturn(step(2, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.QUEUED, 0));
+        when(repository.startRun(eq(2L), any(), anyInt(), any())).thenReturn(1);
+        when(repository.heartbeat(eq(2L), any(), any())).thenReturn(1);
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE, false, () -> future);
+        onboardingService.heartbeat();
+        onboardingService.heartbeat();
+        verify(repository, times(2)).heartbeat(eq(2L), any(), any());
+
+        future.complete(false);
+        onboardingService.heartbeat();
+        verify(repository, times(2)).heartbeat(eq(2L), any(), any());
+    }
+
+    @Test
+    void heartbeatStopsForSupersededRun() {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE)).thenReturn(step(2, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.QUEUED, 0));
+        when(repository.startRun(eq(2L), any(), anyInt(), any())).thenReturn(1);
+        when(repository.heartbeat(eq(2L), any(), any())).thenReturn(0);
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE, false, CompletableFuture::new);
+        onboardingService.heartbeat();
+        onboardingService.heartbeat();
+
+        verify(repository, times(1)).heartbeat(eq(2L), any(), any());
+    }
+
+    @Test
+    void failedStepIsRetriedThenFailed() throws Exception {
+        when(repository.startRun(eq(2L), any(), anyInt(), any())).thenReturn(1);
+        when(repository.finishRun(anyLong(), any(), any(), any(), anyLong(), any(), any())).thenReturn(1);
+
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE)).thenReturn(step(2, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.QUEUED, 0));
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE, false, () -> CompletableFuture.failedFuture(new IllegalStateException("acme down")));
+        verify(repository).finishRun(eq(2L), any(), eq(OnboardingStepStatus.QUEUED), isNull(), anyLong(), eq("acme down"), any());
+        verify(scheduleService).createJob(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE.getJobType(), 5000);
+
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE)).thenReturn(step(2, OnboardingStepType.CERTIFICATE, OnboardingStepStatus.QUEUED, 1));
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.CERTIFICATE, false, () -> {
+            throw new IllegalStateException("acme still down");
+        });
+        verify(repository).finishRun(eq(2L), any(), eq(OnboardingStepStatus.FAILED), isNull(), anyLong(), eq("acme still down"), any());
+        verifyNoMoreInteractions(scheduleService);
+    }
+
+    @Test
+    void untrackedStepFailureIsRecorded() {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.DID)).thenReturn(null);
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.DID, false, () -> CompletableFuture.failedFuture(new IllegalStateException("signer down")));
+
+        ArgumentCaptor<OnboardingStep> saved = ArgumentCaptor.forClass(OnboardingStep.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(OnboardingStepStatus.FAILED);
+        assertThat(saved.getValue().getError()).isEqualTo("signer down");
+        assertThat(saved.getValue().getStep()).isEqualTo(OnboardingStepType.DID);
+    }
+
+    @Test
+    void untrackedStepWithoutResultIsRecordedAsFailed() {
+        when(repository.getByEnterpriseIdAndStep(ENTERPRISE_ID, OnboardingStepType.DID)).thenReturn(null);
+
+        onboardingService.execute(ENTERPRISE_ID, OnboardingStepType.DID, false, () -> CompletableFuture.completedFuture(false));
+
+        ArgumentCaptor<OnboardingStep> saved = ArgumentCaptor.forClass(OnboardingStep.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(OnboardingStepStatus.FAILED);
+    }
+
+    private static OnboardingStep step(long id, OnboardingStepType type, OnboardingStepStatus status, int attempts) {
+        return OnboardingStep.builder()
+                .id(id)
+                .enterpriseId(ENTERPRISE_ID)
+                .step(type)
+                .status(status)
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.operation;
+
+import com.smartsense.gaiax.config.AsyncSettings;
+import com.smartsense.gaiax.dao.entity.AsyncOperation;
+import com.smartsense.gaiax.dao.repository.AsyncOperationRepository;
+import com.smartsense.gaiax.dto.OperationStatus;
+import com.smartsense.gaiax.exception.DownstreamUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AsyncOperationServiceTest {
+
+    private AsyncOperationRepository repository;
+
+    private AsyncOperationService asyncOperationService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AsyncOperationRepository.class);
+        when(repository.save(any(AsyncOperation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AsyncSettings settings = new AsyncSettings();
+        settings.setThreads(1);
+        settings.setQueueCapacity(1);
+        asyncOperationService = new AsyncOperationService(repository, settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        asyncOperationService.destroy();
+    }
+
+    @Test
+    void requestIsRefusedWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Executor executor = asyncOperationService.getExecutor();
+        //one running, one queued
+        executor.execute(() -> await(release));
+        executor.execute(() -> {
+        });
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            assertThatThrownBy(() -> CompletableFuture.runAsync(() -> {
+            }, executor)).isInstanceOf(DownstreamUnavailableException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void acceptedWorkContinuesWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Executor executor = asyncOperationService.getExecutor();
+        executor.execute(() -> await(release));
+        executor.execute(() -> {
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+
+        //not a request thread, e.g. the completion of a previous step
+        executor.execute(() -> ran.set(true));
+        release.countDown();
+
+        assertThat(ran).isTrue();
+    }
+
+    @Test
+    void completionOnlyUpdatesRunningOperation() {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        AsyncOperation operation = asyncOperationService.track(3, "test", future);
+
+        future.complete(42L);
+
+        verify(repository).complete(eq(operation.getId()), eq(42L), any(), eq(OperationStatus.RUNNING), eq(OperationStatus.COMPLETED));
+        verify(repository, never()).findById(any());
+        verify(repository, times(1)).save(any(AsyncOperation.class));
+    }
+
+    @Test
+    void failureOnlyUpdatesRunningOperation() {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        AsyncOperation operation = asyncOperationService.track(3, "test", future);
+
+        future.completeExceptionally(new IllegalStateException("boom"));
+
+        verify(repository).fail(eq(operation.getId()), eq("boom"), any(), eq(OperationStatus.RUNNING), eq(OperationStatus.FAILED));
+        verify(repository, times(1)).save(any(AsyncOperation.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
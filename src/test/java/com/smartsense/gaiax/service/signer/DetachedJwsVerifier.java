@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import foundation.identity.jsonld.JsonLDObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifier of JsonWebSignature2020 proofs for tests, written against RFC 7797 and the Gaia-X proof format and not
+ * against {@link JsonWebSignature2020}, so a bug in the signer is not mirrored by the verifier.
+ */
+final class DetachedJwsVerifier {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private DetachedJwsVerifier() {
+    }
+
+    /**
+     * Verify the proof of a signed document.
+     *
+     * @param signed         the signed document
+     * @param publicKey      the public key of the verification method
+     * @param documentLoader the document loader
+     * @return true if the detached JWS signs the canonical form of the document without proof
+     */
+    @SuppressWarnings("unchecked")
+    static boolean verify(Map<String, Object> signed, PublicKey publicKey, DocumentLoader documentLoader) throws Exception {
+        Map<String, Object> proof = (Map<String, Object>) signed.get("proof");
+        String[] jws = ((String) proof.get("jws")).split("\\.", -1);
+        if (jws.length != 3 || !jws[1].isEmpty()) {
+            //not a detached JWS
+            return false;
+        }
+        Map<String, Object> header = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(jws[0]), Map.class);
+        if (!"PS256".equals(header.get("alg")) || !Boolean.FALSE.equals(header.get("b64")) || !List.of("b64").equals(header.get("crit"))) {
+            return false;
+        }
+
+        Map<String, Object> unsigned = new LinkedHashMap<>(signed);
+        unsigned.remove("proof");
+        JsonLDObject jsonLDObject = JsonLDObject.fromJsonObject(unsigned);
+        jsonLDObject.setDocumentLoader(documentLoader);
+        String canonical = jsonLDObject.normalize("urdna2015");
+        String payload = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8)));
+
+        //b64=false, the signing input is the encoded header, a dot and the unencoded payload
+        Signature verifier = Signature.getInstance("RSASSA-PSS");
+        verifier.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
+        verifier.initVerify(publicKey);
+        verifier.update((jws[0] + "." + payload).getBytes(StandardCharsets.US_ASCII));
+        return verifier.verify(Base64.getUrlDecoder().decode(jws[2]));
+    }
+}
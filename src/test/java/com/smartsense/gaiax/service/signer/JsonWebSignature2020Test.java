@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdErrorCode;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.smartsense.gaiax.exception.BadDataException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonWebSignature2020Test {
+
+    private static final String ISSUER = "did:web:tenant.example.com";
+
+    private static final String VERIFICATION_METHOD = ISSUER + "#JWK2020-RSA";
+
+    //contexts are embedded, the test must not load anything remote
+    private static final DocumentLoader OFFLINE_LOADER = (url, options) -> {
+        throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Remote context " + url + " is not available in tests");
+    };
+
+    private static KeyPair keyPair;
+
+    private static KeyPair otherKeyPair;
+
+    private final JsonWebSignature2020 jsonWebSignature2020 = new JsonWebSignature2020(OFFLINE_LOADER);
+
+    @BeforeAll
+    static void createKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        otherKeyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    void signedCredentialVerifies() throws Exception {
+        Map<String, Object> signed = jsonWebSignature2020.sign(credential("Tenant"), keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        Map<String, Object> proof = (Map<String, Object>) signed.get("proof");
+        assertThat(proof).containsEntry("type", "JsonWebSignature2020")
+                .containsEntry("proofPurpose", "assertionMethod")
+                .containsEntry("verificationMethod", VERIFICATION_METHOD)
+                .containsKey("created");
+        assertThat((String) proof.get("jws")).contains("..");
+        assertThat(DetachedJwsVerifier.verify(signed, keyPair.getPublic(), OFFLINE_LOADER)).isTrue();
+    }
+
+    @Test
+    void tamperedCredentialDoesNotVerify() throws Exception {
+        Map<String, Object> signed = jsonWebSignature2020.sign(credential("Tenant"), keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        Map<String, Object> tampered = new LinkedHashMap<>(signed);
+        tampered.put("credentialSubject", credential("Other tenant").get("credentialSubject"));
+
+        assertThat(DetachedJwsVerifier.verify(tampered, keyPair.getPublic(), OFFLINE_LOADER)).isFalse();
+    }
+
+    @Test
+    void credentialDoesNotVerifyWithOtherKey() throws Exception {
+        Map<String, Object> signed = jsonWebSignature2020.sign(credential("Tenant"), keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        assertThat(DetachedJwsVerifier.verify(signed, otherKeyPair.getPublic(), OFFLINE_LOADER)).isFalse();
+    }
+
+    @Test
+    void signatureCoversCanonicalFormNotKeyOrder() throws Exception {
+        Map<String, Object> signed = jsonWebSignature2020.sign(credential("Tenant"), keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        List<String> keys = List.copyOf(signed.keySet());
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            reordered.put(keys.get(i), signed.get(keys.get(i)));
+        }
+
+        assertThat(DetachedJwsVerifier.verify(reordered, keyPair.getPublic(), OFFLINE_LOADER)).isTrue();
+    }
+
+    @Test
+    void existingProofIsReplaced() throws Exception {
+        Map<String, Object> signed = jsonWebSignature2020.sign(credential("Tenant"), otherKeyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        Map<String, Object> resigned = jsonWebSignature2020.sign(signed, keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        assertThat(DetachedJwsVerifier.verify(resigned, keyPair.getPublic(), OFFLINE_LOADER)).isTrue();
+    }
+
+    @Test
+    void signedPresentationOfSignedCredentialVerifies() throws Exception {
+        Map<String, Object> vc = jsonWebSignature2020.sign(credential("Tenant"), keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+        Map<String, Object> presentation = new LinkedHashMap<>();
+        presentation.put("@context", context());
+        presentation.put("type", List.of("VerifiablePresentation"));
+        presentation.put("holder", ISSUER);
+        presentation.put("verifiableCredential", List.of(vc));
+
+        Map<String, Object> vp = jsonWebSignature2020.sign(presentation, keyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod");
+
+        assertThat(DetachedJwsVerifier.verify(vp, keyPair.getPublic(), OFFLINE_LOADER)).isTrue();
+        Map<String, Object> embedded = ((List<Map<String, Object>>) vp.get("verifiableCredential")).get(0);
+        assertThat(DetachedJwsVerifier.verify(embedded, keyPair.getPublic(), OFFLINE_LOADER)).isTrue();
+    }
+
+    @Test
+    void nonRsaKeyIsRejected() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair ecKeyPair = generator.generateKeyPair();
+
+        assertThatThrownBy(() -> jsonWebSignature2020.sign(credential("Tenant"), ecKeyPair.getPrivate(), VERIFICATION_METHOD, "assertionMethod"))
+                .isInstanceOf(BadDataException.class);
+    }
+
+    private static Map<String, Object> credential(String name) {
+        Map<String, Object> subject = new LinkedHashMap<>();
+        subject.put("id", ISSUER);
+        subject.put("name", name);
+        Map<String, Object> credential = new LinkedHashMap<>();
+        credential.put("@context", context());
+        credential.put("id", "https://tenant.example.com/.well-known/participant.json");
+        credential.put("type", List.of("VerifiableCredential"));
+        credential.put("issuer", ISSUER);
+        credential.put("issuanceDate", "2023-06-01T00:00:00.000Z");
+        credential.put("credentialSubject", subject);
+        return credential;
+    }
+
+    static Map<String, Object> context() {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("@vocab", "https://example.com/vocab#");
+        context.put("id", "@id");
+        context.put("type", "@type");
+        return context;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsense.gaiax.config.SignerSettings;
+import com.smartsense.gaiax.service.jsonld.CachingDocumentLoader;
+import com.smartsense.gaiax.service.key.SigningKeyCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class LocalCredentialSignerTest {
+
+    private static final long ENTERPRISE_ID = 3;
+
+    private static final String SUB_DOMAIN = "tenant.example.com";
+
+    private static final String DID = "did:web:" + SUB_DOMAIN;
+
+    //stands in for the remote contexts, the test checks the signature round trip and not the vocabulary
+    private static final String STUB_CONTEXT = "{\"@context\":{\"@vocab\":\"https://example.com/vocab#\",\"id\":\"@id\",\"type\":\"@type\"}}";
+
+    private static KeyPair keyPair;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CachingDocumentLoader documentLoader;
+
+    private SigningKeyCache signingKeyCache;
+
+    private LocalCredentialSigner localCredentialSigner;
+
+    @BeforeAll
+    static void createKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        documentLoader = mock(CachingDocumentLoader.class);
+        when(documentLoader.loadDocument(any(), any())).thenAnswer(invocation -> JsonDocument.of(new ByteArrayInputStream(STUB_CONTEXT.getBytes(StandardCharsets.UTF_8))));
+        signingKeyCache = mock(SigningKeyCache.class);
+        when(signingKeyCache.get(ENTERPRISE_ID, CredentialSigner.privateKeyKey(ENTERPRISE_ID, SUB_DOMAIN))).thenReturn(keyPair.getPrivate());
+        localCredentialSigner = new LocalCredentialSigner(signingKeyCache, objectMapper, new SignerSettings(), documentLoader);
+    }
+
+    @Test
+    void labelLevelCredentialVerifies() throws Exception {
+        Map<String, Object> labelLevelVCs = new LinkedHashMap<>();
+        labelLevelVCs.put("vcs", Map.of("labelLevel", labelLevel()));
+        labelLevelVCs.put("verificationMethod", DID);
+
+        String signed = localCredentialSigner.signLabelLevel(ENTERPRISE_ID, SUB_DOMAIN, labelLevelVCs);
+
+        Map<String, Object> credential = objectMapper.readValue(signed, Map.class);
+        assertThat((Map<String, Object>) credential.get("proof")).containsEntry("verificationMethod", DID + "#JWK2020-RSA");
+        assertThat(DetachedJwsVerifier.verify(credential, keyPair.getPublic(), documentLoader)).isTrue();
+    }
+
+    @Test
+    void presentationVerifies() throws Exception {
+        Map<String, Object> claim = objectMapper.readValue(localCredentialSigner.signLabelLevel(ENTERPRISE_ID, SUB_DOMAIN,
+                Map.of("vcs", Map.of("labelLevel", labelLevel()), "verificationMethod", DID)), Map.class);
+
+        Map<String, Object> presentation = localCredentialSigner.createVP(ENTERPRISE_ID, SUB_DOMAIN, DID, List.of(claim));
+
+        assertThat(presentation).containsEntry("holder", DID);
+        assertThat((Map<String, Object>) presentation.get("proof")).containsEntry("verificationMethod", DID + "#JWK2020-RSA");
+        assertThat(DetachedJwsVerifier.verify(presentation, keyPair.getPublic(), documentLoader)).isTrue();
+        //a serialized and parsed presentation, as the verifier receives it, verifies as well
+        Map<String, Object> received = objectMapper.readValue(objectMapper.writeValueAsString(presentation), Map.class);
+        assertThat(DetachedJwsVerifier.verify(received, keyPair.getPublic(), documentLoader)).isTrue();
+    }
+
+    @Test
+    void serviceOfferingCredentialVerifies() throws Exception {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "Cold storage");
+        data.put("fileName", "coldstorage.json");
+        data.put("policyUrl", "https://" + SUB_DOMAIN + "/policy.json");
+        data.put("termsAndConditionsUrl", "https://" + SUB_DOMAIN + "/terms");
+        data.put("termsAndConditionsHash", "abc");
+
+        Map<String, Object> verifiableCredential = localCredentialSigner.createVC(ENTERPRISE_ID, SUB_DOMAIN, CredentialSigner.SERVICE_OFFERING, data);
+
+        //same structure as the VC of the remote signer, which the VP creation reads
+        Map<String, Object> selfDescription = (Map<String, Object>) verifiableCredential.get("selfDescriptionCredential");
+        Map<String, Object> credential = ((List<Map<String, Object>>) selfDescription.get("verifiableCredential")).get(0);
+        assertThat(credential).containsEntry("id", "https://" + SUB_DOMAIN + "/.well-known/coldstorage.json")
+                .containsEntry("issuer", DID);
+        assertThat((Map<String, Object>) credential.get("credentialSubject")).containsEntry("type", "gx:ServiceOffering")
+                .containsEntry("gx:name", "Cold storage");
+        assertThat((Map<String, Object>) credential.get("proof")).containsEntry("verificationMethod", DID + "#JWK2020-RSA");
+        assertThat(DetachedJwsVerifier.verify(credential, keyPair.getPublic(), documentLoader)).isTrue();
+        verify(signingKeyCache).get(ENTERPRISE_ID, CredentialSigner.privateKeyKey(ENTERPRISE_ID, SUB_DOMAIN));
+    }
+
+    private static Map<String, Object> labelLevel() {
+        Map<String, Object> subject = new LinkedHashMap<>();
+        subject.put("id", "https://" + SUB_DOMAIN + "/.well-known/labelLevel.json#subject");
+        subject.put("labelLevel", "L1");
+        Map<String, Object> labelLevel = new LinkedHashMap<>();
+        labelLevel.put("@context", List.of("https://www.w3.org/2018/credentials/v1", "https://w3id.org/security/suites/jws-2020/v1"));
+        labelLevel.put("id", "https://" + SUB_DOMAIN + "/.well-known/labelLevel.json");
+        labelLevel.put("type", List.of("VerifiableCredential"));
+        labelLevel.put("issuer", DID);
+        labelLevel.put("issuanceDate", "2023-06-01T00:00:00.000Z");
+        labelLevel.put("credentialSubject", subject);
+        return labelLevel;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.signer;
+
+import com.apicatalog.jsonld.JsonLdError;
+import com.apicatalog.jsonld.JsonLdErrorCode;
+import com.apicatalog.jsonld.loader.DocumentLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsense.gaiax.client.SignerClient;
+import com.smartsense.gaiax.config.CertificateSettings;
+import com.smartsense.gaiax.config.SignerSettings;
+import com.smartsense.gaiax.dao.entity.Enterprise;
+import com.smartsense.gaiax.dao.repository.EnterpriseCredentialRepository;
+import com.smartsense.gaiax.dao.repository.EnterpriseRepository;
+import com.smartsense.gaiax.service.key.SigningKeyCache;
+import com.smartsense.gaiax.service.ocm.OcmService;
+import com.smartsense.gaiax.service.storage.ObjectStore;
+import com.smartsense.gaiax.service.wellknown.WellKnownFileCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SignerServiceTest {
+
+    private static final long ENTERPRISE_ID = 11;
+
+    private static final String SUB_DOMAIN = "tenant.example.com";
+
+    private static final DocumentLoader OFFLINE_LOADER = (url, options) -> {
+        throw new JsonLdError(JsonLdErrorCode.LOADING_DOCUMENT_FAILED, "Remote context " + url + " is not available in tests");
+    };
+
+    private static KeyPair tenantKeyPair;
+
+    private static KeyPair otherTenantKeyPair;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SignerClient signerClient;
+
+    private ObjectStore objectStore;
+
+    private SignerService signerService;
+
+    @BeforeAll
+    static void createKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        tenantKeyPair = generator.generateKeyPair();
+        otherTenantKeyPair = generator.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() {
+        EnterpriseRepository enterpriseRepository = mock(EnterpriseRepository.class);
+        when(enterpriseRepository.findById(ENTERPRISE_ID)).thenReturn(Optional.of(Enterprise.builder().id(ENTERPRISE_ID).subDomainName(SUB_DOMAIN).build()));
+        SigningKeyCache signingKeyCache = mock(SigningKeyCache.class);
+        when(signingKeyCache.get(ENTERPRISE_ID, CredentialSigner.privateKeyKey(ENTERPRISE_ID, SUB_DOMAIN))).thenReturn(tenantKeyPair.getPrivate());
+        CertificateSettings certificateSettings = new CertificateSettings();
+        certificateSettings.setWildcard(true);
+        signerClient = mock(SignerClient.class);
+        objectStore = mock(ObjectStore.class);
+        signerService = new SignerService(enterpriseRepository, signerClient, objectStore, objectMapper, mock(EnterpriseCredentialRepository.class),
+                mock(OcmService.class), mock(WellKnownFileCache.class), certificateSettings, new SignerSettings(), signingKeyCache, mock(CredentialSigner.class));
+    }
+
+    @Test
+    void wildcardDidPublishesTenantSigningKey() throws Exception {
+        assertThat(signerService.createDid(ENTERPRISE_ID)).isTrue();
+        verifyNoInteractions(signerClient);
+        Map<String, Object> did = publishedDid();
+
+        //a credential signed with the tenant key, as the local and remote signer do
+        Map<String, Object> signed = new JsonWebSignature2020(OFFLINE_LOADER).sign(credential(), tenantKeyPair.getPrivate(), "did:web:" + SUB_DOMAIN + "#JWK2020-RSA", "assertionMethod");
+
+        String verificationMethodId = (String) ((Map<String, Object>) signed.get("proof")).get("verificationMethod");
+        Map<String, Object> verificationMethod = resolve(did, verificationMethodId);
+        assertThat(verificationMethod).doesNotContainKey("x5u");
+        assertThat((List<String>) did.get("assertionMethod")).contains(verificationMethodId);
+        assertThat(DetachedJwsVerifier.verify(signed, toPublicKey((Map<String, Object>) verificationMethod.get("publicKeyJwk")), OFFLINE_LOADER)).isTrue();
+    }
+
+    @Test
+    void wildcardDidDoesNotVerifyOtherTenantKey() throws Exception {
+        signerService.createDid(ENTERPRISE_ID);
+        Map<String, Object> did = publishedDid();
+
+        Map<String, Object> signed = new JsonWebSignature2020(OFFLINE_LOADER).sign(credential(), otherTenantKeyPair.getPrivate(), "did:web:" + SUB_DOMAIN + "#JWK2020-RSA", "assertionMethod");
+
+        Map<String, Object> verificationMethod = resolve(did, "did:web:" + SUB_DOMAIN + "#JWK2020-RSA");
+        assertThat(DetachedJwsVerifier.verify(signed, toPublicKey((Map<String, Object>) verificationMethod.get("publicKeyJwk")), OFFLINE_LOADER)).isFalse();
+    }
+
+    private Map<String, Object> publishedDid() throws Exception {
+        ArgumentCaptor<byte[]> content = ArgumentCaptor.forClass(byte[].class);
+        verify(objectStore).put(eq(ENTERPRISE_ID + "/did.json"), content.capture(), any());
+        Map<String, Object> did = objectMapper.readValue(content.getValue(), Map.class);
+        assertThat(did).containsEntry("id", "did:web:" + SUB_DOMAIN);
+        return did;
+    }
+
+    private static Map<String, Object> resolve(Map<String, Object> did, String verificationMethodId) {
+        return ((List<Map<String, Object>>) did.get("verificationMethod")).stream()
+                .filter(method -> verificationMethodId.equals(method.get("id")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Verification method " + verificationMethodId + " is not published"));
+    }
+
+    private static PublicKey toPublicKey(Map<String, Object> jwk) throws Exception {
+        assertThat(jwk).containsEntry("kty", "RSA");
+        BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("n")));
+        BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("e")));
+        return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+    }
+
+    private static Map<String, Object> credential() {
+        Map<String, Object> subject = new LinkedHashMap<>();
+        subject.put("id", "did:web:" + SUB_DOMAIN);
+        subject.put("name", "Tenant");
+        Map<String, Object> credential = new LinkedHashMap<>();
+        credential.put("@context", JsonWebSignature2020Test.context());
+        credential.put("type", List.of("VerifiableCredential"));
+        credential.put("issuer", "did:web:" + SUB_DOMAIN);
+        credential.put("issuanceDate", "2023-06-01T00:00:00.000Z");
+        credential.put("credentialSubject", subject);
+        return credential;
+    }
+}
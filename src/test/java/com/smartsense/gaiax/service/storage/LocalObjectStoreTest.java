@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import com.smartsense.gaiax.config.StorageSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalObjectStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalObjectStore objectStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StorageSettings storageSettings = new StorageSettings();
+        storageSettings.setType("local");
+        storageSettings.setLocalPath(root.toString());
+        storageSettings.setPublicUrl("https://gaiax.example.com");
+        storageSettings.setSigningKey("storage-signing-key");
+        objectStore = new LocalObjectStore(storageSettings, new ObjectUrlSigner(storageSettings));
+    }
+
+    @Test
+    void putIfAbsentDoesNotReplace() throws Exception {
+        assertThat(objectStore.putIfAbsent("acme/account.url", bytes("first"), "text/plain")).isTrue();
+        assertThat(objectStore.putIfAbsent("acme/account.url", bytes("second"), "text/plain")).isFalse();
+
+        assertThat(new String(objectStore.getBytes("acme/account.url"), StandardCharsets.UTF_8)).isEqualTo("first");
+    }
+
+    @Test
+    void concurrentPutIfAbsentHasOneWinner() throws Exception {
+        int writers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                String content = "key-" + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return objectStore.putIfAbsent("acme/account.key", bytes(content), ObjectStore.PEM_CONTENT_TYPE);
+                }));
+            }
+            start.countDown();
+
+            int winner = -1;
+            for (int i = 0; i < writers; i++) {
+                if (results.get(i).get()) {
+                    assertThat(winner).as("only one writer may win").isEqualTo(-1);
+                    winner = i;
+                }
+            }
+            assertThat(winner).isNotEqualTo(-1);
+            assertThat(new String(objectStore.getBytes("acme/account.key"), StandardCharsets.UTF_8)).isEqualTo("key-" + winner);
+        } finally {
+            executor.shutdownNow();
+        }
+        //no temp files are left behind
+        try (var files = Files.list(root.resolve("acme"))) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023 | smartSense
+ */
+
+package com.smartsense.gaiax.service.storage;
+
+import com.smartsense.gaiax.config.StorageSettings;
+import com.smartsense.gaiax.exception.BadDataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ObjectUrlSignerTest {
+
+    private StorageSettings storageSettings;
+
+    @BeforeEach
+    void setUp() {
+        storageSettings = new StorageSettings();
+        storageSettings.setType("local");
+        storageSettings.setPublicUrl("https://gaiax.example.com");
+        storageSettings.setSigningKey("storage-signing-key");
+    }
+
+    @Test
+    void signedUrlVerifies() {
+        ObjectUrlSigner signer = new ObjectUrlSigner(storageSettings);
+        UriComponents url = UriComponentsBuilder.fromHttpUrl(signer.sign("1/did.json")).build();
+
+        assertThat(url.getPath()).isEqualTo(ObjectUrlSigner.OBJECT_PATH);
+        long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+        String signature = url.getQueryParams().getFirst("signature");
+        assertThat(signer.verify("1/did.json", expires, signature)).isTrue();
+        assertThat(signer.verify("2/did.json", expires, signature)).isFalse();
+        assertThat(signer.verify("1/did.json", expires + 1, signature)).isFalse();
+    }
+
+    @Test
+    void expiredUrlIsRejected() {
+        storageSettings.setPreSignedUrlExpiry(-10);
+        ObjectUrlSigner signer = new ObjectUrlSigner(storageSettings);
+        UriComponents url = UriComponentsBuilder.fromHttpUrl(signer.sign("1/did.json")).build();
+
+        assertThat(signer.verify("1/did.json", Long.parseLong(url.getQueryParams().getFirst("expires")), url.getQueryParams().getFirst("signature"))).isFalse();
+    }
+
+    @Test
+    void signingKeyIsRequired() {
+        storageSettings.setSigningKey("");
+
+        assertThatThrownBy(() -> new ObjectUrlSigner(storageSettings)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void privateKeysAreNeverSigned() {
+        ObjectUrlSigner signer = new ObjectUrlSigner(storageSettings);
+
+        assertThatThrownBy(() -> signer.sign("1/pkcs8_tenant.key")).isInstanceOf(BadDataException.class);
+        assertThatThrownBy(() -> signer.sign("acme/account.key")).isInstanceOf(BadDataException.class);
+        assertThatThrownBy(() -> signer.sign("wildcard/privkey.key")).isInstanceOf(BadDataException.class);
+    }
+
+    @Test
+    void privateKeyDetectionSurvivesPathTricks() {
+        assertThat(ObjectStore.isPrivateKey("1/tenant.key")).isTrue();
+        assertThat(ObjectStore.isPrivateKey("1/tenant.KEY")).isTrue();
+        assertThat(ObjectStore.isPrivateKey("1/pkcs8_tenant.key/.")).isTrue();
+        assertThat(ObjectStore.isPrivateKey("1/pkcs8_tenant.key/")).isTrue();
+        assertThat(ObjectStore.isPrivateKey("1/x/../pkcs8_tenant.key")).isTrue();
+        assertThat(ObjectStore.isPrivateKey("1/did.json")).isFalse();
+        assertThat(ObjectStore.isPrivateKey("1/x509CertificateChain.pem")).isFalse();
+    }
+}